@@ -0,0 +1,103 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auswertung von 2000 generierten Formeln mit wiederholten Teilausdrücken,
+ * einmal als Baum kompiliert ({@code plain}) und einmal nach dem
+ * {@link AstInterner} mit gemeinsamen Teilausdrücken ({@code shared}).
+ * {@code intern} misst das Aufbauen und Zusammenfassen der Bäume selbst.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonSubexpressionBenchmark {
+
+    static final int FORMULAS = 2000;
+
+    @State(Scope.Thread)
+    public static class Programs {
+        final List<AstNode> trees = new ArrayList<>();
+        final List<RpnProgram> plain = new ArrayList<>();
+        final List<RpnProgram> shared = new ArrayList<>();
+        final RpnInterpreter interpreter = new RpnInterpreter();
+        final double[] values = new double[64];
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            Tokenizer tokenizer = new Tokenizer();
+            ShuntingYard shuntingYard = new ShuntingYard();
+            AstBuilder builder = new AstBuilder();
+            RpnCompiler compiler = new RpnCompiler();
+            AstInterner interner = new AstInterner();
+            for (String expression : generate(FORMULAS, new Random(42))) {
+                AstNode tree = builder.build(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+                trees.add(tree);
+                plain.add(compiler.compile(tree));
+                shared.add(compiler.compile(interner.intern(tree)));
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 1.5 + i;
+            }
+        }
+    }
+
+    /**
+     * Erzeugt Formeln wie aus einem Generator: einige Grundterme, die in jeder
+     * Formel mehrfach wiederverwendet werden.
+     */
+    static List<String> generate(int count, Random random) {
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String base = "(x" + random.nextInt(4) + " * " + (1 + random.nextInt(9)) + " + y" + random.nextInt(4) + ")";
+            String square = "(" + base + " ^ 2)";
+            String term = "(" + square + " - " + base + " / " + (2 + random.nextInt(5)) + ")";
+            result.add(term + " * " + term + " + " + square + " / (" + base + " + 100)");
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double plain(Programs state) {
+        double sum = 0;
+        for (RpnProgram program : state.plain) {
+            sum += state.interpreter.execute(program, state.values);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double shared(Programs state) {
+        double sum = 0;
+        for (RpnProgram program : state.shared) {
+            sum += state.interpreter.execute(program, state.values);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public AstInterner intern(Programs state) {
+        AstInterner interner = new AstInterner();
+        for (AstNode tree : state.trees) {
+            interner.intern(tree);
+        }
+        return interner;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten ungültiger Eingaben: dieselben 16 fehlerhaften Ausdrücke über die
+ * werfende {@link BufferPipeline}, über {@link EvaluationResult} und nur
+ * geprüft ({@link ShuntingYard#validate(TokenBuffer, EvaluationResult)}).
+ * {@code valid} wertet zum Vergleich 16 gültige Ausdrücke gleicher Länge aus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final String[] INVALID = {
+            "(1 + 2", "1 + 2)", "[1 + 2)", "3 $ 4", "1 + -", "1 +", "* 2", "1 2",
+            "max 1", "max(1)", "max(1,,2)", "1, 2", "1 / 0", "2 * (3 + 4", "min(1, 2", "-."
+    };
+
+    private static final String[] VALID = {
+            "(1 + 2)", "1 + 2", "[1 + 2]", "3 * 4", "1 + -1", "1 + 1", "2 * 2", "1 ^ 2",
+            "max(1, 0)", "abs(1)", "max(1, 2)", "1 - 2", "1 / 2", "2 * (3 + 4)", "min(1, 2)", "-.5"
+    };
+
+    @State(Scope.Thread)
+    public static class Pipeline {
+        final BufferPipeline pipeline = new BufferPipeline(new PipelineMetrics(false));
+        final EvaluationResult result = new EvaluationResult();
+        final Map<String, Double> variables = Collections.emptyMap();
+    }
+
+    @Benchmark
+    public int throwing(Pipeline state) {
+        int failures = 0;
+        for (String expression : INVALID) {
+            try {
+                state.pipeline.evaluate(expression, state.variables);
+            } catch (Exception e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public int result(Pipeline state) {
+        int failures = 0;
+        for (String expression : INVALID) {
+            if (!state.pipeline.evaluate(expression, state.variables, state.result)) {
+                failures += state.result.offset();
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public int validate(Pipeline state) {
+        int failures = 0;
+        for (String expression : INVALID) {
+            if (!state.pipeline.validate(expression, state.result)) {
+                failures += state.result.offset();
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public double valid(Pipeline state) {
+        double sum = 0;
+        for (String expression : VALID) {
+            if (state.pipeline.evaluate(expression, state.variables, state.result)) {
+                sum += state.result.value();
+            }
+        }
+        return sum;
+    }
+}
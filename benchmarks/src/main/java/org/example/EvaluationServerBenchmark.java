@@ -0,0 +1,95 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last auf den {@link EvaluationServer} über localhost: 16 Clients senden
+ * gleichzeitig {@code POST /evaluate}. Gemessen wird die Latenz pro Anfrage
+ * ({@link Mode#SampleTime} liefert die Perzentile, der Durchsatz ergibt sich
+ * aus der Anzahl der Samples). Mit kleinem {@code maxQueued} wird ein Teil
+ * der Anfragen mit 429 abgewiesen; {@code status} zählt das nicht, die
+ * Abweisungen sind aber in der kürzeren Latenz zu sehen.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(16)
+public class EvaluationServerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        /** Gleichzeitig ausgewertete Anfragen. */
+        @Param({"4"})
+        public int maxConcurrent;
+
+        /** Wartende Anfragen, bevor mit 429 abgewiesen wird. */
+        @Param({"2", "256"})
+        public int maxQueued;
+
+        EvaluationServer server;
+        HttpClient client;
+        URI uri;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            server = new EvaluationServer(0, maxConcurrent, maxQueued);
+            client = HttpClient.newHttpClient();
+            uri = URI.create("http://localhost:" + server.getPort() + "/evaluate");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+        final HttpRequest[] requests = new HttpRequest[256];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Server server) {
+            Random random = new Random(42);
+            for (int i = 0; i < requests.length; i++) {
+                String body = "{\"expression\": \"(" + random.nextInt(1000) + " + x) * " + (1 + random.nextInt(50))
+                        + " / [y - 2.5] ^ 2\", \"variables\": {\"x\": " + random.nextDouble()
+                        + ", \"y\": " + random.nextInt(9) + "}}";
+                requests[i] = HttpRequest.newBuilder(server.uri).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            }
+        }
+    }
+
+    @Benchmark
+    public int evaluate(Server server, Requests requests) throws Exception {
+        HttpRequest request = requests.requests[requests.next++ & (requests.requests.length - 1)];
+        HttpResponse<String> response = server.client.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        if (status != 200 && status != 429) {
+            throw new IllegalStateException("Unerwarteter Status " + status + ": " + response.body());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare Ausdrücke für die Benchmarks.
+ *
+ * <p>Ein Ausdruck besteht aus Gruppen {@code a op b}, die jeweils
+ * {@code depth}-fach geklammert sind, z.B. für Tiefe 2 und gemischte
+ * Klammern {@code ([12 * 3.5]) + ([7 - 1])}. Zwischen den Gruppen stehen
+ * +, - oder *; Division kommt nur mit einer Zahl ≥ 1 als Divisor vor,
+ * sodass kein Ausdruck durch Null teilt. Die Anzahl der Tokens ist
+ * mindestens {@code tokens} und wird um höchstens eine Gruppe
+ * überschritten; die Tiefe wird für kurze Ausdrücke begrenzt.</p>
+ */
+final class ExpressionGenerator {
+
+    /** Art der Klammern. */
+    enum Brackets { ROUND, SQUARE, MIXED }
+
+    private static final char[] INNER = {'+', '-', '*', '/'};
+    private static final char[] OUTER = {'+', '-', '*'};
+
+    private ExpressionGenerator() {
+    }
+
+    /**
+     * @param tokens   gewünschte Anzahl der Tokens
+     * @param depth    Verschachtelungstiefe jeder Gruppe
+     * @param brackets Art der Klammern
+     * @param seed     Startwert des Zufallsgenerators
+     * @return der Ausdruck
+     */
+    static String generate(int tokens, int depth, Brackets brackets, long seed) {
+        Random random = new Random(seed);
+        int effectiveDepth = Math.max(0, Math.min(depth, (tokens - 3) / 2));
+        StringBuilder out = new StringBuilder(tokens * 4);
+        int count = 0;
+        while (count < tokens) {
+            if (count > 0) {
+                out.append(' ').append(OUTER[random.nextInt(OUTER.length)]).append(' ');
+                count++;
+            }
+            for (int level = 0; level < effectiveDepth; level++) {
+                out.append(open(brackets, level));
+            }
+            number(out, random);
+            out.append(' ').append(INNER[random.nextInt(INNER.length)]).append(' ');
+            number(out, random);
+            for (int level = effectiveDepth - 1; level >= 0; level--) {
+                out.append(close(brackets, level));
+            }
+            count += 3 + 2 * effectiveDepth;
+        }
+        return out.toString();
+    }
+
+    private static void number(StringBuilder out, Random random) {
+        if (random.nextBoolean()) {
+            out.append(1 + random.nextInt(99));
+        } else {
+            out.append(1 + random.nextInt(99)).append('.').append(random.nextInt(100));
+        }
+    }
+
+    private static char open(Brackets brackets, int level) {
+        return brackets == Brackets.ROUND || (brackets == Brackets.MIXED && level % 2 == 0) ? '(' : '[';
+    }
+
+    private static char close(Brackets brackets, int level) {
+        return open(brackets, level) == '(' ? ')' : ']';
+    }
+}
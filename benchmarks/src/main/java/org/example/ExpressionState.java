@@ -0,0 +1,72 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gemeinsamer Zustand der Benchmarks: ein generierter Ausdruck und seine
+ * Zwischenstufen, damit jede Stufe einzeln gemessen werden kann.
+ *
+ * <p>Parameter: {@code tokens} (Länge des Ausdrucks), {@code depth}
+ * (Verschachtelungstiefe jeder Gruppe) und {@code brackets} (runde, eckige
+ * oder gemischte Klammern), siehe {@link ExpressionGenerator}.</p>
+ */
+@State(Scope.Thread)
+public class ExpressionState {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int tokens;
+
+    @Param({"1", "8", "64"})
+    public int depth;
+
+    @Param({"ROUND", "SQUARE", "MIXED"})
+    public String brackets;
+
+    final Tokenizer tokenizer = new Tokenizer();
+    final ShuntingYard shuntingYard = new ShuntingYard();
+    final RpnEvaluator evaluator = new RpnEvaluator();
+    final StreamingEvaluator streamingEvaluator = new StreamingEvaluator();
+
+    String expression;
+    List<Token> tokenList;
+    List<Token> rpnList;
+    List<String> rpnStrings;
+
+    // Wiederverwendete Puffer der allokationsfreien Pfade
+    final TokenBuffer tokenBuffer = new TokenBuffer();
+    final TokenBuffer rpnBuffer = new TokenBuffer();
+    final TokenBuffer scratchBuffer = new TokenBuffer();
+    final DoubleStack stack = new DoubleStack();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        expression = ExpressionGenerator.generate(tokens, depth,
+                ExpressionGenerator.Brackets.valueOf(brackets), 42);
+        tokenList = tokenizer.tokenize(expression);
+        rpnList = shuntingYard.convertToRPN(tokenList);
+        rpnStrings = new ArrayList<>(rpnList.size());
+        for (Token token : rpnList) {
+            rpnStrings.add(token.getValue());
+        }
+        tokenizer.tokenize(expression, tokenBuffer);
+        shuntingYard.convertToRPN(tokenBuffer, rpnBuffer);
+
+        // Beide Pfade müssen dasselbe Ergebnis liefern, sonst misst der Benchmark Unsinn
+        double expected = evaluator.evaluate(rpnStrings);
+        double actual = evaluator.evaluate(rpnBuffer, stack);
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+            throw new IllegalStateException("Unterschiedliche Ergebnisse: " + expected + " != " + actual);
+        }
+        double streamed = streamingEvaluator.evaluate(expression);
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(streamed)) {
+            throw new IllegalStateException("Unterschiedliche Ergebnisse: " + expected + " != " + streamed);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten von {@link PipelineMetrics}: die {@link BufferPipeline} ohne,
+ * mit ausgeschalteter und mit eingeschalteter Messung.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    @Param({"disabled", "enabled"})
+    public String metrics;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnEvaluator evaluator = new RpnEvaluator();
+    private final TokenBuffer tokens = new TokenBuffer();
+    private final TokenBuffer rpn = new TokenBuffer();
+    private final DoubleStack stack = new DoubleStack();
+
+    private BufferPipeline pipeline;
+    private String expression;
+
+    @Setup
+    public void setUp() {
+        pipeline = new BufferPipeline(new PipelineMetrics("enabled".equals(metrics)));
+        expression = ExpressionGenerator.generate(20, 1, ExpressionGenerator.Brackets.MIXED, 42);
+    }
+
+    @Benchmark
+    public double withoutMetrics() throws Exception {
+        tokenizer.tokenize(expression, tokens);
+        shuntingYard.convertToRPN(tokens, rpn);
+        return evaluator.evaluate(rpn, stack);
+    }
+
+    @Benchmark
+    public double pipeline() throws Exception {
+        return pipeline.evaluate(expression);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double pipelineFourThreads() throws Exception {
+        return pipeline.evaluate(expression);
+    }
+}
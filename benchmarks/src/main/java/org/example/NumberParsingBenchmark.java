@@ -0,0 +1,76 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FastDoubleParser} im Vergleich zu {@link Double#parseDouble(String)}
+ * für 1000 Zahlen mit 17 signifikanten Stellen (wie {@code Double.toString}),
+ * sowie der Tokenizer auf einem Ausdruck aus denselben Zahlen ohne Exponent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberParsingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Numbers {
+        final String[] texts = new String[1000];
+        final Tokenizer tokenizer = new Tokenizer();
+        final TokenBuffer buffer = new TokenBuffer();
+        String expression;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < texts.length; i++) {
+                double value = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+                texts[i] = Double.toString(value);
+                out.append(i == 0 ? "" : " + ")
+                        .append(new BigDecimal(value).round(MathContext.DECIMAL64).toPlainString());
+            }
+            expression = out.toString();
+        }
+    }
+
+    @Benchmark
+    public double parseDouble(Numbers numbers) {
+        double sum = 0;
+        for (String text : numbers.texts) {
+            sum += Double.parseDouble(text);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double fastDoubleParser(Numbers numbers) {
+        double sum = 0;
+        for (String text : numbers.texts) {
+            sum += FastDoubleParser.parse(text, 0, text.length());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public TokenBuffer tokenizeLongNumbers(Numbers numbers) {
+        numbers.tokenizer.tokenize(numbers.expression, numbers.buffer);
+        return numbers.buffer;
+    }
+}
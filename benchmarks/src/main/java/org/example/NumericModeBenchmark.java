@@ -0,0 +1,99 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dieselbe RPN-Liste in {@code double} ({@link RpnEvaluator}) und mit dem
+ * {@link ExactEvaluator} in beiden Modi; einmal mit den generierten
+ * Ausdrücken (Dezimalzahlen, große Produkte), einmal mit einer Buchungsliste
+ * aus Ganzzahlen, die vollständig im long-Pfad bleibt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericModeBenchmark {
+
+    private static final ExactEvaluator EXACT = new ExactEvaluator();
+    private static final ExactEvaluator DECIMAL =
+            new ExactEvaluator(ExactEvaluator.Mode.DECIMAL, MathContext.DECIMAL128);
+
+    @Benchmark
+    public double doubleMode(ExpressionState state) {
+        return state.evaluator.evaluate(state.rpnStrings);
+    }
+
+    @Benchmark
+    public BigDecimal exactMode(ExpressionState state) {
+        return EXACT.evaluate(state.rpnStrings);
+    }
+
+    @Benchmark
+    public BigDecimal decimalMode(ExpressionState state) {
+        return DECIMAL.evaluate(state.rpnStrings);
+    }
+
+    @Benchmark
+    public double doubleModeLedger(LedgerState state) {
+        return state.evaluator.evaluate(state.rpnStrings);
+    }
+
+    @Benchmark
+    public BigDecimal exactModeLedger(LedgerState state) {
+        return EXACT.evaluate(state.rpnStrings);
+    }
+
+    @Benchmark
+    public BigDecimal decimalModeLedger(LedgerState state) {
+        return DECIMAL.evaluate(state.rpnStrings);
+    }
+
+    /**
+     * Buchungsliste in Cent, {@code 1999 * 3 + 250 * 12 - ...}: nur Ganzzahlen,
+     * die nie überlaufen, also durchgehend der long-Pfad.
+     */
+    @State(Scope.Thread)
+    public static class LedgerState {
+
+        @Param({"10", "1000", "100000"})
+        public int tokens;
+
+        final RpnEvaluator evaluator = new RpnEvaluator();
+        List<String> rpnStrings;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            Random random = new Random(42);
+            StringBuilder expression = new StringBuilder();
+            for (int count = 0; count < tokens; count += 4) {
+                if (count > 0) {
+                    expression.append(random.nextInt(4) == 0 ? " - " : " + ");
+                }
+                expression.append(1 + random.nextInt(100_000)).append(" * ").append(1 + random.nextInt(100));
+            }
+            rpnStrings = new ArrayList<>();
+            for (Token token : new ShuntingYard().convertToRPN(new Tokenizer().tokenize(expression.toString()))) {
+                rpnStrings.add(token.getValue());
+            }
+        }
+    }
+}
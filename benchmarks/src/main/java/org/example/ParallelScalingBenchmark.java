@@ -0,0 +1,62 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skalierung des {@link ParallelBatchEvaluator}: 100 000 Ausdrücke aus dem
+ * {@link ExpressionGenerator} (je etwa 20 Tokens) mit 1 bis 8 Threads.
+ * Beschleunigung und Effizienz ergeben sich aus dem Verhältnis zu
+ * {@code threads=1}; mehr Threads als Prozessoren messen nur den Overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelScalingBenchmark {
+
+    static final int EXPRESSIONS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+
+        final List<String> expressions = new ArrayList<>(EXPRESSIONS);
+        ParallelBatchEvaluator evaluator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < EXPRESSIONS; i++) {
+                expressions.add(ExpressionGenerator.generate(20, 1, ExpressionGenerator.Brackets.MIXED, i));
+            }
+            evaluator = new ParallelBatchEvaluator(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            evaluator.close();
+        }
+    }
+
+    @Benchmark
+    public ParallelBatchEvaluator.Results evaluate(Batch batch) {
+        return batch.evaluator.evaluate(batch.expressions);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PrattParser} im Vergleich zu Tokenizer + ShuntingYard (mit und ohne
+ * anschließenden {@link AstBuilder}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final AstBuilder BUILDER = new AstBuilder();
+    private static final PrattParser PARSER = new PrattParser();
+
+    @Benchmark
+    public List<Token> tokenizeConvert(ExpressionState state) throws Exception {
+        return state.shuntingYard.convertToRPN(state.tokenizer.tokenize(state.expression));
+    }
+
+    @Benchmark
+    public AstNode tokenizeConvertBuild(ExpressionState state) throws Exception {
+        return BUILDER.build(state.shuntingYard.convertToRPN(state.tokenizer.tokenize(state.expression)));
+    }
+
+    @Benchmark
+    public AstNode pratt(ExpressionState state) throws Exception {
+        return PARSER.parse(state.expression);
+    }
+}
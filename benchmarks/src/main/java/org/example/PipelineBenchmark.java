@@ -0,0 +1,48 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Die ganze Pipeline vom String bis zum Ergebnis: einmal mit Listen wie in
+ * {@code Main}, einmal mit den wiederverwendeten Puffern und einmal in einem
+ * Durchlauf mit dem {@link StreamingEvaluator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Benchmark
+    public double pipelineList(ExpressionState state) throws Exception {
+        List<Token> rpn = state.shuntingYard.convertToRPN(state.tokenizer.tokenize(state.expression));
+        List<String> strings = new ArrayList<>(rpn.size());
+        for (Token token : rpn) {
+            strings.add(token.getValue());
+        }
+        return state.evaluator.evaluate(strings);
+    }
+
+    @Benchmark
+    public double pipelineBuffer(ExpressionState state) throws Exception {
+        state.tokenizer.tokenize(state.expression, state.scratchBuffer);
+        state.shuntingYard.convertToRPN(state.scratchBuffer, state.rpnBuffer);
+        return state.evaluator.evaluate(state.rpnBuffer, state.stack);
+    }
+
+    @Benchmark
+    public double pipelineStreaming(ExpressionState state) throws Exception {
+        return state.streamingEvaluator.evaluate(state.expression);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stufe 3: Auswertung des RPN-Ausdrucks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpnEvaluatorBenchmark {
+
+    @Benchmark
+    public double evaluateList(ExpressionState state) {
+        return state.evaluator.evaluate(state.rpnStrings);
+    }
+
+    @Benchmark
+    public double evaluateBuffer(ExpressionState state) {
+        return state.evaluator.evaluate(state.rpnBuffer, state.stack);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stufe 2: Umwandlung der Tokens in RPN.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShuntingYardBenchmark {
+
+    @Benchmark
+    public List<Token> convertList(ExpressionState state) throws Exception {
+        return state.shuntingYard.convertToRPN(state.tokenList);
+    }
+
+    @Benchmark
+    public TokenBuffer convertBuffer(ExpressionState state) throws Exception {
+        state.shuntingYard.convertToRPN(state.tokenBuffer, state.scratchBuffer);
+        return state.scratchBuffer;
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start mit und ohne {@link ProgramSnapshot}: 200 000 gespeicherte Formeln
+ * (je etwa 20 Tokens) werden entweder neu zerlegt, konvertiert und
+ * kompiliert oder aus der Datei eingeblendet. {@code …AndEvaluate} wertet
+ * danach jede Formel einmal aus (Zeit bis zum ersten vollständigen Durchlauf).
+ *
+ * <p>Gemessen wird kalt ({@link Mode#SingleShotTime} ohne Aufwärmen, eigene
+ * JVM pro Fork), wie nach einem Deploy. Die Datei liegt nach dem Schreiben im
+ * Page-Cache; ein Start direkt von der Platte liest zusätzlich die Datei.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class SnapshotBenchmark {
+
+    static final int FORMULAS = 200_000;
+
+    @State(Scope.Benchmark)
+    public static class Formulas {
+        final String[] texts = new String[FORMULAS];
+        Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            for (int i = 0; i < texts.length; i++) {
+                texts[i] = ExpressionGenerator.generate(20, i % 3, ExpressionGenerator.Brackets.MIXED, i);
+            }
+            file = Files.createTempFile("formeln", ".rpns");
+            ProgramSnapshot.write(file, compileAll(texts));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static List<RpnProgram> compileAll(String[] texts) throws Exception {
+        Tokenizer tokenizer = new Tokenizer();
+        ShuntingYard shuntingYard = new ShuntingYard();
+        RpnCompiler compiler = new RpnCompiler();
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        List<RpnProgram> programs = new ArrayList<>(texts.length);
+        for (String text : texts) {
+            tokenizer.tokenize(text, infix);
+            shuntingYard.convertToRPN(infix, rpn);
+            programs.add(compiler.compile(rpn));
+        }
+        return programs;
+    }
+
+    @Benchmark
+    public List<RpnProgram> parse(Formulas formulas) throws Exception {
+        return compileAll(formulas.texts);
+    }
+
+    @Benchmark
+    public ProgramSnapshot snapshot(Formulas formulas) throws Exception {
+        return ProgramSnapshot.open(formulas.file);
+    }
+
+    @Benchmark
+    public double parseAndEvaluate(Formulas formulas) throws Exception {
+        RpnInterpreter interpreter = new RpnInterpreter();
+        double sum = 0;
+        for (RpnProgram program : compileAll(formulas.texts)) {
+            sum += interpreter.execute(program);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double snapshotAndEvaluate(Formulas formulas) throws Exception {
+        ProgramSnapshot snapshot = ProgramSnapshot.open(formulas.file);
+        RpnInterpreter interpreter = new RpnInterpreter();
+        double[] none = new double[0];
+        double sum = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            sum += interpreter.execute(snapshot, i, none);
+        }
+        return sum;
+    }
+}
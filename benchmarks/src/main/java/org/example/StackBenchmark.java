@@ -0,0 +1,66 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Der generische {@link Stack} mit geboxten Werten im Vergleich zum
+ * primitiven {@link DoubleStack}: {@code size} Werte ablegen und wieder
+ * entnehmen, Zeit pro Operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StackBenchmark {
+
+    private static final int OPERATIONS = 1024;
+
+    @Param({"16", "1024"})
+    public int size;
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS * 2)
+    public double genericStack() {
+        double sum = 0;
+        for (int round = 0; round < OPERATIONS / size; round++) {
+            Stack<Double> stack = new Stack<>();
+            for (int i = 0; i < size; i++) {
+                stack.push(i + 0.5);
+            }
+            while (!stack.isEmpty()) {
+                sum += stack.pop();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS * 2)
+    public double doubleStack() {
+        double sum = 0;
+        for (int round = 0; round < OPERATIONS / size; round++) {
+            DoubleStack stack = new DoubleStack();
+            for (int i = 0; i < size; i++) {
+                stack.push(i + 0.5);
+            }
+            while (!stack.isEmpty()) {
+                sum += stack.pop();
+            }
+        }
+        return sum;
+    }
+}
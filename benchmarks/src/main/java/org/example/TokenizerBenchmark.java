@@ -0,0 +1,34 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stufe 1: Zerlegen des Ausdrucks in Tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Benchmark
+    public List<Token> tokenizeList(ExpressionState state) {
+        return state.tokenizer.tokenize(state.expression);
+    }
+
+    @Benchmark
+    public TokenBuffer tokenizeBuffer(ExpressionState state) {
+        state.tokenizer.tokenize(state.expression, state.scratchBuffer);
+        return state.scratchBuffer;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaltenweise Auswertung einer Formel mit drei Variablen über {@code rows}
+ * Zeilen: skalar mit dem {@link RpnInterpreter} und mit dem
+ * {@link VectorizedEvaluator}. Die Zeit gilt für alle Zeilen eines Aufrufs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorizedEvaluatorBenchmark {
+
+    static final String FORMULA = "(a - 2) / [b + c] * 1.5 + a * b - c / 4";
+
+    @State(Scope.Thread)
+    public static class Columns {
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536", "262144", "1048576"})
+        public int rows;
+
+        RpnProgram program;
+        double[][] columns;
+        double[] output;
+        final RpnInterpreter interpreter = new RpnInterpreter();
+        final VectorizedEvaluator vectorized = new VectorizedEvaluator();
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            if (!VectorizedEvaluator.isAvailable()) {
+                throw new IllegalStateException("jdk.incubator.vector ist nicht geladen.");
+            }
+            program = new RpnCompiler().compile(new ShuntingYard().convertToRPN(new Tokenizer().tokenize(FORMULA)));
+            columns = new double[3][rows];
+            Random random = new Random(rows);
+            for (double[] column : columns) {
+                for (int i = 0; i < rows; i++) {
+                    column[i] = 1 + random.nextDouble();
+                }
+            }
+            output = new double[rows];
+        }
+    }
+
+    @Benchmark
+    public double[] scalar(Columns state) {
+        state.interpreter.executeColumns(state.program, state.columns, state.output);
+        return state.output;
+    }
+
+    @Benchmark
+    public double[] vectorized(Columns state) {
+        state.vectorized.executeColumns(state.program, state.columns, state.output);
+        return state.output;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Baut aus der Ausgabe von {@link ShuntingYard#convertToRPN(List)} einen
+ * abstrakten Syntaxbaum ({@link AstNode}).
+ *
+ * <p>Die RPN-Tokens werden wie beim {@link RpnEvaluator} über einen Stack
+ * abgearbeitet, nur dass statt Zahlen Teilbäume auf dem Stack liegen. Die
+ * Prüfungen und Fehlermeldungen entsprechen daher denen des Evaluators.
+ * Funktionen der {@link OperatorRegistry} werden zu Aufrufknoten
+ * ({@link AstNode#call(String, AstNode...)}) mit so vielen Argumenten, wie
+ * ihre Stelligkeit angibt.</p>
+ */
+public class AstBuilder {
+
+    private final OperatorRegistry registry;
+
+    /**
+     * Erstellt einen Builder mit der {@link OperatorRegistry#standard() Standard-Registry}.
+     */
+    public AstBuilder() {
+        this(OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Builder für die Operatoren und Funktionen der
+     * angegebenen Registry (dieselbe wie beim {@link Tokenizer}).
+     *
+     * @param registry die Registry
+     */
+    public AstBuilder(OperatorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry darf nicht null sein.");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Baut den Syntaxbaum zu einer Liste von Tokens in RPN-Form.
+     *
+     * @param rpnTokens Tokens in RPN-Reihenfolge (z.B. aus {@code convertToRPN})
+     * @return die Wurzel des Syntaxbaums
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Ausdruck ungültig ist
+     * (ungültige Tokens, zu wenige/zu viele Operanden)
+     */
+    public AstNode build(List<Token> rpnTokens) throws RpnEvaluator.RpnEvaluationException {
+        Stack<AstNode> stack = new Stack<>();
+
+        for (Token token : rpnTokens) {
+            String value = token.getValue();
+            switch (token.getType()) {
+                case NUMBER:
+                    // Zahlen schon hier prüfen, damit der Baum nur gültige Blätter enthält
+                    try {
+                        if (Double.isNaN(token.getNumber())) {
+                            FastDoubleParser.parse(value, 0, value.length());
+                        }
+                    } catch (NumberFormatException e) {
+                        throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+                    }
+                    stack.push(new AstNode(value));
+                    break;
+                case VARIABLE:
+                    stack.push(new AstNode(value));
+                    break;
+                case OPERATOR:
+                    if (value.length() != 1 || registry.operator(value.charAt(0)) == null) {
+                        throw new RpnEvaluator.RpnEvaluationException("Unbekannter Operator: " + value);
+                    }
+                    if (stack.size() < 2) {
+                        throw new RpnEvaluator.RpnEvaluationException("Zu wenige Operanden für den Operator: " + value);
+                    }
+                    // Der rechte Operand liegt oben
+                    AstNode right = stack.pop();
+                    AstNode left = stack.pop();
+                    stack.push(new AstNode(value, left, right));
+                    break;
+                case FUNCTION:
+                    OperatorRegistry.Entry function = registry.function(value);
+                    if (function == null) {
+                        throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+                    }
+                    if (stack.size() < function.arity()) {
+                        throw new RpnEvaluator.RpnEvaluationException("Zu wenige Argumente für die Funktion: " + value);
+                    }
+                    // Das letzte Argument liegt oben
+                    AstNode[] arguments = new AstNode[function.arity()];
+                    for (int i = arguments.length - 1; i >= 0; i--) {
+                        arguments[i] = stack.pop();
+                    }
+                    stack.push(AstNode.call(value, arguments));
+                    break;
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+            }
+        }
+
+        if (stack.isEmpty()) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Stack am Ende leer (erwartet: 1 Element).");
+        }
+        if (stack.size() != 1) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Es verbleiben " + stack.size() + " Elemente auf dem Stack (erwartet: 1).");
+        }
+        return stack.pop();
+    }
+}
@@ -0,0 +1,214 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fabrik für Syntaxbaum-Knoten, die strukturell gleiche Teilbäume nur einmal
+ * anlegt ("Hash-Consing").
+ *
+ * <p>Aus {@code (a+b)*(a+b)/(a+b)} wird so ein DAG, in dem der Knoten
+ * {@code a+b} dreimal eingehängt ist. Der {@link RpnCompiler} erkennt solche
+ * mehrfach genutzten Knoten und berechnet sie pro Auswertung nur einmal
+ * (Eliminierung gemeinsamer Teilausdrücke).</p>
+ *
+ * <p>Da die Kinder bereits eindeutig sind, genügt als Schlüssel der Wert des
+ * Knotens zusammen mit der <b>Identität</b> seiner Kinder; der Vergleich
+ * kostet also unabhängig von der Baumgröße nur konstante Zeit.</p>
+ *
+ * <p>Ein Interner kann für viele Ausdrücke verwendet werden; dann werden auch
+ * Teilbäume zwischen den Ausdrücken geteilt. {@link #report()} zeigt, wie
+ * viele Knoten und wie viel Speicher dadurch eingespart wurden. Die Klasse
+ * ist nicht thread-sicher.</p>
+ */
+public class AstInterner {
+
+    /**
+     * Geschätzte Größe eines {@link AstNode} in Bytes: Objekt-Header und vier
+     * Referenzen (mit Compressed Oops); das Argument-Array von Aufrufen wird
+     * nicht gezählt. Der Wert-String wird nicht gezählt,
+     * da er ohnehin meist geteilt wird.
+     */
+    static final long NODE_BYTES = 32;
+
+    /**
+     * Eine unveränderliche Momentaufnahme der Einsparungen.
+     */
+    public static final class Report {
+        private final long inputNodes;
+        private final long uniqueNodes;
+
+        Report(long inputNodes, long uniqueNodes) {
+            this.inputNodes = inputNodes;
+            this.uniqueNodes = uniqueNodes;
+        }
+
+        /** @return Anzahl der Knoten in allen übergebenen Bäumen */
+        public long inputNodes() { return inputNodes; }
+        /** @return Anzahl der unterschiedlichen Knoten nach dem Interning */
+        public long uniqueNodes() { return uniqueNodes; }
+        /** @return Anzahl der eingesparten Knoten */
+        public long savedNodes() { return inputNodes - uniqueNodes; }
+        /** @return geschätzte Einsparung in Bytes */
+        public long savedBytes() { return savedNodes() * NODE_BYTES; }
+
+        /** @return Anteil der eingesparten Knoten (0.0 wenn noch nichts übergeben wurde) */
+        public double savedRatio() {
+            return inputNodes == 0 ? 0.0 : (double) savedNodes() / inputNodes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Knoten: %d -> %d (eingespart: %d = %.1f%%, ca. %d Bytes)",
+                    inputNodes, uniqueNodes, savedNodes(), savedRatio() * 100, savedBytes());
+        }
+    }
+
+    /**
+     * Schlüssel eines Knotens: Wert, Art und Identität der (bereits eindeutigen) Kinder.
+     */
+    private static final class Key {
+        private final String value;
+        private final boolean call;
+        private final AstNode[] children;
+
+        Key(String value, boolean call, AstNode... children) {
+            this.value = value;
+            this.call = call;
+            this.children = children;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            if (call != key.call || children.length != key.children.length || !Objects.equals(value, key.value)) {
+                return false;
+            }
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] != key.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 * Objects.hashCode(value) + Boolean.hashCode(call);
+            for (AstNode child : children) {
+                hash = 31 * hash + System.identityHashCode(child);
+            }
+            return hash;
+        }
+    }
+
+    private final Map<Key, AstNode> nodes = new HashMap<>();
+    private long inputNodes;
+
+    /**
+     * Liefert das eindeutige Blatt mit dem angegebenen Wert.
+     *
+     * @param value Zahl oder Variablenname
+     * @return das geteilte Blatt
+     */
+    public AstNode leaf(String value) {
+        return node(value, null, null);
+    }
+
+    /**
+     * Liefert den eindeutigen Knoten mit dem Wert und den Kindern. Die Kinder
+     * müssen selbst von diesem Interner stammen, sonst wird nicht geteilt.
+     *
+     * @param value Operator
+     * @param left  linkes Kind
+     * @param right rechtes Kind
+     * @return der geteilte Knoten
+     */
+    public AstNode node(String value, AstNode left, AstNode right) {
+        Key key = new Key(value, false, left, right);
+        AstNode node = nodes.get(key);
+        if (node == null) {
+            node = left == null && right == null ? new AstNode(value) : new AstNode(value, left, right);
+            nodes.put(key, node);
+        }
+        return node;
+    }
+
+    /**
+     * Liefert den eindeutigen Funktionsaufruf mit dem Namen und den Argumenten.
+     * Die Argumente müssen selbst von diesem Interner stammen, sonst wird
+     * nicht geteilt.
+     *
+     * @param function  Name der Funktion
+     * @param arguments die Argumente
+     * @return der geteilte Knoten
+     */
+    public AstNode call(String function, AstNode... arguments) {
+        Key key = new Key(function, true, arguments.clone());
+        AstNode node = nodes.get(key);
+        if (node == null) {
+            node = AstNode.call(function, key.children);
+            nodes.put(key, node);
+        }
+        return node;
+    }
+
+    /**
+     * Überführt einen beliebigen Baum in einen DAG aus geteilten Knoten.
+     * Der übergebene Baum wird nicht verändert.
+     *
+     * @param root Wurzel des Baums
+     * @return Wurzel des DAGs
+     */
+    public AstNode intern(AstNode root) {
+        if (root == null) {
+            return null;
+        }
+        Map<AstNode, AstNode> interned = new IdentityHashMap<>();
+        for (AstNode node : AstNode.postorder(root)) {
+            inputNodes++;
+            if (node.isCall()) {
+                AstNode[] arguments = node.children().clone();
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = interned.get(arguments[i]);
+                }
+                interned.put(node, call(node.getValue(), arguments));
+            } else {
+                interned.put(node, node(node.getValue(), interned.get(node.getLeft()), interned.get(node.getRight())));
+            }
+        }
+        return interned.get(root);
+    }
+
+    /**
+     * Gibt die Anzahl der unterschiedlichen Knoten zurück.
+     *
+     * @return Anzahl der angelegten Knoten
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Liefert die Einsparungen über alle mit {@link #intern(AstNode)}
+     * übergebenen Bäume.
+     *
+     * @return eine Momentaufnahme
+     */
+    public Report report() {
+        return new Report(inputNodes, nodes.size());
+    }
+
+    /**
+     * Vergisst alle Knoten und setzt die Statistik zurück.
+     */
+    public void clear() {
+        nodes.clear();
+        inputNodes = 0;
+    }
+}
@@ -1,14 +1,27 @@
 package org.example;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Repräsentiert einen Knoten im Abstrakten Syntaxbaum (AST).
  * Jeder Knoten speichert seinen Wert (Operand oder Operator)
  * und Verweise auf seine Kinder (Operanden des Operators).
+ *
+ * <p>Aufrufe von Funktionen der {@link OperatorRegistry} (z.B.
+ * {@code max(a, 1)}) sind Knoten mit beliebig vielen Argumenten, siehe
+ * {@link #call(String, AstNode...)}; sie haben kein linkes und rechtes Kind.</p>
  */
 public class AstNode {
-    private String value; // Der Wert (z.B. "3", "x", "+", "*")
+    private static final AstNode[] NO_ARGUMENTS = new AstNode[0];
+
+    private String value; // Der Wert (z.B. "3", "x", "+", "*", "max")
     private AstNode left;  // Linkes Kind (erster Operand)
     private AstNode right; // Rechtes Kind (zweiter Operand)
+    private AstNode[] arguments; // Argumente eines Funktionsaufrufs, sonst null
 
     // Konstruktor für Blätter (Zahlen/Variablen)
     public AstNode(String value) {
@@ -24,16 +37,116 @@ public class AstNode {
         this.right = right;
     }
 
+    private AstNode(String value, AstNode[] arguments) {
+        this.value = value;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Erstellt einen Funktionsaufruf.
+     *
+     * @param function  Name der Funktion (wie in der {@link OperatorRegistry})
+     * @param arguments die Argumente in Aufrufreihenfolge (auch keine)
+     * @return der neue Knoten
+     * @throws IllegalArgumentException wenn ein Argument null ist
+     */
+    public static AstNode call(String function, AstNode... arguments) {
+        AstNode[] copy = arguments.length == 0 ? NO_ARGUMENTS : arguments.clone();
+        for (AstNode argument : copy) {
+            if (argument == null) {
+                throw new IllegalArgumentException("Argument darf nicht null sein: " + function);
+            }
+        }
+        return new AstNode(function, copy);
+    }
+
     // Getter-Methoden (für AstBuilder und Unit Tests)
     public String getValue() { return value; }
     public AstNode getLeft() { return left; }
     public AstNode getRight() { return right; }
 
     /**
-     * Prüft, ob der Knoten ein Blatt ist (keine Kinder hat).
+     * Prüft, ob der Knoten ein Funktionsaufruf ist.
+     */
+    public boolean isCall() {
+        return arguments != null;
+    }
+
+    /**
+     * Liefert die Argumente eines Funktionsaufrufs (leer bei anderen Knoten).
+     */
+    public List<AstNode> getArguments() {
+        return arguments == null ? List.of() : List.of(arguments);
+    }
+
+    /**
+     * Prüft, ob der Knoten ein Blatt ist (keine Kinder hat). Ein Aufruf ohne
+     * Argumente ist kein Blatt.
      */
     public boolean isLeaf() {
-        return left == null && right == null;
+        return arguments == null && left == null && right == null;
+    }
+
+    /**
+     * Liefert die Kinder in Auswertungsreihenfolge: die Argumente eines
+     * Aufrufs, sonst {@code {left, right}} (Einträge können null sein).
+     * Das Array darf nicht verändert werden.
+     */
+    AstNode[] children() {
+        return arguments != null ? arguments : new AstNode[] {left, right};
+    }
+
+    /**
+     * Zählt die Knoten des Teilbaums (inklusive dieses Knotens). Mehrfach
+     * eingehängte Knoten (siehe {@link AstInterner}) werden nur einmal gezählt.
+     */
+    public int size() {
+        return postorder(this).size();
+    }
+
+    /**
+     * Liefert alle unterschiedlichen Knoten eines Baums oder DAGs in Postorder,
+     * d.h. jeder Knoten steht nach seinen Kindern. Mehrfach eingehängte Knoten
+     * erscheinen nur einmal; iterativ, damit tiefe Bäume keinen
+     * StackOverflowError auslösen.
+     */
+    static List<AstNode> postorder(AstNode root) {
+        List<AstNode> result = new ArrayList<>();
+        Set<AstNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Stack<AstNode> pending = new Stack<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            AstNode node = pending.peek();
+            if (seen.contains(node)) {
+                // Schon als Kind eines anderen Knotens ausgegeben
+                pending.pop();
+                continue;
+            }
+            boolean childrenDone = true;
+            if (node.arguments != null) {
+                // Rückwärts, damit das erste Argument zuerst ausgegeben wird
+                for (int i = node.arguments.length - 1; i >= 0; i--) {
+                    if (!seen.contains(node.arguments[i])) {
+                        pending.push(node.arguments[i]);
+                        childrenDone = false;
+                    }
+                }
+            }
+            if (node.right != null && !seen.contains(node.right)) {
+                pending.push(node.right);
+                childrenDone = false;
+            }
+            if (node.left != null && !seen.contains(node.left)) {
+                pending.push(node.left);
+                childrenDone = false;
+            }
+            if (childrenDone) {
+                pending.pop();
+                seen.add(node);
+                result.add(node);
+            }
+        }
+        return result;
     }
     
     // Eine einfache to-String-Methode für die Ausgabe
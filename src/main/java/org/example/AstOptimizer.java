@@ -0,0 +1,290 @@
+package org.example;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Vereinfacht einen Syntaxbaum vor dem Kompilieren.
+ *
+ * <p>Konstante Teilbäume wie {@code (3*3)/(4-3)^2} werden ausgerechnet und
+ * durch ein Blatt ersetzt. Zusätzlich werden algebraische Identitäten
+ * angewendet. Standardmäßig nur solche, die für <b>alle</b> Eingaben
+ * bitgenau dasselbe Ergebnis liefern (inklusive NaN, Unendlich und dem
+ * Vorzeichen von Null) und keine Variable entfernen:</p>
+ * <ul>
+ *   <li>{@code x*1}, {@code 1*x}, {@code x/1}, {@code x^1} → {@code x}</li>
+ *   <li>{@code x-0} und {@code x+(-0)} → {@code x}</li>
+ * </ul>
+ *
+ * <p>Mit {@code ignoreSpecialValues} werden auch Regeln angewendet, die nur
+ * für endliche Werte gelten: {@code x+0} → {@code x} (verliert {@code -0}),
+ * {@code x*0} → {@code 0} und {@code x-x} → {@code 0} (für NaN und
+ * Unendlich wäre das Ergebnis NaN) sowie {@code x^0} → {@code 1}. Diese
+ * Regeln entfernen Variablen aus dem Baum: das optimierte Programm meldet
+ * eine fehlende Variable dann nicht mehr, wo der {@link RpnEvaluator}
+ * "Unbekannte Variable" wirft. Sie setzen also auch voraus, dass jede
+ * Variable einen Wert hat.</p>
+ *
+ * <p>Funktionsaufrufe werden nicht ausgerechnet, nur ihre Argumente
+ * vereinfacht.</p>
+ *
+ * <p>Teilbäume, deren Auswertung eine Division durch Null melden könnte,
+ * werden nie weggelassen; ebenso wird eine Division durch eine konstante
+ * Null nicht gefaltet, damit der Fehler wie bisher bei der Auswertung
+ * auftritt.</p>
+ */
+public class AstOptimizer {
+
+    private final boolean ignoreSpecialValues;
+
+    /**
+     * Erstellt einen Optimierer, der nur bitgenaue Umformungen anwendet.
+     */
+    public AstOptimizer() {
+        this(false);
+    }
+
+    /**
+     * Erstellt einen Optimierer.
+     *
+     * @param ignoreSpecialValues {@code true}, wenn die Eingaben als endlich
+     *                            angenommen werden dürfen und das Vorzeichen
+     *                            von Null keine Rolle spielt
+     */
+    public AstOptimizer(boolean ignoreSpecialValues) {
+        this.ignoreSpecialValues = ignoreSpecialValues;
+    }
+
+    /**
+     * Vereinfacht einen Syntaxbaum. Der übergebene Baum wird nicht verändert;
+     * unveränderte Teilbäume werden aber im Ergebnis wiederverwendet.
+     *
+     * @param root Wurzel des Syntaxbaums
+     * @return Wurzel des vereinfachten Baums
+     */
+    public AstNode optimize(AstNode root) {
+        if (root == null) {
+            return null;
+        }
+
+        // Kinder vor Eltern; gemeinsam genutzte Teilbäume nur einmal (DAG aus dem AstInterner)
+        Map<AstNode, AstNode> optimized = new IdentityHashMap<>();
+        for (AstNode node : AstNode.postorder(root)) {
+            if (node.isCall()) {
+                optimized.put(node, rebuildCall(node, optimized));
+                continue;
+            }
+            if (node.isLeaf() || node.getLeft() == null || node.getRight() == null) {
+                // Unvollständige Knoten unverändert lassen, der Compiler meldet den Fehler
+                optimized.put(node, node);
+                continue;
+            }
+            AstNode left = optimized.get(node.getLeft());
+            AstNode right = optimized.get(node.getRight());
+            optimized.put(node, simplify(node, left, right));
+        }
+        return optimized.get(root);
+    }
+
+    /**
+     * Vereinfacht einen Operatorknoten, dessen Kinder bereits vereinfacht sind.
+     */
+    private AstNode simplify(AstNode node, AstNode left, AstNode right) {
+        String operator = node.getValue();
+        if (operator == null || operator.length() != 1) {
+            return rebuild(node, left, right);
+        }
+        char op = operator.charAt(0);
+
+        // 1. Konstante Teilbäume ausrechnen
+        if (isConstant(left) && isConstant(right)) {
+            double a = constant(left);
+            double b = constant(right);
+            switch (op) {
+                case '+': return leaf(a + b);
+                case '-': return leaf(a - b);
+                case '*': return leaf(a * b);
+                case '/':
+                    // Division durch Null erst bei der Auswertung melden
+                    return b == 0 ? rebuild(node, left, right) : leaf(a / b);
+                case '^': return leaf(Math.pow(a, b));
+                default: return rebuild(node, left, right);
+            }
+        }
+
+        // 2. Bitgenaue Identitäten
+        switch (op) {
+            case '*':
+                if (isConstant(right, 1.0)) return left;
+                if (isConstant(left, 1.0)) return right;
+                break;
+            case '/':
+                if (isConstant(right, 1.0)) return left;
+                break;
+            case '^':
+                if (isConstant(right, 1.0)) return left;
+                break;
+            case '-':
+                if (isPositiveZero(right)) return left;
+                break;
+            case '+':
+                if (isNegativeZero(right)) return left;
+                if (isNegativeZero(left)) return right;
+                break;
+            default:
+                break;
+        }
+
+        // 3. Identitäten, die nur für endliche Werte gelten und Variablen entfernen können
+        if (ignoreSpecialValues) {
+            switch (op) {
+                case '^':
+                    // Laut Math#pow auch für NaN bitgenau, aber x fällt weg
+                    if (isZero(right) && !mayThrow(left)) return leaf(1.0);
+                    break;
+                case '+':
+                    if (isZero(right)) return left;
+                    if (isZero(left)) return right;
+                    break;
+                case '-':
+                    if (isZero(right)) return left;
+                    if (sameTree(left, right) && !mayThrow(left)) return leaf(0.0);
+                    break;
+                case '*':
+                    if (isZero(right) && !mayThrow(left)) return leaf(0.0);
+                    if (isZero(left) && !mayThrow(right)) return leaf(0.0);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return rebuild(node, left, right);
+    }
+
+    private static AstNode rebuild(AstNode node, AstNode left, AstNode right) {
+        if (left == node.getLeft() && right == node.getRight()) {
+            return node;
+        }
+        return new AstNode(node.getValue(), left, right);
+    }
+
+    /**
+     * Übernimmt einen Funktionsaufruf mit den vereinfachten Argumenten; der
+     * Aufruf selbst wird nicht ausgerechnet, da die Implementierung aus der
+     * Registry des Compilers stammt.
+     */
+    private static AstNode rebuildCall(AstNode node, Map<AstNode, AstNode> optimized) {
+        AstNode[] arguments = node.children();
+        AstNode[] rebuilt = null;
+        for (int i = 0; i < arguments.length; i++) {
+            AstNode argument = optimized.get(arguments[i]);
+            if (argument != arguments[i] && rebuilt == null) {
+                rebuilt = arguments.clone();
+            }
+            if (rebuilt != null) {
+                rebuilt[i] = argument;
+            }
+        }
+        return rebuilt == null ? node : AstNode.call(node.getValue(), rebuilt);
+    }
+
+    private static AstNode leaf(double value) {
+        // Double.toString ist verlustfrei, parseDouble liefert denselben Wert
+        return new AstNode(Double.toString(value));
+    }
+
+    /**
+     * Prüft, ob ein Knoten eine Zahl ist. "NaN" und "Infinity" gelten wie beim
+     * {@link RpnCompiler} als Zahlen.
+     */
+    static boolean isConstant(AstNode node) {
+        if (node == null || !node.isLeaf() || node.getValue() == null || node.getValue().isEmpty()) {
+            return false;
+        }
+        String value = node.getValue();
+        char c = value.charAt(0);
+        if (!Character.isDigit(c) && c != '-' && c != '.' && !value.equals("NaN") && !value.equals("Infinity")) {
+            return false;
+        }
+        try {
+            FastDoubleParser.parse(value, 0, value.length());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static double constant(AstNode node) {
+        String value = node.getValue();
+        return FastDoubleParser.parse(value, 0, value.length());
+    }
+
+    private static boolean isConstant(AstNode node, double expected) {
+        return isConstant(node) && constant(node) == expected;
+    }
+
+    private static boolean isZero(AstNode node) {
+        return isConstant(node, 0.0);
+    }
+
+    private static boolean isPositiveZero(AstNode node) {
+        return isConstant(node) && Double.doubleToRawLongBits(constant(node)) == 0L;
+    }
+
+    private static boolean isNegativeZero(AstNode node) {
+        return isConstant(node) && Double.doubleToRawLongBits(constant(node)) == Long.MIN_VALUE;
+    }
+
+    /**
+     * Prüft, ob die Auswertung eines Teilbaums eine Division durch Null melden
+     * könnte, d.h. ob er eine Division durch etwas anderes als eine von Null
+     * verschiedene Konstante enthält. Funktionsaufrufe gelten immer als
+     * riskant, da eigene Implementierungen werfen dürfen.
+     */
+    static boolean mayThrow(AstNode root) {
+        for (AstNode node : AstNode.postorder(root)) {
+            if (node.isCall()) {
+                return true;
+            }
+            if (!node.isLeaf() && "/".equals(node.getValue())) {
+                AstNode divisor = node.getRight();
+                if (divisor == null || !isConstant(divisor) || constant(divisor) == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vergleicht zwei Teilbäume strukturell.
+     */
+    static boolean sameTree(AstNode a, AstNode b) {
+        Stack<AstNode> left = new Stack<>();
+        Stack<AstNode> right = new Stack<>();
+        left.push(a);
+        right.push(b);
+        while (!left.isEmpty()) {
+            AstNode x = left.pop();
+            AstNode y = right.pop();
+            if (x == y) {
+                continue;
+            }
+            if (x == null || y == null || x.isCall() != y.isCall() || !Objects.equals(x.getValue(), y.getValue())) {
+                return false;
+            }
+            AstNode[] xs = x.children();
+            AstNode[] ys = y.children();
+            if (xs.length != ys.length) {
+                return false;
+            }
+            for (int i = 0; i < xs.length; i++) {
+                left.push(xs[i]);
+                right.push(ys[i]);
+            }
+        }
+        return true;
+    }
+}
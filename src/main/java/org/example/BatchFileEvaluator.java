@@ -0,0 +1,318 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wertet eine Datei mit einem Ausdruck pro Zeile aus und schreibt die
+ * Ergebnisse in derselben Reihenfolge in eine Ausgabedatei.
+ *
+ * <p>Die Eingabe wird mit {@link FileChannel#map} in den Speicher abgebildet
+ * und direkt aus den Bytes zerlegt ({@link Tokenizer} auf einer
+ * {@link ByteCharSequence}), ohne für jede Zeile einen String anzulegen.
+ * Zusammen mit den {@link TokenBuffer}-Pfaden der {@link BufferPipeline}
+ * findet für gültige Zeilen keine Allokation statt.</p>
+ *
+ * <p>Ein {@link MappedByteBuffer} ist auf 2 GB begrenzt. Größere Dateien
+ * werden daher in Segmenten abgebildet; ein Segment endet immer an einem
+ * Zeilenende, eine über die Segmentgrenze reichende Zeile wird im nächsten
+ * Segment vollständig gelesen. Eine einzelne Zeile, die länger als ein
+ * Segment ist, wird als Fehler gemeldet.</p>
+ *
+ * <p>Die Ausgabe enthält pro Eingabezeile genau eine Zeile: das Ergebnis oder
+ * {@code Fehler: <Meldung>}. Fehlerhafte Zeilen werden zusätzlich mit
+ * Zeilennummer und Byte-Offset im {@link Report} aufgeführt. Zeilenenden
+ * {@code \n} und {@code \r\n} werden erkannt. Eine Instanz ist nicht
+ * thread-sicher.</p>
+ */
+public class BatchFileEvaluator {
+
+    /** Standardgröße eines abgebildeten Segments (1 GB, deutlich unter der 2-GB-Grenze). */
+    static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+    /** Präfix der Ausgabezeile für fehlerhafte Eingabezeilen. */
+    public static final String ERROR_PREFIX = "Fehler: ";
+
+    /**
+     * Eine fehlerhafte Eingabezeile.
+     */
+    public static final class Failure {
+        private final long lineNumber;
+        private final long byteOffset;
+        private final String message;
+
+        Failure(long lineNumber, long byteOffset, String message) {
+            this.lineNumber = lineNumber;
+            this.byteOffset = byteOffset;
+            this.message = message;
+        }
+
+        /** @return Zeilennummer (ab 1) */
+        public long lineNumber() { return lineNumber; }
+        /** @return Byte-Offset des Zeilenanfangs in der Eingabedatei */
+        public long byteOffset() { return byteOffset; }
+        /** @return die Fehlermeldung */
+        public String message() { return message; }
+
+        @Override
+        public String toString() {
+            return "Zeile " + lineNumber + " (Byte " + byteOffset + "): " + message;
+        }
+    }
+
+    /**
+     * Zusammenfassung eines Durchlaufs.
+     */
+    public static final class Report {
+        private final long lines;
+        private final long failureCount;
+        private final List<Failure> failures;
+        private final long bytes;
+        private final int segments;
+        private final long elapsedNanos;
+
+        Report(long lines, long failureCount, List<Failure> failures, long bytes, int segments, long elapsedNanos) {
+            this.lines = lines;
+            this.failureCount = failureCount;
+            this.failures = Collections.unmodifiableList(failures);
+            this.bytes = bytes;
+            this.segments = segments;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** @return Anzahl der verarbeiteten Zeilen */
+        public long lines() { return lines; }
+        /** @return Anzahl der fehlerhaften Zeilen */
+        public long failureCount() { return failureCount; }
+        /** @return die ersten fehlerhaften Zeilen (höchstens so viele wie konfiguriert) */
+        public List<Failure> failures() { return failures; }
+        /** @return Größe der Eingabe in Bytes */
+        public long bytes() { return bytes; }
+        /** @return Anzahl der abgebildeten Segmente */
+        public int segments() { return segments; }
+        /** @return Dauer in Nanosekunden */
+        public long elapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%d Zeilen, %d Fehler, %d Bytes in %d Segment(en), %.3f s (%.0f Zeilen/s)",
+                    lines, failureCount, bytes, segments, seconds, seconds == 0 ? 0.0 : lines / seconds);
+        }
+    }
+
+    private final long segmentSize;
+    private final int maxReportedFailures;
+
+    // Wiederverwendete Arbeitsobjekte
+    private final BufferPipeline pipeline = new BufferPipeline();
+    private final EvaluationResult result = new EvaluationResult();
+    private final ByteCharSequence line = new ByteCharSequence();
+    private final StringBuilder text = new StringBuilder(32);
+
+    // Zustand eines Durchlaufs
+    private OutputStream out;
+    private byte[] outputBuffer;
+    private int outputPosition;
+    private long lineNumber;
+    private long failureCount;
+    private List<Failure> failures;
+
+    /**
+     * Erstellt einen Evaluator, der höchstens 1000 fehlerhafte Zeilen im
+     * Bericht aufführt (gezählt werden alle).
+     */
+    public BatchFileEvaluator() {
+        this(1000);
+    }
+
+    /**
+     * Erstellt einen Evaluator.
+     *
+     * @param maxReportedFailures Anzahl der Fehler, die im Bericht aufgeführt werden
+     */
+    public BatchFileEvaluator(int maxReportedFailures) {
+        this(DEFAULT_SEGMENT_SIZE, maxReportedFailures);
+    }
+
+    /**
+     * Erstellt einen Evaluator mit einer bestimmten Segmentgröße (für Tests).
+     */
+    BatchFileEvaluator(long segmentSize, int maxReportedFailures) {
+        if (segmentSize < 1 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ungültige Segmentgröße: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.maxReportedFailures = Math.max(0, maxReportedFailures);
+    }
+
+    /**
+     * Wertet alle Zeilen der Eingabedatei aus.
+     *
+     * @param input  Eingabedatei, ein Ausdruck pro Zeile
+     * @param output Ausgabedatei, wird überschrieben
+     * @return Zusammenfassung mit den fehlerhaften Zeilen
+     * @throws IOException wenn eine Datei nicht gelesen oder geschrieben werden kann
+     */
+    public Report evaluate(Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        lineNumber = 0;
+        failureCount = 0;
+        failures = new ArrayList<>();
+        outputBuffer = new byte[1 << 16];
+        outputPosition = 0;
+        int segments = 0;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             OutputStream stream = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            out = stream;
+            size = channel.size();
+            long position = 0;
+            // Offset einer Zeile, die länger als ein Segment ist und übersprungen wird
+            long overlongLine = -1;
+
+            while (position < size) {
+                int length = (int) Math.min(segmentSize, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                segments++;
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (segment.get(i) != '\n') {
+                        continue;
+                    }
+                    if (overlongLine >= 0) {
+                        lineTooLong(overlongLine);
+                        overlongLine = -1;
+                    } else {
+                        processLine(segment, lineStart, i, position + lineStart);
+                    }
+                    lineStart = i + 1;
+                }
+
+                if (last) {
+                    // Letzte Zeile ohne abschließenden Zeilenumbruch
+                    if (overlongLine >= 0) {
+                        lineTooLong(overlongLine);
+                    } else if (lineStart < length) {
+                        processLine(segment, lineStart, length, position + lineStart);
+                    }
+                    position = size;
+                } else if (lineStart == 0) {
+                    // Kein Zeilenende im ganzen Segment: Zeile überspringen
+                    if (overlongLine < 0) {
+                        overlongLine = position;
+                    }
+                    position += length;
+                } else {
+                    // Angefangene Zeile im nächsten Segment vollständig lesen
+                    position += lineStart;
+                }
+            }
+            flush();
+        } finally {
+            out = null;
+        }
+
+        Report report = new Report(lineNumber, failureCount, failures, size, segments, System.nanoTime() - start);
+        failures = null;
+        outputBuffer = null;
+        return report;
+    }
+
+    /**
+     * Wertet eine Zeile {@code [from, to)} des Segments aus und schreibt das Ergebnis.
+     */
+    private void processLine(MappedByteBuffer segment, int from, int to, long byteOffset) throws IOException {
+        lineNumber++;
+        if (to > from && segment.get(to - 1) == '\r') {
+            to--;
+        }
+        // Fehlerhafte Zeilen kosten keine Exception; die Meldung entsteht erst für den Bericht
+        if (pipeline.evaluate(line.reset(segment, from, to - from), Collections.emptyMap(), result)) {
+            text.setLength(0);
+            text.append(result.value());
+            writeText();
+        } else {
+            failure(byteOffset, result.message());
+        }
+    }
+
+    private void lineTooLong(long byteOffset) throws IOException {
+        lineNumber++;
+        failure(byteOffset, "Zeile länger als ein Segment (" + segmentSize + " Bytes)");
+    }
+
+    private void failure(long byteOffset, String message) throws IOException {
+        failureCount++;
+        if (failures.size() < maxReportedFailures) {
+            failures.add(new Failure(lineNumber, byteOffset, message));
+        }
+        text.setLength(0);
+        text.append(ERROR_PREFIX).append(message);
+        writeText();
+    }
+
+    /**
+     * Schreibt den Inhalt von {@code text} und einen Zeilenumbruch, ohne einen
+     * String zu erzeugen. Nicht-ASCII-Zeichen (nur in Fehlermeldungen) werden
+     * als UTF-8 kodiert.
+     */
+    private void writeText() throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('\n');
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (outputPosition == outputBuffer.length) {
+            flush();
+        }
+        outputBuffer[outputPosition++] = (byte) b;
+    }
+
+    private void flush() throws IOException {
+        out.write(outputBuffer, 0, outputPosition);
+        outputPosition = 0;
+    }
+
+    /**
+     * Kommandozeile: {@code BatchFileEvaluator <eingabe> <ausgabe>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Aufruf: BatchFileEvaluator <eingabe> <ausgabe>");
+            System.exit(2);
+        }
+        Report report = new BatchFileEvaluator().evaluate(Path.of(args[0]), Path.of(args[1]));
+        System.out.println(report);
+        for (Failure failure : report.failures()) {
+            System.out.println(failure);
+        }
+        if (report.failureCount() > report.failures().size()) {
+            System.out.println("... und " + (report.failureCount() - report.failures().size()) + " weitere Fehler");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.example;
+
+import jdk.jfr.EventType;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Die allokationsfreie Pipeline Tokenizer → ShuntingYard → RpnEvaluator mit
+ * wiederverwendeten Puffern, wie sie {@link BatchFileEvaluator},
+ * {@link ParallelBatchEvaluator} und {@link EvaluationServer} verwenden.
+ *
+ * <p>Ist {@link PipelineMetrics} eingeschaltet, wird jede Stufe gemessen und
+ * jeder Fehler nach Art gezählt. Läuft eine JFR-Aufzeichnung, entstehen
+ * zusätzlich {@link TokenizeEvent}, {@link ConvertEvent} und
+ * {@link EvaluateEvent}. Ist beides aus, bleibt nur eine
+ * {@code volatile}-Abfrage und die Prüfung der Event-Typen pro Ausdruck;
+ * Event-Objekte werden dann nicht angelegt.
+ * Eine Instanz ist nicht thread-sicher.</p>
+ *
+ * <p>Intern melden alle Stufen ungültige Eingaben über ein
+ * {@link EvaluationResult}; die werfende Variante erzeugt ihre Exception erst
+ * am Ende daraus.</p>
+ */
+final class BufferPipeline {
+
+    // Ob eine Aufzeichnung die Events will, ohne dafür ein Event anzulegen
+    private static final EventType TOKENIZE = EventType.getEventType(TokenizeEvent.class);
+    private static final EventType CONVERT = EventType.getEventType(ConvertEvent.class);
+    private static final EventType EVALUATE = EventType.getEventType(EvaluateEvent.class);
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnEvaluator evaluator = new RpnEvaluator();
+    private final TokenBuffer tokens = new TokenBuffer();
+    private final TokenBuffer rpn = new TokenBuffer();
+    private final DoubleStack stack = new DoubleStack();
+    private final EvaluationResult result = new EvaluationResult();
+    private final PipelineMetrics metrics;
+
+    BufferPipeline() {
+        this(PipelineMetrics.global());
+    }
+
+    BufferPipeline(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Wertet einen Ausdruck ohne Variablen aus.
+     *
+     * @param expression der Ausdruck (wird nicht kopiert)
+     * @return das Ergebnis
+     * @throws Exception mit denselben Meldungen wie die einzelnen Stufen
+     */
+    double evaluate(CharSequence expression) throws Exception {
+        return evaluate(expression, Collections.emptyMap());
+    }
+
+    /**
+     * Wertet einen Ausdruck mit Variablen aus.
+     *
+     * @param expression der Ausdruck (wird nicht kopiert)
+     * @param variables  Werte der Variablen nach Name
+     * @return das Ergebnis
+     * @throws Exception mit denselben Meldungen wie die einzelnen Stufen
+     */
+    double evaluate(CharSequence expression, Map<String, Double> variables) throws Exception {
+        if (!evaluate(expression, variables, result)) {
+            throw result.exception();
+        }
+        return result.value();
+    }
+
+    /**
+     * Wertet einen Ausdruck aus und meldet ungültige Eingaben über
+     * {@code result} statt mit einer Exception (siehe {@link EvaluationResult}).
+     * Die Metriken zählen die Fehler wie bei der werfenden Variante.
+     *
+     * @param expression der Ausdruck (wird nicht kopiert)
+     * @param variables  Werte der Variablen nach Name
+     * @param result     erhält Ergebnis oder Fehlercode mit Position
+     * @return {@code true}, wenn die Auswertung gelungen ist
+     */
+    boolean evaluate(CharSequence expression, Map<String, Double> variables, EvaluationResult result) {
+        if (!metrics.isEnabled() && !TOKENIZE.isEnabled() && !CONVERT.isEnabled() && !EVALUATE.isEnabled()) {
+            tokenizer.tokenize(expression, tokens);
+            return shuntingYard.convertToRPN(tokens, rpn, result) && evaluator.evaluate(rpn, stack, variables, result);
+        }
+        return evaluateMeasured(expression, variables, result);
+    }
+
+    /**
+     * Prüft einen Ausdruck nur, ohne ihn auszuwerten
+     * (siehe {@link ShuntingYard#validate(TokenBuffer, EvaluationResult)}).
+     *
+     * @param expression der Ausdruck (wird nicht kopiert)
+     * @param result     erhält Erfolg oder Fehlercode mit Position
+     * @return {@code true}, wenn der Ausdruck gültig ist
+     */
+    boolean validate(CharSequence expression, EvaluationResult result) {
+        tokenizer.tokenize(expression, tokens);
+        return shuntingYard.validate(tokens, result);
+    }
+
+    private boolean evaluateMeasured(CharSequence expression, Map<String, Double> variables, EvaluationResult result) {
+        TokenizeEvent tokenizeEvent = new TokenizeEvent();
+        ConvertEvent convertEvent = new ConvertEvent();
+        EvaluateEvent evaluateEvent = new EvaluateEvent();
+        boolean measured = metrics.isEnabled();
+        if (measured) {
+            metrics.recordEvaluation();
+        }
+        int length = expression.length();
+        PipelineEvent current = tokenizeEvent;
+        try {
+            tokenizeEvent.begin();
+            long start = System.nanoTime();
+            tokenizer.tokenize(expression, tokens);
+            long tokenized = System.nanoTime();
+            tokenizeEvent.finish(length, tokens.size(), (Throwable) null);
+            if (measured) {
+                metrics.record(PipelineMetrics.Stage.TOKENIZE, tokenized - start);
+            }
+
+            current = convertEvent;
+            convertEvent.begin();
+            boolean converted = shuntingYard.convertToRPN(tokens, rpn, result);
+            long convertedAt = System.nanoTime();
+            convertEvent.maxOperatorDepth = rpn.getMaxOperatorDepth();
+            if (!converted) {
+                return failed(convertEvent, length, tokens.size(), result, measured);
+            }
+            convertEvent.finish(length, tokens.size(), (Throwable) null);
+            if (measured) {
+                metrics.record(PipelineMetrics.Stage.CONVERT, convertedAt - tokenized);
+            }
+
+            current = evaluateEvent;
+            evaluateEvent.begin();
+            boolean evaluated = evaluator.evaluate(rpn, stack, variables, result);
+            long evaluatedAt = System.nanoTime();
+            if (!evaluated) {
+                return failed(evaluateEvent, length, rpn.size(), result, measured);
+            }
+            evaluateEvent.finish(length, rpn.size(), (Throwable) null);
+            if (measured) {
+                metrics.record(PipelineMetrics.Stage.EVALUATE, evaluatedAt - convertedAt);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // Nur noch Fehler aus eigenen Funktionen der Registry
+            current.finish(length, current == evaluateEvent ? rpn.size() : tokens.size(), e);
+            if (measured) {
+                metrics.recordError(e);
+            }
+            throw e;
+        }
+    }
+
+    private boolean failed(PipelineEvent event, int length, int tokenCount, EvaluationResult result, boolean measured) {
+        event.finish(length, tokenCount, result.errorCode());
+        if (measured) {
+            metrics.recordError(result.errorCode());
+        }
+        return false;
+    }
+}
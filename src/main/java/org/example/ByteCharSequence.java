@@ -0,0 +1,65 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sicht auf einen Ausschnitt eines {@link ByteBuffer} als {@link CharSequence},
+ * ohne die Bytes zu kopieren. Jedes Byte wird als ein Zeichen (ISO-8859-1)
+ * gelesen; für Ausdrücke, die nur aus ASCII bestehen, entspricht das genau
+ * dem Text. Andere Bytes werden vom {@link Tokenizer} als ungültige Zeichen
+ * gemeldet.
+ *
+ * <p>Die Sicht wird mit {@link #reset(ByteBuffer, int, int)} für jede Zeile
+ * wiederverwendet und ist daher nicht thread-sicher.</p>
+ */
+final class ByteCharSequence implements CharSequence {
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    /**
+     * Richtet die Sicht auf einen neuen Ausschnitt aus.
+     *
+     * @param buffer Quelle (wird mit absoluten Indizes gelesen, Position bleibt unverändert)
+     * @param offset Beginn des Ausschnitts
+     * @param length Länge des Ausschnitts
+     * @return diese Sicht
+     */
+    ByteCharSequence reset(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " außerhalb von 0.." + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Bereich " + start + ".." + end + " außerhalb von 0.." + length);
+        }
+        return new ByteCharSequence().reset(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,475 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Übersetzt Formeln in echten JVM-Bytecode.
+ *
+ * <p>Für jede Formel wird eine eigene Klasse erzeugt, die {@link DoubleFormula}
+ * implementiert. Der Stack des {@link RpnProgram} wird dabei direkt auf den
+ * Operanden-Stack der JVM abgebildet und Konstanten landen im Konstanten-Pool
+ * der Klasse, sodass C2 den Code wie handgeschriebenes Java inlinen und auf
+ * Register verteilen kann.</p>
+ *
+ * <p>Die Klassen werden mit {@link MethodHandles.Lookup#defineHiddenClass}
+ * als versteckte Klassen definiert. Sie sind nicht über einen Namen
+ * erreichbar und werden vom Garbage Collector wieder entladen, sobald die
+ * {@link DoubleFormula}-Instanz nicht mehr referenziert wird.</p>
+ *
+ * <p>Zwischenspeicher für gemeinsame Teilausdrücke werden zu lokalen
+ * Variablen der Methode.</p>
+ *
+ * <p>Der Class-File-Writer ist bewusst minimal und ohne Fremdbibliotheken
+ * geschrieben: der erzeugte Code enthält keine Sprünge und braucht daher
+ * keine StackMapTable. Prüfungen mit Verzweigungen (Division durch Null,
+ * Anzahl der Variablen) liegen in {@link FormulaRuntime}.</p>
+ */
+public class BytecodeCompiler {
+
+    // Versteckte Klassen müssen im Paket der Lookup-Klasse liegen
+    private static final String CLASS_NAME = "org/example/GeneratedFormula";
+    private static final String RUNTIME = "org/example/FormulaRuntime";
+    private static final String INTERFACE = "org/example/DoubleFormula";
+
+    private static final int CLASS_VERSION = 61; // Java 17
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    // Die benötigten JVM-Befehle
+    private static final int ICONST_0 = 0x03;
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DALOAD = 0x31;
+    private static final int DSTORE = 0x39;
+    private static final int DUP2 = 0x5c;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+
+    // Maximale Länge einer Methode laut JVM-Spezifikation
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    // Länge der Beschreibung in toString() (UTF8-Einträge sind auf 64 KB begrenzt)
+    private static final int MAX_TO_STRING_LENGTH = 1000;
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final RpnCompiler rpnCompiler = new RpnCompiler();
+
+    /**
+     * Übersetzt eine Liste von Tokens in RPN-Form, z.B. aus
+     * {@link ShuntingYard#convertToRPN(List)}.
+     *
+     * @param rpnTokens Tokens in RPN-Reihenfolge
+     * @return die übersetzte Formel
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Ausdruck ungültig ist
+     */
+    public DoubleFormula compile(List<Token> rpnTokens) throws RpnEvaluator.RpnEvaluationException {
+        return compile(rpnCompiler.compile(rpnTokens));
+    }
+
+    /**
+     * Übersetzt einen Syntaxbaum.
+     *
+     * @param root Wurzel des Syntaxbaums
+     * @return die übersetzte Formel
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Baum ungültig ist
+     */
+    public DoubleFormula compile(AstNode root) throws RpnEvaluator.RpnEvaluationException {
+        return compile(rpnCompiler.compile(root));
+    }
+
+    /**
+     * Übersetzt ein bereits kompiliertes Programm.
+     *
+     * @param program das zu übersetzende Programm
+     * @return die übersetzte Formel; die Variablen werden in derselben
+     *         Slot-Reihenfolge wie bei {@code program} übergeben
+     * @throws IllegalArgumentException wenn das Programm zu groß für eine JVM-Methode ist
+     */
+    public DoubleFormula compile(RpnProgram program) {
+        byte[] classFile = generate(program);
+        try {
+            MethodHandles.Lookup hidden = lookup.defineHiddenClass(classFile, true);
+            return (DoubleFormula) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Generierte Klasse konnte nicht erzeugt werden.", e);
+        }
+    }
+
+    /**
+     * Erzeugt die Class-Datei für ein Programm.
+     */
+    byte[] generate(RpnProgram program) {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef("java/lang/Object");
+        int interfaceClass = pool.classRef(INTERFACE);
+
+        byte[] constructor = constructorCode(pool);
+        byte[] evaluate = evaluateCode(program, pool);
+        byte[] toString = toStringCode(program, pool);
+
+        // Namen vor dem Schreiben des Pools registrieren
+        int init = pool.utf8("<init>");
+        int initDescriptor = pool.utf8("()V");
+        int evaluateName = pool.utf8("evaluate");
+        int evaluateDescriptor = pool.utf8("([D)D");
+        int toStringName = pool.utf8("toString");
+        int toStringDescriptor = pool.utf8("()Ljava/lang/String;");
+        int codeAttribute = pool.utf8("Code");
+
+        // Doubles belegen zwei Slots, dazu Array-Referenz und Index beim Laden einer Variable
+        // (bzw. die Kopie von dup2 beim Speichern eines Zwischenergebnisses)
+        int evaluateMaxStack = Math.max(2, program.getMaxStackDepth() * 2 + 2);
+        int evaluateMaxLocals = tempLocal(program.getTempCount());
+        if (evaluateMaxLocals > 0xFFFF) {
+            throw new IllegalArgumentException("Zu viele Zwischenspeicher für eine JVM-Methode: "
+                    + program.getTempCount());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + evaluate.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            out.writeShort(0); // Felder
+            out.writeShort(3); // Methoden
+            writeMethod(out, ACC_PUBLIC, init, initDescriptor, codeAttribute, 1, 1, constructor);
+            writeMethod(out, ACC_PUBLIC | ACC_FINAL, evaluateName, evaluateDescriptor, codeAttribute,
+                    evaluateMaxStack, evaluateMaxLocals, evaluate);
+            writeMethod(out, ACC_PUBLIC, toStringName, toStringDescriptor, codeAttribute, 1, 1, toString);
+            out.writeShort(0); // Attribute der Klasse
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] constructorCode(ConstantPool pool) {
+        CodeBuffer code = new CodeBuffer(8);
+        code.op(ALOAD_0);
+        code.op(INVOKESPECIAL);
+        code.u2(pool.methodRef("java/lang/Object", "<init>", "()V"));
+        code.op(RETURN);
+        return code.toByteArray();
+    }
+
+    private static byte[] toStringCode(RpnProgram program, ConstantPool pool) {
+        String text = program.toString();
+        if (text.length() > MAX_TO_STRING_LENGTH) {
+            text = text.substring(0, MAX_TO_STRING_LENGTH) + " ...";
+        }
+        CodeBuffer code = new CodeBuffer(4);
+        code.op(LDC_W);
+        code.u2(pool.string(text));
+        code.op(ARETURN);
+        return code.toByteArray();
+    }
+
+    /**
+     * Übersetzt die Befehle des Programms. Jeder RPN-Befehl wird zu einem
+     * oder wenigen JVM-Befehlen; der Operanden-Stack der JVM ersetzt den
+     * {@code double[]}-Stack des Interpreters.
+     */
+    private static byte[] evaluateCode(RpnProgram program, ConstantPool pool) {
+        CodeBuffer code = new CodeBuffer(program.getInstructionCount() * 4 + 8);
+        final double[] constants = program.constants();
+
+        if (program.getVariableCount() > 0) {
+            code.op(ALOAD_1);
+            pushInt(code, pool, program.getVariableCount());
+            code.op(INVOKESTATIC);
+            code.u2(pool.methodRef(RUNTIME, "checkVariables", "([DI)V"));
+        }
+
+        for (int instruction : program.code()) {
+            switch (RpnProgram.opcode(instruction)) {
+                case RpnProgram.OP_CONST:
+                    double value = constants[RpnProgram.operand(instruction)];
+                    if (Double.doubleToRawLongBits(value) == 0L) {
+                        code.op(DCONST_0);
+                    } else if (value == 1.0) {
+                        code.op(DCONST_1);
+                    } else {
+                        code.op(LDC2_W);
+                        code.u2(pool.doubleConstant(value));
+                    }
+                    break;
+                case RpnProgram.OP_VAR:
+                    code.op(ALOAD_1);
+                    pushInt(code, pool, RpnProgram.operand(instruction));
+                    code.op(DALOAD);
+                    break;
+                case RpnProgram.OP_STORE:
+                    code.op(DUP2);
+                    localInstruction(code, DSTORE, tempLocal(RpnProgram.operand(instruction)));
+                    break;
+                case RpnProgram.OP_LOAD:
+                    localInstruction(code, DLOAD, tempLocal(RpnProgram.operand(instruction)));
+                    break;
+                case RpnProgram.OP_ADD:
+                    code.op(DADD);
+                    break;
+                case RpnProgram.OP_SUB:
+                    code.op(DSUB);
+                    break;
+                case RpnProgram.OP_MUL:
+                    code.op(DMUL);
+                    break;
+                case RpnProgram.OP_DIV:
+                    code.op(INVOKESTATIC);
+                    code.u2(pool.methodRef(RUNTIME, "div", "(DD)D"));
+                    break;
+                case RpnProgram.OP_POW:
+                    code.op(INVOKESTATIC);
+                    code.u2(pool.methodRef("java/lang/Math", "pow", "(DD)D"));
+                    break;
+                case RpnProgram.OP_CALL:
+                    call(code, pool, program.operators()[RpnProgram.operand(instruction)]);
+                    break;
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Unbekannter Opcode: " + RpnProgram.opcode(instruction));
+            }
+        }
+        code.op(DRETURN);
+
+        if (code.size() > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Programm zu groß für eine JVM-Methode: "
+                    + code.size() + " Bytes (erlaubt: " + MAX_CODE_LENGTH + ").");
+        }
+        return code.toByteArray();
+    }
+
+    /**
+     * Übersetzt den Aufruf einer vordefinierten Funktion in einen Aufruf der
+     * passenden {@link Math}-Methode. Eigene Funktionen und Operatoren der
+     * {@link OperatorRegistry} sind Lambdas ohne Darstellung im Konstanten-Pool
+     * und werden nicht übersetzt; der {@link TieredExecutor} interpretiert
+     * solche Ausdrücke weiter.
+     */
+    private static void call(CodeBuffer code, ConstantPool pool, OperatorRegistry.Entry entry) {
+        String descriptor;
+        switch (entry.opcode()) {
+            case OperatorRegistry.MIN:
+            case OperatorRegistry.MAX:
+                descriptor = "(DD)D";
+                break;
+            case OperatorRegistry.SQRT:
+            case OperatorRegistry.ABS:
+                descriptor = "(D)D";
+                break;
+            default:
+                throw new RpnEvaluator.RpnEvaluationException("Eigene Funktion nicht übersetzbar: " + entry.name());
+        }
+        code.op(INVOKESTATIC);
+        code.u2(pool.methodRef("java/lang/Math", entry.name(), descriptor));
+    }
+
+    /**
+     * Lokale Variable für einen Zwischenspeicher: 0 ist {@code this}, 1 das
+     * Variablen-Array, danach belegt jeder {@code double} zwei Slots.
+     */
+    private static int tempLocal(int slot) {
+        return 2 + 2 * slot;
+    }
+
+    private static void localInstruction(CodeBuffer code, int opcode, int local) {
+        if (local <= 0xFF) {
+            code.op(opcode);
+            code.u1(local);
+        } else {
+            code.op(WIDE);
+            code.op(opcode);
+            code.u2(local);
+        }
+    }
+
+    private static void pushInt(CodeBuffer code, ConstantPool pool, int value) {
+        if (value <= 5) {
+            code.op(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.op(BIPUSH);
+            code.u1(value);
+        } else if (value <= Short.MAX_VALUE) {
+            code.op(SIPUSH);
+            code.u2(value);
+        } else {
+            code.op(LDC_W);
+            code.u2(pool.integer(value));
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int access, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1); // Attribute: nur Code
+        out.writeShort(codeAttribute);
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // Exception-Tabelle
+        out.writeShort(0); // Attribute des Codes
+    }
+
+    /**
+     * Wachsender Puffer für den Bytecode einer Methode.
+     */
+    private static final class CodeBuffer {
+        private byte[] bytes;
+        private int size;
+
+        CodeBuffer(int capacity) {
+            bytes = new byte[Math.max(4, capacity)];
+        }
+
+        void op(int opcode) {
+            u1(opcode);
+        }
+
+        void u1(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >>> 8);
+            u1(value);
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    /**
+     * Konstanten-Pool der Class-Datei. Gleiche Einträge werden nur einmal angelegt.
+     */
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int DOUBLE = 6;
+        private static final int CLASS = 7;
+        private static final int STRING = 8;
+        private static final int METHODREF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<Object, Integer> entries = new HashMap<>();
+        private int next = 1; // Index 0 ist reserviert
+
+        int utf8(String value) {
+            Integer index = entries.get(value);
+            if (index != null) {
+                return index;
+            }
+            return add(value, 1, UTF8, () -> out.writeUTF(value));
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return add(List.of("Class", internalName), 1, CLASS, () -> out.writeShort(name));
+        }
+
+        int string(String value) {
+            int utf = utf8(value);
+            return add(List.of("String", value), 1, STRING, () -> out.writeShort(utf));
+        }
+
+        int integer(int value) {
+            return add(List.of("Integer", value), 1, INTEGER, () -> out.writeInt(value));
+        }
+
+        int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            // Doubles belegen zwei Einträge im Pool
+            return add(List.of("Double", bits), 2, DOUBLE, () -> out.writeLong(bits));
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            int ownerClass = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = add(List.of("NameAndType", name, descriptor), 1, NAME_AND_TYPE, () -> {
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return add(List.of("Method", owner, name, descriptor), 1, METHODREF, () -> {
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            if (next > 0xFFFF) {
+                throw new IllegalArgumentException("Zu viele Konstanten für eine Class-Datei: " + next);
+            }
+            target.writeShort(next);
+            bytes.writeTo(target);
+        }
+
+        private int add(Object key, int slots, int tag, Entry entry) {
+            Integer existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                out.writeByte(tag);
+                entry.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int index = next;
+            next += slots;
+            entries.put(key, index);
+            return index;
+        }
+
+        @FunctionalInterface
+        private interface Entry {
+            void write() throws IOException;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ein fertig übersetzter Ausdruck, wie er im {@link ExpressionCache} abgelegt
+ * wird: der Quelltext, die RPN-Tokens aus dem {@link ShuntingYard} und das
+ * daraus kompilierte {@link RpnProgram}.
+ *
+ * <p>Instanzen sind unveränderlich und dürfen zwischen Threads geteilt werden.</p>
+ */
+public final class CompiledExpression {
+
+    // Grobe Objektgrößen (64-Bit-JVM mit Compressed Oops)
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int STRING_OVERHEAD = 24 + 16; // String + byte[]-Header
+
+    private final String expression;
+    private final List<Token> rpnTokens;
+    private final RpnProgram program;
+    private final long estimatedBytes;
+
+    /**
+     * Erstellt einen neuen übersetzten Ausdruck.
+     *
+     * @param expression der ursprüngliche Ausdruck
+     * @param rpnTokens  die Tokens in RPN-Reihenfolge
+     * @param program    das kompilierte Programm
+     */
+    public CompiledExpression(String expression, List<Token> rpnTokens, RpnProgram program) {
+        this.expression = expression;
+        this.rpnTokens = Collections.unmodifiableList(rpnTokens);
+        this.program = program;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    /** @return der ursprüngliche Ausdruck */
+    public String getExpression() {
+        return expression;
+    }
+
+    /** @return die Tokens in RPN-Reihenfolge (nicht veränderbar) */
+    public List<Token> getRpnTokens() {
+        return rpnTokens;
+    }
+
+    /** @return das kompilierte Programm */
+    public RpnProgram getProgram() {
+        return program;
+    }
+
+    /** @return geschätzter Speicherbedarf dieses Eintrags in Bytes */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Wertet den Ausdruck mit dem angegebenen Interpreter aus.
+     *
+     * @param interpreter ein (thread-lokaler) Interpreter
+     * @return das Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null
+     */
+    public double evaluate(RpnInterpreter interpreter) throws RpnEvaluator.RpnEvaluationException {
+        return interpreter.execute(program);
+    }
+
+    /**
+     * Schätzt den Speicherbedarf: Ausdruck, Token-Liste mit Strings und Programm.
+     */
+    private long estimateBytes() {
+        long bytes = OBJECT_HEADER + 4L * REFERENCE + 8;
+        bytes += STRING_OVERHEAD + expression.length();
+        bytes += OBJECT_HEADER + (long) rpnTokens.size() * REFERENCE; // Liste + Array
+        for (Token token : rpnTokens) {
+            bytes += OBJECT_HEADER + 2L * REFERENCE + STRING_OVERHEAD + token.getValue().length();
+        }
+        bytes += OBJECT_HEADER + 2L * REFERENCE + 4;
+        bytes += OBJECT_HEADER + 4L * program.getInstructionCount();
+        bytes += OBJECT_HEADER + 8L * program.getConstantCount();
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
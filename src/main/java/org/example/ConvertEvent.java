@@ -0,0 +1,20 @@
+package org.example;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-Event für {@link ShuntingYard#convertToRPN(TokenBuffer, TokenBuffer)}.
+ */
+@Name("org.example.Convert")
+@Label("RPN-Konvertierung")
+@Description("Umwandlung der Tokens in umgekehrte polnische Notation")
+@Threshold("1 ms")
+final class ConvertEvent extends PipelineEvent {
+
+    @Label("Max. Operator-Stacktiefe")
+    @Description("Größte Tiefe des Operator-Stacks (Operatoren und offene Klammern)")
+    int maxOperatorDepth;
+}
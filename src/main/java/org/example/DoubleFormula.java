@@ -0,0 +1,33 @@
+package org.example;
+
+/**
+ * Eine ausführbare Formel, die aus Variablenwerten ein Ergebnis berechnet.
+ *
+ * <p>Implementierungen werden vom {@link BytecodeCompiler} zur Laufzeit als
+ * JVM-Bytecode erzeugt. Sie sind zustandslos und damit thread-sicher.</p>
+ */
+@FunctionalInterface
+public interface DoubleFormula {
+
+    /**
+     * Berechnet die Formel.
+     *
+     * @param variables Werte der Variablen in Slot-Reihenfolge
+     *                  (siehe {@link RpnProgram#getVariableNames()})
+     * @return das berechnete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null
+     * @throws IllegalArgumentException wenn zu wenige Variablenwerte übergeben werden
+     */
+    double evaluate(double[] variables);
+
+    /**
+     * Berechnet eine Formel ohne Variablen.
+     *
+     * @return das berechnete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null
+     * @throws IllegalArgumentException wenn die Formel Variablen verwendet
+     */
+    default double evaluate() {
+        return evaluate(new double[0]);
+    }
+}
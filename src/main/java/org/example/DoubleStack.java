@@ -0,0 +1,185 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Eine Stack-Implementierung für primitive {@code double}-Werte, die das
+ * LIFO-Prinzip (Last In - First Out) beachtet.
+ *
+ * <p>Im Gegensatz zu {@link Stack} werden die Werte direkt in einem Array
+ * gespeichert, sodass beim Ablegen kein Boxing stattfindet. Das Array wächst
+ * bei Bedarf, wird aber nie verkleinert; {@link #clear()} setzt nur die Größe
+ * zurück, damit ein wiederverwendeter Stack keinen Müll erzeugt.</p>
+ */
+public class DoubleStack {
+    // Interne Speicherung; elements[size - 1] ist die Spitze des Stacks.
+    private double[] elements;
+    private int size;
+
+    /**
+     * Erstellt einen leeren Stack mit Standardkapazität.
+     */
+    public DoubleStack() {
+        this(16);
+    }
+
+    /**
+     * Erstellt einen leeren Stack mit der angegebenen Anfangskapazität.
+     *
+     * @param initialCapacity Anfangskapazität (mindestens 1)
+     */
+    public DoubleStack(int initialCapacity) {
+        this.elements = new double[Math.max(1, initialCapacity)];
+    }
+
+    // -------------------------------------------------------------------------
+    // Stack-Operationen
+    // -------------------------------------------------------------------------
+
+    /**
+     * Legt einen Wert auf den Stack.
+     *
+     * @param item Der hinzuzufügende Wert.
+     */
+    public void push(double item) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = item;
+    }
+
+    /**
+     * Entfernt den obersten Wert vom Stack und gibt ihn zurück.
+     *
+     * @return Der oberste Wert des Stacks.
+     * @throws IndexOutOfBoundsException wenn der Stack leer ist.
+     */
+    public double pop() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Der Stack ist leer.");
+        }
+        return elements[--size];
+    }
+
+    /**
+     * Gibt den obersten Wert zurück, ohne ihn zu entfernen.
+     *
+     * @return Der oberste Wert des Stacks.
+     * @throws IndexOutOfBoundsException wenn der Stack leer ist.
+     */
+    public double peek() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Der Stack ist leer.");
+        }
+        return elements[size - 1];
+    }
+
+    /**
+     * Prüft, ob der Stack leer ist.
+     *
+     * @return true, wenn der Stack keine Elemente enthält, sonst false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gibt die aktuelle Anzahl der Elemente im Stack zurück.
+     *
+     * @return Die Anzahl der Elemente.
+     */
+    public int size() {
+        return size;
+    }
+
+    // -------------------------------------------------------------------------
+    // Bulk-Operationen
+    // -------------------------------------------------------------------------
+
+    /**
+     * Legt alle Werte des Arrays in der gegebenen Reihenfolge auf den Stack
+     * (das letzte Element wird zur Spitze).
+     *
+     * @param items Die hinzuzufügenden Werte.
+     */
+    public void pushAll(double[] items) {
+        pushAll(items, 0, items.length);
+    }
+
+    /**
+     * Legt einen Ausschnitt eines Arrays in der gegebenen Reihenfolge auf den Stack.
+     *
+     * @param items  Quell-Array
+     * @param offset Startindex im Quell-Array
+     * @param length Anzahl der Werte
+     */
+    public void pushAll(double[] items, int offset, int length) {
+        if (size + length > elements.length) {
+            grow(size + length);
+        }
+        System.arraycopy(items, offset, elements, size, length);
+        size += length;
+    }
+
+    /**
+     * Entfernt die obersten {@code n} Werte, ohne sie zurückzugeben.
+     *
+     * @param n Anzahl der zu entfernenden Werte
+     * @throws IndexOutOfBoundsException wenn weniger als {@code n} Werte vorhanden sind.
+     */
+    public void popN(int n) {
+        checkAvailable(n);
+        size -= n;
+    }
+
+    /**
+     * Entfernt die obersten {@code n} Werte und kopiert sie in ein Ziel-Array.
+     * Die Reihenfolge bleibt erhalten: das tiefste entfernte Element landet bei
+     * {@code target[offset]}, die bisherige Spitze bei {@code target[offset + n - 1]}.
+     *
+     * @param n      Anzahl der zu entfernenden Werte
+     * @param target Ziel-Array
+     * @param offset Startindex im Ziel-Array
+     * @throws IndexOutOfBoundsException wenn weniger als {@code n} Werte vorhanden sind.
+     */
+    public void popN(int n, double[] target, int offset) {
+        checkAvailable(n);
+        size -= n;
+        System.arraycopy(elements, size, target, offset, n);
+    }
+
+    /**
+     * Direkter Zugriff auf das interne Array (nur gültig bis zur nächsten
+     * Änderung). Wird vom {@link RpnEvaluator} verwendet, damit Funktionen
+     * ihre Argumente ohne Kopie lesen; {@code elements()[size() - 1]} ist die Spitze.
+     */
+    double[] elements() {
+        return elements;
+    }
+
+    /**
+     * Entfernt alle Elemente. Die Kapazität bleibt erhalten.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gibt die aktuelle Kapazität des internen Arrays zurück.
+     *
+     * @return Die Kapazität.
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    private void checkAvailable(int n) {
+        if (n < 0 || n > size) {
+            throw new IndexOutOfBoundsException("Der Stack enthält nur " + size + " Elemente (angefordert: " + n + ").");
+        }
+    }
+
+    private void grow(int minCapacity) {
+        elements = Arrays.copyOf(elements, Math.max(minCapacity, elements.length * 2));
+    }
+}
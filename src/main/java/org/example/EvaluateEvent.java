@@ -0,0 +1,16 @@
+package org.example;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-Event für {@link RpnEvaluator#evaluate(TokenBuffer, DoubleStack, java.util.Map)}.
+ */
+@Name("org.example.Evaluate")
+@Label("Auswertung")
+@Description("Auswertung des RPN-Ausdrucks")
+@Threshold("1 ms")
+final class EvaluateEvent extends PipelineEvent {
+}
@@ -0,0 +1,207 @@
+package org.example;
+
+/**
+ * Wiederverwendbares Ergebnis der Methoden, die Fehler zurückgeben statt sie
+ * zu werfen: {@link Tokenizer#tokenize(CharSequence, TokenBuffer, EvaluationResult)},
+ * {@link ShuntingYard#convertToRPN(TokenBuffer, TokenBuffer, EvaluationResult)},
+ * {@link ShuntingYard#validate(TokenBuffer, EvaluationResult)} und
+ * {@link RpnEvaluator#evaluate(TokenBuffer, DoubleStack, java.util.Map, EvaluationResult)}.
+ *
+ * <p>Im Erfolgsfall enthält es den Wert, sonst einen {@link ErrorCode} mit
+ * Position und Länge der betroffenen Stelle im Quelltext. Fehler für
+ * ungültige Eingaben sind damit so billig wie ein Erfolg: es wird weder eine
+ * Exception noch ein Stack-Trace noch eine Meldung erzeugt (nur der Name einer
+ * Variablen wird wie im Erfolgsfall zum Nachschlagen kopiert). Die Fehlermeldung
+ * der werfenden Methoden lässt sich bei Bedarf mit {@link #message()}
+ * nachträglich erzeugen; für Puffer aus {@link Tokenizer} und
+ * {@link ShuntingYard} stimmt sie Zeichen für Zeichen überein.</p>
+ *
+ * <p>Eine Instanz wird vom Aufrufer gestellt und bei jedem Aufruf
+ * überschrieben. Sie ist nicht thread-sicher.</p>
+ */
+public final class EvaluationResult {
+
+    /**
+     * Art eines Fehlers. Die Position ({@link #offset()}, {@link #length()})
+     * bezeichnet jeweils das genannte Token.
+     */
+    public enum ErrorCode {
+        /** Ungültiges Zeichen oder ungültige Zahl beim Zerlegen (z.B. "$" oder "-"). */
+        INVALID_TOKEN,
+        /** Schließende Klammer ohne öffnende; Position der schließenden Klammer. */
+        MISSING_OPEN_PAREN,
+        /** Öffnende Klammer ohne schließende; Position der öffnenden Klammer. */
+        MISSING_CLOSE_PAREN,
+        /** Schließende Klammer passt nicht zur öffnenden ("[1 + 2)"); Position der schließenden. */
+        MISMATCHED_PAREN,
+        /** Auf einen Funktionsnamen folgt kein '('; Position des Namens. */
+        MISSING_FUNCTION_PAREN,
+        /** ',' außerhalb eines Funktionsaufrufs; Position des ','. */
+        MISPLACED_SEPARATOR,
+        /** Leeres Argument wie in "max(1,,2)"; Position des Funktionsnamens. */
+        EMPTY_ARGUMENT,
+        /** Falsche Anzahl an Argumenten; Position des Funktionsnamens. */
+        WRONG_ARGUMENT_COUNT,
+        /** Token, das an dieser Stelle nicht ausgewertet werden kann (z.B. die Zahl "-."). */
+        MALFORMED_TOKEN,
+        /** Zu wenige Operanden für einen Operator; Position des Operators. */
+        MISSING_OPERAND,
+        /** Zu wenige Argumente für eine Funktion; Position des Funktionsnamens. */
+        MISSING_ARGUMENT,
+        /** Leerer Ausdruck; Position und Länge umfassen den ganzen Quelltext. */
+        EMPTY_EXPRESSION,
+        /** Mehr als ein Wert bleibt übrig, z.B. "1 2"; umfasst den ganzen Quelltext. */
+        TOO_MANY_OPERANDS,
+        /** Variable ohne Wert; Position des Namens. */
+        UNKNOWN_VARIABLE,
+        /** Division durch Null; Position des Operators. */
+        DIVISION_BY_ZERO
+    }
+
+    private ErrorCode errorCode;
+    private CharSequence source = "";
+    private int offset;
+    private int length;
+    private int found;
+    private int expected;
+    private double value = Double.NaN;
+
+    /**
+     * Setzt einen Erfolg.
+     */
+    void succeed(CharSequence text, double result) {
+        errorCode = null;
+        source = text;
+        offset = 0;
+        length = text.length();
+        found = 0;
+        expected = 0;
+        value = result;
+    }
+
+    /**
+     * Setzt einen Fehler. Der Quelltext wird nur referenziert, nicht kopiert.
+     *
+     * @param found    gefundene Anzahl (Argumente, verbleibende Werte), sonst 0
+     * @param expected erwartete Anzahl, sonst 0
+     */
+    void fail(ErrorCode code, CharSequence text, int errorOffset, int errorLength, int found, int expected) {
+        this.errorCode = code;
+        this.source = text;
+        this.offset = errorOffset;
+        this.length = errorLength;
+        this.found = found;
+        this.expected = expected;
+        this.value = Double.NaN;
+    }
+
+    /** @return {@code true}, wenn der letzte Aufruf erfolgreich war */
+    public boolean isOk() {
+        return errorCode == null;
+    }
+
+    /** @return der Fehler oder {@code null} bei Erfolg */
+    public ErrorCode errorCode() {
+        return errorCode;
+    }
+
+    /** @return Beginn der fehlerhaften Stelle im Quelltext (0 bei Erfolg) */
+    public int offset() {
+        return offset;
+    }
+
+    /** @return Länge der fehlerhaften Stelle im Quelltext */
+    public int length() {
+        return length;
+    }
+
+    /** @return das Ergebnis der Auswertung ({@code NaN} bei Fehlern und ohne Auswertung) */
+    public double value() {
+        return value;
+    }
+
+    /**
+     * Erzeugt die Fehlermeldung, die die werfende Variante derselben Methode
+     * verwendet hätte. Erzeugt Strings und ist daher für die Anzeige gedacht.
+     *
+     * @return die Meldung oder {@code null} bei Erfolg
+     */
+    public String message() {
+        return errorCode == null ? null : message(errorCode, source, offset, length, found, expected);
+    }
+
+    /**
+     * Erzeugt die Exception, die die werfende Variante geworfen hätte:
+     * {@link RpnEvaluator.RpnEvaluationException} für Fehler der Auswertung,
+     * sonst eine allgemeine {@link Exception} wie beim {@link ShuntingYard}.
+     *
+     * @return die Exception (nur nach einem Fehler)
+     */
+    Exception exception() {
+        String text = message();
+        switch (errorCode) {
+            case MALFORMED_TOKEN:
+            case MISSING_OPERAND:
+            case MISSING_ARGUMENT:
+            case EMPTY_EXPRESSION:
+            case TOO_MANY_OPERANDS:
+            case UNKNOWN_VARIABLE:
+            case DIVISION_BY_ZERO:
+                return new RpnEvaluator.RpnEvaluationException(text);
+            default:
+                return new Exception(text);
+        }
+    }
+
+    /**
+     * Baut eine Fehlermeldung, wie sie {@link ShuntingYard} (englisch) bzw.
+     * {@link RpnEvaluator} (deutsch) werfen.
+     */
+    static String message(ErrorCode code, CharSequence source, int offset, int length, int found, int expected) {
+        String text = source.subSequence(offset, offset + length).toString();
+        char c = length > 0 ? source.charAt(offset) : ' ';
+        switch (code) {
+            case INVALID_TOKEN:
+                // Wie TokenBuffer.text(int) für UNKNOWN-Tokens
+                return "Invalid token encountered: "
+                        + (Character.isDigit(c) || c == '.' || c == '-' ? "Invalid number" : "Invalid char: " + c);
+            case MISSING_OPEN_PAREN:
+                return c == ')' ? "Mismatched parentheses: Missing '('" : "Mismatched parentheses: Missing '['";
+            case MISSING_CLOSE_PAREN:
+                return c == '(' ? "Mismatched parentheses: Missing ')'" : "Mismatched parentheses: Missing ']'";
+            case MISMATCHED_PAREN:
+                return c == ')' ? "Mismatched parentheses: Expected ']', found ')'"
+                        : "Mismatched parentheses: Expected ')', found ']'";
+            case MISSING_FUNCTION_PAREN:
+                return "Missing '(' after function: " + text;
+            case MISPLACED_SEPARATOR:
+                return "Misplaced ','";
+            case EMPTY_ARGUMENT:
+                return "Empty argument in call of " + text;
+            case WRONG_ARGUMENT_COUNT:
+                return "Wrong number of arguments for " + text + ": expected " + expected + ", found " + found;
+            case MALFORMED_TOKEN:
+                return "Ungültiges Token im Ausdruck: " + text;
+            case MISSING_OPERAND:
+                return "Zu wenige Operanden für den Operator: " + text;
+            case MISSING_ARGUMENT:
+                return "Zu wenige Argumente für die Funktion: " + text;
+            case EMPTY_EXPRESSION:
+                return "Ungültiger RPN-Ausdruck: Stack am Ende leer (erwartet: 1 Element).";
+            case TOO_MANY_OPERANDS:
+                return "Ungültiger RPN-Ausdruck: Es verbleiben " + found + " Elemente auf dem Stack (erwartet: 1).";
+            case UNKNOWN_VARIABLE:
+                return "Unbekannte Variable: " + text;
+            case DIVISION_BY_ZERO:
+                return "Division durch Null!";
+            default:
+                return code.name();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return errorCode == null ? String.format("OK(%s)", value)
+                : String.format("%s bei %d+%d: %s", errorCode, offset, length, message());
+    }
+}
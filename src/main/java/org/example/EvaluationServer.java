@@ -0,0 +1,321 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leichtgewichtiger HTTP-Server, der die Pipeline Tokenizer → ShuntingYard →
+ * RpnEvaluator als JSON-Endpunkte anbietet. Jede Anfrage läuft in einem
+ * eigenen virtuellen Thread.
+ *
+ * <h2>Endpunkte</h2>
+ * <ul>
+ *   <li>{@code POST /evaluate} mit {@code {"expression": "x * 2", "variables": {"x": 1.5}}}
+ *       → {@code {"result": 3.0}}; ein ungültiger Ausdruck ergibt Status 422
+ *       mit {@code {"error": "..."}}.</li>
+ *   <li>{@code POST /evaluate/batch} mit {@code {"expressions": ["1+2", "1/0"]}}
+ *       → {@code {"results": [{"result": 3.0}, {"error": "Division durch Null!"}], "failures": 1}};
+ *       Fehler einzelner Ausdrücke brechen den Batch nicht ab
+ *       (siehe {@link ParallelBatchEvaluator}).</li>
+ * </ul>
+ *
+ * <h2>Last</h2>
+ * <p>Höchstens {@code maxConcurrent} Anfragen werden gleichzeitig
+ * ausgewertet, bis zu {@code maxQueued} weitere warten auf einen freien
+ * Platz. Ist auch die Warteschlange voll, wird die Anfrage sofort mit
+ * Status 429 abgewiesen, statt Threads und Speicher unbegrenzt zu belegen.</p>
+ *
+ * <p>Beide Endpunkte werten über {@link BufferPipeline} aus und werden daher
+ * in {@link PipelineMetrics#global()} und als JFR-Events erfasst; beim Start
+ * über {@link #main(String[])} wird die MBean registriert.</p>
+ *
+ * <p>Ohne TCP_NODELAY wartet jede kleine Antwort auf das verzögerte ACK des
+ * Clients (ca. 40 ms). Der {@link HttpServer} des JDK liest dafür einmalig
+ * die JVM-weite Property {@code sun.net.httpserver.nodelay}.
+ * {@link #main(String[])} setzt sie auf {@code true}, wenn sie nicht
+ * angegeben ist. Wer den Server einbettet, muss sie selbst setzen, z.B. mit
+ * {@code -Dsun.net.httpserver.nodelay=true}.</p>
+ */
+public class EvaluationServer implements AutoCloseable {
+
+    /** Maximale Größe eines Anfrage-Bodys in Bytes. */
+    static final int MAX_BODY_BYTES = 1 << 20;
+
+    /**
+     * Begrenzt die gleichzeitig ausgewerteten und wartenden Anfragen.
+     */
+    static final class AdmissionLimit {
+        private final Semaphore running;
+        private final int capacity;
+        private final AtomicInteger admitted = new AtomicInteger();
+
+        AdmissionLimit(int maxConcurrent, int maxQueued) {
+            if (maxConcurrent < 1 || maxQueued < 0) {
+                throw new IllegalArgumentException("Ungültige Grenzen: maxConcurrent=" + maxConcurrent
+                        + ", maxQueued=" + maxQueued);
+            }
+            this.running = new Semaphore(maxConcurrent, true);
+            this.capacity = maxConcurrent + maxQueued;
+        }
+
+        /**
+         * Lässt eine Anfrage zu und wartet gegebenenfalls auf einen freien Platz.
+         *
+         * @return {@code false}, wenn Auswertung und Warteschlange voll sind
+         */
+        boolean enter() throws InterruptedException {
+            if (admitted.incrementAndGet() > capacity) {
+                admitted.decrementAndGet();
+                return false;
+            }
+            try {
+                running.acquire();
+            } catch (InterruptedException e) {
+                admitted.decrementAndGet();
+                throw e;
+            }
+            return true;
+        }
+
+        /** Gibt den Platz einer mit {@link #enter()} zugelassenen Anfrage frei. */
+        void exit() {
+            running.release();
+            admitted.decrementAndGet();
+        }
+
+        /** @return Anzahl der zugelassenen (laufenden und wartenden) Anfragen */
+        int admitted() {
+            return admitted.get();
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AdmissionLimit limit;
+    private final ParallelBatchEvaluator batchEvaluator = new ParallelBatchEvaluator();
+
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Erstellt und startet einen Server auf {@code localhost}.
+     *
+     * @param port          Port; 0 wählt einen freien Port (siehe {@link #getPort()})
+     * @param maxConcurrent Anzahl gleichzeitig ausgewerteter Anfragen
+     * @param maxQueued     Anzahl wartender Anfragen, darüber hinaus Status 429
+     * @throws IOException wenn der Port nicht belegt werden kann
+     */
+    public EvaluationServer(int port, int maxConcurrent, int maxQueued) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxConcurrent, maxQueued);
+    }
+
+    /**
+     * Erstellt und startet einen Server auf der angegebenen Adresse.
+     */
+    public EvaluationServer(InetSocketAddress address, int maxConcurrent, int maxQueued) throws IOException {
+        this.limit = new AdmissionLimit(maxConcurrent, maxQueued);
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/evaluate", exchange -> handle(exchange, false));
+        server.createContext("/evaluate/batch", exchange -> handle(exchange, true));
+        server.start();
+    }
+
+    /** @return der tatsächlich belegte Port */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** @return Anzahl der beantworteten (nicht abgewiesenen) Anfragen */
+    public long getHandledCount() {
+        return handled.get();
+    }
+
+    /** @return Anzahl der mit Status 429 abgewiesenen Anfragen */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    AdmissionLimit admissionLimit() {
+        return limit;
+    }
+
+    /**
+     * Beendet den Server; laufende Anfragen erhalten bis zu einer Sekunde Zeit.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+        batchEvaluator.close();
+    }
+
+    private void handle(HttpExchange exchange, boolean batch) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, error("Nur POST wird unterstützt."));
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals(batch ? "/evaluate/batch" : "/evaluate")) {
+                respond(exchange, 404, error("Unbekannter Pfad: " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            boolean admitted;
+            try {
+                admitted = limit.enter();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, error("Server wird beendet."));
+                return;
+            }
+            if (!admitted) {
+                rejected.incrementAndGet();
+                respond(exchange, 429, error("Zu viele Anfragen."));
+                return;
+            }
+            try {
+                process(exchange, batch);
+                handled.incrementAndGet();
+            } finally {
+                limit.exit();
+            }
+        }
+    }
+
+    private void process(HttpExchange exchange, boolean batch) throws IOException {
+        Map<String, Object> request;
+        try {
+            String body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, error("Anfrage größer als " + MAX_BODY_BYTES + " Bytes."));
+                return;
+            }
+            if (!(Json.parse(body) instanceof Map<?, ?> map)) {
+                throw new IllegalArgumentException("JSON-Objekt erwartet.");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> object = (Map<String, Object>) map;
+            request = object;
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        }
+
+        if (batch) {
+            if (!(request.get("expressions") instanceof List<?> list)) {
+                respond(exchange, 400, error("Feld \"expressions\" (Array von Strings) fehlt."));
+                return;
+            }
+            List<String> expressions = new ArrayList<>(list.size());
+            for (Object item : list) {
+                expressions.add(item instanceof String s ? s : null);
+            }
+            respond(exchange, 200, batchResponse(batchEvaluator.evaluate(expressions)));
+            return;
+        }
+
+        if (!(request.get("expression") instanceof String expression)) {
+            respond(exchange, 400, error("Feld \"expression\" (String) fehlt."));
+            return;
+        }
+        Map<String, Double> variables = new HashMap<>();
+        if (request.get("variables") instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getValue() instanceof Double value)) {
+                    respond(exchange, 400, error("Variable \"" + entry.getKey() + "\" ist keine Zahl."));
+                    return;
+                }
+                variables.put((String) entry.getKey(), value);
+            }
+        } else if (request.containsKey("variables")) {
+            respond(exchange, 400, error("Feld \"variables\" muss ein Objekt sein."));
+            return;
+        }
+
+        EvaluationResult result = new EvaluationResult();
+        if (!new BufferPipeline().evaluate(expression, variables, result)) {
+            respond(exchange, 422, error(result.message()));
+            return;
+        }
+        StringBuilder out = new StringBuilder("{\"result\":");
+        Json.appendNumber(out, result.value()).append('}');
+        respond(exchange, 200, out.toString());
+    }
+
+    private static String batchResponse(ParallelBatchEvaluator.Results results) {
+        StringBuilder out = new StringBuilder(32 + results.size() * 24).append("{\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            if (results.isSuccess(i)) {
+                Json.appendNumber(out.append("{\"result\":"), results.value(i)).append('}');
+            } else {
+                Json.appendString(out.append("{\"error\":"), results.error(i)).append('}');
+            }
+        }
+        return out.append("],\"failures\":").append(results.failureCount()).append('}').toString();
+    }
+
+    private static String error(String message) {
+        return Json.appendString(new StringBuilder("{\"error\":"), String.valueOf(message)).append('}').toString();
+    }
+
+    /**
+     * Liest den Body als UTF-8.
+     *
+     * @return der Body oder {@code null}, wenn er größer als {@link #MAX_BODY_BYTES} ist
+     */
+    private static String readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            return null;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Startet den Server: {@code EvaluationServer [port] [maxConcurrent] [maxQueued]}.
+     */
+    public static void main(String[] args) throws IOException {
+        // Muss vor dem ersten HttpServer der JVM gesetzt sein
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int maxConcurrent = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 4;
+        int maxQueued = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        EvaluationServer server = new EvaluationServer(port, maxConcurrent, maxQueued);
+        PipelineMetrics.registerMBean();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Server läuft auf http://localhost:" + server.getPort()
+                + " (gleichzeitig: " + maxConcurrent + ", Warteschlange: " + maxQueued + ")");
+    }
+}
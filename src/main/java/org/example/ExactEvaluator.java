@@ -0,0 +1,512 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wertet dieselbe RPN-Liste wie {@link RpnEvaluator} aus, aber ohne die
+ * binären Rundungsfehler von {@code double}.
+ *
+ * <p>Im Modus {@link Mode#EXACT} wird mit {@code long} und
+ * {@code Math.addExact}, {@code subtractExact} und {@code multiplyExact}
+ * gerechnet, solange alle Operanden ganzzahlig sind. Erst wenn eine Operation
+ * überläuft oder einen Bruch ergibt (z.B. {@code 7 / 2}), wird ihr Ergebnis als
+ * {@link BigDecimal} mit dem eingestellten {@link MathContext} berechnet; alle
+ * Operationen darüber im Baum rechnen dann ebenfalls mit {@code BigDecimal}.
+ * Die Funktionen {@code min}, {@code max} und {@code abs} sind in beiden
+ * Darstellungen exakt; {@code sqrt} bleibt bei Quadratzahlen {@code long} und
+ * wird sonst mit {@link BigDecimal#sqrt(MathContext)} gerundet.
+ * Im Modus {@link Mode#DECIMAL} wird jede Operation mit {@code BigDecimal}
+ * ausgeführt, als Referenz und für Vergleichsmessungen.</p>
+ *
+ * <p>Die RPN-Liste aus {@link ShuntingYard#convertToRPN(List)} wird nicht
+ * verändert; sie kann also einmal erzeugt und in jedem Modus sowie mit
+ * {@link RpnEvaluator} in {@code double} ausgewertet werden. Wie oft welcher
+ * Pfad genommen wurde, liefert {@link #stats()}. Die Klasse ist thread-sicher.</p>
+ */
+public class ExactEvaluator {
+
+    /** Zahlendarstellung während der Auswertung. */
+    public enum Mode {
+        /** {@code long} mit Überlaufprüfung, {@code BigDecimal} nur bei Überlauf oder Bruch. */
+        EXACT,
+        /** Jede Operation mit {@code BigDecimal}. */
+        DECIMAL
+    }
+
+    /**
+     * Zähler der Rechenpfade seit dem Erzeugen des Evaluators.
+     */
+    public static final class Stats {
+        private final long longOperations;
+        private final long overflowPromotions;
+        private final long fractionPromotions;
+        private final long decimalOperations;
+
+        Stats(long longOperations, long overflowPromotions, long fractionPromotions, long decimalOperations) {
+            this.longOperations = longOperations;
+            this.overflowPromotions = overflowPromotions;
+            this.fractionPromotions = fractionPromotions;
+            this.decimalOperations = decimalOperations;
+        }
+
+        /** @return Anzahl der Operationen, die exakt in {@code long} gerechnet wurden */
+        public long longOperations() { return longOperations; }
+        /** @return Anzahl der Operationen, die wegen eines Überlaufs auf {@code BigDecimal} wechselten */
+        public long overflowPromotions() { return overflowPromotions; }
+        /** @return Anzahl der Operationen, Zahlen und Variablen, die einen Bruch ergaben */
+        public long fractionPromotions() { return fractionPromotions; }
+        /** @return Anzahl der Operationen mit einem Operanden, der bereits {@code BigDecimal} war */
+        public long decimalOperations() { return decimalOperations; }
+
+        @Override
+        public String toString() {
+            return String.format("long=%d, overflow=%d, fraction=%d, decimal=%d",
+                    longOperations, overflowPromotions, fractionPromotions, decimalOperations);
+        }
+    }
+
+    /** Größter Betrag eines Exponenten, den {@link BigDecimal#pow(int, MathContext)} annimmt. */
+    private static final BigDecimal MAX_EXPONENT = BigDecimal.valueOf(999_999_999);
+
+    private final Mode mode;
+    private final MathContext mathContext;
+    private final OperatorRegistry registry;
+
+    private final LongAdder longOperations = new LongAdder();
+    private final LongAdder overflowPromotions = new LongAdder();
+    private final LongAdder fractionPromotions = new LongAdder();
+    private final LongAdder decimalOperations = new LongAdder();
+
+    /**
+     * Erstellt einen Evaluator im Modus {@link Mode#EXACT} mit
+     * {@link MathContext#DECIMAL128} (34 Stellen).
+     */
+    public ExactEvaluator() {
+        this(Mode.EXACT, MathContext.DECIMAL128);
+    }
+
+    /**
+     * @param mode        Zahlendarstellung während der Auswertung
+     * @param mathContext Genauigkeit und Rundung aller {@code BigDecimal}-Operationen;
+     *                    mit {@link MathContext#UNLIMITED} schlagen Divisionen mit
+     *                    periodischem Ergebnis fehl
+     */
+    public ExactEvaluator(Mode mode, MathContext mathContext) {
+        this(mode, mathContext, OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Evaluator für die RPN-Listen einer eigenen Registry. Nur
+     * die vordefinierten Operatoren und Funktionen werden exakt berechnet;
+     * eigene Einträge rechnen in {@code double} und werden mit einer
+     * {@link RpnEvaluator.RpnEvaluationException} abgelehnt.
+     *
+     * @param mode        Zahlendarstellung während der Auswertung
+     * @param mathContext Genauigkeit und Rundung aller {@code BigDecimal}-Operationen
+     * @param registry    die Registry, mit der die RPN-Liste erzeugt wurde
+     */
+    public ExactEvaluator(Mode mode, MathContext mathContext, OperatorRegistry registry) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Modus darf nicht null sein.");
+        }
+        if (mathContext == null) {
+            throw new IllegalArgumentException("MathContext darf nicht null sein.");
+        }
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry darf nicht null sein.");
+        }
+        this.mode = mode;
+        this.mathContext = mathContext;
+        this.registry = registry;
+    }
+
+    /** @return die Zahlendarstellung während der Auswertung */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** @return Genauigkeit und Rundung der {@code BigDecimal}-Operationen */
+    public MathContext getMathContext() {
+        return mathContext;
+    }
+
+    /**
+     * Wertet eine Liste von Tokens in RPN-Form aus.
+     *
+     * @param rpnTokens der RPN-Ausdruck, z.B. ["0.1", "0.2", "+"]
+     * @return das exakte bzw. auf den {@link MathContext} gerundete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Ausdruck ungültig ist
+     */
+    public BigDecimal evaluate(List<String> rpnTokens) throws RpnEvaluator.RpnEvaluationException {
+        return evaluate(rpnTokens, Collections.emptyMap());
+    }
+
+    /**
+     * Wertet eine Liste von Tokens in RPN-Form mit Variablen aus.
+     *
+     * <p>Fehlermeldungen entsprechen denen von {@link RpnEvaluator}. Anders als
+     * dort werden "NaN" und "Infinity" nicht als Zahl akzeptiert, weil sie keinen
+     * exakten Wert haben; aus demselben Grund scheitert {@code sqrt} einer
+     * negativen Zahl mit "Ergebnis nicht darstellbar". Potenzen mit nicht
+     * ganzzahligem Exponenten lassen sich nicht exakt berechnen; sie werden über
+     * {@code double} gerechnet und auf den {@link MathContext} gerundet. Eigene
+     * Operatoren und Funktionen der Registry werden mit "nicht exakt unterstützt"
+     * abgelehnt.</p>
+     *
+     * @param rpnTokens der RPN-Ausdruck, z.B. ["preis", "3", "*"]
+     * @param variables Werte der Variablen nach Name
+     * @return das exakte bzw. auf den {@link MathContext} gerundete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Ausdruck ungültig ist,
+     * eine Variable keinen Wert hat oder ein Ergebnis nicht darstellbar ist
+     */
+    public BigDecimal evaluate(List<String> rpnTokens, Map<String, BigDecimal> variables)
+            throws RpnEvaluator.RpnEvaluationException {
+        // Ein Platz ist ein long, solange decimals[i] null ist
+        long[] longs = new long[rpnTokens.size()];
+        BigDecimal[] decimals = new BigDecimal[rpnTokens.size()];
+        int size = 0;
+        // Lokal zählen, damit die LongAdder nur einmal pro Auswertung angefasst werden
+        long longCount = 0;
+        long overflowCount = 0;
+        long fractionCount = 0;
+        long decimalCount = 0;
+
+        try {
+            for (String token : rpnTokens) {
+                // Auflösung wie im RpnEvaluator: Operatorzeichen, dann Funktionsname, sonst Variable
+                OperatorRegistry.Entry entry = token.length() == 1 ? registry.operator(token.charAt(0)) : null;
+                if (entry == null && isVariable(token)) {
+                    entry = registry.function(token);
+                    if (entry == null) {
+                        BigDecimal value = variables.get(token);
+                        if (value == null) {
+                            throw new RpnEvaluator.RpnEvaluationException("Unbekannte Variable: " + token);
+                        }
+                        if (mode == Mode.EXACT && isLong(value)) {
+                            longs[size] = value.longValue();
+                        } else {
+                            decimals[size] = value;
+                            fractionCount += mode == Mode.EXACT ? 1 : 0;
+                        }
+                        size++;
+                        continue;
+                    }
+                }
+                if (entry == null) {
+                    if (mode == Mode.EXACT && parseLong(token, longs, size)) {
+                        size++;
+                        continue;
+                    }
+                    BigDecimal value;
+                    try {
+                        value = new BigDecimal(token);
+                    } catch (NumberFormatException e) {
+                        throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + token);
+                    }
+                    if (mode == Mode.EXACT && isLong(value)) {
+                        // z.B. "2.0" oder eine Zahl mit mehr als 18 Ziffern, die noch in long passt
+                        longs[size] = value.longValue();
+                    } else {
+                        decimals[size] = value;
+                        fractionCount += mode == Mode.EXACT ? 1 : 0;
+                    }
+                    size++;
+                    continue;
+                }
+
+                if (size < entry.arity()) {
+                    throw new RpnEvaluator.RpnEvaluationException(EvaluationResult.message(entry.isFunction()
+                            ? EvaluationResult.ErrorCode.MISSING_ARGUMENT : EvaluationResult.ErrorCode.MISSING_OPERAND,
+                            token, 0, token.length(), 0, 0));
+                }
+                int opcode = entry.opcode();
+                if (opcode > OperatorRegistry.ABS) {
+                    // Eigene Einträge rechnen in double und haben kein exaktes Gegenstück
+                    throw new RpnEvaluator.RpnEvaluationException(
+                            (entry.isFunction() ? "Funktion" : "Operator") + " nicht exakt unterstützt: " + token);
+                }
+                if (opcode == OperatorRegistry.SQRT || opcode == OperatorRegistry.ABS) {
+                    int top = size - 1;
+                    if (decimals[top] != null) {
+                        decimals[top] = applyDecimal(opcode, decimals[top]);
+                        decimalCount++;
+                    } else if (opcode == OperatorRegistry.ABS) {
+                        if (longs[top] == Long.MIN_VALUE) {
+                            decimals[top] = BigDecimal.valueOf(longs[top]).negate();
+                            overflowCount++;
+                        } else {
+                            longs[top] = Math.abs(longs[top]);
+                            longCount++;
+                        }
+                    } else {
+                        long root = sqrtExact(longs[top]);
+                        if (root >= 0) {
+                            longs[top] = root;
+                            longCount++;
+                        } else {
+                            // Keine Quadratzahl (oder negativ): irrationales Ergebnis
+                            decimals[top] = applyDecimal(opcode, BigDecimal.valueOf(longs[top]));
+                            fractionCount++;
+                        }
+                    }
+                    continue;
+                }
+
+                int left = size - 2;
+                int right = size - 1;
+                size--;
+                if (opcode == OperatorRegistry.MIN || opcode == OperatorRegistry.MAX) {
+                    // Exakt in jeder Darstellung: der gewählte Operand wird unverändert übernommen
+                    int comparison = decimals[left] == null && decimals[right] == null
+                            ? Long.compare(longs[left], longs[right])
+                            : decimal(longs, decimals, left).compareTo(decimal(longs, decimals, right));
+                    if (opcode == OperatorRegistry.MIN ? comparison > 0 : comparison < 0) {
+                        longs[left] = longs[right];
+                        decimals[left] = decimals[right];
+                    }
+                    if (decimals[right] != null || decimals[left] != null) {
+                        decimalCount++;
+                    } else {
+                        longCount++;
+                    }
+                    decimals[right] = null;
+                    continue;
+                }
+                if (decimals[left] != null || decimals[right] != null) {
+                    // Mindestens ein Operand ist bereits BigDecimal: der Teilbaum bleibt es
+                    decimals[left] = applyDecimal(opcode, decimal(longs, decimals, left),
+                            decimal(longs, decimals, right));
+                    decimals[right] = null;
+                    decimalCount++;
+                    continue;
+                }
+                long a = longs[left];
+                long b = longs[right];
+                switch (opcode) {
+                    case OperatorRegistry.ADD:
+                    case OperatorRegistry.SUB:
+                    case OperatorRegistry.MUL:
+                        try {
+                            longs[left] = opcode == OperatorRegistry.ADD ? Math.addExact(a, b)
+                                    : opcode == OperatorRegistry.SUB ? Math.subtractExact(a, b)
+                                    : Math.multiplyExact(a, b);
+                            longCount++;
+                        } catch (ArithmeticException e) {
+                            decimals[left] = applyDecimal(opcode, BigDecimal.valueOf(a), BigDecimal.valueOf(b));
+                            overflowCount++;
+                        }
+                        break;
+                    case OperatorRegistry.DIV:
+                        if (b == 0) {
+                            throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+                        }
+                        if (a % b != 0) {
+                            decimals[left] = applyDecimal(opcode, BigDecimal.valueOf(a), BigDecimal.valueOf(b));
+                            fractionCount++;
+                        } else if (a == Long.MIN_VALUE && b == -1) {
+                            decimals[left] = BigDecimal.valueOf(a).negate();
+                            overflowCount++;
+                        } else {
+                            longs[left] = a / b;
+                            longCount++;
+                        }
+                        break;
+                    default: // POW
+                        if (b < 0 && a != 1 && a != -1) {
+                            // Negativer Exponent: Kehrwert, also ein Bruch (oder Division durch Null)
+                            decimals[left] = applyDecimal(opcode, BigDecimal.valueOf(a), BigDecimal.valueOf(b));
+                            fractionCount++;
+                            break;
+                        }
+                        try {
+                            longs[left] = powExact(a, b);
+                            longCount++;
+                        } catch (ArithmeticException e) {
+                            decimals[left] = applyDecimal(opcode, BigDecimal.valueOf(a), BigDecimal.valueOf(b));
+                            overflowCount++;
+                        }
+                        break;
+                }
+            }
+        } finally {
+            longOperations.add(longCount);
+            overflowPromotions.add(overflowCount);
+            fractionPromotions.add(fractionCount);
+            decimalOperations.add(decimalCount);
+        }
+
+        if (size == 0) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Stack am Ende leer (erwartet: 1 Element).");
+        }
+        if (size != 1) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Es verbleiben " + size + " Elemente auf dem Stack (erwartet: 1).");
+        }
+        return decimal(longs, decimals, 0);
+    }
+
+    /**
+     * @return eine Momentaufnahme der Zähler
+     */
+    public Stats stats() {
+        return new Stats(longOperations.sum(), overflowPromotions.sum(),
+                fractionPromotions.sum(), decimalOperations.sum());
+    }
+
+    /**
+     * Führt einen zweistelligen Operator mit {@code BigDecimal} aus.
+     */
+    private BigDecimal applyDecimal(int opcode, BigDecimal a, BigDecimal b) {
+        try {
+            switch (opcode) {
+                case OperatorRegistry.ADD:
+                    return a.add(b, mathContext);
+                case OperatorRegistry.SUB:
+                    return a.subtract(b, mathContext);
+                case OperatorRegistry.MUL:
+                    return a.multiply(b, mathContext);
+                case OperatorRegistry.DIV:
+                    if (b.signum() == 0) {
+                        throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+                    }
+                    return a.divide(b, mathContext);
+                default: // POW
+                    return pow(a, b);
+            }
+        } catch (ArithmeticException e) {
+            // z.B. periodische Division mit MathContext.UNLIMITED oder Exponent außerhalb des int-Bereichs
+            throw new RpnEvaluator.RpnEvaluationException("Ergebnis nicht darstellbar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Führt {@code sqrt} oder {@code abs} mit {@code BigDecimal} aus.
+     */
+    private BigDecimal applyDecimal(int opcode, BigDecimal a) {
+        if (opcode == OperatorRegistry.ABS) {
+            return a.abs(mathContext);
+        }
+        if (a.signum() < 0) {
+            // double liefert NaN, das keinen exakten Wert hat
+            throw new RpnEvaluator.RpnEvaluationException("Ergebnis nicht darstellbar: sqrt(" + a + ")");
+        }
+        try {
+            return a.sqrt(mathContext);
+        } catch (ArithmeticException e) {
+            // z.B. irrationale Wurzel mit MathContext.UNLIMITED
+            throw new RpnEvaluator.RpnEvaluationException("Ergebnis nicht darstellbar: " + e.getMessage());
+        }
+    }
+
+    private BigDecimal pow(BigDecimal base, BigDecimal exponent) {
+        if (isInteger(exponent) && exponent.abs().compareTo(MAX_EXPONENT) <= 0) {
+            int n = exponent.intValue();
+            if (n < 0 && base.signum() == 0) {
+                throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+            }
+            return base.pow(n, mathContext);
+        }
+        // Nicht ganzzahliger Exponent: kein exaktes Ergebnis möglich
+        double result = Math.pow(base.doubleValue(), exponent.doubleValue());
+        if (Double.isNaN(result) || Double.isInfinite(result)) {
+            throw new RpnEvaluator.RpnEvaluationException("Ergebnis nicht darstellbar: " + base + " ^ " + exponent);
+        }
+        return BigDecimal.valueOf(result).round(mathContext);
+    }
+
+    /**
+     * Potenz mit nicht negativem Exponenten (bzw. Basis ±1) durch Quadrieren.
+     * @throws ArithmeticException bei Überlauf
+     */
+    static long powExact(long base, long exponent) {
+        if (exponent < 0) {
+            // Nur für base = ±1 aufgerufen
+            return (exponent & 1) == 0 ? 1 : base;
+        }
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = Math.multiplyExact(result, base);
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                base = Math.multiplyExact(base, base);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ganzzahlige Wurzel einer Quadratzahl.
+     * @return die Wurzel oder -1, wenn {@code value} negativ oder keine Quadratzahl ist
+     */
+    static long sqrtExact(long value) {
+        if (value < 0) {
+            return -1;
+        }
+        long root = (long) Math.sqrt((double) value);
+        // double rundet ab 2^52 ungenau: auf die nächste ganze Wurzel korrigieren
+        while (root > 0 && (root > 3_037_000_499L || root * root > value)) {
+            root--;
+        }
+        while (root < 3_037_000_499L && (root + 1) * (root + 1) <= value) {
+            root++;
+        }
+        return root * root == value ? root : -1;
+    }
+
+    private static BigDecimal decimal(long[] longs, BigDecimal[] decimals, int i) {
+        return decimals[i] != null ? decimals[i] : BigDecimal.valueOf(longs[i]);
+    }
+
+    /**
+     * Liest eine Ganzzahl mit höchstens 18 Ziffern direkt in {@code longs[index]},
+     * ohne {@code BigDecimal} zu erzeugen.
+     * @return false, wenn das Token keine solche Zahl ist
+     */
+    private static boolean parseLong(String token, long[] longs, int index) {
+        int length = token.length();
+        int start = length > 0 && token.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > 18) {
+            return false;
+        }
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            value = value * 10 + (c - '0');
+        }
+        longs[index] = start == 1 ? -value : value;
+        return true;
+    }
+
+    private static boolean isInteger(BigDecimal value) {
+        return value.signum() == 0 || value.scale() <= 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    private static boolean isLong(BigDecimal value) {
+        if (!isInteger(value)) {
+            return false;
+        }
+        try {
+            value.longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static boolean isVariable(String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        char c = token.charAt(0);
+        return Character.isLetter(c) || c == '_';
+    }
+}
@@ -0,0 +1,289 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ein thread-sicherer, begrenzter Cache für übersetzte Ausdrücke.
+ *
+ * <p>Der Schlüssel ist der Ausdruckstext, der Wert eine
+ * {@link CompiledExpression} (RPN-Tokens und kompiliertes Programm). Bei einem
+ * Fehlzugriff wird der Ausdruck mit {@link Tokenizer}, {@link ShuntingYard}
+ * und {@link RpnCompiler} übersetzt.</p>
+ *
+ * <p>Der Cache ist sowohl durch die Anzahl der Einträge als auch durch den
+ * geschätzten Speicherbedarf begrenzt. Verdrängt wird in LRU-Reihenfolge,
+ * aufgenommen wird ein neuer Eintrag aber nur, wenn er laut
+ * {@link FrequencySketch} häufiger verwendet wurde als die Einträge, die ihm
+ * weichen müssten (TinyLFU). Dadurch verdrängen einmalige Ausdrücke (z.B. bei
+ * einem Scan) nicht die häufig genutzten.</p>
+ *
+ * <p>Lesende Zugriffe laufen über eine {@link ConcurrentHashMap}; die
+ * Verwaltung der LRU-Reihenfolge und des Sketches wird bei Treffern nur
+ * durchgeführt, wenn die Sperre frei ist, damit Treffer nie blockieren.</p>
+ */
+public class ExpressionCache {
+
+    /**
+     * Eine unveränderliche Momentaufnahme der Cache-Statistik.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long rejections;
+        private final long loadFailures;
+        private final long totalLoadTimeNanos;
+        private final int entries;
+        private final long estimatedBytes;
+
+        Stats(long hits, long misses, long evictions, long rejections, long loadFailures,
+              long totalLoadTimeNanos, int entries, long estimatedBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.rejections = rejections;
+            this.loadFailures = loadFailures;
+            this.totalLoadTimeNanos = totalLoadTimeNanos;
+            this.entries = entries;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        /** @return Anzahl der Treffer */
+        public long hits() { return hits; }
+        /** @return Anzahl der Fehlzugriffe (jeder löst eine Übersetzung aus) */
+        public long misses() { return misses; }
+        /** @return Anzahl der verdrängten Einträge */
+        public long evictions() { return evictions; }
+        /** @return Anzahl der übersetzten, aber von der Admission abgelehnten Einträge */
+        public long rejections() { return rejections; }
+        /** @return Anzahl der fehlgeschlagenen Übersetzungen (ungültige Ausdrücke) */
+        public long loadFailures() { return loadFailures; }
+        /** @return Gesamtzeit aller Übersetzungen in Nanosekunden */
+        public long totalLoadTimeNanos() { return totalLoadTimeNanos; }
+        /** @return aktuelle Anzahl der Einträge */
+        public int entries() { return entries; }
+        /** @return aktueller geschätzter Speicherbedarf in Bytes */
+        public long estimatedBytes() { return estimatedBytes; }
+
+        /** @return Anteil der Treffer an allen Zugriffen (0.0 wenn noch kein Zugriff) */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        /** @return durchschnittliche Übersetzungszeit in Nanosekunden */
+        public double averageLoadTimeNanos() {
+            return misses == 0 ? 0.0 : (double) totalLoadTimeNanos / misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.3f, evictions=%d, rejections=%d, "
+                            + "loadFailures=%d, avgLoad=%.0fns, entries=%d, bytes=%d",
+                    hits, misses, hitRate(), evictions, rejections, loadFailures,
+                    averageLoadTimeNanos(), entries, estimatedBytes);
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnCompiler compiler = new RpnCompiler();
+
+    // Schneller Lesezugriff ohne Sperre
+    private final ConcurrentHashMap<String, CompiledExpression> data = new ConcurrentHashMap<>();
+
+    // Die folgenden Felder werden nur unter 'lock' verändert
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CompiledExpression> lru = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+
+    private final ThreadLocal<RpnInterpreter> interpreters = ThreadLocal.withInitial(RpnInterpreter::new);
+
+    /**
+     * Erstellt einen neuen Cache.
+     *
+     * @param maxEntries maximale Anzahl von Einträgen (mindestens 1)
+     * @param maxBytes   maximaler geschätzter Speicherbedarf in Bytes
+     */
+    public ExpressionCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("maxEntries und maxBytes müssen positiv sein.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * Liefert den übersetzten Ausdruck aus dem Cache oder übersetzt ihn.
+     *
+     * <p>Ungültige Ausdrücke werden nicht gecacht; der Fehler der jeweiligen
+     * Stufe wird unverändert weitergereicht.</p>
+     *
+     * @param expression der Ausdruck
+     * @return der übersetzte Ausdruck
+     * @throws Exception bei ungültigen Tokens, unbalancierten Klammern oder
+     * falscher Anzahl von Operanden
+     */
+    public CompiledExpression get(String expression) throws Exception {
+        CompiledExpression cached = data.get(expression);
+        if (cached != null) {
+            hits.increment();
+            // Verwaltung nur, wenn sie niemanden blockiert (verlustbehaftet wie bei Caffeine)
+            if (lock.tryLock()) {
+                try {
+                    sketch.increment(expression);
+                    lru.get(expression);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return cached;
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        CompiledExpression loaded;
+        try {
+            List<Token> rpn = shuntingYard.convertToRPN(tokenizer.tokenize(expression));
+            loaded = new CompiledExpression(expression, rpn, compiler.compile(rpn));
+        } catch (Exception e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            loadTimeNanos.add(System.nanoTime() - start);
+        }
+
+        lock.lock();
+        try {
+            sketch.increment(expression);
+            CompiledExpression existing = data.get(expression);
+            if (existing != null) {
+                return existing; // parallel von einem anderen Thread geladen
+            }
+            admit(loaded);
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    /**
+     * Wertet einen Ausdruck über den Cache aus (mit einem Interpreter pro Thread).
+     *
+     * @param expression der Ausdruck
+     * @return das Ergebnis
+     * @throws Exception bei ungültigen Ausdrücken oder Division durch Null
+     */
+    public double evaluate(String expression) throws Exception {
+        return get(expression).evaluate(interpreters.get());
+    }
+
+    /**
+     * Nimmt einen Eintrag auf, falls er die TinyLFU-Admission besteht.
+     * Muss unter der Sperre aufgerufen werden.
+     */
+    private void admit(CompiledExpression candidate) {
+        long size = candidate.getEstimatedBytes();
+        if (size > maxBytes) {
+            rejections.increment();
+            return;
+        }
+
+        // Opfer in LRU-Reihenfolge sammeln, bis genug Platz frei wäre
+        List<String> victims = new ArrayList<>();
+        int entries = lru.size();
+        long bytes = currentBytes;
+        int candidateFrequency = sketch.frequency(candidate.getExpression());
+        Iterator<Map.Entry<String, CompiledExpression>> it = lru.entrySet().iterator();
+        while ((entries + 1 > maxEntries || bytes + size > maxBytes) && it.hasNext()) {
+            Map.Entry<String, CompiledExpression> victim = it.next();
+            if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                // Das Opfer ist mindestens so beliebt: Kandidat wird abgelehnt
+                rejections.increment();
+                return;
+            }
+            victims.add(victim.getKey());
+            entries--;
+            bytes -= victim.getValue().getEstimatedBytes();
+        }
+
+        for (String key : victims) {
+            CompiledExpression removed = lru.remove(key);
+            data.remove(key);
+            currentBytes -= removed.getEstimatedBytes();
+            evictions.increment();
+        }
+        lru.put(candidate.getExpression(), candidate);
+        data.put(candidate.getExpression(), candidate);
+        currentBytes += size;
+    }
+
+    /**
+     * Prüft, ob ein Ausdruck aktuell im Cache liegt (ohne Statistik zu verändern).
+     *
+     * @param expression der Ausdruck
+     * @return true, wenn ein Eintrag vorhanden ist
+     */
+    public boolean contains(String expression) {
+        return data.containsKey(expression);
+    }
+
+    /**
+     * Entfernt alle Einträge. Statistik und Häufigkeiten bleiben erhalten.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            lru.clear();
+            data.clear();
+            currentBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return aktuelle Anzahl der Einträge
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Erstellt eine Momentaufnahme der Statistik.
+     *
+     * @return die aktuelle Statistik
+     */
+    public Stats stats() {
+        int entries;
+        long bytes;
+        lock.lock();
+        try {
+            entries = lru.size();
+            bytes = currentBytes;
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), loadFailures.sum(),
+                loadTimeNanos.sum(), entries, bytes);
+    }
+}
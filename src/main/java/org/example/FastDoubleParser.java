@@ -0,0 +1,252 @@
+package org.example;
+
+import java.math.BigInteger;
+
+/**
+ * Wandelt Dezimalzahlen ohne Umweg über {@code String} korrekt gerundet in
+ * {@code double} um.
+ *
+ * <p>Zuerst wird der exakte Schnellpfad nach Clinger versucht (höchstens
+ * 2^53 als Mantisse und eine Zehnerpotenz bis 10^22: eine einzige
+ * Multiplikation bzw. Division rundet korrekt). Sonst rechnet der Algorithmus
+ * von Eisel und Lemire mit einer 128-Bit-Näherung der Zehnerpotenz; nur wenn
+ * diese Näherung die Rundung nicht sicher entscheidet (Halbwegfälle,
+ * subnormale Ergebnisse, mehr als 19 Ziffern mit abweichender Rundung), wird
+ * auf {@link Double#parseDouble(String)} zurückgegriffen.</p>
+ *
+ * <p>Quelle: D. Lemire, "Number Parsing at a Gigabyte per Second",
+ * Software: Practice and Experience 51(8), 2021.</p>
+ */
+final class FastDoubleParser {
+
+    /** Maximale Anzahl signifikanter Ziffern in der (vorzeichenlosen) 64-Bit-Mantisse. */
+    static final int MAX_DIGITS = 19;
+
+    private static final int SMALLEST_POWER_OF_TEN = -342;
+    private static final int LARGEST_POWER_OF_TEN = 308;
+
+    /** Zehnerpotenzen, die als {@code double} exakt darstellbar sind. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Normierte 128-Bit-Näherungen von 5^q für q = -342..308: obere und untere
+     * 64 Bit abwechselnd. Negative Potenzen sind aufgerundet, positive
+     * abgeschnitten, wie in der Tabelle von fast_float.
+     */
+    private static final long[] POWERS_OF_FIVE = powersOfFive();
+
+    private FastDoubleParser() {
+    }
+
+    /**
+     * Parst den Bereich {@code [start, end)} wie {@link Double#parseDouble(String)}.
+     *
+     * <p>Einfache Dezimalzahlen ({@code [+-]Ziffern[.Ziffern][(e|E)[+-]Ziffern]})
+     * werden ohne Allokation umgewandelt. Alles andere ("NaN", "Infinity",
+     * hexadezimale Zahlen, Leerzeichen am Rand, Suffixe wie "d") und ungültige
+     * Eingaben gehen an {@code parseDouble}, sodass Ergebnis und Exception
+     * identisch sind.</p>
+     *
+     * @param text  der Text
+     * @param start Beginn der Zahl
+     * @param end   Ende der Zahl (exklusiv)
+     * @return der korrekt gerundete Wert
+     * @throws NumberFormatException wenn der Bereich keine Zahl ist
+     */
+    static double parse(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long significand = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        int digitCount = 0;
+        boolean hasDecimal = false;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (significantDigits > 0 || c != '0') {
+                    significantDigits++;
+                    if (significantDigits <= MAX_DIGITS) {
+                        significand = significand * 10 + (c - '0');
+                    }
+                }
+                if (hasDecimal) {
+                    fractionDigits++;
+                }
+                digitCount++;
+            } else if (c == '.' && !hasDecimal) {
+                hasDecimal = true;
+            } else {
+                break;
+            }
+            i++;
+        }
+        int exponent = 0;
+        if (digitCount > 0 && i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                // Begrenzen: jenseits von 10^±400 ist das Ergebnis ohnehin 0 oder unendlich
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (text.charAt(i) - '0');
+                }
+                i++;
+            }
+            if (i == exponentStart) {
+                return Double.parseDouble(text.subSequence(start, end).toString());
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (digitCount == 0 || i != end) {
+            // Keine einfache Dezimalzahl: parseDouble entscheidet (Wert oder NumberFormatException)
+            return Double.parseDouble(text.subSequence(start, end).toString());
+        }
+        double value = toDouble(significand, significantDigits, exponent - fractionDigits);
+        if (Double.isNaN(value)) {
+            return Double.parseDouble(text.subSequence(start, end).toString());
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Wandelt eine Zahl aus eingelesenen Ziffern um.
+     *
+     * @param significand       die ersten höchstens {@value #MAX_DIGITS} signifikanten
+     *                          Ziffern, vorzeichenlos
+     * @param significantDigits Anzahl aller signifikanten Ziffern (auch der
+     *                          nicht in {@code significand} übernommenen)
+     * @param exponent          Zehnerexponent bezogen auf alle signifikanten Ziffern,
+     *                          d.h. der Wert ist {@code Ziffern * 10^exponent}
+     * @return der positive, korrekt gerundete Wert oder {@code NaN}, wenn die
+     * Rundung nicht sicher entschieden werden konnte
+     */
+    static double toDouble(long significand, int significantDigits, int exponent) {
+        if (significand == 0) {
+            return 0.0;
+        }
+        if (significantDigits <= MAX_DIGITS) {
+            return toDouble(significand, exponent);
+        }
+        // Abgeschnittene Ziffern: der Wert liegt zwischen w und w + 1 (in Einheiten
+        // der letzten übernommenen Stelle). Runden beide gleich, ist das Ergebnis sicher.
+        exponent += significantDigits - MAX_DIGITS;
+        double lower = toDouble(significand, exponent);
+        double upper = toDouble(significand + 1, exponent);
+        return lower == upper ? lower : Double.NaN;
+    }
+
+    /**
+     * Clinger-Schnellpfad, sonst Eisel-Lemire für {@code significand * 10^power}.
+     *
+     * @return der korrekt gerundete Wert oder {@code NaN}, wenn nicht entscheidbar
+     */
+    private static double toDouble(long significand, int power) {
+        if (power >= -22 && power <= 22 && Long.compareUnsigned(significand, 1L << 53) <= 0) {
+            double d = (double) significand;
+            return power < 0 ? d / POWERS_OF_TEN[-power] : d * POWERS_OF_TEN[power];
+        }
+        if (power < SMALLEST_POWER_OF_TEN) {
+            // Höchstens 10^19 * 10^-343: kleiner als die halbe kleinste subnormale Zahl
+            return 0.0;
+        }
+        if (power > LARGEST_POWER_OF_TEN) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        int index = 2 * (power - SMALLEST_POWER_OF_TEN);
+        long factorHigh = POWERS_OF_FIVE[index];
+        // Binärexponent von 10^power (aufgerundet über log2(10) * 2^16 = 217706)
+        long exponent = ((217706L * power) >> 16) + 1023 + 64;
+        int leadingZeros = Long.numberOfLeadingZeros(significand);
+        long normalized = significand << leadingZeros;
+
+        // 64 x 64 -> 128 Bit
+        long lower = normalized * factorHigh;
+        long upper = Math.unsignedMultiplyHigh(normalized, factorHigh);
+
+        // Reichen die oberen 64 Bit der Potenz nicht, auch die unteren einbeziehen
+        if ((upper & 0x1FF) == 0x1FF && Long.compareUnsigned(lower + normalized, lower) < 0) {
+            long factorLow = POWERS_OF_FIVE[index + 1];
+            long productLow = normalized * factorLow;
+            long productMiddle = lower + Math.unsignedMultiplyHigh(normalized, factorLow);
+            long productHigh = upper;
+            if (Long.compareUnsigned(productMiddle, lower) < 0) {
+                productHigh++;
+            }
+            if (productMiddle + 1 == 0 && (productHigh & 0x1FF) == 0x1FF
+                    && Long.compareUnsigned(productLow + normalized, productLow) < 0) {
+                return Double.NaN;
+            }
+            upper = productHigh;
+            lower = productMiddle;
+        }
+
+        // Die Mantisse soll 53 Bit mit führender Eins haben (hier noch 54 für die Rundung)
+        long upperBit = upper >>> 63;
+        long mantissa = upper >>> (upperBit + 9);
+        leadingZeros += (int) (1 ^ upperBit);
+
+        // Genau in der Mitte zwischen zwei doubles: round-half-even nicht sicher entscheidbar
+        if (lower == 0 && (upper & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            return Double.NaN;
+        }
+        mantissa += 1;
+        mantissa >>>= 1;
+        if (mantissa >= (1L << 53)) {
+            // Aufrunden hat eine Stelle hinzugefügt (z.B. 7.2057594037927933e16)
+            mantissa = 1L << 52;
+            leadingZeros--;
+        }
+        mantissa &= ~(1L << 52);
+        long realExponent = exponent - leadingZeros;
+        if (realExponent < 1 || realExponent > 2046) {
+            // Subnormal oder Überlauf: der langsame Pfad entscheidet
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(mantissa | realExponent << 52);
+    }
+
+    /**
+     * Berechnet die Tabelle der 128-Bit-Näherungen von 5^q einmalig beim Laden der Klasse.
+     */
+    private static long[] powersOfFive() {
+        long[] table = new long[2 * (LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1)];
+        BigInteger twoTo128 = BigInteger.ONE.shiftLeft(128);
+        int index = 0;
+        for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+            BigInteger power = BigInteger.valueOf(5).pow(Math.abs(q));
+            BigInteger value;
+            if (q < 0) {
+                int z = power.bitLength();
+                if (power.bitCount() == 1) {
+                    z--;
+                }
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                value = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                while (value.compareTo(twoTo128) >= 0) {
+                    value = value.shiftRight(1);
+                }
+            } else {
+                value = power.bitLength() < 128 ? power.shiftLeft(128 - power.bitLength())
+                        : power.shiftRight(power.bitLength() - 128);
+            }
+            table[index++] = value.shiftRight(64).longValue();
+            table[index++] = value.longValue();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,594 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Benannte Formeln, die sich wie Zellen einer Tabellenkalkulation
+ * gegenseitig referenzieren. Nach einer Änderung werden nur die Zellen neu
+ * berechnet, die von ihr abhängen.
+ *
+ * <p>Jede Formel wird mit dem {@link PrattParser} geparst und vom
+ * {@link RpnCompiler} übersetzt; ihre Variablen sind die Namen der
+ * referenzierten Zellen. Funktionen der
+ * {@link OperatorRegistry#standard() Standard-Registry} wie {@code max(b, 1)}
+ * sind erlaubt. Eine Definition, die einen Zyklus schließen würde,
+ * wird mit einer {@link CycleException} abgelehnt und ändert nichts.</p>
+ *
+ * <p>Jede Zelle hat eine Ebene, die größer ist als die Ebenen aller Zellen,
+ * die sie referenziert; die Ebenen bilden also eine topologische Ordnung und
+ * werden bei jeder Definition nachgeführt. Neu berechnet wird Ebene für
+ * Ebene, beginnend bei der geänderten Zelle. Zellen derselben Ebene hängen
+ * nicht voneinander ab; hat eine Ebene mehr als {@value #DEFAULT_THRESHOLD}
+ * Zellen, wird sie im {@link ForkJoinPool} parallel berechnet. Ändert sich
+ * der Wert einer Zelle nicht, werden ihre abhängigen Zellen nicht angefasst.
+ * Wie viele Zellen eine Änderung berechnet hat, steht im zurückgegebenen
+ * {@link Update}.</p>
+ *
+ * <p>Referenzen auf nicht definierte Zellen sind erlaubt; die Zelle ist dann
+ * fehlerhaft ("Unbekannte Variable: x"), bis die referenzierte Zelle
+ * definiert wird. Ein Fehler in einer Zelle macht alle abhängigen Zellen
+ * fehlerhaft. Alle öffentlichen Methoden sind synchronisiert.</p>
+ */
+public class FormulaGraph implements AutoCloseable {
+
+    /** Standardanzahl von Zellen einer Ebene, ab der parallel gerechnet wird. */
+    static final int DEFAULT_THRESHOLD = 256;
+
+    /**
+     * Wird geworfen, wenn eine Definition einen Zyklus schließen würde.
+     */
+    public static class CycleException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        // Als Array gespeichert, damit die Exception serialisierbar bleibt
+        private final String[] cycle;
+
+        CycleException(List<String> cycle) {
+            super("Zyklische Abhängigkeit: " + String.join(" -> ", cycle));
+            this.cycle = cycle.toArray(new String[0]);
+        }
+
+        /** @return die Zellen des Zyklus, erste und letzte sind gleich (z.B. [a, b, a]) */
+        public List<String> getCycle() {
+            return List.of(cycle);
+        }
+    }
+
+    /**
+     * Ergebnis einer Änderung.
+     */
+    public static final class Update {
+        private final int touchedCells;
+        private final int changedCells;
+        private final int levels;
+        private final int parallelLevels;
+        private final long elapsedNanos;
+
+        Update(int touchedCells, int changedCells, int levels, int parallelLevels, long elapsedNanos) {
+            this.touchedCells = touchedCells;
+            this.changedCells = changedCells;
+            this.levels = levels;
+            this.parallelLevels = parallelLevels;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** @return Anzahl der berechneten (bzw. gesetzten) Zellen */
+        public int touchedCells() { return touchedCells; }
+        /** @return Anzahl der Zellen, deren Wert oder Fehler sich geändert hat */
+        public int changedCells() { return changedCells; }
+        /** @return Anzahl der nacheinander berechneten Ebenen */
+        public int levels() { return levels; }
+        /** @return Anzahl der Ebenen, die parallel berechnet wurden */
+        public int parallelLevels() { return parallelLevels; }
+        /** @return Dauer in Nanosekunden */
+        public long elapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%d Zellen berechnet, %d geändert, %d Ebenen (%d parallel), %.3f ms",
+                    touchedCells, changedCells, levels, parallelLevels, elapsedNanos / 1e6);
+        }
+    }
+
+    /** Eine Zelle; auch Platzhalter für referenzierte, aber nicht definierte Namen. */
+    private static final class Cell {
+        final String name;
+        boolean defined;
+        String expression;
+        RpnProgram program;
+        /** Referenzierte Zellen in Slot-Reihenfolge des Programms */
+        Cell[] inputs = new Cell[0];
+        final Set<Cell> dependents = new LinkedHashSet<>();
+        int level;
+        double value;
+        String error;
+        // Zustand während einer Neuberechnung
+        int scheduled;
+        boolean changed;
+
+        Cell(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Map<String, Cell> cells = new HashMap<>();
+    private final PrattParser parser = new PrattParser();
+    private final RpnCompiler compiler = new RpnCompiler();
+    private final ForkJoinPool pool;
+    private final boolean ownPool;
+    private final int threshold;
+    private int epoch;
+
+    /**
+     * Erstellt einen Graphen, der auf dem {@link ForkJoinPool#commonPool()} rechnet.
+     */
+    public FormulaGraph() {
+        this(ForkJoinPool.commonPool(), false, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Erstellt einen Graphen mit einem eigenen Pool, der beim Schließen
+     * beendet wird.
+     *
+     * @param parallelism Anzahl der Threads (mindestens 1)
+     */
+    public FormulaGraph(int parallelism) {
+        this(new ForkJoinPool(parallelism), true, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Erstellt einen Graphen auf einem vorhandenen Pool. Der Pool wird beim
+     * Schließen nicht beendet.
+     *
+     * @param pool      Pool, in dem parallel gerechnet wird
+     * @param threshold Anzahl von Zellen, ab der ein Teil einer Ebene nicht weiter geteilt wird
+     */
+    public FormulaGraph(ForkJoinPool pool, int threshold) {
+        this(pool, false, threshold);
+    }
+
+    private FormulaGraph(ForkJoinPool pool, boolean ownPool, int threshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool darf nicht null sein.");
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Ungültiger Schwellwert: " + threshold);
+        }
+        this.pool = pool;
+        this.ownPool = ownPool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Definiert eine Zelle durch eine Formel (oder ersetzt ihre Formel) und
+     * berechnet sie und alle abhängigen Zellen neu.
+     *
+     * @param name       Name der Zelle (wie ein Variablenname, z.B. "umsatz_2024")
+     * @param expression Formel, z.B. "preis * menge"
+     * @return Umfang der Neuberechnung
+     * @throws CycleException wenn die Formel die Zelle selbst (auch indirekt) referenziert
+     * @throws Exception wenn die Formel nicht geparst werden kann (Graph bleibt unverändert)
+     */
+    public synchronized Update define(String name, String expression) throws Exception {
+        checkName(name);
+        long start = System.nanoTime();
+        RpnProgram program = compiler.compile(parser.parse(expression));
+        String[] references = program.getVariableNames();
+
+        Cell cell = cells.get(name);
+        List<String> cycle = findCycle(name, cell, references);
+        if (cycle != null) {
+            throw new CycleException(cycle);
+        }
+
+        cell = cell != null ? cell : newCell(name);
+        detachInputs(cell);
+        cell.defined = true;
+        cell.expression = expression;
+        cell.program = program;
+        cell.inputs = new Cell[references.length];
+        int level = 0;
+        for (int i = 0; i < references.length; i++) {
+            Cell input = cells.get(references[i]);
+            if (input == null) {
+                input = newCell(references[i]);
+            }
+            input.dependents.add(cell);
+            cell.inputs[i] = input;
+            level = Math.max(level, input.level + 1);
+        }
+        setLevel(cell, level);
+        return recompute(List.of(cell), List.of(), start);
+    }
+
+    /**
+     * Setzt eine Zelle auf einen festen Wert (Eingabezelle) und berechnet alle
+     * abhängigen Zellen neu.
+     *
+     * @param name  Name der Zelle
+     * @param value neuer Wert
+     * @return Umfang der Neuberechnung
+     */
+    public synchronized Update set(String name, double value) {
+        return setAll(Map.of(name, value));
+    }
+
+    /**
+     * Setzt mehrere Eingabezellen auf einmal; jede abhängige Zelle wird dabei
+     * höchstens einmal berechnet.
+     *
+     * @param values neue Werte nach Zellname
+     * @return Umfang der Neuberechnung
+     */
+    public synchronized Update setAll(Map<String, Double> values) {
+        for (String name : values.keySet()) {
+            checkName(name);
+        }
+        long start = System.nanoTime();
+        List<Cell> assigned = new ArrayList<>(values.size());
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            Cell cell = cells.get(entry.getKey());
+            cell = cell != null ? cell : newCell(entry.getKey());
+            detachInputs(cell);
+            double value = entry.getValue();
+            cell.changed = !cell.defined || cell.error != null
+                    || Double.doubleToLongBits(cell.value) != Double.doubleToLongBits(value);
+            cell.defined = true;
+            cell.expression = null;
+            cell.program = null;
+            cell.inputs = new Cell[0];
+            cell.value = value;
+            cell.error = null;
+            assigned.add(cell);
+        }
+        return recompute(List.of(), assigned, start);
+    }
+
+    /**
+     * Entfernt eine Zelle. Zellen, die sie referenzieren, werden fehlerhaft.
+     *
+     * @param name Name der Zelle
+     * @return Umfang der Neuberechnung
+     */
+    public synchronized Update remove(String name) {
+        long start = System.nanoTime();
+        Cell cell = cells.get(name);
+        if (cell == null || !cell.defined) {
+            return new Update(0, 0, 0, 0, System.nanoTime() - start);
+        }
+        detachInputs(cell);
+        cell.defined = false;
+        cell.expression = null;
+        cell.program = null;
+        cell.inputs = new Cell[0];
+        if (cell.dependents.isEmpty()) {
+            cells.remove(name);
+            return new Update(1, 1, 0, 0, System.nanoTime() - start);
+        }
+        markUndefined(cell);
+        cell.changed = true;
+        return recompute(List.of(), List.of(cell), start);
+    }
+
+    /**
+     * @return der Wert der Zelle
+     * @throws IllegalArgumentException wenn die Zelle nicht definiert ist
+     * @throws IllegalStateException wenn die Zelle fehlerhaft ist
+     */
+    public synchronized double value(String name) {
+        Cell cell = definedCell(name);
+        if (cell.error != null) {
+            throw new IllegalStateException("Zelle " + name + " ist fehlerhaft: " + cell.error);
+        }
+        return cell.value;
+    }
+
+    /**
+     * @return die Fehlermeldung der Zelle oder {@code null}
+     * @throws IllegalArgumentException wenn die Zelle nicht definiert ist
+     */
+    public synchronized String error(String name) {
+        return definedCell(name).error;
+    }
+
+    /**
+     * @return die Formel der Zelle oder {@code null} für Eingabezellen
+     * @throws IllegalArgumentException wenn die Zelle nicht definiert ist
+     */
+    public synchronized String expression(String name) {
+        return definedCell(name).expression;
+    }
+
+    /** @return {@code true}, wenn die Zelle definiert ist */
+    public synchronized boolean contains(String name) {
+        Cell cell = cells.get(name);
+        return cell != null && cell.defined;
+    }
+
+    /** @return Anzahl der definierten Zellen */
+    public synchronized int size() {
+        int count = 0;
+        for (Cell cell : cells.values()) {
+            if (cell.defined) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return die definierten Zellen in topologischer Reihenfolge: jede Zelle
+     * steht hinter allen Zellen, die sie referenziert
+     */
+    public synchronized List<String> topologicalOrder() {
+        List<Cell> defined = new ArrayList<>();
+        for (Cell cell : cells.values()) {
+            if (cell.defined) {
+                defined.add(cell);
+            }
+        }
+        defined.sort(Comparator.comparingInt((Cell cell) -> cell.level).thenComparing(cell -> cell.name));
+        List<String> names = new ArrayList<>(defined.size());
+        for (Cell cell : defined) {
+            names.add(cell.name);
+        }
+        return names;
+    }
+
+    /**
+     * Beendet den Pool, falls er von diesem Graphen erzeugt wurde.
+     */
+    @Override
+    public void close() {
+        if (ownPool) {
+            pool.shutdown();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Struktur
+    // -------------------------------------------------------------------------
+
+    private static void checkName(String name) {
+        boolean valid = name != null && !name.isEmpty()
+                && (Character.isLetter(name.charAt(0)) || name.charAt(0) == '_');
+        for (int i = 1; valid && i < name.length(); i++) {
+            valid = Tokenizer.isIdentifierPart(name.charAt(i));
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("Ungültiger Zellname: " + name);
+        }
+    }
+
+    private Cell definedCell(String name) {
+        Cell cell = cells.get(name);
+        if (cell == null || !cell.defined) {
+            throw new IllegalArgumentException("Unbekannte Zelle: " + name);
+        }
+        return cell;
+    }
+
+    /** Legt einen Platzhalter an; er bleibt fehlerhaft, bis er definiert wird. */
+    private Cell newCell(String name) {
+        Cell cell = new Cell(name);
+        markUndefined(cell);
+        cells.put(name, cell);
+        return cell;
+    }
+
+    private static void markUndefined(Cell cell) {
+        // "NaN" und "Infinity" akzeptiert parseDouble weiterhin als Zahl (wie im RpnEvaluator)
+        try {
+            cell.value = Double.parseDouble(cell.name);
+            cell.error = null;
+        } catch (NumberFormatException e) {
+            cell.value = 0;
+            cell.error = "Unbekannte Variable: " + cell.name;
+        }
+    }
+
+    /** Löst die Zelle von ihren bisherigen Eingaben; unbenutzte Platzhalter verschwinden. */
+    private void detachInputs(Cell cell) {
+        for (Cell input : cell.inputs) {
+            input.dependents.remove(cell);
+            if (!input.defined && input.dependents.isEmpty()) {
+                cells.remove(input.name);
+            }
+        }
+    }
+
+    /**
+     * Sucht einen Weg von der Zelle über ihre abhängigen Zellen zu einer der
+     * neuen Referenzen (iterativ, auch für lange Ketten).
+     *
+     * @return der Zyklus in Referenzrichtung oder {@code null}
+     */
+    private static List<String> findCycle(String name, Cell cell, String[] references) {
+        Set<String> targets = new LinkedHashSet<>(List.of(references));
+        if (targets.contains(name)) {
+            return List.of(name, name);
+        }
+        if (cell == null || targets.isEmpty()) {
+            return null;
+        }
+        Map<Cell, Cell> parent = new HashMap<>();
+        ArrayDeque<Cell> pending = new ArrayDeque<>();
+        parent.put(cell, null);
+        pending.push(cell);
+        while (!pending.isEmpty()) {
+            Cell current = pending.pop();
+            if (current != cell && targets.contains(current.name)) {
+                // Weg cell -> ... -> current in Abhängigkeitsrichtung, Zyklus in Referenzrichtung umgekehrt
+                List<String> cycle = new ArrayList<>();
+                cycle.add(name);
+                for (Cell step = current; step != null; step = parent.get(step)) {
+                    cycle.add(step.name);
+                }
+                return cycle;
+            }
+            for (Cell dependent : current.dependents) {
+                if (!parent.containsKey(dependent)) {
+                    parent.put(dependent, current);
+                    pending.push(dependent);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Setzt die Ebene einer Zelle. Wird sie größer, werden abhängige Zellen
+     * bei Bedarf ebenfalls angehoben; wird sie kleiner, bleibt die Ordnung
+     * ohnehin gültig.
+     */
+    private static void setLevel(Cell cell, int level) {
+        cell.level = level;
+        ArrayDeque<Cell> pending = new ArrayDeque<>();
+        pending.push(cell);
+        while (!pending.isEmpty()) {
+            Cell current = pending.pop();
+            for (Cell dependent : current.dependents) {
+                if (dependent.level <= current.level) {
+                    dependent.level = current.level + 1;
+                    pending.push(dependent);
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Neuberechnung
+    // -------------------------------------------------------------------------
+
+    /**
+     * Berechnet {@code seeds} und alle Zellen, die von einer geänderten Zelle
+     * abhängen, Ebene für Ebene.
+     *
+     * @param seeds    Zellen, die in jedem Fall berechnet werden
+     * @param assigned bereits gesetzte Zellen; ihre abhängigen Zellen werden
+     *                 berechnet, wenn sich ihr Wert geändert hat
+     */
+    private Update recompute(List<Cell> seeds, List<Cell> assigned, long start) {
+        int round = ++epoch;
+        TreeMap<Integer, List<Cell>> pending = new TreeMap<>();
+        for (Cell cell : seeds) {
+            schedule(pending, cell, round);
+        }
+        int touched = assigned.size();
+        int changed = 0;
+        for (Cell cell : assigned) {
+            if (cell.changed) {
+                changed++;
+                scheduleDependents(pending, cell, round);
+            }
+        }
+
+        int levels = 0;
+        int parallelLevels = 0;
+        while (!pending.isEmpty()) {
+            List<Cell> level = pending.pollFirstEntry().getValue();
+            Cell[] batch = level.toArray(new Cell[0]);
+            if (batch.length > threshold) {
+                pool.invoke(new Part(batch, 0, batch.length));
+                parallelLevels++;
+            } else {
+                evaluateRange(batch, 0, batch.length);
+            }
+            levels++;
+            touched += batch.length;
+            for (Cell cell : batch) {
+                if (cell.changed) {
+                    changed++;
+                    scheduleDependents(pending, cell, round);
+                }
+            }
+        }
+        return new Update(touched, changed, levels, parallelLevels, System.nanoTime() - start);
+    }
+
+    private static void schedule(TreeMap<Integer, List<Cell>> pending, Cell cell, int round) {
+        if (cell.scheduled != round) {
+            cell.scheduled = round;
+            pending.computeIfAbsent(cell.level, level -> new ArrayList<>()).add(cell);
+        }
+    }
+
+    private static void scheduleDependents(TreeMap<Integer, List<Cell>> pending, Cell cell, int round) {
+        for (Cell dependent : cell.dependents) {
+            if (dependent.defined && dependent.program != null) {
+                schedule(pending, dependent, round);
+            }
+        }
+    }
+
+    /** Berechnet die Zellen {@code [from, to)} einer Ebene; schreibt nur in diese Zellen. */
+    private static void evaluateRange(Cell[] batch, int from, int to) {
+        RpnInterpreter interpreter = new RpnInterpreter();
+        double[] values = new double[8];
+        for (int i = from; i < to; i++) {
+            Cell cell = batch[i];
+            double oldValue = cell.value;
+            String oldError = cell.error;
+            Cell[] inputs = cell.inputs;
+            if (values.length < inputs.length) {
+                values = new double[inputs.length];
+            }
+            String error = null;
+            for (int slot = 0; slot < inputs.length && error == null; slot++) {
+                Cell input = inputs[slot];
+                if (input.error != null) {
+                    error = input.defined ? "Fehler in Abhängigkeit: " + input.name : input.error;
+                }
+                values[slot] = input.value;
+            }
+            if (error == null) {
+                try {
+                    cell.value = interpreter.execute(cell.program, values);
+                } catch (RpnEvaluator.RpnEvaluationException e) {
+                    error = e.getMessage();
+                }
+            }
+            cell.error = error;
+            cell.changed = error != null ? !error.equals(oldError)
+                    : oldError != null || Double.doubleToLongBits(cell.value) != Double.doubleToLongBits(oldValue);
+        }
+    }
+
+    /**
+     * Ein Indexbereich {@code [from, to)} einer Ebene.
+     */
+    private final class Part extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Teilaufgaben werden nie serialisiert
+        private final transient Cell[] batch;
+        private final int from;
+        private final int to;
+
+        Part(Cell[] batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                evaluateRange(batch, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Part(batch, from, middle), new Part(batch, middle, to));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+/**
+ * Hilfsmethoden, die vom generierten Bytecode des {@link BytecodeCompiler}
+ * aufgerufen werden.
+ *
+ * <p>Prüfungen mit Verzweigungen liegen bewusst hier und nicht im generierten
+ * Code: so bleibt dieser geradlinig (ohne StackMapTable) und C2 inlined die
+ * kleinen Methoden ohnehin.</p>
+ */
+final class FormulaRuntime {
+
+    private FormulaRuntime() {
+    }
+
+    /**
+     * Division mit derselben Prüfung wie im {@link RpnEvaluator}.
+     */
+    static double div(double left, double right) {
+        if (right == 0) {
+            throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+        }
+        return left / right;
+    }
+
+    /**
+     * Prüft, ob genügend Variablenwerte übergeben wurden (gleiche Meldung wie
+     * im {@link RpnInterpreter}).
+     */
+    static void checkVariables(double[] variables, int required) {
+        if (variables.length < required) {
+            throw new IllegalArgumentException("Erwartet " + required
+                    + " Variablenwerte, erhalten: " + variables.length);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+/**
+ * Ein kompakter Count-Min-Sketch mit 4-Bit-Zählern, der die
+ * Zugriffshäufigkeit von Schlüsseln näherungsweise schätzt (TinyLFU).
+ *
+ * <p>Pro Schlüssel werden vier Zähler in verschiedenen Tabelleneinträgen
+ * erhöht; die Schätzung ist das Minimum dieser Zähler (maximal 15). Nach
+ * einer festen Anzahl von Erhöhungen werden alle Zähler halbiert, damit alte
+ * Popularität mit der Zeit verfällt.</p>
+ *
+ * <p>Die Klasse ist nicht thread-sicher; der {@link ExpressionCache}
+ * greift nur unter seiner Sperre darauf zu.</p>
+ */
+final class FrequencySketch {
+
+    // Multiplikatoren für die vier Hash-Funktionen
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    // Entfernt nach dem Verschieben das oberste Bit jedes 4-Bit-Zählers
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Erstellt einen Sketch für die angegebene maximale Anzahl von Einträgen.
+     *
+     * @param maximumSize erwartete maximale Anzahl von Cache-Einträgen
+     */
+    FrequencySketch(int maximumSize) {
+        int size = Math.max(16, maximumSize);
+        int capacity = Integer.highestOneBit(size - 1) << 1;
+        this.table = new long[capacity];
+        this.tableMask = capacity - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    /**
+     * Schätzt, wie oft der Schlüssel im aktuellen Zeitfenster vorkam.
+     *
+     * @param key der Schlüssel
+     * @return geschätzte Häufigkeit zwischen 0 und 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            long word = table[indexOf(hash, i)];
+            frequency = Math.min(frequency, (int) ((word >>> offsetOf(hash, i)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    /**
+     * Erhöht die Häufigkeit eines Schlüssels; halbiert alle Zähler, wenn das
+     * Zeitfenster voll ist.
+     *
+     * @param key der Schlüssel
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halbiert alle Zähler ("Aging").
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    // Bit-Position des i-ten Zählers innerhalb des 64-Bit-Wortes (16 Zähler à 4 Bit)
+    private int offsetOf(int hash, int i) {
+        return ((hash >>> (i << 3)) & 15) << 2;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,509 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hält den Text, die Tokens und Teile des Syntaxbaums einer Formel, die im
+ * Editor bei jedem Tastendruck geändert wird, und aktualisiert nach einer
+ * Änderung nur den betroffenen Ausschnitt.
+ *
+ * <p><b>Zerlegen:</b> Text und Tokens liegen jeweils in einem Gap-Buffer,
+ * dessen Lücke an der zuletzt bearbeiteten Stelle steht. Tokens hinter der
+ * Lücke speichern ihre Position relativ zum Textende, so dass eine Änderung
+ * sie nicht verschieben muss. Neu zerlegt wird ab dem ersten Token, das an die
+ * Änderung heranreicht (es könnte mit dem eingefügten Text verschmelzen),
+ * und nur so lange, bis hinter der Änderung wieder ein altes Token beginnt,
+ * <em>und</em> der Kontext für das Vorzeichen-Minus (vorheriges Token ist
+ * Operator oder öffnende Klammer, siehe {@link Tokenizer}) derselbe ist wie
+ * vorher. Ab dort würde der Tokenizer genau die alten Tokens liefern.</p>
+ *
+ * <p><b>Parsen:</b> Der Baum wird per Precedence Climbing wie im
+ * {@link PrattParser} aufgebaut. Der Teilbaum jeder Klammergruppe wird unter
+ * ihrer öffnenden Klammer gemerkt und beim nächsten Parsen unverändert
+ * übernommen, wenn seit dem letzten Parsen kein Token innerhalb der Gruppe
+ * ersetzt wurde. Neu aufgebaut werden also nur die Klammerebenen, die die
+ * Änderung enthalten. Ist der Ausdruck nicht wohlgeformt, wird wie im
+ * {@link PrattParser} auf Tokenizer → ShuntingYard → AstBuilder ausgewichen,
+ * damit Ergebnis und Fehlermeldung identisch sind.</p>
+ *
+ * <p>Eine Instanz ist nicht thread-sicher.</p>
+ */
+public class IncrementalParser {
+
+    /** Gemerkter Teilbaum einer Klammergruppe. */
+    private static final class Group {
+        final AstNode tree;
+        final Token close;
+        /** Abstand der schließenden von der öffnenden Klammer in Tokens */
+        final int span;
+
+        Group(AstNode tree, Token close, int span) {
+            this.tree = tree;
+            this.close = close;
+            this.span = span;
+        }
+    }
+
+    private final GapText text;
+
+    // Gap-Buffer der Tokens; hinter der Lücke sind Positionen relativ zum Textende (<= 0)
+    private Token[] tokens = new Token[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int gapStart = 0;
+    private int gapEnd = 16;
+
+    private final TokenBuffer scratch = new TokenBuffer();
+    private final Map<Token, Group> groups = new IdentityHashMap<>();
+
+    // Seit dem letzten erfolgreichen Parsen geänderte Token-Indizes (Hülle), leer wenn from > to
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = -1;
+
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final AstBuilder builder = new AstBuilder();
+
+    // Zustand und Statistik des Parsens
+    private int position;
+    private int depth;
+    private int lastRelexedTokens;
+    private int lastParsedTokens;
+    private int lastReusedGroups;
+
+    /**
+     * Erstellt den Zustand für einen Ausgangstext und zerlegt ihn vollständig.
+     *
+     * @param expression der Ausgangstext
+     */
+    public IncrementalParser(String expression) {
+        text = new GapText(expression.length() + 16);
+        // Nicht über das überschreibbare edit(), das im Konstruktor noch auf einen halb fertigen Zustand träfe
+        replace(0, 0, expression);
+    }
+
+    /**
+     * Ersetzt {@code removedLength} Zeichen ab {@code offset} durch
+     * {@code inserted} und zerlegt den betroffenen Ausschnitt neu.
+     *
+     * @param offset        Beginn der Änderung
+     * @param removedLength Anzahl der entfernten Zeichen
+     * @param inserted      eingefügter Text (darf leer sein)
+     * @throws IndexOutOfBoundsException wenn der Bereich außerhalb des Texts liegt
+     */
+    public void edit(int offset, int removedLength, String inserted) {
+        replace(offset, removedLength, inserted);
+    }
+
+    private void replace(int offset, int removedLength, String inserted) {
+        int oldLength = text.length();
+        if (offset < 0 || removedLength < 0 || offset > oldLength - removedLength) {
+            throw new IndexOutOfBoundsException("Bereich " + offset + ".." + (offset + removedLength)
+                    + " außerhalb von 0.." + oldLength);
+        }
+
+        // Erstes Token, das an die Änderung heranreicht; alle davor bleiben gültig
+        int first = firstTokenEndingAtOrAfter(offset);
+        moveGap(first);
+        int lexStart = first < tokenCount() ? Math.min(start(first), offset) : offset;
+        boolean signAllowed = gapStart == 0 || allowsSign(tokens[gapStart - 1]);
+
+        text.replace(offset, removedLength, inserted);
+        int length = text.length();
+        int editEnd = offset + inserted.length();
+
+        // Neu zerlegen, bis die alten Tokens wieder passen
+        scratch.reset(text);
+        int old = gapEnd;
+        int i = lexStart;
+        while (true) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i >= editEnd) {
+                while (old < tokens.length && starts[old] + length < i) {
+                    old++;
+                }
+                // Der Kontext zählt nur, wenn das Token mit '-' beginnt
+                if (old < tokens.length && starts[old] + length == i
+                        && (signAllowed == oldSignAllowed(old) || text.charAt(i) != '-')) {
+                    break;
+                }
+            }
+            if (i >= length) {
+                old = tokens.length;
+                break;
+            }
+            i = Tokenizer.scanToken(text, i, length, signAllowed, OperatorRegistry.standard(), scratch);
+            signAllowed = allowsSign(scratch.type(scratch.size() - 1));
+        }
+
+        // Alte Tokens [gapEnd, old) durch die neuen ersetzen
+        int removed = old - gapEnd;
+        for (int slot = gapEnd; slot < old; slot++) {
+            groups.remove(tokens[slot]);
+            tokens[slot] = null;
+        }
+        gapEnd = old;
+        int added = scratch.size();
+        ensureGap(added);
+        for (int j = 0; j < added; j++) {
+            tokens[gapStart] = scratch.token(j);
+            starts[gapStart] = scratch.start(j);
+            ends[gapStart] = scratch.end(j);
+            gapStart++;
+        }
+        markDirty(first, removed, added);
+        lastRelexedTokens = added;
+    }
+
+    /**
+     * Parst den aktuellen Text. Nur Klammergruppen, in denen sich seit dem
+     * letzten Parsen etwas geändert hat, werden neu aufgebaut.
+     *
+     * @return die Wurzel des Syntaxbaums (wie über Tokenizer → ShuntingYard → AstBuilder)
+     * @throws Exception mit denselben Meldungen wie {@link ShuntingYard#convertToRPN(List)}
+     * und {@link AstBuilder#build(List)}
+     */
+    public AstNode parse() throws Exception {
+        position = 0;
+        depth = 0;
+        lastParsedTokens = 0;
+        lastReusedGroups = 0;
+        AstNode tree = parseExpression(1);
+        if (tree != null && position == tokenCount()) {
+            dirtyFrom = Integer.MAX_VALUE;
+            dirtyTo = -1;
+            return tree;
+        }
+        // Nicht wohlgeformt: die Änderungen bleiben für das nächste Parsen vorgemerkt
+        return builder.build(shuntingYard.convertToRPN(getTokens()));
+    }
+
+    /** @return der aktuelle Text */
+    public String getText() {
+        return text.toString();
+    }
+
+    /** @return die aktuellen Tokens (Kopie; gleich {@code new Tokenizer().tokenize(getText())}) */
+    public List<Token> getTokens() {
+        int count = tokenCount();
+        List<Token> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(token(i));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /** @return Anzahl der Tokens */
+    public int getTokenCount() {
+        return tokenCount();
+    }
+
+    /** @return Anzahl der bei der letzten Änderung neu zerlegten Tokens */
+    public int getLastRelexedTokens() {
+        return lastRelexedTokens;
+    }
+
+    /** @return Anzahl der beim letzten Parsen gelesenen Tokens (ohne übernommene Gruppen) */
+    public int getLastParsedTokens() {
+        return lastParsedTokens;
+    }
+
+    /** @return Anzahl der beim letzten Parsen unverändert übernommenen Klammergruppen */
+    public int getLastReusedGroups() {
+        return lastReusedGroups;
+    }
+
+    // -------------------------------------------------------------------------
+    // Parsen
+    // -------------------------------------------------------------------------
+
+    private AstNode parseExpression(int minPrecedence) {
+        if (++depth > PrattParser.MAX_DEPTH) {
+            return null;
+        }
+        AstNode left = parseOperand();
+        while (left != null && position < tokenCount()) {
+            Token operator = token(position);
+            if (operator.getType() != Token.Type.OPERATOR) {
+                break;
+            }
+            char symbol = operator.getValue().charAt(0);
+            int precedence = ShuntingYard.getPrecedence(symbol);
+            if (precedence < minPrecedence) {
+                break;
+            }
+            position++;
+            lastParsedTokens++;
+            AstNode right = parseExpression(ShuntingYard.isLeftAssociative(symbol) ? precedence + 1 : precedence);
+            left = right == null ? null : new AstNode(operator.getValue(), left, right);
+        }
+        depth--;
+        return left;
+    }
+
+    private AstNode parseOperand() {
+        if (position == tokenCount()) {
+            return null;
+        }
+        Token token = token(position);
+        if (token.getType() == Token.Type.NUMBER && !isPlainNumber(token.getValue())) {
+            return null;
+        }
+        switch (token.getType()) {
+            case NUMBER:
+            case VARIABLE:
+                position++;
+                lastParsedTokens++;
+                return new AstNode(token.getValue());
+            case LPARENNORMAL:
+            case LPARENECKIG:
+                return parseGroup(token);
+            default:
+                return null;
+        }
+    }
+
+    private AstNode parseGroup(Token open) {
+        int openIndex = position;
+        Group cached = groups.get(open);
+        if (cached != null) {
+            int closeIndex = openIndex + cached.span;
+            if (closeIndex < tokenCount() && token(closeIndex) == cached.close
+                    && !(dirtyFrom <= closeIndex && dirtyTo > openIndex)) {
+                position = closeIndex + 1;
+                lastReusedGroups++;
+                return cached.tree;
+            }
+        }
+        position++;
+        lastParsedTokens++;
+        AstNode inner = parseExpression(1);
+        Token.Type expected = open.getType() == Token.Type.LPARENNORMAL ? Token.Type.RPARENNORMAL : Token.Type.RPARENECKIG;
+        if (inner == null || position == tokenCount() || token(position).getType() != expected) {
+            return null;
+        }
+        groups.put(open, new Group(inner, token(position), position - openIndex));
+        position++;
+        lastParsedTokens++;
+        return inner;
+    }
+
+    /** Nur ASCII-Ziffern, '.' und '-', mindestens eine Ziffer (wie im PrattParser). */
+    private static boolean isPlainNumber(String value) {
+        boolean digits = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c != '.' && c != '-') {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    // -------------------------------------------------------------------------
+    // Gap-Buffer der Tokens
+    // -------------------------------------------------------------------------
+
+    private int tokenCount() {
+        return tokens.length - (gapEnd - gapStart);
+    }
+
+    private int slot(int index) {
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+
+    private Token token(int index) {
+        return tokens[slot(index)];
+    }
+
+    private int start(int index) {
+        int slot = slot(index);
+        return slot < gapStart ? starts[slot] : starts[slot] + text.length();
+    }
+
+    private int end(int index) {
+        int slot = slot(index);
+        return slot < gapStart ? ends[slot] : ends[slot] + text.length();
+    }
+
+    /** Binäre Suche; die Endpositionen sind aufsteigend. */
+    private int firstTokenEndingAtOrAfter(int offset) {
+        int low = 0;
+        int high = tokenCount();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (end(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Verschiebt die Lücke vor das Token {@code index}; kostet den Abstand zur
+     * alten Lücke. Die Lücke darf leer sein (dann ist Quelle gleich Ziel).
+     */
+    private void moveGap(int index) {
+        int length = text.length();
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            Token token = tokens[gapStart];
+            tokens[gapStart] = null;
+            tokens[gapEnd] = token;
+            starts[gapEnd] = starts[gapStart] - length;
+            ends[gapEnd] = ends[gapStart] - length;
+        }
+        while (gapStart < index) {
+            Token token = tokens[gapEnd];
+            tokens[gapEnd] = null;
+            tokens[gapStart] = token;
+            starts[gapStart] = starts[gapEnd] + length;
+            ends[gapStart] = ends[gapEnd] + length;
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    private void ensureGap(int needed) {
+        if (gapEnd - gapStart >= needed) {
+            return;
+        }
+        int tail = tokens.length - gapEnd;
+        int capacity = Math.max(tokens.length * 2, gapStart + tail + needed + 16);
+        Token[] newTokens = new Token[capacity];
+        int[] newStarts = new int[capacity];
+        int[] newEnds = new int[capacity];
+        System.arraycopy(tokens, 0, newTokens, 0, gapStart);
+        System.arraycopy(starts, 0, newStarts, 0, gapStart);
+        System.arraycopy(ends, 0, newEnds, 0, gapStart);
+        System.arraycopy(tokens, gapEnd, newTokens, capacity - tail, tail);
+        System.arraycopy(starts, gapEnd, newStarts, capacity - tail, tail);
+        System.arraycopy(ends, gapEnd, newEnds, capacity - tail, tail);
+        tokens = newTokens;
+        starts = newStarts;
+        ends = newEnds;
+        gapEnd = capacity - tail;
+    }
+
+    /** Kontext des alten Tokens im Slot {@code slot} (hinter der Lücke). */
+    private boolean oldSignAllowed(int slot) {
+        if (slot > gapEnd) {
+            return allowsSign(tokens[slot - 1]);
+        }
+        return gapStart == 0 || allowsSign(tokens[gapStart - 1]);
+    }
+
+    /** Wie {@code Tokenizer.isPreviousTokenOperatorOrLParen} für das vorherige Token. */
+    private static boolean allowsSign(Token previous) {
+        Token.Type type = previous.getType();
+        return type == Token.Type.OPERATOR || type == Token.Type.LPARENNORMAL || type == Token.Type.LPARENECKIG
+                || type == Token.Type.SEPARATOR;
+    }
+
+    private static boolean allowsSign(byte previousType) {
+        return previousType == TokenBuffer.OPERATOR || previousType == TokenBuffer.LPARENNORMAL
+                || previousType == TokenBuffer.LPARENECKIG || previousType == TokenBuffer.SEPARATOR;
+    }
+
+    /**
+     * Erweitert die Hülle der geänderten Token-Indizes, nachdem die Tokens
+     * {@code [first, first + removed)} durch {@code added} neue ersetzt wurden.
+     * Eine reine Löschung wird als Punkt {@code first} vermerkt.
+     */
+    private void markDirty(int first, int removed, int added) {
+        int shift = added - removed;
+        if (dirtyFrom <= dirtyTo) {
+            int from = dirtyFrom >= first + removed ? dirtyFrom + shift : dirtyFrom;
+            int to = dirtyTo >= first + removed ? dirtyTo + shift : dirtyTo;
+            dirtyFrom = Math.min(from, first);
+            dirtyTo = Math.max(to, first + added);
+        } else {
+            dirtyFrom = first;
+            dirtyTo = first + added;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Gap-Buffer des Texts
+    // -------------------------------------------------------------------------
+
+    /**
+     * Text mit einer Lücke an der zuletzt bearbeiteten Stelle; eine Änderung
+     * kostet den Abstand zur vorigen Änderung plus die Länge des eingefügten
+     * Texts.
+     */
+    private static final class GapText implements CharSequence {
+        private char[] chars;
+        private int gapStart;
+        private int gapEnd;
+
+        GapText(int capacity) {
+            chars = new char[capacity];
+            gapEnd = capacity;
+        }
+
+        void replace(int offset, int removed, String inserted) {
+            moveGap(offset);
+            gapEnd += removed;
+            if (gapEnd - gapStart < inserted.length()) {
+                int tail = chars.length - gapEnd;
+                int capacity = Math.max(chars.length * 2, gapStart + tail + inserted.length() + 16);
+                char[] grown = new char[capacity];
+                System.arraycopy(chars, 0, grown, 0, gapStart);
+                System.arraycopy(chars, gapEnd, grown, capacity - tail, tail);
+                chars = grown;
+                gapEnd = capacity - tail;
+            }
+            inserted.getChars(0, inserted.length(), chars, gapStart);
+            gapStart += inserted.length();
+        }
+
+        private void moveGap(int offset) {
+            if (offset < gapStart) {
+                int count = gapStart - offset;
+                System.arraycopy(chars, offset, chars, gapEnd - count, count);
+                gapStart -= count;
+                gapEnd -= count;
+            } else if (offset > gapStart) {
+                int count = offset - gapStart;
+                System.arraycopy(chars, gapEnd, chars, gapStart, count);
+                gapStart += count;
+                gapEnd += count;
+            }
+        }
+
+        @Override
+        public int length() {
+            return chars.length - (gapEnd - gapStart);
+        }
+
+        @Override
+        public char charAt(int index) {
+            return index < gapStart ? chars[index] : chars[index + (gapEnd - gapStart)];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                sb.append(charAt(i));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimaler JSON-Leser und -Schreiber für {@link EvaluationServer}, damit das
+ * Projekt ohne externe Bibliotheken auskommt.
+ *
+ * <p>Gelesen werden Objekte als {@code Map<String, Object>}, Arrays als
+ * {@code List<Object>}, Zahlen als {@code Double}, sowie Strings, Booleans und
+ * {@code null}. Beim Schreiben werden nicht-endliche Zahlen, die JSON nicht
+ * kennt, als Strings ({@code "NaN"}, {@code "Infinity"}, {@code "-Infinity"})
+ * ausgegeben.</p>
+ */
+final class Json {
+
+    /** Maximale Verschachtelungstiefe beim Lesen. */
+    static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int position;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Liest einen vollständigen JSON-Text.
+     *
+     * @param text JSON-Text
+     * @return der gelesene Wert
+     * @throws IllegalArgumentException wenn der Text kein gültiges JSON ist
+     */
+    static Object parse(String text) {
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("Unerwartete Zeichen nach dem Ende");
+        }
+        return value;
+    }
+
+    private Object readValue() {
+        if (position >= text.length()) {
+            throw error("Unerwartetes Ende");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{': return readObject();
+            case '[': return readArray();
+            case '"': return readString();
+            case 't': return readLiteral("true", Boolean.TRUE);
+            case 'f': return readLiteral("false", Boolean.FALSE);
+            case 'n': return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unerwartetes Zeichen '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        enter();
+        position++;
+        Map<String, Object> result = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            depth--;
+            return result;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Schlüssel erwartet");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            result.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                depth--;
+                return result;
+            }
+            if (c != ',') {
+                throw error("',' oder '}' erwartet");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        enter();
+        position++;
+        List<Object> result = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            depth--;
+            return result;
+        }
+        while (true) {
+            skipWhitespace();
+            result.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                depth--;
+                return result;
+            }
+            if (c != ',') {
+                throw error("',' oder ']' erwartet");
+            }
+        }
+    }
+
+    private String readString() {
+        position++;
+        StringBuilder result = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return result.toString();
+            }
+            if (c < 0x20) {
+                throw error("Steuerzeichen im String");
+            }
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"': case '\\': case '/': result.append(escaped); break;
+                case 'b': result.append('\b'); break;
+                case 'f': result.append('\f'); break;
+                case 'n': result.append('\n'); break;
+                case 'r': result.append('\r'); break;
+                case 't': result.append('\t'); break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Unvollständige Unicode-Escape-Sequenz");
+                    }
+                    try {
+                        result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Ungültige Unicode-Escape-Sequenz");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Ungültige Escape-Sequenz '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                position++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.parseDouble(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Ungültige Zahl");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Unbekanntes Literal");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Zu tief verschachtelt");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unerwartetes Ende");
+        }
+        return text.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw error("'" + c + "' erwartet");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Ungültiges JSON an Position " + position + ": " + message);
+    }
+
+    // -------------------------------------------------------------------------
+    // Schreiben
+    // -------------------------------------------------------------------------
+
+    /**
+     * Hängt einen String als JSON-String an.
+     */
+    static StringBuilder appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Hängt eine Zahl an; nicht-endliche Werte als String.
+     */
+    static StringBuilder appendNumber(StringBuilder out, double value) {
+        if (Double.isFinite(value)) {
+            return out.append(value);
+        }
+        return appendString(out, Double.toString(value));
+    }
+}
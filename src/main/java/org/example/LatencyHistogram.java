@@ -0,0 +1,97 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latenz-Histogramm mit festen Buckets in Zweierpotenzen von Nanosekunden.
+ *
+ * <p>Bucket {@code b} zählt Werte im Bereich {@code [2^(b-1), 2^b)} ns, der
+ * letzte Bucket alle größeren. Jeder Bucket ist ein {@link LongAdder}, sodass
+ * viele Threads ohne gemeinsame Cache-Zeile aufzeichnen können. Perzentile
+ * werden als obere Grenze des Buckets angegeben (höchstens Faktor 2 zu hoch).</p>
+ */
+final class LatencyHistogram {
+
+    /** Anzahl der Buckets; der letzte beginnt bei 2^38 ns (ca. 275 s). */
+    static final int BUCKETS = 40;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Zeichnet eine Dauer auf.
+     *
+     * @param nanos Dauer in Nanosekunden
+     */
+    void record(long nanos) {
+        int bucket = nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+        counts[bucket].increment();
+        totalNanos.add(Math.max(0, nanos));
+    }
+
+    /** @return Anzahl der aufgezeichneten Werte */
+    long count() {
+        long sum = 0;
+        for (LongAdder count : counts) {
+            sum += count.sum();
+        }
+        return sum;
+    }
+
+    /** @return Summe aller Werte in Nanosekunden */
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    /** @return Mittelwert in Nanosekunden, 0 ohne Werte */
+    double meanNanos() {
+        long count = count();
+        return count == 0 ? 0.0 : totalNanos() / (double) count;
+    }
+
+    /**
+     * Schätzt ein Perzentil.
+     *
+     * @param p Anteil zwischen 0 und 1, z.B. 0.99
+     * @return obere Grenze des Buckets in Nanosekunden, 0 ohne Werte
+     */
+    long percentileNanos(double p) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) {
+                return i == 0 ? 0 : 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /** @return Anzahl der Werte in Bucket {@code bucket} */
+    long bucketCount(int bucket) {
+        return counts[bucket].sum();
+    }
+
+    /** Setzt alle Zähler zurück (nicht atomar gegenüber gleichzeitigen Aufzeichnungen). */
+    void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        totalNanos.reset();
+    }
+}
@@ -75,7 +75,13 @@ public class Main {
                 System.out.print(token.getValue() + " ");
             }
             System.out.println();
-            
+
+            // 3. Syntaxbaum aufbauen und konstante Teilbäume ausrechnen
+            AstNode tree = new AstBuilder().build(rpnTokens);
+            AstNode optimized = new AstOptimizer().optimize(tree);
+            System.out.println("AST-Knoten: " + tree.size() + " -> nach Optimierung: " + optimized.size()
+                    + " (" + new RpnCompiler().compile(optimized) + ")");
+
             // Beispielausgaben:
             // Eingabe: 3 + 4 * 2 / ( 1 - 5 )
             // Ausgabe Token: [3, +, 4, *, 2, /, (, 1, -, 5, )]
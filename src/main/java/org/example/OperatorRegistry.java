@@ -0,0 +1,361 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Zentrales Verzeichnis aller Operatoren und Funktionen.
+ *
+ * <p>Jeder Eintrag trägt Priorität, Assoziativität, Stelligkeit und eine
+ * Implementierung und erhält bei der Registrierung einen dichten Opcode
+ * (0, 1, 2, ...). {@link Tokenizer}, {@link ShuntingYard},
+ * {@link RpnEvaluator} und {@link RpnCompiler} lösen ein Symbol oder einen
+ * Funktionsnamen nur einmal auf und arbeiten danach mit Array-Zugriffen über
+ * den Opcode statt mit String-Vergleichen.</p>
+ *
+ * <p>Vordefiniert sind die binären Operatoren {@code + - * / ^} und die
+ * Funktionen {@code min(a, b)}, {@code max(a, b)}, {@code sqrt(x)} und
+ * {@code abs(x)}. Eigene Funktionen und Operatoren werden in einer eigenen
+ * Instanz registriert und den Komponenten im Konstruktor übergeben; alle
+ * Stufen einer Pipeline müssen dieselbe Registry verwenden. Registrierte
+ * Funktionsnamen sind reserviert und können nicht als Variablen verwendet
+ * werden.</p>
+ *
+ * <p>Die Registry ist thread-sicher: Registrierungen ersetzen die internen
+ * Tabellen als Ganzes (copy-on-write), Leser sehen immer einen vollständigen
+ * Stand.</p>
+ */
+public final class OperatorRegistry {
+
+    /**
+     * Implementierung eines Operators oder einer Funktion.
+     */
+    @FunctionalInterface
+    public interface Implementation {
+        /**
+         * @param args   Array, das die Argumente enthält (z.B. der Arbeitsstack)
+         * @param offset Index des ersten Arguments; die Argumente liegen in
+         *               {@code args[offset .. offset + arity)}
+         * @return das Ergebnis
+         */
+        double apply(double[] args, int offset);
+    }
+
+    /**
+     * Ein registrierter Operator oder eine registrierte Funktion.
+     */
+    public static final class Entry {
+        private final String name;
+        private final int opcode;
+        private final boolean function;
+        private final int precedence;
+        private final boolean leftAssociative;
+        private final int arity;
+        private final Implementation implementation;
+
+        Entry(String name, int opcode, boolean function, int precedence, boolean leftAssociative,
+              int arity, Implementation implementation) {
+            this.name = name;
+            this.opcode = opcode;
+            this.function = function;
+            this.precedence = precedence;
+            this.leftAssociative = leftAssociative;
+            this.arity = arity;
+            this.implementation = implementation;
+        }
+
+        /** @return Symbol des Operators bzw. Name der Funktion */
+        public String name() { return name; }
+        /** @return der dichte Opcode (Index in der Registry) */
+        public int opcode() { return opcode; }
+        /** @return {@code true} für Funktionen, {@code false} für binäre Operatoren */
+        public boolean isFunction() { return function; }
+        /** @return Priorität (je höher, desto stärker bindet der Operator; 0 für Funktionen) */
+        public int precedence() { return precedence; }
+        /** @return {@code true}, wenn der Operator linksassoziativ ist */
+        public boolean isLeftAssociative() { return leftAssociative; }
+        /** @return Anzahl der Argumente bzw. Operanden */
+        public int arity() { return arity; }
+        /** @return die Implementierung */
+        public Implementation implementation() { return implementation; }
+
+        @Override
+        public String toString() {
+            return function
+                    ? String.format("%s/%d (Opcode %d)", name, arity, opcode)
+                    : String.format("%s (Opcode %d, Priorität %d, %s)", name, opcode, precedence,
+                            leftAssociative ? "linksassoziativ" : "rechtsassoziativ");
+        }
+    }
+
+    /** Opcodes der vordefinierten Einträge, in Registrierungsreihenfolge. */
+    static final int ADD = 0;
+    static final int SUB = 1;
+    static final int MUL = 2;
+    static final int DIV = 3;
+    static final int POW = 4;
+    static final int MIN = 5;
+    static final int MAX = 6;
+    static final int SQRT = 7;
+    static final int ABS = 8;
+
+    /** Obergrenze für Opcodes, damit sie in den Operanden eines {@link RpnProgram}-Befehls passen. */
+    static final int MAX_ENTRIES = 1 << 16;
+
+    private static final OperatorRegistry STANDARD = new OperatorRegistry(true);
+
+    /**
+     * Unveränderlicher Stand der Tabellen. Funktionsnamen liegen in einer
+     * Hashtabelle mit offener Adressierung, damit der {@link Tokenizer} sie
+     * direkt auf einem Ausschnitt des Quelltexts nachschlagen kann.
+     */
+    private static final class Tables {
+        final Entry[] entries;
+        final Entry[] operatorsByChar;
+        final Entry[] functionSlots;
+
+        Tables(Entry[] entries, Entry[] operatorsByChar, Entry[] functionSlots) {
+            this.entries = entries;
+            this.operatorsByChar = operatorsByChar;
+            this.functionSlots = functionSlots;
+        }
+    }
+
+    private final boolean frozen;
+    private volatile Tables tables = new Tables(new Entry[0], new Entry[128], new Entry[16]);
+
+    /**
+     * Erstellt eine Registry mit den vordefinierten Operatoren und Funktionen,
+     * in der eigene Einträge registriert werden können.
+     */
+    public OperatorRegistry() {
+        this(false);
+    }
+
+    private OperatorRegistry(boolean frozen) {
+        add(new Entry("+", ADD, false, 1, true, 2, (a, i) -> a[i] + a[i + 1]));
+        add(new Entry("-", SUB, false, 1, true, 2, (a, i) -> a[i] - a[i + 1]));
+        add(new Entry("*", MUL, false, 2, true, 2, (a, i) -> a[i] * a[i + 1]));
+        add(new Entry("/", DIV, false, 2, true, 2, OperatorRegistry::divide));
+        add(new Entry("^", POW, false, 3, false, 2, (a, i) -> Math.pow(a[i], a[i + 1])));
+        add(new Entry("min", MIN, true, 0, true, 2, (a, i) -> Math.min(a[i], a[i + 1])));
+        add(new Entry("max", MAX, true, 0, true, 2, (a, i) -> Math.max(a[i], a[i + 1])));
+        add(new Entry("sqrt", SQRT, true, 0, true, 1, (a, i) -> Math.sqrt(a[i])));
+        add(new Entry("abs", ABS, true, 0, true, 1, (a, i) -> Math.abs(a[i])));
+        this.frozen = frozen;
+    }
+
+    /**
+     * Liefert die gemeinsame Registry mit den vordefinierten Einträgen, die von
+     * allen Komponenten ohne eigene Registry verwendet wird. Sie ist
+     * unveränderlich; eigene Einträge gehören in {@code new OperatorRegistry()}.
+     *
+     * @return die Standard-Registry
+     */
+    public static OperatorRegistry standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Registriert eine Funktion mit fester Stelligkeit, z.B.
+     * {@code registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]))}.
+     *
+     * @param name           Name wie ein Variablenname (Buchstabe oder '_', dann
+     *                       Buchstaben, Ziffern oder '_')
+     * @param arity          Anzahl der Argumente (0 bis 255)
+     * @param implementation die Implementierung
+     * @return der neue Eintrag mit seinem Opcode
+     * @throws IllegalArgumentException bei ungültigem oder bereits vergebenem Namen
+     * @throws IllegalStateException bei der {@link #standard()}-Registry
+     */
+    public synchronized Entry registerFunction(String name, int arity, Implementation implementation) {
+        checkModifiable(implementation);
+        if (name == null || name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')
+                || !name.chars().allMatch(c -> Tokenizer.isIdentifierPart((char) c))
+                || name.equals("NaN") || name.equals("Infinity")) {
+            throw new IllegalArgumentException("Ungültiger Funktionsname: " + name);
+        }
+        if (arity < 0 || arity > 255) {
+            throw new IllegalArgumentException("Ungültige Stelligkeit: " + arity);
+        }
+        if (function(name) != null) {
+            throw new IllegalArgumentException("Bereits registriert: " + name);
+        }
+        return add(new Entry(name, tables.entries.length, true, 0, true, arity, implementation));
+    }
+
+    /**
+     * Registriert einen binären Operator aus einem ASCII-Sonderzeichen, z.B.
+     * {@code registerOperator('%', 2, true, (a, i) -> a[i] % a[i + 1])}.
+     *
+     * @param symbol          das Operator-Zeichen; nicht erlaubt sind Buchstaben,
+     *                        Ziffern, Leerzeichen, Klammern, '.', ',' und '_'
+     * @param precedence      Priorität (mindestens 1; + und - haben 1, * und / 2, ^ 3)
+     * @param leftAssociative ob der Operator linksassoziativ ist
+     * @param implementation  die Implementierung
+     * @return der neue Eintrag mit seinem Opcode
+     * @throws IllegalArgumentException bei ungültigem oder bereits vergebenem Zeichen
+     * @throws IllegalStateException bei der {@link #standard()}-Registry
+     */
+    public synchronized Entry registerOperator(char symbol, int precedence, boolean leftAssociative,
+                                               Implementation implementation) {
+        checkModifiable(implementation);
+        if (symbol <= ' ' || symbol >= 127 || Character.isLetterOrDigit(symbol) || "()[].,_".indexOf(symbol) >= 0) {
+            throw new IllegalArgumentException("Ungültiges Operator-Zeichen: '" + symbol + "'");
+        }
+        if (precedence < 1) {
+            throw new IllegalArgumentException("Ungültige Priorität: " + precedence);
+        }
+        if (operator(symbol) != null) {
+            throw new IllegalArgumentException("Bereits registriert: " + symbol);
+        }
+        return add(new Entry(String.valueOf(symbol), tables.entries.length, false, precedence, leftAssociative,
+                2, implementation));
+    }
+
+    private void checkModifiable(Implementation implementation) {
+        if (frozen) {
+            throw new IllegalStateException(
+                    "Die Standard-Registry ist unveränderlich; eigene Einträge in new OperatorRegistry() registrieren.");
+        }
+        if (implementation == null) {
+            throw new IllegalArgumentException("Implementierung darf nicht null sein.");
+        }
+        if (tables.entries.length >= MAX_ENTRIES) {
+            throw new IllegalStateException("Zu viele Einträge: " + MAX_ENTRIES);
+        }
+    }
+
+    /**
+     * Fügt einen Eintrag hinzu und ersetzt die Tabellen.
+     */
+    private Entry add(Entry entry) {
+        Tables old = tables;
+        Entry[] entries = Arrays.copyOf(old.entries, old.entries.length + 1);
+        entries[entry.opcode] = entry;
+        Entry[] operators = old.operatorsByChar;
+        Entry[] slots = old.functionSlots;
+        if (entry.function) {
+            // Höchstens halb voll halten, damit die Suche kurz bleibt
+            int functions = 1;
+            for (Entry e : entries) {
+                functions += e.function ? 1 : 0;
+            }
+            int capacity = slots.length;
+            while (functions * 2 > capacity) {
+                capacity *= 2;
+            }
+            slots = new Entry[capacity];
+            for (Entry e : entries) {
+                if (e.function) {
+                    insert(slots, e);
+                }
+            }
+        } else {
+            operators = old.operatorsByChar.clone();
+            operators[entry.name.charAt(0)] = entry;
+        }
+        tables = new Tables(entries, operators, slots);
+        return entry;
+    }
+
+    private static void insert(Entry[] slots, Entry entry) {
+        int mask = slots.length - 1;
+        int slot = entry.name.hashCode() & mask;
+        while (slots[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+
+    /**
+     * @param opcode der Opcode
+     * @return der Eintrag mit diesem Opcode
+     * @throws IndexOutOfBoundsException bei unbekanntem Opcode
+     */
+    public Entry entry(int opcode) {
+        return tables.entries[opcode];
+    }
+
+    /**
+     * @param symbol das Operator-Zeichen
+     * @return der binäre Operator zu diesem Zeichen oder {@code null}
+     */
+    public Entry operator(char symbol) {
+        return symbol < 128 ? tables.operatorsByChar[symbol] : null;
+    }
+
+    /**
+     * @param name der Funktionsname
+     * @return die Funktion oder {@code null}
+     */
+    public Entry function(String name) {
+        return function(name, 0, name.length());
+    }
+
+    /**
+     * Sucht eine Funktion direkt auf einem Ausschnitt des Quelltexts, ohne
+     * einen String zu erzeugen.
+     *
+     * @param text  der Quelltext
+     * @param start Beginn des Namens
+     * @param end   Ende des Namens (exklusiv)
+     * @return die Funktion oder {@code null}
+     */
+    public Entry function(CharSequence text, int start, int end) {
+        // Derselbe Hash wie String.hashCode()
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        Entry[] slots = tables.functionSlots;
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != null; slot = (slot + 1) & mask) {
+            String name = slots[slot].name;
+            if (name.length() == end - start && matches(name, text, start)) {
+                return slots[slot];
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String name, CharSequence text, int start) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Anzahl der Einträge; Opcodes sind {@code 0 .. size() - 1}
+     */
+    public int size() {
+        return tables.entries.length;
+    }
+
+    /**
+     * @return alle Einträge in Opcode-Reihenfolge (unveränderliche Kopie)
+     */
+    public List<Entry> entries() {
+        return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(tables.entries)));
+    }
+
+    /**
+     * Direkter Zugriff auf die Einträge nach Opcode (nur lesen!), z.B. für
+     * {@link RpnProgram}, das den Stand beim Kompilieren festhält.
+     */
+    Entry[] entryArray() {
+        return tables.entries;
+    }
+
+    private static double divide(double[] args, int offset) {
+        if (args[offset + 1] == 0) {
+            throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+        }
+        return args[offset] / args[offset + 1];
+    }
+}
@@ -0,0 +1,198 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Wertet eine große Liste von Ausdrücken parallel auf mehreren Kernen aus.
+ *
+ * <p>Die Eingabe wird rekursiv halbiert ({@link RecursiveAction}) und in einem
+ * {@link ForkJoinPool} ausgeführt; freie Threads übernehmen dabei per
+ * Work-Stealing die noch nicht begonnenen Hälften anderer Threads. Jeder Teil
+ * schreibt in seinen eigenen Indexbereich der Ergebnis-Arrays, daher bleibt
+ * die Reihenfolge der Eingabe ohne Synchronisation erhalten.</p>
+ *
+ * <p>Ein fehlerhafter Ausdruck bricht den Batch nicht ab: Sein Fehler wird in
+ * {@link Results#error(int)} abgelegt, alle anderen Ausdrücke werden weiter
+ * ausgewertet. Ausgewertet wird mit den allokationsfreien
+ * {@link TokenBuffer}-Pfaden von {@link Tokenizer}, {@link ShuntingYard} und
+ * {@link RpnEvaluator} ({@link BufferPipeline}); jeder Teilbereich verwendet
+ * eigene Puffer und wird in {@link PipelineMetrics#global()} erfasst.</p>
+ */
+public class ParallelBatchEvaluator implements AutoCloseable {
+
+    /** Standardanzahl von Ausdrücken, ab der ein Bereich nicht weiter geteilt wird. */
+    static final int DEFAULT_THRESHOLD = 256;
+
+    /**
+     * Ergebnisse eines Batches in der Reihenfolge der Eingabe.
+     */
+    public static final class Results {
+        private final double[] values;
+        private final String[] errors;
+        private final int failureCount;
+
+        Results(double[] values, String[] errors) {
+            this.values = values;
+            this.errors = errors;
+            int failures = 0;
+            for (String error : errors) {
+                if (error != null) {
+                    failures++;
+                }
+            }
+            this.failureCount = failures;
+        }
+
+        /** @return Anzahl der Ausdrücke */
+        public int size() { return values.length; }
+
+        /** @return {@code true}, wenn der Ausdruck an Position {@code index} ausgewertet werden konnte */
+        public boolean isSuccess(int index) { return errors[index] == null; }
+
+        /**
+         * @return das Ergebnis des Ausdrucks an Position {@code index}
+         * @throws IllegalStateException wenn der Ausdruck fehlerhaft war
+         */
+        public double value(int index) {
+            if (errors[index] != null) {
+                throw new IllegalStateException("Ausdruck " + index + " ist fehlerhaft: " + errors[index]);
+            }
+            return values[index];
+        }
+
+        /** @return die Fehlermeldung des Ausdrucks an Position {@code index} oder {@code null} */
+        public String error(int index) { return errors[index]; }
+
+        /** @return Anzahl der fehlerhaften Ausdrücke */
+        public int failureCount() { return failureCount; }
+    }
+
+    private final ForkJoinPool pool;
+    private final boolean ownPool;
+    private final int threshold;
+
+    /**
+     * Erstellt einen Evaluator auf dem {@link ForkJoinPool#commonPool()}.
+     */
+    public ParallelBatchEvaluator() {
+        this(ForkJoinPool.commonPool(), false, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Erstellt einen Evaluator mit einem eigenen Pool, der beim Schließen
+     * beendet wird.
+     *
+     * @param parallelism Anzahl der Threads (mindestens 1)
+     */
+    public ParallelBatchEvaluator(int parallelism) {
+        this(new ForkJoinPool(parallelism), true, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Erstellt einen Evaluator auf einem vorhandenen Pool. Der Pool wird beim
+     * Schließen nicht beendet.
+     *
+     * @param pool      Pool, in dem die Auswertung läuft
+     * @param threshold Anzahl von Ausdrücken, ab der ein Bereich nicht weiter geteilt wird
+     */
+    public ParallelBatchEvaluator(ForkJoinPool pool, int threshold) {
+        this(pool, false, threshold);
+    }
+
+    private ParallelBatchEvaluator(ForkJoinPool pool, boolean ownPool, int threshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool darf nicht null sein.");
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Ungültiger Schwellwert: " + threshold);
+        }
+        this.pool = pool;
+        this.ownPool = ownPool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return die Parallelität des verwendeten Pools
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Wertet alle Ausdrücke aus.
+     *
+     * @param expressions Ausdrücke; {@code null}-Einträge gelten als fehlerhaft
+     * @return Ergebnisse und Fehler in der Reihenfolge der Eingabe
+     */
+    public Results evaluate(List<String> expressions) {
+        String[] input = expressions.toArray(new String[0]);
+        double[] values = new double[input.length];
+        String[] errors = new String[input.length];
+        if (input.length > 0) {
+            pool.invoke(new Part(input, values, errors, 0, input.length));
+        }
+        return new Results(values, errors);
+    }
+
+    /**
+     * Beendet den Pool, falls er von diesem Evaluator erzeugt wurde.
+     */
+    @Override
+    public void close() {
+        if (ownPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Ein Indexbereich {@code [from, to)} der Eingabe.
+     */
+    private final class Part extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] input;
+        private final double[] values;
+        private final String[] errors;
+        private final int from;
+        private final int to;
+
+        Part(String[] input, double[] values, String[] errors, int from, int to) {
+            this.input = input;
+            this.values = values;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                evaluateRange();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Part(input, values, errors, from, middle),
+                      new Part(input, values, errors, middle, to));
+        }
+
+        private void evaluateRange() {
+            BufferPipeline pipeline = new BufferPipeline();
+            EvaluationResult result = new EvaluationResult();
+            for (int i = from; i < to; i++) {
+                String expression = input[i];
+                if (expression == null) {
+                    errors[i] = "Ausdruck ist null.";
+                    continue;
+                }
+                if (pipeline.evaluate(expression, Collections.emptyMap(), result)) {
+                    values[i] = result.value();
+                } else {
+                    errors[i] = result.message();
+                }
+            }
+        }
+    }
+}
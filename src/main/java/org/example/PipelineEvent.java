@@ -0,0 +1,62 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Gemeinsame Felder der JFR-Events für die Stufen der Pipeline
+ * ({@link TokenizeEvent}, {@link ConvertEvent}, {@link EvaluateEvent}).
+ *
+ * <p>Die Events werden von {@link BufferPipeline} nur erzeugt, wenn eine
+ * Aufzeichnung eines der drei Events (oder die {@link PipelineMetrics})
+ * eingeschaltet hat, und nur übertragen, wenn die Stufe länger als der
+ * Schwellwert gedauert hat (Standard 1 ms, siehe {@code rechner.jfc}).
+ * Der Ausdruck selbst wird nicht aufgezeichnet.</p>
+ */
+@Category({"Rechner", "Pipeline"})
+@StackTrace(false)
+abstract class PipelineEvent extends Event {
+
+    /** Ergebnis einer erfolgreichen Stufe. */
+    static final String OK = "OK";
+
+    @Label("Ausdruckslänge")
+    int expressionLength;
+
+    @Label("Tokens")
+    int tokenCount;
+
+    @Label("Ergebnis")
+    String outcome;
+
+    /**
+     * Beendet das Event und überträgt es, falls es den Schwellwert überschreitet.
+     *
+     * @param error der aufgetretene Fehler oder {@code null}
+     */
+    void finish(int expressionLength, int tokenCount, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.expressionLength = expressionLength;
+            this.tokenCount = tokenCount;
+            this.outcome = error == null ? OK : PipelineMetrics.classify(error).name();
+            commit();
+        }
+    }
+
+    /**
+     * Wie {@link #finish(int, int, Throwable)} für einen Fehlercode aus dem
+     * {@link EvaluationResult}.
+     */
+    void finish(int expressionLength, int tokenCount, EvaluationResult.ErrorCode error) {
+        end();
+        if (shouldCommit()) {
+            this.expressionLength = expressionLength;
+            this.tokenCount = tokenCount;
+            this.outcome = PipelineMetrics.classify(error).name();
+            commit();
+        }
+    }
+}
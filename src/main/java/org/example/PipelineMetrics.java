@@ -0,0 +1,284 @@
+package org.example;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Messwerte der Pipeline: Latenz-Histogramme pro Stufe (Tokenizer,
+ * Shunting-Yard, Auswertung), Anzahl der Auswertungen und Fehler nach Art.
+ *
+ * <p>Alle Zähler sind {@link LongAdder}, damit parallele Auswertungen (z.B.
+ * in {@link ParallelBatchEvaluator} oder {@link EvaluationServer}) nicht um
+ * dieselbe Cache-Zeile konkurrieren. Ist die Messung ausgeschaltet, kostet
+ * sie pro Ausdruck nur das Lesen eines {@code volatile}-Felds in
+ * {@link BufferPipeline}; es werden weder Zeitstempel genommen noch Zähler
+ * erhöht.</p>
+ *
+ * <p>Die globale Instanz ({@link #global()}) ist ausgeschaltet, außer die
+ * System-Property {@code org.example.metrics} ist {@code true}. Sie kann mit
+ * {@link #registerMBean()} als {@code org.example:type=PipelineMetrics} per
+ * JMX veröffentlicht und dort auch ein- und ausgeschaltet werden.</p>
+ */
+public final class PipelineMetrics implements PipelineMetricsMBean {
+
+    /** Name, unter dem {@link #registerMBean()} die globale Instanz registriert. */
+    public static final String OBJECT_NAME = "org.example:type=PipelineMetrics";
+
+    /** Stufen der Pipeline. */
+    public enum Stage { TOKENIZE, CONVERT, EVALUATE }
+
+    /** Fehlerarten, ermittelt aus der Meldung (siehe {@link #classify(Throwable)}). */
+    public enum ErrorType {
+        /** "Mismatched parentheses..." aus {@link ShuntingYard} */
+        MISMATCHED_PARENTHESES,
+        /** "Division durch Null!" */
+        DIVISION_BY_ZERO,
+        /** "Invalid token encountered..." oder "Ungültiges Token..." */
+        INVALID_TOKEN,
+        /** "Unbekannte Variable..." */
+        UNKNOWN_VARIABLE,
+        /** Falsche Anzahl von Operanden */
+        MALFORMED_EXPRESSION,
+        /** Alles andere */
+        OTHER
+    }
+
+    private static final PipelineMetrics GLOBAL = new PipelineMetrics(Boolean.getBoolean("org.example.metrics"));
+
+    private volatile boolean enabled;
+    private volatile long resetNanos = System.nanoTime();
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final Map<ErrorType, LongAdder> errors = new EnumMap<>(ErrorType.class);
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Erstellt eine eigene, nicht registrierte Instanz (z.B. für Tests).
+     *
+     * @param enabled ob sofort gemessen wird
+     */
+    public PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+        for (ErrorType type : ErrorType.values()) {
+            errors.put(type, new LongAdder());
+        }
+    }
+
+    /** @return die globale Instanz, die alle Evaluatoren standardmäßig verwenden */
+    public static PipelineMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Registriert die globale Instanz beim Plattform-MBeanServer. Mehrfache
+     * Aufrufe sind unschädlich.
+     *
+     * @return der Name der registrierten MBean
+     * @throws IllegalStateException wenn die Registrierung fehlschlägt
+     */
+    public static ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                try {
+                    server.registerMBean(GLOBAL, name);
+                } catch (InstanceAlreadyExistsException e) {
+                    // Gleichzeitig von einem anderen Thread registriert
+                }
+            }
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("MBean konnte nicht registriert werden: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Zeichnet die Dauer einer Stufe auf.
+     */
+    public void record(Stage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    /**
+     * Zählt eine vollständige Auswertung (erfolgreich oder nicht).
+     */
+    public void recordEvaluation() {
+        evaluations.increment();
+    }
+
+    /**
+     * Zählt einen Fehler nach seiner Art.
+     */
+    public void recordError(Throwable error) {
+        errors.get(classify(error)).increment();
+    }
+
+    /**
+     * Zählt einen Fehler, der über ein {@link EvaluationResult} gemeldet wurde.
+     *
+     * @param error der Fehlercode
+     */
+    public void recordError(EvaluationResult.ErrorCode error) {
+        errors.get(classify(error)).increment();
+    }
+
+    /**
+     * Ordnet einen Fehlercode derselben Art zu, die {@link #classify(Throwable)}
+     * für die entsprechende Meldung liefert.
+     */
+    public static ErrorType classify(EvaluationResult.ErrorCode error) {
+        switch (error) {
+            case MISSING_OPEN_PAREN:
+            case MISSING_CLOSE_PAREN:
+            case MISMATCHED_PAREN:
+                return ErrorType.MISMATCHED_PARENTHESES;
+            case DIVISION_BY_ZERO:
+                return ErrorType.DIVISION_BY_ZERO;
+            case INVALID_TOKEN:
+            case MALFORMED_TOKEN:
+                return ErrorType.INVALID_TOKEN;
+            case UNKNOWN_VARIABLE:
+                return ErrorType.UNKNOWN_VARIABLE;
+            case MISSING_OPERAND:
+            case EMPTY_EXPRESSION:
+            case TOO_MANY_OPERANDS:
+                return ErrorType.MALFORMED_EXPRESSION;
+            default:
+                return ErrorType.OTHER;
+        }
+    }
+
+    /**
+     * Ordnet einen Fehler anhand seiner Meldung einer Art zu. Die Pipeline
+     * wirft überwiegend allgemeine Exceptions, daher ist die Meldung das
+     * einzige zuverlässige Merkmal.
+     */
+    public static ErrorType classify(Throwable error) {
+        String message = error.getMessage();
+        if (message == null) {
+            return ErrorType.OTHER;
+        }
+        if (message.startsWith("Mismatched parentheses")) {
+            return ErrorType.MISMATCHED_PARENTHESES;
+        }
+        if (message.startsWith("Division durch Null")) {
+            return ErrorType.DIVISION_BY_ZERO;
+        }
+        if (message.startsWith("Invalid token") || message.startsWith("Ungültiges Token")
+                || message.startsWith("Unbekannter Operator")) {
+            return ErrorType.INVALID_TOKEN;
+        }
+        if (message.startsWith("Unbekannte Variable")) {
+            return ErrorType.UNKNOWN_VARIABLE;
+        }
+        if (message.startsWith("Zu wenige Operanden") || message.startsWith("Ungültiger RPN-Ausdruck")) {
+            return ErrorType.MALFORMED_EXPRESSION;
+        }
+        return ErrorType.OTHER;
+    }
+
+    /** @return Anzahl der Fehler einer Art */
+    public long errorCount(ErrorType type) {
+        return errors.get(type).sum();
+    }
+
+    LatencyHistogram histogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    // -------------------------------------------------------------------------
+    // MBean
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        long sum = 0;
+        for (LongAdder count : errors.values()) {
+            sum += count.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - resetNanos) / 1e9;
+        return seconds <= 0 ? 0.0 : getEvaluations() / seconds;
+    }
+
+    @Override public long getTokenizeCount() { return histograms.get(Stage.TOKENIZE).count(); }
+    @Override public double getTokenizeMeanMicros() { return histograms.get(Stage.TOKENIZE).meanNanos() / 1e3; }
+    @Override public double getTokenizeP50Micros() { return histograms.get(Stage.TOKENIZE).percentileNanos(0.50) / 1e3; }
+    @Override public double getTokenizeP99Micros() { return histograms.get(Stage.TOKENIZE).percentileNanos(0.99) / 1e3; }
+
+    @Override public long getConvertCount() { return histograms.get(Stage.CONVERT).count(); }
+    @Override public double getConvertMeanMicros() { return histograms.get(Stage.CONVERT).meanNanos() / 1e3; }
+    @Override public double getConvertP50Micros() { return histograms.get(Stage.CONVERT).percentileNanos(0.50) / 1e3; }
+    @Override public double getConvertP99Micros() { return histograms.get(Stage.CONVERT).percentileNanos(0.99) / 1e3; }
+
+    @Override public long getEvaluateCount() { return histograms.get(Stage.EVALUATE).count(); }
+    @Override public double getEvaluateMeanMicros() { return histograms.get(Stage.EVALUATE).meanNanos() / 1e3; }
+    @Override public double getEvaluateP50Micros() { return histograms.get(Stage.EVALUATE).percentileNanos(0.50) / 1e3; }
+    @Override public double getEvaluateP99Micros() { return histograms.get(Stage.EVALUATE).percentileNanos(0.99) / 1e3; }
+
+    @Override public long getMismatchedParenthesesErrors() { return errorCount(ErrorType.MISMATCHED_PARENTHESES); }
+    @Override public long getDivisionByZeroErrors() { return errorCount(ErrorType.DIVISION_BY_ZERO); }
+    @Override public long getInvalidTokenErrors() { return errorCount(ErrorType.INVALID_TOKEN); }
+    @Override public long getUnknownVariableErrors() { return errorCount(ErrorType.UNKNOWN_VARIABLE); }
+    @Override public long getMalformedExpressionErrors() { return errorCount(ErrorType.MALFORMED_EXPRESSION); }
+    @Override public long getOtherErrors() { return errorCount(ErrorType.OTHER); }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (LongAdder count : errors.values()) {
+            count.reset();
+        }
+        evaluations.reset();
+        resetNanos = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Auswertungen: %d, Fehler: %d, %.0f/s%n", getEvaluations(), getFailures(), getThroughputPerSecond()));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histograms.get(stage);
+            out.append(String.format("%-8s n=%d, Mittel %.2f µs, p50 %.2f µs, p99 %.2f µs%n", stage, histogram.count(),
+                    histogram.meanNanos() / 1e3, histogram.percentileNanos(0.5) / 1e3, histogram.percentileNanos(0.99) / 1e3));
+        }
+        for (ErrorType type : ErrorType.values()) {
+            long count = errorCount(type);
+            if (count > 0) {
+                out.append(type).append(": ").append(count).append(System.lineSeparator());
+            }
+        }
+        return out.toString();
+    }
+}
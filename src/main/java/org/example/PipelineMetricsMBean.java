@@ -0,0 +1,56 @@
+package org.example;
+
+/**
+ * JMX-Schnittstelle von {@link PipelineMetrics}. Zeiten in Mikrosekunden;
+ * Perzentile sind obere Bucket-Grenzen (siehe {@link LatencyHistogram}).
+ */
+public interface PipelineMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getEvaluations();
+
+    long getFailures();
+
+    double getThroughputPerSecond();
+
+    long getTokenizeCount();
+
+    double getTokenizeMeanMicros();
+
+    double getTokenizeP50Micros();
+
+    double getTokenizeP99Micros();
+
+    long getConvertCount();
+
+    double getConvertMeanMicros();
+
+    double getConvertP50Micros();
+
+    double getConvertP99Micros();
+
+    long getEvaluateCount();
+
+    double getEvaluateMeanMicros();
+
+    double getEvaluateP50Micros();
+
+    double getEvaluateP99Micros();
+
+    long getMismatchedParenthesesErrors();
+
+    long getDivisionByZeroErrors();
+
+    long getInvalidTokenErrors();
+
+    long getUnknownVariableErrors();
+
+    long getMalformedExpressionErrors();
+
+    long getOtherErrors();
+
+    void reset();
+}
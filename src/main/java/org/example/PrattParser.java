@@ -0,0 +1,173 @@
+package org.example;
+
+/**
+ * Parser nach dem Precedence-Climbing-Verfahren (Pratt-Parser), der den
+ * Ausdruck zeichenweise liest und den {@link AstNode}-Baum in einem Durchlauf
+ * aufbaut – ohne Token-Liste, RPN-Liste und {@link AstBuilder}.
+ *
+ * <p>Prioritäten und Assoziativität stammen aus {@link ShuntingYard}, Zahlen,
+ * Vorzeichen und Variablennamen werden wie im {@link Tokenizer} erkannt
+ * (ein Minus ist nur am Anfang, nach einem Operator oder nach einer
+ * öffnenden Klammer und direkt vor einer Ziffer ein Vorzeichen). Für jeden
+ * wohlgeformten Ausdruck entsteht derselbe Baum wie über
+ * Tokenizer → ShuntingYard → AstBuilder.</p>
+ *
+ * <p>Die bisherige Pipeline akzeptiert auch manche nicht wohlgeformte
+ * Eingaben (z.B. {@code "1 2 +"}) und meldet Fehler je nach Stufe
+ * unterschiedlich. Damit Ergebnis und Fehlermeldung in jedem Fall identisch
+ * sind, wird bei allem, was der schnelle Weg nicht eindeutig erkennt,
+ * auf diese Pipeline ausgewichen. Das betrifft nur fehlerhafte oder
+ * ungewöhnliche Ausdrücke, Funktionsnamen der {@link OperatorRegistry}
+ * sowie eine Verschachtelungstiefe über
+ * {@value #MAX_DEPTH}, damit die Rekursion den Thread-Stack nicht sprengt.</p>
+ */
+public class PrattParser {
+
+    /** Maximale Rekursionstiefe des schnellen Wegs. */
+    static final int MAX_DEPTH = 1000;
+
+    /** Operator-Texte, damit Knoten keine neuen Strings erzeugen. */
+    private static final String[] OPERATOR_TEXT = new String[128];
+    static {
+        for (char operator : new char[] {'+', '-', '*', '/', '^'}) {
+            OPERATOR_TEXT[operator] = String.valueOf(operator);
+        }
+    }
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final AstBuilder builder = new AstBuilder();
+
+    /**
+     * Parst einen Ausdruck in einen Syntaxbaum.
+     *
+     * @param expression der Ausdruck (z.B. "3 * [-5 + x]")
+     * @return die Wurzel des Baums
+     * @throws Exception mit denselben Meldungen wie {@link ShuntingYard#convertToRPN(java.util.List)}
+     * und {@link AstBuilder#build(java.util.List)}
+     */
+    public AstNode parse(String expression) throws Exception {
+        AstNode tree = new Cursor(expression).parseAll();
+        if (tree != null) {
+            return tree;
+        }
+        return builder.build(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+    }
+
+    /**
+     * Der schnelle Weg. Jede Methode liefert {@code null}, wenn der Ausdruck
+     * nicht wohlgeformt ist; {@link #parse(String)} weicht dann aus.
+     */
+    private static final class Cursor {
+        private final String text;
+        private int position;
+        private int depth;
+
+        Cursor(String text) {
+            this.text = text;
+        }
+
+        AstNode parseAll() {
+            AstNode tree = parseExpression(1);
+            skipWhitespace();
+            return position == text.length() ? tree : null;
+        }
+
+        /**
+         * Liest einen Operanden und alle folgenden Operatoren mit einer
+         * Priorität von mindestens {@code minPrecedence}.
+         */
+        private AstNode parseExpression(int minPrecedence) {
+            if (++depth > MAX_DEPTH) {
+                return null;
+            }
+            AstNode left = parseOperand();
+            while (left != null) {
+                skipWhitespace();
+                if (position == text.length()) {
+                    break;
+                }
+                char operator = text.charAt(position);
+                int precedence = ShuntingYard.getPrecedence(operator);
+                if (precedence == 0 || precedence < minPrecedence) {
+                    break;
+                }
+                position++;
+                AstNode right = parseExpression(ShuntingYard.isLeftAssociative(operator) ? precedence + 1 : precedence);
+                left = right == null ? null : new AstNode(OPERATOR_TEXT[operator], left, right);
+            }
+            depth--;
+            return left;
+        }
+
+        /**
+         * Liest eine Zahl, eine Variable oder einen geklammerten Ausdruck.
+         */
+        private AstNode parseOperand() {
+            skipWhitespace();
+            if (position == text.length()) {
+                return null;
+            }
+            char c = text.charAt(position);
+            if (c == '(' || c == '[') {
+                position++;
+                AstNode inner = parseExpression(1);
+                skipWhitespace();
+                if (inner == null || position == text.length() || text.charAt(position) != (c == '(' ? ')' : ']')) {
+                    return null;
+                }
+                position++;
+                return inner;
+            }
+            if (isNumberStart(c) || (c == '-' && position + 1 < text.length() && isNumberStart(text.charAt(position + 1)))) {
+                return parseNumber();
+            }
+            if (Character.isLetter(c) || c == '_') {
+                int start = position++;
+                while (position < text.length() && Tokenizer.isIdentifierPart(text.charAt(position))) {
+                    position++;
+                }
+                if (OperatorRegistry.standard().function(text, start, position) != null) {
+                    // Funktionsaufrufe (und ihre Fehler) kennt nur die Pipeline
+                    return null;
+                }
+                return new AstNode(text.substring(start, position));
+            }
+            return null;
+        }
+
+        private AstNode parseNumber() {
+            int start = position;
+            if (text.charAt(position) == '-') {
+                position++;
+            }
+            int digits = 0;
+            boolean hasDecimal = false;
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (c >= '0' && c <= '9') {
+                    digits++;
+                } else if (c == '.' && !hasDecimal) {
+                    hasDecimal = true;
+                } else if (Character.isDigit(c)) {
+                    // Nicht-ASCII-Ziffern: Sonderfall der alten Pipeline
+                    return null;
+                } else {
+                    break;
+                }
+                position++;
+            }
+            return digits == 0 ? null : new AstNode(text.substring(start, position));
+        }
+
+        private static boolean isNumberStart(char c) {
+            return (c >= '0' && c <= '9') || c == '.';
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * Binäres Abbild vieler kompilierter {@link RpnProgram}e in einer Datei, das
+ * beim Start mit {@link FileChannel#map} eingeblendet und direkt aus dem
+ * Speicher ausgewertet wird ({@link RpnInterpreter#execute(ProgramSnapshot, int, double[])}).
+ * Zerlegen, Konvertieren und Kompilieren entfallen damit vollständig; es
+ * werden weder Tokens noch Programme angelegt.
+ *
+ * <p>Aufbau (Little Endian, alle Positionen absolut in der Datei):</p>
+ * <pre>
+ * Kopf     int MAGIC ("RPNS"), int VERSION, int Anzahl Programme,
+ *          int Anzahl Registry-Namen, int Länge des Rumpfs, int CRC32C des Rumpfs
+ * Rumpf    Registry-Namen: je short Länge + UTF-8 (leer = nicht verwendet)
+ *          Index: int Position je Programm
+ *          Programme, jeweils auf 8 Byte ausgerichtet:
+ *            int Befehle, int Konstanten, int Variablen, int Stack-Tiefe,
+ *            int Zwischenspeicher, int (frei),
+ *            double[] Konstanten, int[] Befehle (wie {@link RpnProgram}),
+ *            Variablennamen je short Länge + UTF-8
+ * </pre>
+ *
+ * <p>Die Registry-Namen halten fest, welche Funktion hinter dem Operanden
+ * eines {@link RpnProgram#OP_CALL} steht. Beim Öffnen müssen sie zur
+ * übergebenen {@link OperatorRegistry} passen, sonst würde ein Programm still
+ * eine andere Funktion aufrufen.</p>
+ *
+ * <p>Beim Öffnen werden Kopf, Prüfsumme und die Grenzen jedes Programms
+ * geprüft; eine beschädigte oder fremde Datei führt zu einer
+ * {@link IOException}. Eine Datei ist wie ein {@link MappedByteBuffer} auf
+ * 2 GB begrenzt. Instanzen sind unveränderlich und dürfen zwischen Threads
+ * geteilt werden.</p>
+ */
+public final class ProgramSnapshot {
+
+    /** Die Bytes "RPNS" am Anfang jeder Datei. */
+    static final int MAGIC = 0x534E5052;
+
+    /** Version des Formats; andere Versionen werden abgelehnt. */
+    public static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 24;
+    static final int PROGRAM_HEADER_BYTES = 24;
+
+    private final ByteBuffer data;
+    private final int count;
+    private final int indexOffset;
+    private final OperatorRegistry.Entry[] operators;
+
+    private ProgramSnapshot(ByteBuffer data, int count, int indexOffset, OperatorRegistry.Entry[] operators) {
+        this.data = data;
+        this.count = count;
+        this.indexOffset = indexOffset;
+        this.operators = operators;
+    }
+
+    // -------------------------------------------------------------------------
+    // Schreiben
+    // -------------------------------------------------------------------------
+
+    /**
+     * Schreibt Programme in eine Datei. Die Datei wird zuerst unter einem
+     * temporären Namen geschrieben und dann ersetzt, sodass ein Leser nie eine
+     * halb geschriebene Datei sieht.
+     *
+     * @param file     Zieldatei
+     * @param programs die Programme; ihr Index in der Liste ist ihr Index in der Datei
+     * @throws IOException wenn die Datei nicht geschrieben werden kann
+     * @throws IllegalArgumentException wenn Programme verschiedene Funktionen
+     *         unter demselben Opcode aufrufen oder die Datei zu groß würde
+     */
+    public static void write(Path file, List<RpnProgram> programs) throws IOException {
+        String[] names = operatorNames(programs);
+        byte[][] encodedNames = new byte[names.length][];
+        long size = HEADER_BYTES;
+        for (int i = 0; i < names.length; i++) {
+            encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            size += 2 + encodedNames[i].length;
+        }
+        size = align(size, 4) + 4L * programs.size();
+        for (RpnProgram program : programs) {
+            size = align(size, 8) + programBytes(program);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot wäre größer als 2 GB: " + size + " Bytes");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        out.position(HEADER_BYTES);
+        for (byte[] name : encodedNames) {
+            putName(out, name);
+        }
+        int index = (int) align(out.position(), 4);
+        int position = index + 4 * programs.size();
+        for (int i = 0; i < programs.size(); i++) {
+            position = (int) align(position, 8);
+            out.putInt(index + 4 * i, position);
+            position = putProgram(out, position, programs.get(i));
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), HEADER_BYTES, out.capacity() - HEADER_BYTES);
+        out.putInt(0, MAGIC)
+           .putInt(4, VERSION)
+           .putInt(8, programs.size())
+           .putInt(12, names.length)
+           .putInt(16, out.capacity() - HEADER_BYTES)
+           .putInt(20, (int) crc.getValue());
+
+        // Eigene temporäre Datei je Aufruf, damit gleichzeitige Schreiber sich nicht stören
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                out.clear();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Sammelt den Namen hinter jedem Opcode, den ein {@link RpnProgram#OP_CALL}
+     * verwendet; nicht verwendete Opcodes bleiben leer.
+     */
+    private static String[] operatorNames(List<RpnProgram> programs) {
+        int length = 0;
+        for (RpnProgram program : programs) {
+            for (int instruction : program.code()) {
+                if (RpnProgram.opcode(instruction) == RpnProgram.OP_CALL) {
+                    length = Math.max(length, RpnProgram.operand(instruction) + 1);
+                }
+            }
+        }
+        String[] names = new String[length];
+        Arrays.fill(names, "");
+        for (RpnProgram program : programs) {
+            for (int instruction : program.code()) {
+                if (RpnProgram.opcode(instruction) != RpnProgram.OP_CALL) {
+                    continue;
+                }
+                int opcode = RpnProgram.operand(instruction);
+                String name = program.operators()[opcode].name();
+                if (names[opcode].isEmpty()) {
+                    names[opcode] = name;
+                } else if (!names[opcode].equals(name)) {
+                    throw new IllegalArgumentException("Opcode " + opcode + " steht für " + names[opcode]
+                            + " und " + name + "; alle Programme müssen dieselbe Registry verwenden.");
+                }
+            }
+        }
+        return names;
+    }
+
+    private static long programBytes(RpnProgram program) {
+        long size = PROGRAM_HEADER_BYTES + 8L * program.getConstantCount() + 4L * program.getInstructionCount();
+        for (String name : program.variables()) {
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private static int putProgram(ByteBuffer out, int position, RpnProgram program) {
+        int[] code = program.code();
+        double[] constants = program.constants();
+        out.putInt(position, code.length)
+           .putInt(position + 4, constants.length)
+           .putInt(position + 8, program.getVariableCount())
+           .putInt(position + 12, program.getMaxStackDepth())
+           .putInt(position + 16, program.getTempCount());
+        int p = position + PROGRAM_HEADER_BYTES;
+        for (double constant : constants) {
+            out.putDouble(p, constant);
+            p += 8;
+        }
+        for (int instruction : code) {
+            out.putInt(p, instruction);
+            p += 4;
+        }
+        out.position(p);
+        for (String name : program.variables()) {
+            putName(out, name.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.position();
+    }
+
+    private static void putName(ByteBuffer out, byte[] name) {
+        if (name.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Name zu lang: " + name.length + " Bytes");
+        }
+        out.putShort((short) name.length).put(name);
+    }
+
+    private static long align(long position, int alignment) {
+        return (position + alignment - 1) & -alignment;
+    }
+
+    // -------------------------------------------------------------------------
+    // Öffnen
+    // -------------------------------------------------------------------------
+
+    /**
+     * Blendet eine Datei ein, deren Programme mit der Standard-Registry
+     * kompiliert wurden.
+     *
+     * @param file die Datei aus {@link #write(Path, List)}
+     * @return der eingeblendete Snapshot
+     * @throws IOException wenn die Datei fehlt, beschädigt ist oder eine andere Version hat
+     */
+    public static ProgramSnapshot open(Path file) throws IOException {
+        return open(file, OperatorRegistry.standard());
+    }
+
+    /**
+     * Blendet eine Datei ein und prüft sie.
+     *
+     * @param file     die Datei aus {@link #write(Path, List)}
+     * @param registry die Registry, mit der die Programme kompiliert wurden
+     * @return der eingeblendete Snapshot
+     * @throws IOException wenn die Datei fehlt, beschädigt ist, eine andere
+     *         Version hat oder nicht zur Registry passt
+     */
+    public static ProgramSnapshot open(Path file, OperatorRegistry registry) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot größer als 2 GB: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return load(mapped, registry);
+    }
+
+    /**
+     * Prüft einen Puffer im Format von {@link #write(Path, List)} und
+     * verwendet ihn ohne Kopie.
+     */
+    static ProgramSnapshot load(ByteBuffer buffer, OperatorRegistry registry) throws IOException {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int size = data.limit();
+        if (size < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("Kein Snapshot (Kennung fehlt).");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException("Nicht unterstützte Snapshot-Version: " + data.getInt(4)
+                    + " (erwartet: " + VERSION + ")");
+        }
+        int count = data.getInt(8);
+        int nameCount = data.getInt(12);
+        if (data.getInt(16) != size - HEADER_BYTES || count < 0 || nameCount < 0) {
+            throw new IOException("Snapshot unvollständig: " + size + " Bytes, erwartet: "
+                    + (HEADER_BYTES + (long) data.getInt(16)));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate().position(HEADER_BYTES));
+        if ((int) crc.getValue() != data.getInt(20)) {
+            throw new IOException("Prüfsumme des Snapshots stimmt nicht.");
+        }
+
+        try {
+            OperatorRegistry.Entry[] entries = registry.entryArray();
+            int position = HEADER_BYTES;
+            for (int opcode = 0; opcode < nameCount; opcode++) {
+                int length = data.getShort(position);
+                String name = new String(bytes(data, position + 2, length), StandardCharsets.UTF_8);
+                position += 2 + length;
+                if (!name.isEmpty() && (opcode >= entries.length || !entries[opcode].name().equals(name))) {
+                    throw new IOException("Snapshot ruft " + name + " mit Opcode " + opcode
+                            + " auf; die Registry passt nicht.");
+                }
+            }
+            int indexOffset = (int) align(position, 4);
+            ProgramSnapshot snapshot = new ProgramSnapshot(data, count, indexOffset, entries);
+            for (int i = 0; i < count; i++) {
+                snapshot.check(i, nameCount, size);
+            }
+            return snapshot;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Snapshot beschädigt: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prüft, dass ein Programm vollständig in der Datei liegt und nur
+     * gespeicherte Funktionen aufruft. Die übrigen Operanden prüft die
+     * Auswertung selbst über die Grenzen des Puffers.
+     */
+    private void check(int index, int nameCount, int size) throws IOException {
+        int program = programOffset(index);
+        int codeEnd = codeOffset(index) + 4 * data.getInt(program);
+        if (program < indexOffset || codeEnd > size || codeEnd < program) {
+            throw new IOException("Programm " + index + " liegt außerhalb des Snapshots.");
+        }
+        for (int p = codeOffset(index); p < codeEnd; p += 4) {
+            int instruction = data.getInt(p);
+            if (RpnProgram.opcode(instruction) == RpnProgram.OP_CALL && RpnProgram.operand(instruction) >= nameCount) {
+                throw new IOException("Programm " + index + " ruft einen unbekannten Opcode auf: "
+                        + RpnProgram.operand(instruction));
+            }
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer data, int position, int length) {
+        byte[] bytes = new byte[length];
+        data.get(position, bytes);
+        return bytes;
+    }
+
+    // -------------------------------------------------------------------------
+    // Zugriff
+    // -------------------------------------------------------------------------
+
+    /** @return Anzahl der Programme */
+    public int size() {
+        return count;
+    }
+
+    /** @return Größe der Datei in Bytes */
+    public int byteSize() {
+        return data.limit();
+    }
+
+    /**
+     * @param index Index des Programms
+     * @return Anzahl der Variablen (Slots) des Programms
+     */
+    public int variableCount(int index) {
+        return data.getInt(programOffset(index) + 8);
+    }
+
+    /**
+     * Liest die Variablennamen eines Programms in Slot-Reihenfolge. Erzeugt
+     * Strings und ist daher nicht für jede Auswertung gedacht.
+     *
+     * @param index Index des Programms
+     * @return die Variablennamen
+     */
+    public String[] variableNames(int index) {
+        String[] names = new String[variableCount(index)];
+        int p = codeOffset(index) + 4 * codeLength(index);
+        for (int i = 0; i < names.length; i++) {
+            int length = data.getShort(p);
+            names[i] = new String(bytes(data, p + 2, length), StandardCharsets.UTF_8);
+            p += 2 + length;
+        }
+        return names;
+    }
+
+    /**
+     * Liest ein Programm vollständig in ein {@link RpnProgram}, z.B. für den
+     * {@link BytecodeCompiler} oder den {@link TieredExecutor}.
+     *
+     * @param index Index des Programms
+     * @return das Programm
+     */
+    public RpnProgram program(int index) {
+        int program = programOffset(index);
+        double[] constants = new double[data.getInt(program + 4)];
+        for (int i = 0; i < constants.length; i++) {
+            constants[i] = data.getDouble(constantsOffset(index) + 8 * i);
+        }
+        int[] code = new int[codeLength(index)];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = data.getInt(codeOffset(index) + 4 * i);
+        }
+        return new RpnProgram(code, constants, variableNames(index), maxStackDepth(index), tempCount(index), operators);
+    }
+
+    // Direkter Zugriff für den Interpreter (nur lesen!)
+    ByteBuffer data() { return data; }
+    OperatorRegistry.Entry[] operators() { return operators; }
+
+    int programOffset(int index) {
+        return data.getInt(indexOffset + 4 * Objects.checkIndex(index, count));
+    }
+
+    int codeLength(int index) {
+        return data.getInt(programOffset(index));
+    }
+
+    int maxStackDepth(int index) {
+        return data.getInt(programOffset(index) + 12);
+    }
+
+    int tempCount(int index) {
+        return data.getInt(programOffset(index) + 16);
+    }
+
+    int constantsOffset(int index) {
+        return programOffset(index) + PROGRAM_HEADER_BYTES;
+    }
+
+    int codeOffset(int index) {
+        int program = programOffset(index);
+        return program + PROGRAM_HEADER_BYTES + 8 * data.getInt(program + 4);
+    }
+
+    @Override
+    public String toString() {
+        return "ProgramSnapshot[" + count + " Programme, " + data.limit() + " Bytes]";
+    }
+}
@@ -0,0 +1,346 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Übersetzt die Ausgabe von {@link ShuntingYard#convertToRPN(List)} in ein
+ * {@link RpnProgram}.
+ *
+ * <p>Alle Prüfungen, die {@link RpnEvaluator} bei jeder Auswertung erneut
+ * durchführt (Zahlen parsen, Operatoren erkennen, Anzahl der Operanden),
+ * finden hier genau einmal statt. Das erzeugte Programm kann danach beliebig
+ * oft ohne String-Vergleiche ausgeführt werden.</p>
+ *
+ * <p>Die vordefinierten Operatoren werden zu eigenen Befehlen, alle anderen
+ * Einträge der {@link OperatorRegistry} (Funktionen, eigene Operatoren) zu
+ * {@link RpnProgram#OP_CALL} mit ihrem Opcode.</p>
+ */
+public class RpnCompiler {
+
+    private final OperatorRegistry registry;
+
+    /**
+     * Erstellt einen Compiler mit der {@link OperatorRegistry#standard() Standard-Registry}.
+     */
+    public RpnCompiler() {
+        this(OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Compiler für die Operatoren und Funktionen der
+     * angegebenen Registry (dieselbe wie beim {@link Tokenizer}).
+     *
+     * @param registry die Registry
+     */
+    public RpnCompiler(OperatorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry darf nicht null sein.");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Sammelt Befehle, Konstanten und Variablen während der Übersetzung und
+     * führt die Buchhaltung über die Stack-Tiefe.
+     */
+    private static final class ProgramBuilder {
+        private final OperatorRegistry registry;
+        private int[] code;
+        private int pc;
+        private double[] constants;
+        private int constantCount;
+        // Gleiche Konstanten nur einmal im Pool ablegen (Schlüssel: Bitmuster)
+        private final Map<Long, Integer> constantIndex = new HashMap<>();
+        private final List<String> variables = new ArrayList<>();
+        private int depth;
+        private int maxDepth;
+        private int tempCount;
+
+        ProgramBuilder(OperatorRegistry registry, int capacity) {
+            this.registry = registry;
+            code = new int[Math.max(1, capacity)];
+            constants = new double[Math.max(1, capacity)];
+        }
+
+        void constant(double number) {
+            Integer index = constantIndex.get(Double.doubleToRawLongBits(number));
+            if (index == null) {
+                index = constantCount;
+                if (constantCount == constants.length) {
+                    constants = Arrays.copyOf(constants, constantCount * 2);
+                }
+                constants[constantCount++] = number;
+                constantIndex.put(Double.doubleToRawLongBits(number), index);
+            }
+            push(RpnProgram.encode(RpnProgram.OP_CONST, index));
+        }
+
+        void variable(String name) {
+            int slot = variables.indexOf(name);
+            if (slot < 0) {
+                slot = variables.size();
+                variables.add(name);
+            }
+            push(RpnProgram.encode(RpnProgram.OP_VAR, slot));
+        }
+
+        void operator(String symbol) {
+            OperatorRegistry.Entry entry = symbol != null && symbol.length() == 1
+                    ? registry.operator(symbol.charAt(0)) : null;
+            if (entry == null) {
+                throw new RpnEvaluator.RpnEvaluationException("Unbekannter Operator: " + symbol);
+            }
+            call(entry);
+        }
+
+        void call(OperatorRegistry.Entry entry) {
+            int arity = entry.arity();
+            if (depth < arity) {
+                throw new RpnEvaluator.RpnEvaluationException((entry.isFunction()
+                        ? "Zu wenige Argumente für die Funktion: " : "Zu wenige Operanden für den Operator: ")
+                        + entry.name());
+            }
+            if (entry.opcode() <= OperatorRegistry.POW) {
+                // + - * / ^ haben eigene Befehle in derselben Reihenfolge
+                emit(RpnProgram.encode(RpnProgram.OP_ADD + entry.opcode(), 0));
+            } else {
+                emit(RpnProgram.encode(RpnProgram.OP_CALL, entry.opcode()));
+            }
+            depth += 1 - arity;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        /** Speichert das oberste Element in einem neuen Zwischenspeicher und liefert dessen Slot. */
+        int store() {
+            int slot = tempCount++;
+            emit(RpnProgram.encode(RpnProgram.OP_STORE, slot));
+            return slot;
+        }
+
+        void load(int slot) {
+            push(RpnProgram.encode(RpnProgram.OP_LOAD, slot));
+        }
+
+        private void push(int instruction) {
+            emit(instruction);
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private void emit(int instruction) {
+            if (pc == code.length) {
+                code = Arrays.copyOf(code, pc * 2);
+            }
+            code[pc++] = instruction;
+        }
+
+        RpnProgram build() {
+            // Am Ende muss genau ein Element auf dem Stack verbleiben
+            if (depth == 0) {
+                throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Stack am Ende leer (erwartet: 1 Element).");
+            }
+            if (depth != 1) {
+                throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Es verbleiben " + depth + " Elemente auf dem Stack (erwartet: 1).");
+            }
+            return new RpnProgram(Arrays.copyOf(code, pc), Arrays.copyOf(constants, constantCount),
+                    variables.toArray(new String[0]), maxDepth, tempCount, registry.entryArray());
+        }
+    }
+
+    /**
+     * Kompiliert eine Liste von Tokens in RPN-Form.
+     *
+     * @param rpnTokens Tokens in RPN-Reihenfolge (z.B. aus {@code convertToRPN})
+     * @return das kompilierte Programm
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Ausdruck ungültig ist
+     * (ungültige Tokens, zu wenige/zu viele Operanden)
+     */
+    public RpnProgram compile(List<Token> rpnTokens) throws RpnEvaluator.RpnEvaluationException {
+        ProgramBuilder builder = new ProgramBuilder(registry, rpnTokens.size());
+
+        for (Token token : rpnTokens) {
+            String value = token.getValue();
+            switch (token.getType()) {
+                case NUMBER:
+                    // Vom Tokenizer erzeugte Tokens bringen ihren Wert schon mit
+                    double number = token.getNumber();
+                    try {
+                        if (Double.isNaN(number)) {
+                            number = FastDoubleParser.parse(value, 0, value.length());
+                        }
+                    } catch (NumberFormatException e) {
+                        throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+                    }
+                    builder.constant(number);
+                    break;
+                case VARIABLE:
+                    variable(builder, value);
+                    break;
+                case OPERATOR:
+                    builder.operator(value);
+                    break;
+                case FUNCTION:
+                    OperatorRegistry.Entry function = registry.function(value);
+                    if (function == null) {
+                        throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+                    }
+                    builder.call(function);
+                    break;
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Kompiliert einen {@link TokenBuffer} in RPN-Reihenfolge, z.B. aus
+     * {@link ShuntingYard#convertToRPN(TokenBuffer, TokenBuffer)}. Die Zahlen
+     * sind bereits geparst und werden direkt in den Konstanten-Pool übernommen.
+     *
+     * @param rpn Puffer mit Tokens in RPN-Reihenfolge
+     * @return das kompilierte Programm
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Ausdruck ungültig ist
+     */
+    public RpnProgram compile(TokenBuffer rpn) throws RpnEvaluator.RpnEvaluationException {
+        ProgramBuilder builder = new ProgramBuilder(registry, rpn.size());
+
+        for (int i = 0; i < rpn.size(); i++) {
+            byte type = rpn.type(i);
+            if (type == TokenBuffer.NUMBER && !Double.isNaN(rpn.value(i))) {
+                builder.constant(rpn.value(i));
+            } else if (type == TokenBuffer.VARIABLE) {
+                variable(builder, rpn.text(i));
+            } else if (type == TokenBuffer.OPERATOR || type == TokenBuffer.FUNCTION) {
+                builder.call(registry.entry(rpn.code(i)));
+            } else {
+                throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + rpn.text(i));
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Kompiliert einen Syntaxbaum. Der Baum wird in Postorder durchlaufen, was
+     * genau der RPN-Reihenfolge entspricht; Blätter sind Zahlen oder Variablen,
+     * innere Knoten Operatoren oder Funktionsaufrufe.
+     *
+     * <p>Ist ein innerer Knoten mehrfach im Baum eingehängt (ein DAG, z.B. aus
+     * dem {@link AstInterner}), wird er nur beim ersten Mal berechnet und mit
+     * {@link RpnProgram#OP_STORE} zwischengespeichert; jede weitere Verwendung
+     * lädt das Ergebnis mit {@link RpnProgram#OP_LOAD}. Die Gleichheit wird
+     * dabei nur über die Identität der Knoten bestimmt.</p>
+     *
+     * @param root Wurzel des Syntaxbaums
+     * @return das kompilierte Programm
+     * @throws RpnEvaluator.RpnEvaluationException wenn der Baum ungültig ist
+     */
+    public RpnProgram compile(AstNode root) throws RpnEvaluator.RpnEvaluationException {
+        ProgramBuilder builder = new ProgramBuilder(registry, 16);
+        if (root == null) {
+            return builder.build();
+        }
+
+        // Anzahl der Eltern je Knoten; innere Knoten mit mehreren Eltern werden zwischengespeichert
+        List<AstNode> nodes = AstNode.postorder(root);
+        Map<AstNode, Integer> parents = new IdentityHashMap<>();
+        for (AstNode node : nodes) {
+            for (AstNode child : node.children()) {
+                if (child != null) {
+                    parents.merge(child, 1, Integer::sum);
+                }
+            }
+        }
+        Map<AstNode, Integer> tempSlots = new IdentityHashMap<>();
+        Set<AstNode> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // Iterativ, damit tief verschachtelte Ausdrücke keinen StackOverflowError auslösen
+        Stack<AstNode> pending = new Stack<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            AstNode node = pending.peek();
+            Integer slot = tempSlots.get(node);
+            if (slot != null) {
+                // Bereits berechnet: nur laden
+                pending.pop();
+                builder.load(slot);
+            } else if (node.isLeaf()) {
+                pending.pop();
+                leaf(builder, node.getValue());
+            } else if (expanded.add(node)) {
+                // Erst die Operanden (der linke bzw. das erste Argument wird zuerst ausgewertet)
+                AstNode[] children = node.children();
+                for (int i = children.length - 1; i >= 0; i--) {
+                    if (children[i] != null) {
+                        pending.push(children[i]);
+                    }
+                }
+            } else {
+                pending.pop();
+                if (node.isCall()) {
+                    builder.call(function(node));
+                } else {
+                    builder.operator(node.getValue());
+                }
+                if (parents.getOrDefault(node, 0) > 1) {
+                    tempSlots.put(node, builder.store());
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Schlägt die Funktion eines Aufrufknotens nach und prüft die Anzahl der Argumente.
+     */
+    private OperatorRegistry.Entry function(AstNode node) {
+        OperatorRegistry.Entry function = registry.function(node.getValue());
+        if (function == null) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + node.getValue());
+        }
+        if (node.children().length != function.arity()) {
+            throw new RpnEvaluator.RpnEvaluationException("Falsche Anzahl Argumente für die Funktion: "
+                    + node.getValue() + " (erwartet: " + function.arity() + ")");
+        }
+        return function;
+    }
+
+    private static void leaf(ProgramBuilder builder, String value) {
+        if (isVariableName(value)) {
+            builder.variable(value);
+            return;
+        }
+        try {
+            builder.constant(FastDoubleParser.parse(value, 0, value.length()));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiges Token im Ausdruck: " + value);
+        }
+    }
+
+    /**
+     * Variable oder, bei "NaN" und "Infinity", Konstante (wie in {@link #leaf}).
+     */
+    private static void variable(ProgramBuilder builder, String name) {
+        if (isVariableName(name)) {
+            builder.variable(name);
+        } else {
+            builder.constant(RpnEvaluator.specialValue(name));
+        }
+    }
+
+    private static boolean isVariableName(String value) {
+        return value != null && !value.isEmpty()
+                && (Character.isLetter(value.charAt(0)) || value.charAt(0) == '_')
+                && !value.equals("NaN") && !value.equals("Infinity");
+    }
+}
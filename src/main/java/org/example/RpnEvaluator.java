@@ -1,15 +1,42 @@
 package org.example;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Die Klasse RpnEvaluator wertet eine Liste von Token in umgekehrter
  * polnischer Notation (Reverse Polish Notation, RPN) aus.
  * Sie verwendet einen Stack, um Operanden zwischenzuspeichern und
  * Operationen schrittweise auszuführen.
+ *
+ * <p>Operatoren und Funktionen stammen aus einer {@link OperatorRegistry}; die
+ * Auswertung verzweigt über ihren Opcode.</p>
  */
 public class RpnEvaluator {
 
+    private final OperatorRegistry registry;
+
+    /**
+     * Erstellt einen Evaluator mit der {@link OperatorRegistry#standard() Standard-Registry}.
+     */
+    public RpnEvaluator() {
+        this(OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Evaluator für die Operatoren und Funktionen der
+     * angegebenen Registry (dieselbe wie beim {@link Tokenizer}).
+     *
+     * @param registry die Registry
+     */
+    public RpnEvaluator(OperatorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry darf nicht null sein.");
+        }
+        this.registry = registry;
+    }
+
     /**
      * Definiert eine benutzerdefinierte Exception für Fehler bei der RPN-Auswertung,
      * wie z.B. Division durch Null oder ungültige Eingabe.
@@ -29,9 +56,9 @@ public class RpnEvaluator {
      *
      * Die Auswertung folgt diesen Schritten:
      * 1. Wenn das Token eine Zahl ist, wird es auf den Stack gelegt.
-     * 2. Wenn das Token ein Operator (+, -, *, /) ist, werden zwei Operanden
-     * vom Stack genommen, die Operation ausgeführt und das Ergebnis zurück
-     * auf den Stack gelegt.
+     * 2. Wenn das Token ein Operator (+, -, *, /, ^) oder eine Funktion (z.B. max)
+     * ist, werden so viele Operanden vom Stack genommen, wie sie erwartet, die
+     * Operation ausgeführt und das Ergebnis zurück auf den Stack gelegt.
      * 3. Am Ende muss genau ein Element (das Ergebnis) auf dem Stack verbleiben.
      *
      * @param rpnTokens Eine Liste von Strings, die den RPN-Ausdruck darstellen
@@ -41,62 +68,67 @@ public class RpnEvaluator {
      * zu viele/zu wenige Operanden).
      */
     public double evaluate(List<String> rpnTokens) throws RpnEvaluationException {
-        // Hinweis: Es wird angenommen, dass die hier verwendete Stack-Klasse
-        // die Funktionalität Ihrer zuvor implementierten Stack-Klasse (mit double) abbildet.
-        Stack<Double> stack = new Stack<>();
+        return evaluate(rpnTokens, Collections.emptyMap());
+    }
 
-        // 
+    /**
+     * Wertet eine Liste von Tokens in RPN-Form mit Variablen aus.
+     *
+     * <p>Tokens, die mit einem Buchstaben oder '_' beginnen, werden als
+     * Variablennamen behandelt und durch ihren Wert aus {@code variables}
+     * ersetzt. Für die wiederholte Auswertung mit vielen Wertebelegungen ist
+     * {@link RpnCompiler} zusammen mit {@link RpnInterpreter} deutlich schneller.</p>
+     *
+     * @param rpnTokens Eine Liste von Strings, die den RPN-Ausdruck darstellen
+     * (z.B. ["x", "2", "*"]).
+     * @param variables Werte der Variablen nach Name
+     * @return Das berechnete Ergebnis des Ausdrucks.
+     * @throws RpnEvaluationException wenn der Ausdruck ungültig ist oder eine
+     * Variable keinen Wert hat.
+     */
+    public double evaluate(List<String> rpnTokens, Map<String, Double> variables) throws RpnEvaluationException {
+        // Primitiver Stack: Zwischenergebnisse werden nicht geboxt
+        DoubleStack stack = new DoubleStack(rpnTokens.size());
 
         for (String token : rpnTokens) {
-            if (isNumber(token)) {
-                // 1. Zahl: Auf den Stack legen
+            // Operatoren sind ein Zeichen: ein Array-Zugriff entscheidet
+            OperatorRegistry.Entry entry = token.length() == 1 ? registry.operator(token.charAt(0)) : null;
+            if (entry == null && isVariable(token)) {
+                entry = registry.function(token);
+                if (entry == null) {
+                    // Variable: Wert nachschlagen
+                    Double value = variables.get(token);
+                    if (value == null) {
+                        // "NaN" und "Infinity" gelten weiterhin als Zahl
+                        value = specialValue(token);
+                        if (value == null) {
+                            throw new RpnEvaluationException("Unbekannte Variable: " + token);
+                        }
+                    }
+                    stack.push(value);
+                    continue;
+                }
+            }
+            if (entry == null) {
+                // 1. Zahl: genau einmal parsen und auf den Stack legen
                 try {
-                    stack.push(Double.parseDouble(token));
+                    stack.push(FastDoubleParser.parse(token, 0, token.length()));
                 } catch (NumberFormatException e) {
                     throw new RpnEvaluationException("Ungültiges Token im Ausdruck: " + token);
                 }
-            } else if (isOperator(token)) {
-                // 2. Operator: Operanden vom Stack nehmen
-                if (stack.size() < 2) {
-                    throw new RpnEvaluationException("Zu wenige Operanden für den Operator: " + token);
-                }
-
-                // Die Operanden werden in umgekehrter Reihenfolge gepoppt (Op2 zuerst)
-                double operand2 = stack.pop();
-                double operand1 = stack.pop();
-                double result;
-
-                // 3. Operation ausführen
-                switch (token) {
-                    case "+":
-                        result = operand1 + operand2;
-                        break;
-                    case "-":
-                        result = operand1 - operand2;
-                        break;
-                    case "*":
-                        result = operand1 * operand2;
-                        break;
-                    case "/":
-                        if (operand2 == 0) {
-                            // Division durch 0 abfangen
-                            throw new RpnEvaluationException("Division durch Null!");
-                        }
-                        result = operand1 / operand2;
-                        break;
-                    default:
-                        // Dies sollte durch isOperator() bereits ausgeschlossen sein, dient aber als Fallback
-                        throw new RpnEvaluationException("Unbekannter Operator: " + token);
-                }
-
-                // Ergebnis zurück auf den Stack legen
-                stack.push(result);
             } else {
-                throw new RpnEvaluationException("Ungültiges Token im Ausdruck: " + token);
+                // 2./3. Operator oder Funktion: Operanden vom Stack nehmen und ausführen
+                EvaluationResult.ErrorCode error = apply(entry, stack);
+                if (error != null) {
+                    throw new RpnEvaluationException(EvaluationResult.message(error, token, 0, token.length(), 0, 0));
+                }
             }
         }
 
         // 4. Überprüfung des Endergebnisses
+        if (stack.isEmpty()) {
+            throw new RpnEvaluationException("Ungültiger RPN-Ausdruck: Stack am Ende leer (erwartet: 1 Element).");
+        }
         if (stack.size() != 1) {
             throw new RpnEvaluationException("Ungültiger RPN-Ausdruck: Es verbleiben " + stack.size() + " Elemente auf dem Stack (erwartet: 1).");
         }
@@ -106,27 +138,215 @@ public class RpnEvaluator {
     }
 
     /**
-     * Hilfsmethode zur Überprüfung, ob ein Token eine gültige Zahl ist.
-     * @param token Das zu prüfende Token.
-     * @return true, wenn das Token eine Zahl darstellt, andernfalls false.
+     * Wertet einen {@link TokenBuffer} in RPN-Reihenfolge aus, z.B. aus
+     * {@link ShuntingYard#convertToRPN(TokenBuffer, TokenBuffer)}.
+     *
+     * <p>Die Zahlen sind bereits geparst, der Stack wird vom Aufrufer gestellt
+     * und wiederverwendet. Im Erfolgsfall findet daher keine Allokation statt;
+     * Prüfungen und Fehlermeldungen entsprechen {@link #evaluate(List)}.
+     * Variablen haben hier keinen Wert (außer "NaN" und "Infinity").</p>
+     *
+     * @param rpn   Puffer mit Tokens in RPN-Reihenfolge
+     * @param stack Arbeitsstack, wird vorher geleert
+     * @return Das berechnete Ergebnis des Ausdrucks.
+     * @throws RpnEvaluationException wenn der Ausdruck ungültig ist
+     */
+    public double evaluate(TokenBuffer rpn, DoubleStack stack) throws RpnEvaluationException {
+        return evaluate(rpn, stack, Collections.emptyMap());
+    }
+
+    /**
+     * Wie {@link #evaluate(TokenBuffer, DoubleStack)}, aber Variablen werden
+     * wie bei {@link #evaluate(List, Map)} aus {@code variables} gelesen. Nur
+     * für Variablen wird dabei ihr Name als String erzeugt.
+     *
+     * @param rpn       Puffer mit Tokens in RPN-Reihenfolge
+     * @param stack     Arbeitsstack, wird vorher geleert
+     * @param variables Werte der Variablen nach Name
+     * @return Das berechnete Ergebnis des Ausdrucks.
+     * @throws RpnEvaluationException wenn der Ausdruck ungültig ist oder eine
+     * Variable keinen Wert hat.
+     */
+    public double evaluate(TokenBuffer rpn, DoubleStack stack, Map<String, Double> variables) throws RpnEvaluationException {
+        run(rpn, stack, variables, null);
+        return stack.pop();
+    }
+
+    /**
+     * Wie {@link #evaluate(TokenBuffer, DoubleStack, Map)}, meldet Fehler aber
+     * über {@code result} statt mit einer Exception; das Ergebnis steht dann
+     * in {@link EvaluationResult#value()}. Für ungültige Ausdrücke wird weder
+     * eine Exception noch ein String erzeugt (abgesehen vom Namen einer
+     * Variable, der wie immer für das Nachschlagen entsteht). Nur Exceptions
+     * aus eigenen Funktionen der {@link OperatorRegistry} werden durchgereicht.
+     *
+     * @param rpn       Puffer mit Tokens in RPN-Reihenfolge
+     * @param stack     Arbeitsstack, wird vorher geleert
+     * @param variables Werte der Variablen nach Name
+     * @param result    erhält Ergebnis oder Fehlercode mit Position
+     * @return {@code true}, wenn die Auswertung gelungen ist
+     */
+    public boolean evaluate(TokenBuffer rpn, DoubleStack stack, Map<String, Double> variables,
+                            EvaluationResult result) {
+        if (!run(rpn, stack, variables, result)) {
+            return false;
+        }
+        result.succeed(rpn.source(), stack.pop());
+        return true;
+    }
+
+    /**
+     * Gemeinsamer Kern der Puffer-Auswertung; das Ergebnis bleibt als einziges
+     * Element auf dem Stack.
+     *
+     * @param result Ziel für Fehler oder {@code null}, um sie zu werfen
+     * @return {@code true} bei Erfolg; {@code false} nur mit {@code result}
      */
-    private boolean isNumber(String token) {
-        try {
-            // Versucht, den String in einen Double zu parsen.
-            Double.parseDouble(token);
-            return true;
-        } catch (NumberFormatException e) {
+    private boolean run(TokenBuffer rpn, DoubleStack stack, Map<String, Double> variables, EvaluationResult result) {
+        stack.clear();
+
+        for (int i = 0; i < rpn.size(); i++) {
+            byte type = rpn.type(i);
+            if (type == TokenBuffer.NUMBER && !Double.isNaN(rpn.value(i))) {
+                stack.push(rpn.value(i));
+            } else if (type == TokenBuffer.VARIABLE) {
+                String name = rpn.text(i);
+                Double value = variables.get(name);
+                if (value == null) {
+                    value = specialValue(name);
+                    if (value == null) {
+                        return fail(result, EvaluationResult.ErrorCode.UNKNOWN_VARIABLE, rpn, i, 0);
+                    }
+                }
+                stack.push(value);
+            } else if (type == TokenBuffer.OPERATOR || type == TokenBuffer.FUNCTION) {
+                // Der Opcode stammt aus dem Tokenizer: kein Nachschlagen nach Name
+                EvaluationResult.ErrorCode error = apply(registry.entry(rpn.code(i)), stack);
+                if (error != null) {
+                    return fail(result, error, rpn, i, 0);
+                }
+            } else {
+                if (type == TokenBuffer.UNKNOWN && result == null) {
+                    // Meldung wie bisher mit dem Text des ungültigen Tokens
+                    throw new RpnEvaluationException("Ungültiges Token im Ausdruck: " + rpn.text(i));
+                }
+                return fail(result, EvaluationResult.ErrorCode.MALFORMED_TOKEN, rpn, i, 0);
+            }
+        }
+
+        if (stack.size() != 1) {
+            CharSequence source = rpn.source();
+            EvaluationResult.ErrorCode code = stack.isEmpty() ? EvaluationResult.ErrorCode.EMPTY_EXPRESSION
+                    : EvaluationResult.ErrorCode.TOO_MANY_OPERANDS;
+            if (result == null) {
+                throw new RpnEvaluationException(EvaluationResult.message(code, source, 0, source.length(), stack.size(), 1));
+            }
+            result.fail(code, source, 0, source.length(), stack.size(), 1);
             return false;
         }
+        return true;
+    }
+
+    /**
+     * Meldet einen Fehler über {@code result} oder wirft ihn mit der üblichen Meldung.
+     *
+     * @return immer {@code false}
+     */
+    private static boolean fail(EvaluationResult result, EvaluationResult.ErrorCode code, TokenBuffer rpn,
+                                int index, int found) {
+        int start = rpn.start(index);
+        int length = rpn.end(index) - start;
+        if (result == null) {
+            throw new RpnEvaluationException(EvaluationResult.message(code, rpn.source(), start, length, found, 1));
+        }
+        result.fail(code, rpn.source(), start, length, found, 1);
+        return false;
+    }
+
+    /**
+     * Werte der Namen, die {@link Double#parseDouble(String)} als Zahl
+     * akzeptiert ("NaN", "Infinity"), ohne bei anderen Namen eine
+     * {@link NumberFormatException} zu erzeugen.
+     *
+     * @return der Wert oder {@code null}
+     */
+    static Double specialValue(String name) {
+        if (name.equals("NaN")) {
+            return Double.NaN;
+        }
+        if (name.equals("Infinity")) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return null;
     }
 
     /**
-     * Hilfsmethode zur Überprüfung, ob ein Token ein unterstützter Operator ist.
+     * Führt einen Operator oder eine Funktion auf den obersten Stack-Elementen
+     * aus. Die vordefinierten Opcodes werden direkt berechnet, alle anderen
+     * über ihre {@link OperatorRegistry.Implementation}, die ihre Argumente
+     * direkt im Stack-Array liest.
+     *
+     * @param entry der Operator bzw. die Funktion
+     * @param stack der Arbeitsstack
+     * @return {@code null} bei Erfolg, sonst der Fehler (der Stack ist dann ungültig)
+     */
+    static EvaluationResult.ErrorCode apply(OperatorRegistry.Entry entry, DoubleStack stack) {
+        int arity = entry.arity();
+        if (stack.size() < arity) {
+            return entry.isFunction() ? EvaluationResult.ErrorCode.MISSING_ARGUMENT
+                    : EvaluationResult.ErrorCode.MISSING_OPERAND;
+        }
+        switch (entry.opcode()) {
+            case OperatorRegistry.ADD: {
+                double operand2 = stack.pop();
+                stack.push(stack.pop() + operand2);
+                break;
+            }
+            case OperatorRegistry.SUB: {
+                double operand2 = stack.pop();
+                stack.push(stack.pop() - operand2);
+                break;
+            }
+            case OperatorRegistry.MUL: {
+                double operand2 = stack.pop();
+                stack.push(stack.pop() * operand2);
+                break;
+            }
+            case OperatorRegistry.DIV: {
+                double operand2 = stack.pop();
+                double operand1 = stack.pop();
+                if (operand2 == 0) {
+                    // Division durch 0 abfangen
+                    return EvaluationResult.ErrorCode.DIVISION_BY_ZERO;
+                }
+                stack.push(operand1 / operand2);
+                break;
+            }
+            case OperatorRegistry.POW: {
+                double operand2 = stack.pop();
+                stack.push(Math.pow(stack.pop(), operand2));
+                break;
+            }
+            default: {
+                int base = stack.size() - arity;
+                double result = entry.implementation().apply(stack.elements(), base);
+                stack.popN(arity);
+                stack.push(result);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hilfsmethode zur Überprüfung, ob ein Token ein Variablenname ist.
      * @param token Das zu prüfende Token.
-     * @return true, wenn das Token einer der unterstützten Operatoren (+, -, *, /) ist,
-     * andernfalls false.
+     * @return true, wenn das Token mit einem Buchstaben oder '_' beginnt.
      */
-    private boolean isOperator(String token) {
-        return token.equals("+") || token.equals("-") || token.equals("*") || token.equals("/");
+    private boolean isVariable(String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        char c = token.charAt(0);
+        return Character.isLetter(c) || c == '_';
     }
-}
\ No newline at end of file
+}
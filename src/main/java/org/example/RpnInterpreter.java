@@ -0,0 +1,309 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Führt kompilierte {@link RpnProgram}e aus.
+ *
+ * <p>Der Interpreter arbeitet auf einem primitiven {@code double[]}-Stack, der
+ * zwischen den Aufrufen wiederverwendet wird. Nach dem ersten Aufruf (bzw. wenn
+ * die Kapazität ausreicht) erfolgt pro Auswertung keine Allokation mehr.</p>
+ *
+ * <p>Variablen werden entweder als Werte einer einzelnen Zeile übergeben oder
+ * spaltenweise für viele Zeilen auf einmal
+ * ({@link #executeColumns(RpnProgram, double[][], double[])}).</p>
+ *
+ * <p>Programme aus einem {@link ProgramSnapshot} werden direkt aus der
+ * eingeblendeten Datei ausgeführt, ohne sie vorher zu laden.</p>
+ *
+ * <p>Eine Instanz ist <b>nicht</b> thread-sicher; jeder Thread sollte einen
+ * eigenen Interpreter verwenden. Die Programme selbst dürfen geteilt werden.</p>
+ */
+public class RpnInterpreter {
+
+    private static final double[] NO_VARIABLES = new double[0];
+
+    // Arbeitsstack, wächst bei Bedarf auf die maximale Tiefe eines Programms
+    private double[] stack;
+
+    // Variablenwerte der aktuellen Zeile bei spaltenweiser Auswertung
+    private double[] row = NO_VARIABLES;
+
+    // Zwischenspeicher für gemeinsame Teilausdrücke
+    private double[] temps = NO_VARIABLES;
+
+    /**
+     * Erstellt einen Interpreter mit einer kleinen Startkapazität.
+     */
+    public RpnInterpreter() {
+        this(16);
+    }
+
+    /**
+     * Erstellt einen Interpreter mit der angegebenen Startkapazität.
+     *
+     * @param initialCapacity anfängliche Größe des Arbeitsstacks
+     */
+    public RpnInterpreter(int initialCapacity) {
+        this.stack = new double[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Führt ein Programm ohne Variablen aus und gibt das Ergebnis zurück.
+     *
+     * @param program das auszuführende Programm
+     * @return das berechnete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null
+     * @throws IllegalArgumentException wenn das Programm Variablen verwendet
+     */
+    public double execute(RpnProgram program) throws RpnEvaluator.RpnEvaluationException {
+        return execute(program, NO_VARIABLES);
+    }
+
+    /**
+     * Führt ein Programm mit den angegebenen Variablenwerten aus.
+     *
+     * @param program   das auszuführende Programm
+     * @param variables Werte der Variablen in Slot-Reihenfolge
+     *                  (siehe {@link RpnProgram#getVariableNames()})
+     * @return das berechnete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null
+     * @throws IllegalArgumentException wenn zu wenige Variablenwerte übergeben werden
+     */
+    public double execute(RpnProgram program, double[] variables) throws RpnEvaluator.RpnEvaluationException {
+        if (variables.length < program.getVariableCount()) {
+            throw new IllegalArgumentException("Erwartet " + program.getVariableCount()
+                    + " Variablenwerte, erhalten: " + variables.length);
+        }
+        ensureCapacity(program);
+        return run(program.code(), program.constants(), program.operators(), variables);
+    }
+
+    /**
+     * Wertet ein Programm spaltenweise über viele Zeilen aus.
+     *
+     * <p>{@code columns[slot][row]} ist der Wert der Variable {@code slot} in
+     * Zeile {@code row}; die Anzahl der Zeilen ergibt sich aus
+     * {@code output.length}. Das Programm wird nur einmal kompiliert, die
+     * Auswertung selbst ist eine enge Schleife ohne Allokation.</p>
+     *
+     * @param program das auszuführende Programm
+     * @param columns eine Spalte pro Variable in Slot-Reihenfolge
+     *                (siehe {@link RpnProgram#bindColumns(java.util.Map)})
+     * @param output  Zielarray, erhält ein Ergebnis pro Zeile
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null (in irgendeiner Zeile)
+     * @throws IllegalArgumentException wenn Spalten fehlen oder zu kurz sind
+     */
+    public void executeColumns(RpnProgram program, double[][] columns, double[] output)
+            throws RpnEvaluator.RpnEvaluationException {
+        int variableCount = program.getVariableCount();
+        int rows = output.length;
+        if (columns.length < variableCount) {
+            throw new IllegalArgumentException("Erwartet " + variableCount + " Spalten, erhalten: " + columns.length);
+        }
+        for (int v = 0; v < variableCount; v++) {
+            if (columns[v].length < rows) {
+                throw new IllegalArgumentException("Spalte " + v + " hat nur " + columns[v].length
+                        + " Werte (benötigt: " + rows + ").");
+            }
+        }
+        ensureCapacity(program);
+        if (row.length < variableCount) {
+            row = new double[variableCount];
+        }
+
+        final int[] code = program.code();
+        final double[] constants = program.constants();
+        final OperatorRegistry.Entry[] operators = program.operators();
+        final double[] values = row;
+        for (int r = 0; r < rows; r++) {
+            for (int v = 0; v < variableCount; v++) {
+                values[v] = columns[v][r];
+            }
+            output[r] = run(code, constants, operators, values);
+        }
+    }
+
+    /**
+     * Führt ein Programm direkt aus einem eingeblendeten {@link ProgramSnapshot}
+     * aus, ohne es zu laden: Befehle und Konstanten werden aus dem Puffer gelesen.
+     *
+     * @param snapshot  der Snapshot
+     * @param index     Index des Programms im Snapshot
+     * @param variables Werte der Variablen in Slot-Reihenfolge
+     *                  (siehe {@link ProgramSnapshot#variableNames(int)})
+     * @return das berechnete Ergebnis
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null
+     * @throws IllegalArgumentException wenn zu wenige Variablenwerte übergeben werden
+     */
+    public double execute(ProgramSnapshot snapshot, int index, double[] variables)
+            throws RpnEvaluator.RpnEvaluationException {
+        int program = snapshot.programOffset(index);
+        ByteBuffer data = snapshot.data();
+        int variableCount = data.getInt(program + 8);
+        if (variables.length < variableCount) {
+            throw new IllegalArgumentException("Erwartet " + variableCount
+                    + " Variablenwerte, erhalten: " + variables.length);
+        }
+        ensureCapacity(data.getInt(program + 12), data.getInt(program + 16));
+        int constants = program + ProgramSnapshot.PROGRAM_HEADER_BYTES;
+        int code = constants + 8 * data.getInt(program + 4);
+        return run(data, code, code + 4 * data.getInt(program), constants, snapshot.operators(), variables);
+    }
+
+    private void ensureCapacity(RpnProgram program) {
+        ensureCapacity(program.getMaxStackDepth(), program.getTempCount());
+    }
+
+    private void ensureCapacity(int maxStackDepth, int tempCount) {
+        if (stack.length < maxStackDepth) {
+            stack = new double[maxStackDepth];
+        }
+        if (temps.length < tempCount) {
+            temps = new double[tempCount];
+        }
+    }
+
+    /**
+     * Die eigentliche Interpreter-Schleife.
+     */
+    private double run(int[] code, double[] constants, OperatorRegistry.Entry[] operators, double[] variables) {
+        final double[] s = stack;
+        final double[] t = temps;
+        int sp = -1; // Index der Spitze
+
+        for (int instruction : code) {
+            switch (RpnProgram.opcode(instruction)) {
+                case RpnProgram.OP_CONST:
+                    s[++sp] = constants[RpnProgram.operand(instruction)];
+                    break;
+                case RpnProgram.OP_VAR:
+                    s[++sp] = variables[RpnProgram.operand(instruction)];
+                    break;
+                case RpnProgram.OP_ADD:
+                    s[sp - 1] = s[sp - 1] + s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_SUB:
+                    s[sp - 1] = s[sp - 1] - s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_MUL:
+                    s[sp - 1] = s[sp - 1] * s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_DIV:
+                    if (s[sp] == 0) {
+                        // Gleiches Verhalten wie RpnEvaluator
+                        throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+                    }
+                    s[sp - 1] = s[sp - 1] / s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_POW:
+                    s[sp - 1] = Math.pow(s[sp - 1], s[sp]);
+                    sp--;
+                    break;
+                case RpnProgram.OP_STORE:
+                    t[RpnProgram.operand(instruction)] = s[sp];
+                    break;
+                case RpnProgram.OP_LOAD:
+                    s[++sp] = t[RpnProgram.operand(instruction)];
+                    break;
+                case RpnProgram.OP_CALL:
+                    sp = call(operators[RpnProgram.operand(instruction)], s, sp);
+                    break;
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Unbekannter Opcode: " + RpnProgram.opcode(instruction));
+            }
+        }
+        return s[0];
+    }
+
+    /**
+     * Wie {@link #run(int[], double[], OperatorRegistry.Entry[], double[])},
+     * liest Befehle {@code [codeStart, codeEnd)} und Konstanten aber direkt aus
+     * dem Puffer eines {@link ProgramSnapshot}.
+     */
+    private double run(ByteBuffer data, int codeStart, int codeEnd, int constants,
+                       OperatorRegistry.Entry[] operators, double[] variables) {
+        final double[] s = stack;
+        final double[] t = temps;
+        int sp = -1; // Index der Spitze
+
+        for (int p = codeStart; p < codeEnd; p += 4) {
+            int instruction = data.getInt(p);
+            switch (RpnProgram.opcode(instruction)) {
+                case RpnProgram.OP_CONST:
+                    s[++sp] = data.getDouble(constants + 8 * RpnProgram.operand(instruction));
+                    break;
+                case RpnProgram.OP_VAR:
+                    s[++sp] = variables[RpnProgram.operand(instruction)];
+                    break;
+                case RpnProgram.OP_ADD:
+                    s[sp - 1] = s[sp - 1] + s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_SUB:
+                    s[sp - 1] = s[sp - 1] - s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_MUL:
+                    s[sp - 1] = s[sp - 1] * s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_DIV:
+                    if (s[sp] == 0) {
+                        throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+                    }
+                    s[sp - 1] = s[sp - 1] / s[sp];
+                    sp--;
+                    break;
+                case RpnProgram.OP_POW:
+                    s[sp - 1] = Math.pow(s[sp - 1], s[sp]);
+                    sp--;
+                    break;
+                case RpnProgram.OP_STORE:
+                    t[RpnProgram.operand(instruction)] = s[sp];
+                    break;
+                case RpnProgram.OP_LOAD:
+                    s[++sp] = t[RpnProgram.operand(instruction)];
+                    break;
+                case RpnProgram.OP_CALL:
+                    sp = call(operators[RpnProgram.operand(instruction)], s, sp);
+                    break;
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Unbekannter Opcode: " + RpnProgram.opcode(instruction));
+            }
+        }
+        return s[0];
+    }
+
+    /**
+     * Führt eine Funktion oder einen eigenen Operator aus. Die vordefinierten
+     * Funktionen werden direkt berechnet, alle anderen lesen ihre Argumente
+     * über {@link OperatorRegistry.Implementation} direkt aus dem Stack.
+     *
+     * @return der neue Index der Spitze
+     */
+    private static int call(OperatorRegistry.Entry entry, double[] s, int sp) {
+        switch (entry.opcode()) {
+            case OperatorRegistry.MIN:
+                s[sp - 1] = Math.min(s[sp - 1], s[sp]);
+                return sp - 1;
+            case OperatorRegistry.MAX:
+                s[sp - 1] = Math.max(s[sp - 1], s[sp]);
+                return sp - 1;
+            case OperatorRegistry.SQRT:
+                s[sp] = Math.sqrt(s[sp]);
+                return sp;
+            case OperatorRegistry.ABS:
+                s[sp] = Math.abs(s[sp]);
+                return sp;
+            default:
+                int base = sp + 1 - entry.arity();
+                s[base] = entry.implementation().apply(s, base);
+                return base;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.example;
+
+import java.util.Map;
+
+/**
+ * Ein kompiliertes, unveränderliches RPN-Programm.
+ *
+ * <p>Das Programm besteht aus einem flachen {@code int[]} mit Befehlen und
+ * einem {@code double[]} Konstanten-Pool. Jeder Befehl enthält in den unteren
+ * {@value #OPCODE_BITS} Bit den Opcode und in den oberen Bits einen Operanden
+ * (z.B. den Index einer Konstante oder den Slot einer Variable).</p>
+ *
+ * <p>Variablen werden beim Kompilieren in der Reihenfolge ihres ersten
+ * Auftretens nummeriert ("Slots"). Bei der Ausführung werden ihre Werte als
+ * {@code double[]} in genau dieser Reihenfolge übergeben.</p>
+ *
+ * <p>Gemeinsame Teilausdrücke (siehe {@link AstInterner}) werden nur einmal
+ * berechnet: {@link #OP_STORE} legt das Ergebnis in einem Zwischenspeicher
+ * ab, jede weitere Verwendung lädt es mit {@link #OP_LOAD}.</p>
+ *
+ * <p>Funktionen und eigene Operatoren aus der {@link OperatorRegistry} werden
+ * mit {@link #OP_CALL} aufgerufen; der Operand ist ihr Opcode in der Registry.
+ * Das Programm hält den Stand der Registry beim Kompilieren fest.</p>
+ *
+ * <p>Programme werden vom {@link RpnCompiler} erzeugt und vom
+ * {@link RpnInterpreter} ausgeführt. Da sie unveränderlich sind, dürfen sie
+ * beliebig zwischen Threads geteilt werden.</p>
+ */
+public final class RpnProgram {
+
+    /** Anzahl der Bits, die für den Opcode reserviert sind. */
+    static final int OPCODE_BITS = 8;
+
+    /** Maske zum Auslesen des Opcodes aus einem Befehl. */
+    static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+
+    /** Legt die Konstante mit dem Index im Operanden auf den Stack. */
+    static final int OP_CONST = 0;
+    /** Addition der beiden obersten Stack-Elemente. */
+    static final int OP_ADD = 1;
+    /** Subtraktion der beiden obersten Stack-Elemente. */
+    static final int OP_SUB = 2;
+    /** Multiplikation der beiden obersten Stack-Elemente. */
+    static final int OP_MUL = 3;
+    /** Division der beiden obersten Stack-Elemente (mit Prüfung auf Null). */
+    static final int OP_DIV = 4;
+    /** Potenzierung der beiden obersten Stack-Elemente. */
+    static final int OP_POW = 5;
+    /** Legt den Wert der Variable mit dem Slot im Operanden auf den Stack. */
+    static final int OP_VAR = 6;
+    /** Kopiert das oberste Stack-Element in den Zwischenspeicher im Operanden (ohne es zu entfernen). */
+    static final int OP_STORE = 7;
+    /** Legt den Wert aus dem Zwischenspeicher im Operanden auf den Stack. */
+    static final int OP_LOAD = 8;
+    /** Ruft den Registry-Eintrag mit dem Opcode im Operanden auf den obersten Stack-Elementen auf. */
+    static final int OP_CALL = 9;
+
+    private final int[] code;
+    private final double[] constants;
+    private final String[] variables;
+    private final int maxStackDepth;
+    private final int tempCount;
+    private final OperatorRegistry.Entry[] operators;
+
+    /**
+     * Erstellt ein neues Programm ohne Zwischenspeicher.
+     */
+    RpnProgram(int[] code, double[] constants, String[] variables, int maxStackDepth) {
+        this(code, constants, variables, maxStackDepth, 0);
+    }
+
+    /**
+     * Erstellt ein neues Programm. Die Arrays werden nicht kopiert und dürfen
+     * danach nicht mehr verändert werden.
+     */
+    RpnProgram(int[] code, double[] constants, String[] variables, int maxStackDepth, int tempCount) {
+        this(code, constants, variables, maxStackDepth, tempCount, OperatorRegistry.standard().entryArray());
+    }
+
+    /**
+     * Erstellt ein neues Programm, dessen {@link #OP_CALL}-Befehle sich auf
+     * die angegebenen Registry-Einträge beziehen.
+     */
+    RpnProgram(int[] code, double[] constants, String[] variables, int maxStackDepth, int tempCount,
+               OperatorRegistry.Entry[] operators) {
+        this.operators = operators;
+        this.code = code;
+        this.constants = constants;
+        this.variables = variables;
+        this.maxStackDepth = maxStackDepth;
+        this.tempCount = tempCount;
+    }
+
+    /** Kodiert Opcode und Operand in einen einzelnen Befehl. */
+    static int encode(int opcode, int operand) {
+        return opcode | (operand << OPCODE_BITS);
+    }
+
+    /** Liefert den Opcode eines Befehls. */
+    static int opcode(int instruction) {
+        return instruction & OPCODE_MASK;
+    }
+
+    /** Liefert den Operanden eines Befehls. */
+    static int operand(int instruction) {
+        return instruction >>> OPCODE_BITS;
+    }
+
+    // Direkter Zugriff für Interpreter (keine Kopie, nur lesen!)
+    int[] code() { return code; }
+    double[] constants() { return constants; }
+    String[] variables() { return variables; }
+    OperatorRegistry.Entry[] operators() { return operators; }
+
+    /**
+     * @return {@code true}, wenn das Programm Funktionen oder eigene Operatoren
+     * aufruft ({@link #OP_CALL})
+     */
+    boolean hasCalls() {
+        for (int instruction : code) {
+            if (opcode(instruction) == OP_CALL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gibt die Anzahl der Befehle zurück.
+     *
+     * @return Anzahl der Befehle im Programm
+     */
+    public int getInstructionCount() {
+        return code.length;
+    }
+
+    /**
+     * Gibt die Größe des Konstanten-Pools zurück.
+     *
+     * @return Anzahl der unterschiedlichen Konstanten
+     */
+    public int getConstantCount() {
+        return constants.length;
+    }
+
+    /**
+     * Gibt die Anzahl der Variablen (Slots) zurück.
+     *
+     * @return Anzahl der unterschiedlichen Variablen
+     */
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    /**
+     * Gibt die Namen der Variablen in Slot-Reihenfolge zurück.
+     *
+     * @return Kopie der Variablennamen
+     */
+    public String[] getVariableNames() {
+        return variables.clone();
+    }
+
+    /**
+     * Liefert den Slot einer Variable.
+     *
+     * @param name Name der Variable
+     * @return der Slot oder -1, wenn die Variable nicht vorkommt
+     */
+    public int variableIndex(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ordnet Spalten nach Variablennamen den Slots dieses Programms zu, z.B.
+     * für {@link RpnInterpreter#executeColumns(RpnProgram, double[][], double[])}.
+     *
+     * @param columnsByName Spalten je Variablenname
+     * @return Spalten in Slot-Reihenfolge
+     * @throws IllegalArgumentException wenn eine Variable keine Spalte hat
+     */
+    public double[][] bindColumns(Map<String, double[]> columnsByName) {
+        double[][] columns = new double[variables.length][];
+        for (int i = 0; i < variables.length; i++) {
+            columns[i] = columnsByName.get(variables[i]);
+            if (columns[i] == null) {
+                throw new IllegalArgumentException("Keine Werte für Variable: " + variables[i]);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Gibt die maximale Stack-Tiefe zurück, die bei der Ausführung erreicht wird.
+     *
+     * @return benötigte Stack-Größe
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Gibt die Anzahl der Zwischenspeicher für gemeinsame Teilausdrücke zurück.
+     *
+     * @return Anzahl der Zwischenspeicher (0, wenn nichts mehrfach verwendet wird)
+     */
+    public int getTempCount() {
+        return tempCount;
+    }
+
+    /**
+     * Gibt das Programm in lesbarer Form aus, z.B. {@code "3 4 2 * +"}.
+     * Zwischenspeicher erscheinen als {@code =t0} (speichern) und {@code t0} (laden).
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int instruction : code) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            switch (opcode(instruction)) {
+                case OP_CONST: sb.append(constants[operand(instruction)]); break;
+                case OP_ADD: sb.append('+'); break;
+                case OP_SUB: sb.append('-'); break;
+                case OP_MUL: sb.append('*'); break;
+                case OP_DIV: sb.append('/'); break;
+                case OP_POW: sb.append('^'); break;
+                case OP_VAR: sb.append(variables[operand(instruction)]); break;
+                case OP_STORE: sb.append("=t").append(operand(instruction)); break;
+                case OP_LOAD: sb.append('t').append(operand(instruction)); break;
+                case OP_CALL: sb.append(operators[operand(instruction)].name()); break;
+                default: sb.append('?'); break;
+            }
+        }
+        return sb.toString();
+    }
+}
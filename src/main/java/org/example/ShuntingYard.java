@@ -2,8 +2,7 @@ package org.example;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.RandomAccess;
 
 /**
  * Implementiert den Shunting-Yard-Algorithmus von Edsger Dijkstra,
@@ -18,14 +17,27 @@ import java.util.HashMap;
  */
 public class ShuntingYard {
 
-    /** Priorität der Operatoren: je höher, desto stärker bindet der Operator */
-    private static final Map<String, Integer> PRECEDENCE = new HashMap<>();
-    static {
-        PRECEDENCE.put("+", 1);
-        PRECEDENCE.put("-", 1);
-        PRECEDENCE.put("*", 2);
-        PRECEDENCE.put("/", 2);
-        PRECEDENCE.put("^", 3);
+    private final OperatorRegistry registry;
+
+    /**
+     * Erstellt einen Konverter mit der {@link OperatorRegistry#standard() Standard-Registry}.
+     */
+    public ShuntingYard() {
+        this(OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Konverter, der Priorität, Assoziativität und Stelligkeit
+     * aus der angegebenen Registry bezieht. Sie muss dieselbe sein wie beim
+     * {@link Tokenizer}.
+     *
+     * @param registry die Registry
+     */
+    public ShuntingYard(OperatorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry darf nicht null sein.");
+        }
+        this.registry = registry;
     }
 
     /**
@@ -35,22 +47,70 @@ public class ShuntingYard {
      * @return Priorität des Operators, 0 wenn unbekannt
      */
     private int getPrecedence(String operator) {
-        return PRECEDENCE.getOrDefault(operator, 0);
+        OperatorRegistry.Entry entry = operator.length() == 1 ? registry.operator(operator.charAt(0)) : null;
+        return entry != null ? entry.precedence() : 0;
     }
 
     /**
      * Prüft, ob ein Operator linksassoziativ ist.
      * *
      * <p>
-     * +, -, *, / sind linksassoziativ. ^ ist rechtsassoziativ.
+     * +, -, *, / sind linksassoziativ. ^ ist rechtsassoziativ. Eigene
+     * Operatoren legen das bei der Registrierung fest.
      * </p>
      *
      * @param operator der Operator
      * @return true, wenn linksassoziativ
      */
     private boolean isLeftAssociative(String operator) {
-        // Alle OPs sind linksassoziativ, außer 'hoch' (^)
-        return !operator.equals("^");
+        OperatorRegistry.Entry entry = operator.length() == 1 ? registry.operator(operator.charAt(0)) : null;
+        return entry == null || entry.isLeftAssociative();
+    }
+
+    /**
+     * Liefert die Priorität eines Operator-Zeichens ohne Map-Zugriff.
+     * Wird auch vom {@link PrattParser} verwendet.
+     *
+     * @param operator das Operator-Zeichen
+     * @return Priorität des Operators, 0 wenn unbekannt
+     */
+    static int getPrecedence(char operator) {
+        OperatorRegistry.Entry entry = OperatorRegistry.standard().operator(operator);
+        return entry != null ? entry.precedence() : 0;
+    }
+
+    /**
+     * Prüft, ob ein Operator-Zeichen linksassoziativ ist, aus derselben
+     * Registry wie {@link #getPrecedence(char)}.
+     *
+     * @param operator das Operator-Zeichen
+     * @return true, wenn linksassoziativ (auch wenn unbekannt)
+     */
+    static boolean isLeftAssociative(char operator) {
+        OperatorRegistry.Entry entry = OperatorRegistry.standard().operator(operator);
+        return entry == null || entry.isLeftAssociative();
+    }
+
+    /**
+     * Prüft die Anzahl der Argumente eines Funktionsaufrufs beim Schließen
+     * seiner Klammer.
+     *
+     * @param function   die Funktion
+     * @param separators Anzahl der ',' im Aufruf
+     * @param empty      ob die Klammer leer war, z.B. {@code f()}
+     * @param afterComma ob direkt vor ')' ein ',' stand
+     * @throws Exception bei leerem Argument oder falscher Anzahl
+     */
+    private static void checkArguments(OperatorRegistry.Entry function, int separators, boolean empty,
+                                       boolean afterComma) throws Exception {
+        if (afterComma || (empty && separators > 0)) {
+            throw new Exception("Empty argument in call of " + function.name());
+        }
+        int count = empty ? 0 : separators + 1;
+        if (count != function.arity()) {
+            throw new Exception("Wrong number of arguments for " + function.name() + ": expected "
+                    + function.arity() + ", found " + count);
+        }
     }
 
     /**
@@ -59,10 +119,12 @@ public class ShuntingYard {
      * <p>
      * Verwendet einen Stack für Operatoren und die Shunting-Yard-Regeln:
      * <ul>
-     * <li>Zahlen → direkt in die Ausgabe</li>
+     * <li>Zahlen und Variablen → direkt in die Ausgabe</li>
      * <li>Operatoren → abhängig von Priorität und Assoziativität auf Stack oder in
      * Ausgabe</li>
      * <li>Klammern → verwalten geschachtelte Ausdrücke</li>
+     * <li>Funktionen → auf den Stack; nach ihrer schließenden Klammer in die
+     * Ausgabe, wenn die Anzahl der durch ',' getrennten Argumente stimmt</li>
      * </ul>
      * </p>
      *
@@ -71,15 +133,22 @@ public class ShuntingYard {
      * @throws Exception bei ungültigen Tokens oder unbalancierten Klammern
      */
     public List<Token> convertToRPN(List<Token> tokens) throws Exception {
-        List<Token> output = new ArrayList<>();
+        // Indexzugriff wird benötigt, da der Operator-Stack nur Positionen speichert
+        List<Token> input = tokens instanceof RandomAccess ? tokens : new ArrayList<>(tokens);
+        List<Token> output = new ArrayList<>(input.size());
 
-        // Benutze eigenen Stack für Operatoren
-        Stack<Token> operatorStack = new Stack<>();
+        // Operator-Stack speichert die Indizes der Tokens in der Eingabe (kein Boxing)
+        IntStack operatorStack = new IntStack();
+        // Anzahl der ',' je offenem Funktionsaufruf
+        IntStack separators = new IntStack();
 
-        for (Token token : tokens) {
+        for (int i = 0; i < input.size(); i++) {
+            Token token = input.get(i);
+            Token.Type previous = i > 0 ? input.get(i - 1).getType() : null;
             switch (token.getType()) {
                 case NUMBER:
-                    // Zahlen direkt in die Ausgabe
+                case VARIABLE:
+                    // Zahlen und Variablen direkt in die Ausgabe
                     output.add(token);
                     break;
 
@@ -88,7 +157,7 @@ public class ShuntingYard {
                     // Verschiebe Operatoren vom Stack in die Ausgabe,
                     // solange o2 höhere Priorität hat oder gleiche Priorität + linksassoziativ
                     while (!operatorStack.isEmpty()) {
-                        Token topToken = operatorStack.peek();
+                        Token topToken = input.get(operatorStack.peek());
                         if (topToken.getType() != Token.Type.OPERATOR) {
                             break;
                         }
@@ -98,27 +167,54 @@ public class ShuntingYard {
                         int p2 = getPrecedence(o2);
 
                         if (p2 > p1 || (p2 == p1 && isLeftAssociative(o1))) {
-                            output.add(operatorStack.pop());
+                            output.add(input.get(operatorStack.pop()));
                         } else {
                             break;
                         }
                     }
-                    operatorStack.push(token);
+                    operatorStack.push(i);
+                    break;
+
+                case FUNCTION:
+                    // Funktion auf den Stack; ihre Argumente müssen direkt in '(' folgen
+                    if (i + 1 == input.size() || input.get(i + 1).getType() != Token.Type.LPARENNORMAL) {
+                        throw new Exception("Missing '(' after function: " + token.getValue());
+                    }
+                    operatorStack.push(i);
                     break;
 
                 case LPARENNORMAL:
                     // Linke Klammern auf den Stack
-                    operatorStack.push(token);
+                    operatorStack.push(i);
+                    if (previous == Token.Type.FUNCTION) {
+                        separators.push(0);
+                    }
+                    break;
+
+                case SEPARATOR:
+                    // Argument abschließen: Operatoren bis zur Klammer des Aufrufs ausgeben
+                    while (!operatorStack.isEmpty() && input.get(operatorStack.peek()).getType() == Token.Type.OPERATOR) {
+                        output.add(input.get(operatorStack.pop()));
+                    }
+                    if (operatorStack.isEmpty() || operatorStack.peek() == 0
+                            || input.get(operatorStack.peek()).getType() != Token.Type.LPARENNORMAL
+                            || input.get(operatorStack.peek() - 1).getType() != Token.Type.FUNCTION) {
+                        throw new Exception("Misplaced ','");
+                    }
+                    if (previous == Token.Type.LPARENNORMAL || previous == Token.Type.SEPARATOR) {
+                        throw new Exception("Empty argument in call of " + input.get(operatorStack.peek() - 1).getValue());
+                    }
+                    separators.push(separators.pop() + 1);
                     break;
 
                 case LPARENECKIG:
-                    operatorStack.push(token);
+                    operatorStack.push(i);
                     break;
 
                 case RPARENNORMAL:
                     // 1. Verschiebe Operatoren bis zur linken Klammer
-                    while (!operatorStack.isEmpty() && operatorStack.peek().getType() == Token.Type.OPERATOR) {
-                        output.add(operatorStack.pop());
+                    while (!operatorStack.isEmpty() && input.get(operatorStack.peek()).getType() == Token.Type.OPERATOR) {
+                        output.add(input.get(operatorStack.pop()));
                     }
 
                     // 2. Prüfung: Stack leer? Oder falscher Klammertyp?
@@ -127,10 +223,20 @@ public class ShuntingYard {
                                                                                     // gefunden
                     }
 
-                    Token top = operatorStack.peek();
+                    Token top = input.get(operatorStack.peek());
                     if (top.getType() == Token.Type.LPARENNORMAL) {
                         // Korrekte Klammer gefunden
-                        operatorStack.pop();
+                        int open = operatorStack.pop();
+                        if (open > 0 && input.get(open - 1).getType() == Token.Type.FUNCTION) {
+                            // Schließt einen Funktionsaufruf: Argumente zählen, Funktion ausgeben
+                            Token function = input.get(operatorStack.pop());
+                            OperatorRegistry.Entry entry = registry.function(function.getValue());
+                            if (entry == null) {
+                                throw new Exception("Invalid token encountered: " + function.getValue());
+                            }
+                            checkArguments(entry, separators.pop(), open == i - 1, previous == Token.Type.SEPARATOR);
+                            output.add(function);
+                        }
                     } else if (top.getType() == Token.Type.LPARENECKIG) {
                         // Falscher Klammertyp gefunden! ([...))
                         throw new Exception("Mismatched parentheses: Expected ']', found ')'");
@@ -142,8 +248,8 @@ public class ShuntingYard {
 
                 case RPARENECKIG:
                     // 1. Verschiebe Operatoren bis zur linken Klammer
-                    while (!operatorStack.isEmpty() && operatorStack.peek().getType() == Token.Type.OPERATOR) {
-                        output.add(operatorStack.pop());
+                    while (!operatorStack.isEmpty() && input.get(operatorStack.peek()).getType() == Token.Type.OPERATOR) {
+                        output.add(input.get(operatorStack.pop()));
                     }
 
                     // 2. Prüfung: Stack leer? Oder falscher Klammertyp?
@@ -152,7 +258,7 @@ public class ShuntingYard {
                                                                                     // gefunden
                     }
 
-                    Token topToken2 = operatorStack.peek();
+                    Token topToken2 = input.get(operatorStack.peek());
                     if (topToken2.getType() == Token.Type.LPARENECKIG) {
                         // Korrekte Klammer gefunden
                         operatorStack.pop();
@@ -172,7 +278,7 @@ public class ShuntingYard {
         }
         // Alle verbleibenden Operatoren auf den Stack in die Ausgabe verschieben
         while (!operatorStack.isEmpty()) {
-            Token token = operatorStack.pop();
+            Token token = input.get(operatorStack.pop());
 
             // Fehlerprüfung für offene Klammern, die im Stack verbleiben
             if (token.getType() == Token.Type.LPARENNORMAL) {
@@ -196,4 +302,279 @@ public class ShuntingYard {
         return output;
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Konvertiert einen {@link TokenBuffer} im Infix-Format in einen zweiten
+     * Puffer in RPN-Reihenfolge.
+     *
+     * <p>Es gelten dieselben Regeln und Fehlermeldungen wie bei
+     * {@link #convertToRPN(List)}. Der Operator-Stack und die Ausgabe
+     * verwenden ausschließlich die Arrays des Ausgabepuffers; ist dieser groß
+     * genug, findet keine Allokation statt. Die Positionen in der Ausgabe
+     * beziehen sich weiterhin auf den Quelltext der Eingabe. Die größte
+     * erreichte Tiefe des Operator-Stacks steht danach in
+     * {@link TokenBuffer#getMaxOperatorDepth()} der Ausgabe.</p>
+     *
+     * @param tokens Puffer mit Tokens im Infix-Format
+     * @param output Puffer für die RPN-Ausgabe (wird vorher geleert)
+     * @throws Exception bei ungültigen Tokens oder unbalancierten Klammern
+     */
+    public void convertToRPN(TokenBuffer tokens, TokenBuffer output) throws Exception {
+        if (tokens == output) {
+            throw new IllegalArgumentException("Eingabe- und Ausgabepuffer müssen verschieden sein.");
+        }
+        convert(tokens, output, null);
+    }
+
+    /**
+     * Wie {@link #convertToRPN(TokenBuffer, TokenBuffer)}, meldet Fehler aber
+     * über {@code result} statt mit einer Exception. Auch im Fehlerfall findet
+     * keine Allokation statt.
+     *
+     * @param tokens Puffer mit Tokens im Infix-Format
+     * @param output Puffer für die RPN-Ausgabe (wird vorher geleert)
+     * @param result erhält Erfolg oder Fehlercode mit Position
+     * @return {@code true}, wenn die Konvertierung gelungen ist
+     */
+    public boolean convertToRPN(TokenBuffer tokens, TokenBuffer output, EvaluationResult result) {
+        if (tokens == output) {
+            throw new IllegalArgumentException("Eingabe- und Ausgabepuffer müssen verschieden sein.");
+        }
+        try {
+            return convert(tokens, output, result);
+        } catch (Exception e) {
+            // Mit result wird nie geworfen
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Prüft einen Ausdruck, ohne eine Ausgabe zu erzeugen: Klammern,
+     * Funktionsaufrufe, ungültige Tokens und die Anzahl der Operanden jedes
+     * Operators. Findet diese Methode keinen Fehler, kann die Auswertung nur
+     * noch an Variablen ohne Wert, einer Division durch Null oder an eigenen
+     * Funktionen scheitern.
+     *
+     * <p>Statt eines Ausgabepuffers wird nur die Tiefe des RPN-Stacks
+     * mitgezählt; Fehlercodes und Positionen entsprechen denen von
+     * Konvertierung und Auswertung. Verwendet die Arbeitsstacks von
+     * {@code tokens} und findet ohne Allokation statt.</p>
+     *
+     * @param tokens Puffer mit Tokens im Infix-Format
+     * @param result erhält Erfolg oder Fehlercode mit Position
+     * @return {@code true}, wenn der Ausdruck gültig ist
+     */
+    public boolean validate(TokenBuffer tokens, EvaluationResult result) {
+        try {
+            return convert(tokens, null, result);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gemeinsamer Kern für Konvertierung und Prüfung.
+     *
+     * @param output Ausgabepuffer oder {@code null}, um nur zu prüfen
+     * @param result Ziel für Fehler oder {@code null}, um sie zu werfen
+     * @return {@code true} bei Erfolg; {@code false} nur mit {@code result}
+     */
+    private boolean convert(TokenBuffer tokens, TokenBuffer output, EvaluationResult result) throws Exception {
+        TokenBuffer work = output != null ? output : tokens;
+        if (output != null) {
+            output.reset(tokens.source());
+        }
+        IntStack operatorStack = work.scratch;
+        operatorStack.clear();
+        IntStack separators = work.arguments;
+        separators.clear();
+        // Nur beim Prüfen: Tiefe des RPN-Stacks, die die Ausgabe bei der Auswertung erreichen würde
+        int depth = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            byte previous = i > 0 ? tokens.type(i - 1) : -1;
+            switch (tokens.type(i)) {
+                case TokenBuffer.NUMBER:
+                case TokenBuffer.VARIABLE:
+                    if ((depth = emit(tokens, i, output, depth, result)) < 0) {
+                        return false;
+                    }
+                    break;
+
+                case TokenBuffer.OPERATOR:
+                    // Priorität und Assoziativität über den Opcode aus dem Tokenizer
+                    OperatorRegistry.Entry o1 = registry.entry(tokens.code(i));
+                    while (!operatorStack.isEmpty()) {
+                        int top = operatorStack.peek();
+                        if (tokens.type(top) != TokenBuffer.OPERATOR) {
+                            break;
+                        }
+                        int p1 = o1.precedence();
+                        int p2 = registry.entry(tokens.code(top)).precedence();
+                        if (p2 > p1 || (p2 == p1 && o1.isLeftAssociative())) {
+                            if ((depth = emit(tokens, operatorStack.pop(), output, depth, result)) < 0) {
+                                return false;
+                            }
+                        } else {
+                            break;
+                        }
+                    }
+                    operatorStack.push(i);
+                    if (output != null) {
+                        output.maxOperatorDepth = Math.max(output.maxOperatorDepth, operatorStack.size());
+                    }
+                    break;
+
+                case TokenBuffer.FUNCTION:
+                    if (i + 1 == tokens.size() || tokens.type(i + 1) != TokenBuffer.LPARENNORMAL) {
+                        return fail(result, EvaluationResult.ErrorCode.MISSING_FUNCTION_PAREN, tokens, i, 0, 0);
+                    }
+                    operatorStack.push(i);
+                    break;
+
+                case TokenBuffer.LPARENNORMAL:
+                case TokenBuffer.LPARENECKIG:
+                    operatorStack.push(i);
+                    if (output != null) {
+                        output.maxOperatorDepth = Math.max(output.maxOperatorDepth, operatorStack.size());
+                    }
+                    if (previous == TokenBuffer.FUNCTION) {
+                        separators.push(0);
+                    }
+                    break;
+
+                case TokenBuffer.SEPARATOR:
+                    while (!operatorStack.isEmpty() && tokens.type(operatorStack.peek()) == TokenBuffer.OPERATOR) {
+                        if ((depth = emit(tokens, operatorStack.pop(), output, depth, result)) < 0) {
+                            return false;
+                        }
+                    }
+                    if (operatorStack.isEmpty() || operatorStack.peek() == 0
+                            || tokens.type(operatorStack.peek()) != TokenBuffer.LPARENNORMAL
+                            || tokens.type(operatorStack.peek() - 1) != TokenBuffer.FUNCTION) {
+                        return fail(result, EvaluationResult.ErrorCode.MISPLACED_SEPARATOR, tokens, i, 0, 0);
+                    }
+                    if (previous == TokenBuffer.LPARENNORMAL || previous == TokenBuffer.SEPARATOR) {
+                        return fail(result, EvaluationResult.ErrorCode.EMPTY_ARGUMENT, tokens, operatorStack.peek() - 1, 0, 0);
+                    }
+                    separators.push(separators.pop() + 1);
+                    break;
+
+                case TokenBuffer.RPARENNORMAL:
+                case TokenBuffer.RPARENECKIG:
+                    boolean normal = tokens.type(i) == TokenBuffer.RPARENNORMAL;
+                    while (!operatorStack.isEmpty() && tokens.type(operatorStack.peek()) == TokenBuffer.OPERATOR) {
+                        if ((depth = emit(tokens, operatorStack.pop(), output, depth, result)) < 0) {
+                            return false;
+                        }
+                    }
+                    if (operatorStack.isEmpty()) {
+                        return fail(result, EvaluationResult.ErrorCode.MISSING_OPEN_PAREN, tokens, i, 0, 0);
+                    }
+                    byte open = tokens.type(operatorStack.peek());
+                    if (open == (normal ? TokenBuffer.LPARENNORMAL : TokenBuffer.LPARENECKIG)) {
+                        int openIndex = operatorStack.pop();
+                        if (normal && openIndex > 0 && tokens.type(openIndex - 1) == TokenBuffer.FUNCTION) {
+                            int function = operatorStack.pop();
+                            int count = separators.pop();
+                            OperatorRegistry.Entry entry = registry.entry(tokens.code(function));
+                            if (previous == TokenBuffer.SEPARATOR) {
+                                return fail(result, EvaluationResult.ErrorCode.EMPTY_ARGUMENT, tokens, function, 0, 0);
+                            }
+                            count = openIndex == i - 1 ? 0 : count + 1;
+                            if (count != entry.arity()) {
+                                return fail(result, EvaluationResult.ErrorCode.WRONG_ARGUMENT_COUNT, tokens, function,
+                                        count, entry.arity());
+                            }
+                            if ((depth = emit(tokens, function, output, depth, result)) < 0) {
+                                return false;
+                            }
+                        }
+                    } else if (open == (normal ? TokenBuffer.LPARENECKIG : TokenBuffer.LPARENNORMAL)) {
+                        return fail(result, EvaluationResult.ErrorCode.MISMATCHED_PAREN, tokens, i, 0, 0);
+                    } else {
+                        throw new Exception("Internal Error during parenthesis matching.");
+                    }
+                    break;
+
+                default:
+                    // Ungültige Tokens (Meldung wird nur beim Werfen erzeugt)
+                    return fail(result, EvaluationResult.ErrorCode.INVALID_TOKEN, tokens, i, 0, 0);
+            }
+        }
+
+        while (!operatorStack.isEmpty()) {
+            int index = operatorStack.pop();
+            byte type = tokens.type(index);
+            if (type == TokenBuffer.LPARENNORMAL || type == TokenBuffer.LPARENECKIG) {
+                return fail(result, EvaluationResult.ErrorCode.MISSING_CLOSE_PAREN, tokens, index, 0, 0);
+            }
+            if ((depth = emit(tokens, index, output, depth, result)) < 0) {
+                return false;
+            }
+        }
+
+        if (output == null) {
+            // Prüfen: am Ende muss genau ein Wert übrig bleiben
+            CharSequence source = tokens.source();
+            if (depth != 1) {
+                result.fail(depth == 0 ? EvaluationResult.ErrorCode.EMPTY_EXPRESSION
+                        : EvaluationResult.ErrorCode.TOO_MANY_OPERANDS, source, 0, source.length(), depth, 1);
+                return false;
+            }
+        }
+        if (result != null) {
+            result.succeed(tokens.source(), Double.NaN);
+        }
+        return true;
+    }
+
+    /**
+     * Gibt ein Token aus. Beim Prüfen (ohne Ausgabe) wird stattdessen die
+     * Stack-Tiefe wie bei der Auswertung fortgeschrieben.
+     *
+     * @return die neue Tiefe oder -1 nach einem Fehler
+     */
+    private int emit(TokenBuffer tokens, int index, TokenBuffer output, int depth, EvaluationResult result) {
+        if (output != null) {
+            output.addFrom(tokens, index);
+            return depth;
+        }
+        byte type = tokens.type(index);
+        if (type == TokenBuffer.NUMBER || type == TokenBuffer.VARIABLE) {
+            if (type == TokenBuffer.NUMBER && Double.isNaN(tokens.value(index))) {
+                // z.B. "-.": wird konvertiert, scheitert aber bei der Auswertung
+                fail(result, EvaluationResult.ErrorCode.MALFORMED_TOKEN, tokens, index);
+                return -1;
+            }
+            return depth + 1;
+        }
+        OperatorRegistry.Entry entry = registry.entry(tokens.code(index));
+        if (depth < entry.arity()) {
+            fail(result, entry.isFunction() ? EvaluationResult.ErrorCode.MISSING_ARGUMENT
+                    : EvaluationResult.ErrorCode.MISSING_OPERAND, tokens, index);
+            return -1;
+        }
+        return depth + 1 - entry.arity();
+    }
+
+    private static void fail(EvaluationResult result, EvaluationResult.ErrorCode code, TokenBuffer tokens, int index) {
+        result.fail(code, tokens.source(), tokens.start(index), tokens.end(index) - tokens.start(index), 0, 0);
+    }
+
+    /**
+     * Meldet einen Fehler über {@code result} oder wirft ihn mit der üblichen Meldung.
+     *
+     * @return immer {@code false}
+     */
+    private static boolean fail(EvaluationResult result, EvaluationResult.ErrorCode code, TokenBuffer tokens,
+                                int index, int found, int expected) throws Exception {
+        int start = tokens.start(index);
+        int length = tokens.end(index) - start;
+        if (result == null) {
+            throw new Exception(EvaluationResult.message(code, tokens.source(), start, length, found, expected));
+        }
+        result.fail(code, tokens.source(), start, length, found, expected);
+        return false;
+    }
+}
@@ -0,0 +1,390 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Wertet einen Ausdruck in einem Durchlauf über die Zeichen aus, nach
+ * Dijkstras Zwei-Stack-Verfahren: ein primitiver Operanden-Stack und ein
+ * Operator-Stack, ohne Token-Liste und ohne RPN-Liste. Gedacht für einzelne
+ * Ausdrücke, die nur einmal ausgewertet werden.
+ *
+ * <p>Das Zerlegen folgt genau dem {@link Tokenizer} (insbesondere der Regel
+ * für das Vorzeichen-Minus), die Operator-, Klammer- und Funktionsbehandlung
+ * genau {@link ShuntingYard#convertToRPN(TokenBuffer, TokenBuffer)}; Operatoren
+ * und Funktionen stammen aus derselben {@link OperatorRegistry}. Jeder
+ * Operator und jeder Funktionsaufruf, den der ShuntingYard in die Ausgabe
+ * schreiben würde, wird hier sofort angewendet, also in derselben
+ * Reihenfolge wie vom {@link RpnEvaluator}. Ergebnisse und Fehlermeldungen
+ * sind daher identisch mit der {@link BufferPipeline} (mit derselben
+ * Registry).</p>
+ *
+ * <p>Weil dort erst der ganze Ausdruck konvertiert und dann ausgewertet wird,
+ * haben Klammer- und Tokenfehler Vorrang vor Auswertungsfehlern: Ein
+ * Auswertungsfehler (z.B. Division durch Null) wird vorgemerkt, und die
+ * Eingabe wird bis zum Ende auf Konvertierungsfehler geprüft, bevor er
+ * gemeldet wird.</p>
+ *
+ * <p>Die Stacks werden wiederverwendet; im Erfolgsfall findet keine
+ * Allokation statt (außer für Namen von Variablen). Eine Instanz ist nicht
+ * thread-sicher.</p>
+ */
+public class StreamingEvaluator {
+
+    /** Öffnende Klammern auf dem Operator-Stack; Operatoren und Funktionen stehen dort mit ihrem Opcode. */
+    private static final int OPEN_ROUND = -1;
+    private static final int OPEN_SQUARE = -2;
+    /** Die '(' eines Funktionsaufrufs; direkt darunter liegt die Funktion. */
+    private static final int OPEN_CALL = -3;
+
+    private final OperatorRegistry registry;
+    private final DoubleStack operands = new DoubleStack();
+    /** Opcodes der Operatoren und Funktionen sowie öffnende Klammern */
+    private final IntStack operators = new IntStack();
+    /** Bisher gezählte ',' je offenem Funktionsaufruf */
+    private final IntStack arguments = new IntStack();
+
+    private CharSequence expression;
+    private Map<String, Double> variables;
+    /** Erster Auswertungsfehler; danach wird nur noch konvertiert */
+    private RpnEvaluator.RpnEvaluationException pending;
+
+    /**
+     * Erstellt einen Evaluator mit den Standard-Operatoren und -Funktionen.
+     */
+    public StreamingEvaluator() {
+        this(OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Evaluator mit den Operatoren und Funktionen einer Registry.
+     *
+     * @param registry die Registry (wie beim {@link Tokenizer} der Pipeline)
+     */
+    public StreamingEvaluator(OperatorRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Wertet einen Ausdruck ohne Variablen aus.
+     *
+     * @param expression der Ausdruck (z.B. "3 * [-5 + 1.2]")
+     * @return das Ergebnis
+     * @throws Exception mit denselben Meldungen wie {@link ShuntingYard} und {@link RpnEvaluator}
+     */
+    public double evaluate(CharSequence expression) throws Exception {
+        return evaluate(expression, Collections.emptyMap());
+    }
+
+    /**
+     * Wertet einen Ausdruck mit Variablen aus.
+     *
+     * @param expression der Ausdruck
+     * @param variables  Werte der Variablen nach Name
+     * @return das Ergebnis
+     * @throws Exception mit denselben Meldungen wie {@link ShuntingYard} und {@link RpnEvaluator}
+     */
+    public double evaluate(CharSequence expression, Map<String, Double> variables) throws Exception {
+        this.expression = expression;
+        this.variables = variables;
+        pending = null;
+        operands.clear();
+        operators.clear();
+        arguments.clear();
+        try {
+            scan();
+            finish();
+            return result();
+        } finally {
+            this.expression = null;
+            this.variables = null;
+            pending = null;
+        }
+    }
+
+    /**
+     * Liest die Zeichen wie {@link Tokenizer#tokenize(CharSequence, TokenBuffer)}
+     * und verarbeitet jedes Token sofort wie der ShuntingYard.
+     */
+    private void scan() throws Exception {
+        int length = expression.length();
+        // Typ des vorherigen Tokens wie im TokenBuffer, -1 am Anfang
+        byte previous = -1;
+        int i = 0;
+
+        while (i < length) {
+            char c = expression.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            // Wie Tokenizer.isPreviousTokenOperatorOrLParen
+            boolean operandExpected = previous == -1 || previous == TokenBuffer.OPERATOR
+                    || previous == TokenBuffer.LPARENNORMAL || previous == TokenBuffer.LPARENECKIG
+                    || previous == TokenBuffer.SEPARATOR;
+            if (Character.isDigit(c) || c == '.' || (c == '-' && operandExpected)) {
+                int start = i;
+                boolean negative = false;
+                if (c == '-') {
+                    negative = true;
+                    i++;
+                    if (i >= length) {
+                        throw invalidToken(start);
+                    }
+                }
+
+                long mantissa = 0;
+                int significantDigits = 0;
+                int fractionDigits = 0;
+                int digitCount = 0;
+                boolean hasDecimal = false;
+                boolean parseable = true;
+                while (i < length) {
+                    char current = expression.charAt(i);
+                    if (Character.isDigit(current)) {
+                        parseable &= current <= '9';
+                        int digit = current - '0';
+                        if (significantDigits > 0 || digit != 0) {
+                            significantDigits++;
+                            if (significantDigits <= FastDoubleParser.MAX_DIGITS) {
+                                mantissa = mantissa * 10 + digit;
+                            }
+                        }
+                        if (hasDecimal) {
+                            fractionDigits++;
+                        }
+                        digitCount++;
+                        i++;
+                    } else if (current == '.' && !hasDecimal) {
+                        hasDecimal = true;
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+
+                int numberLength = i - start;
+                if ((negative && numberLength == 1) || (!negative && hasDecimal && numberLength == 1)) {
+                    throw invalidToken(start);
+                } else if (digitCount == 0 || !parseable) {
+                    // Der Tokenizer liefert hier eine NUMBER ohne Wert, die erst der RpnEvaluator ablehnt
+                    fail("Ungültiges Token im Ausdruck: " + expression.subSequence(start, i));
+                } else if (pending == null) {
+                    double value = Tokenizer.toDouble(expression, start, i, mantissa, significantDigits, fractionDigits);
+                    operands.push(negative ? -value : value);
+                }
+                previous = TokenBuffer.NUMBER;
+                continue;
+            }
+
+            if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                i++;
+                while (i < length && Tokenizer.isIdentifierPart(expression.charAt(i))) {
+                    i++;
+                }
+                OperatorRegistry.Entry function = registry.function(expression, start, i);
+                if (function != null) {
+                    openCall(function, i);
+                    previous = TokenBuffer.FUNCTION;
+                } else {
+                    pushVariable(start, i);
+                    previous = TokenBuffer.VARIABLE;
+                }
+                continue;
+            }
+
+            OperatorRegistry.Entry operator = registry.operator(c);
+            if (operator != null) {
+                pushOperator(operator);
+                previous = TokenBuffer.OPERATOR;
+                i++;
+                continue;
+            }
+
+            switch (c) {
+                case '(':
+                    // Direkt nach einem Funktionsnamen beginnt ein Aufruf
+                    if (previous == TokenBuffer.FUNCTION) {
+                        operators.push(OPEN_CALL);
+                        arguments.push(0);
+                    } else {
+                        operators.push(OPEN_ROUND);
+                    }
+                    previous = TokenBuffer.LPARENNORMAL;
+                    break;
+                case '[':
+                    operators.push(OPEN_SQUARE);
+                    previous = TokenBuffer.LPARENECKIG;
+                    break;
+                case ',':
+                    separator(previous);
+                    previous = TokenBuffer.SEPARATOR;
+                    break;
+                case ')':
+                case ']':
+                    closeBracket(c == ')', previous);
+                    previous = c == ')' ? TokenBuffer.RPARENNORMAL : TokenBuffer.RPARENECKIG;
+                    break;
+                default:
+                    throw invalidToken(i);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Wie der ShuntingYard: auf einen Funktionsnamen muss '(' folgen.
+     */
+    private void openCall(OperatorRegistry.Entry function, int end) throws Exception {
+        int next = end;
+        while (next < expression.length() && Character.isWhitespace(expression.charAt(next))) {
+            next++;
+        }
+        if (next == expression.length() || expression.charAt(next) != '(') {
+            throw new Exception("Missing '(' after function: " + function.name());
+        }
+        operators.push(function.opcode());
+    }
+
+    private void separator(byte previous) throws Exception {
+        applyOperators();
+        if (operators.isEmpty() || operators.peek() != OPEN_CALL) {
+            throw new Exception("Misplaced ','");
+        }
+        if (previous == TokenBuffer.LPARENNORMAL || previous == TokenBuffer.SEPARATOR) {
+            operators.pop();
+            int function = operators.peek();
+            operators.push(OPEN_CALL);
+            throw new Exception("Empty argument in call of " + registry.entry(function).name());
+        }
+        arguments.push(arguments.pop() + 1);
+    }
+
+    /** Wendet die Operatoren bis zur nächsten öffnenden Klammer an. */
+    private void applyOperators() {
+        while (!operators.isEmpty() && operators.peek() >= 0) {
+            apply(operators.pop());
+        }
+    }
+
+    private void pushVariable(int start, int end) {
+        if (pending != null) {
+            return;
+        }
+        String name = expression.subSequence(start, end).toString();
+        Double value = variables.get(name);
+        if (value == null) {
+            value = RpnEvaluator.specialValue(name);
+            if (value == null) {
+                fail("Unbekannte Variable: " + name);
+                return;
+            }
+        }
+        operands.push(value);
+    }
+
+    private void pushOperator(OperatorRegistry.Entry o1) {
+        int p1 = o1.precedence();
+        // Funktionen liegen immer unter ihrer '(' und werden hier nicht erreicht
+        while (!operators.isEmpty() && operators.peek() >= 0) {
+            int p2 = registry.entry(operators.peek()).precedence();
+            if (p2 > p1 || (p2 == p1 && o1.isLeftAssociative())) {
+                apply(operators.pop());
+            } else {
+                break;
+            }
+        }
+        operators.push(o1.opcode());
+    }
+
+    private void closeBracket(boolean normal, byte previous) throws Exception {
+        applyOperators();
+        if (operators.isEmpty()) {
+            throw new Exception(normal ? "Mismatched parentheses: Missing '('" : "Mismatched parentheses: Missing '['");
+        }
+        int open = operators.peek();
+        if (normal ? open != OPEN_SQUARE : open == OPEN_SQUARE) {
+            operators.pop();
+            if (open == OPEN_CALL) {
+                OperatorRegistry.Entry function = registry.entry(operators.pop());
+                int count = arguments.pop();
+                if (previous == TokenBuffer.SEPARATOR) {
+                    throw new Exception("Empty argument in call of " + function.name());
+                }
+                count = previous == TokenBuffer.LPARENNORMAL ? 0 : count + 1;
+                if (count != function.arity()) {
+                    throw new Exception("Wrong number of arguments for " + function.name() + ": expected "
+                            + function.arity() + ", found " + count);
+                }
+                apply(function.opcode());
+            }
+        } else {
+            throw new Exception(normal ? "Mismatched parentheses: Expected ']', found ')'"
+                    : "Mismatched parentheses: Expected ')', found ']'");
+        }
+    }
+
+    /**
+     * Leert den Operator-Stack wie am Ende von {@code convertToRPN}.
+     */
+    private void finish() throws Exception {
+        while (!operators.isEmpty()) {
+            int top = operators.pop();
+            if (top == OPEN_ROUND || top == OPEN_CALL) {
+                throw new Exception("Mismatched parentheses: Missing ')'");
+            }
+            if (top == OPEN_SQUARE) {
+                throw new Exception("Mismatched parentheses: Missing ']'");
+            }
+            apply(top);
+        }
+    }
+
+    private double result() {
+        if (pending != null) {
+            throw pending;
+        }
+        if (operands.isEmpty()) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Stack am Ende leer (erwartet: 1 Element).");
+        }
+        if (operands.size() != 1) {
+            throw new RpnEvaluator.RpnEvaluationException("Ungültiger RPN-Ausdruck: Es verbleiben " + operands.size() + " Elemente auf dem Stack (erwartet: 1).");
+        }
+        return operands.pop();
+    }
+
+    /**
+     * Wendet einen Operator oder eine Funktion auf die obersten Operanden an,
+     * so wie der {@link RpnEvaluator} sie in der RPN-Ausgabe antreffen würde.
+     */
+    private void apply(int opcode) {
+        if (pending != null) {
+            return;
+        }
+        OperatorRegistry.Entry entry = registry.entry(opcode);
+        EvaluationResult.ErrorCode error = RpnEvaluator.apply(entry, operands);
+        if (error != null) {
+            String name = entry.name();
+            fail(EvaluationResult.message(error, name, 0, name.length(), 0, 0));
+        }
+    }
+
+    /** Merkt den ersten Auswertungsfehler vor; spätere werden ignoriert. */
+    private void fail(String message) {
+        if (pending == null) {
+            pending = new RpnEvaluator.RpnEvaluationException(message);
+        }
+    }
+
+    /** Meldung wie für ein {@code UNKNOWN}-Token, siehe {@link TokenBuffer#text(int)}. */
+    private Exception invalidToken(int start) {
+        char c = expression.charAt(start);
+        if (Character.isDigit(c) || c == '.' || c == '-') {
+            return new Exception("Invalid token encountered: Invalid number");
+        }
+        return new Exception("Invalid token encountered: Invalid char: " + c);
+    }
+}
@@ -0,0 +1,412 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wertet Ausdrücke gestaffelt aus: zuerst günstig interpretiert, erst bei
+ * häufiger Nutzung als übersetzter Bytecode.
+ *
+ * <p>Die ersten Auswertungen eines Ausdrucks laufen über den bestehenden Weg
+ * {@link Tokenizer} → {@link ShuntingYard} → {@link RpnEvaluator}; nur die
+ * RPN-Tokens werden dabei gemerkt. Für jeden Ausdruck werden Aufrufe und
+ * Schleifendurchläufe (ausgewertete Zeilen bei
+ * {@link #evaluateColumns(String, Map, double[])}) gezählt. Überschreitet einer
+ * der beiden Zähler seine Schwelle, wird der Ausdruck im Hintergrund mit dem
+ * {@link BytecodeCompiler} übersetzt; bis dahin wird weiter interpretiert.
+ * Einmalig genutzte Ausdrücke kosten so weder Übersetzungszeit noch
+ * Metaspace.</p>
+ *
+ * <p>Ergebnisse und Fehlermeldungen sind in beiden Stufen gleich. Fehlt eine
+ * Variable, wird der Aufruf auch nach der Übersetzung interpretiert: so wird
+ * wie vorher der erste Fehler in Auswertungsreihenfolge gemeldet, bei
+ * {@code 1/0 + x} also die Division durch Null. Schlägt die
+ * Übersetzung fehl (z.B. weil das Programm zu groß für eine JVM-Methode ist),
+ * bleibt der Ausdruck dauerhaft in der interpretierten Stufe.</p>
+ *
+ * <p>Die Klasse ist thread-sicher. Die Zähler werden nach der Anforderung der
+ * Übersetzung nicht mehr erhöht, damit heiße Ausdrücke keine gemeinsam
+ * beschriebene Cache-Line haben.</p>
+ */
+public class TieredExecutor implements AutoCloseable {
+
+    /**
+     * Die Ausführungsstufe eines Ausdrucks.
+     */
+    public enum Tier {
+        /** Auswertung der RPN-Tokens mit dem {@link RpnEvaluator}. */
+        INTERPRETED,
+        /** Auswertung als generierte Klasse aus dem {@link BytecodeCompiler}. */
+        BYTECODE
+    }
+
+    /**
+     * Eine Momentaufnahme des Zustands eines Ausdrucks.
+     */
+    public static final class Status {
+        private final String expression;
+        private final Tier tier;
+        private final long invocations;
+        private final long loopIterations;
+        private final boolean promotionRequested;
+        private final long promotionNanos;
+        private final String promotionFailure;
+
+        Status(String expression, Tier tier, long invocations, long loopIterations,
+               boolean promotionRequested, long promotionNanos, String promotionFailure) {
+            this.expression = expression;
+            this.tier = tier;
+            this.invocations = invocations;
+            this.loopIterations = loopIterations;
+            this.promotionRequested = promotionRequested;
+            this.promotionNanos = promotionNanos;
+            this.promotionFailure = promotionFailure;
+        }
+
+        /** @return der Ausdruckstext */
+        public String expression() { return expression; }
+        /** @return die aktuelle Ausführungsstufe */
+        public Tier tier() { return tier; }
+        /** @return gezählte Aufrufe bis zur Anforderung der Übersetzung */
+        public long invocations() { return invocations; }
+        /** @return gezählte Schleifendurchläufe bis zur Anforderung der Übersetzung */
+        public long loopIterations() { return loopIterations; }
+        /** @return ob die Übersetzung angefordert wurde (auch wenn sie noch läuft) */
+        public boolean promotionRequested() { return promotionRequested; }
+        /** @return Dauer der Übersetzung in Nanosekunden, -1 solange nicht übersetzt */
+        public long promotionNanos() { return promotionNanos; }
+        /** @return Meldung, falls die Übersetzung fehlgeschlagen ist, sonst {@code null} */
+        public String promotionFailure() { return promotionFailure; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: tier=%s, invocations=%d, loops=%d, promotion=%s",
+                    expression, tier, invocations, loopIterations,
+                    promotionFailure != null ? "fehlgeschlagen (" + promotionFailure + ")"
+                            : promotionNanos >= 0 ? promotionNanos + "ns"
+                            : promotionRequested ? "läuft" : "-");
+        }
+    }
+
+    /**
+     * Zustand eines Ausdrucks. Die Zähler sind nur bis zur Anforderung der
+     * Übersetzung aktiv.
+     */
+    private static final class Entry {
+        final String expression;
+        final List<Token> rpnTokens;
+        final List<String> rpnValues;
+
+        final AtomicLong invocations = new AtomicLong();
+        final AtomicLong loopIterations = new AtomicLong();
+        final AtomicBoolean promotionRequested = new AtomicBoolean();
+
+        // Wird vom Übersetzungs-Thread gesetzt
+        volatile DoubleFormula formula;
+        volatile String[] variableNames;
+        volatile long promotionNanos = -1;
+        volatile String promotionFailure;
+
+        Entry(String expression, List<Token> rpnTokens) {
+            this.expression = expression;
+            this.rpnTokens = Collections.unmodifiableList(rpnTokens);
+            List<String> values = new ArrayList<>(rpnTokens.size());
+            for (Token token : rpnTokens) {
+                values.add(token.getValue());
+            }
+            this.rpnValues = Collections.unmodifiableList(values);
+        }
+    }
+
+    private final int invocationThreshold;
+    private final long loopThreshold;
+    private final Executor compileExecutor;
+    // Nur gesetzt, wenn der Executor selbst erzeugt wurde und beim Schließen beendet werden muss
+    private final ExecutorService ownExecutor;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnEvaluator evaluator = new RpnEvaluator();
+    private final RpnCompiler rpnCompiler = new RpnCompiler();
+    private final BytecodeCompiler bytecodeCompiler = new BytecodeCompiler();
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Erstellt einen Executor mit einem eigenen Hintergrund-Thread für die Übersetzung.
+     *
+     * @param invocationThreshold Anzahl der Aufrufe, ab der übersetzt wird
+     * @param loopThreshold       Anzahl der ausgewerteten Zeilen, ab der übersetzt wird
+     */
+    public TieredExecutor(int invocationThreshold, long loopThreshold) {
+        this(invocationThreshold, loopThreshold, null);
+    }
+
+    /**
+     * Erstellt einen Executor, der die Übersetzung an {@code compileExecutor} übergibt.
+     *
+     * @param invocationThreshold Anzahl der Aufrufe, ab der übersetzt wird
+     * @param loopThreshold       Anzahl der ausgewerteten Zeilen, ab der übersetzt wird
+     * @param compileExecutor     führt die Übersetzungen aus; {@code null} für einen
+     *                            eigenen Hintergrund-Thread
+     * @throws IllegalArgumentException wenn eine Schwelle kleiner als 1 ist
+     */
+    public TieredExecutor(int invocationThreshold, long loopThreshold, Executor compileExecutor) {
+        if (invocationThreshold < 1 || loopThreshold < 1) {
+            throw new IllegalArgumentException("Schwellen müssen mindestens 1 sein: invocations="
+                    + invocationThreshold + ", loops=" + loopThreshold);
+        }
+        this.invocationThreshold = invocationThreshold;
+        this.loopThreshold = loopThreshold;
+        if (compileExecutor == null) {
+            this.ownExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "formula-compiler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.compileExecutor = ownExecutor;
+        } else {
+            this.ownExecutor = null;
+            this.compileExecutor = compileExecutor;
+        }
+    }
+
+    /**
+     * Wertet einen Ausdruck ohne Variablen aus.
+     *
+     * @param expression der Ausdruck, z.B. {@code "3 + 4 * 2"}
+     * @return das Ergebnis
+     * @throws Exception wenn der Ausdruck ungültig ist oder nicht ausgewertet werden kann
+     */
+    public double evaluate(String expression) throws Exception {
+        return evaluate(expression, Collections.emptyMap());
+    }
+
+    /**
+     * Wertet einen Ausdruck mit Variablen aus.
+     *
+     * @param expression der Ausdruck
+     * @param variables  Werte der Variablen nach Name
+     * @return das Ergebnis
+     * @throws Exception wenn der Ausdruck ungültig ist, eine Variable fehlt oder
+     *                   nicht ausgewertet werden kann
+     */
+    public double evaluate(String expression, Map<String, Double> variables) throws Exception {
+        Entry entry = entry(expression);
+        DoubleFormula formula = entry.formula;
+        if (formula != null) {
+            double[] values = bind(entry.variableNames, variables);
+            if (values != null) {
+                return formula.evaluate(values);
+            }
+            // Fehlende Variable: der Interpreter meldet den ersten Fehler wie vor der Übersetzung
+            return evaluator.evaluate(entry.rpnValues, variables);
+        }
+
+        if (!entry.promotionRequested.get() && entry.invocations.incrementAndGet() >= invocationThreshold) {
+            requestPromotion(entry);
+        }
+        return evaluator.evaluate(entry.rpnValues, variables);
+    }
+
+    /**
+     * Wertet einen Ausdruck zeilenweise über Spalten aus. Jede Zeile zählt als
+     * ein Schleifendurchlauf.
+     *
+     * @param expression der Ausdruck
+     * @param columns    Spalten je Variablenname
+     * @param output     Zielarray, erhält ein Ergebnis pro Zeile
+     * @throws Exception wenn der Ausdruck ungültig ist, eine Spalte fehlt oder
+     *                   eine Zeile nicht ausgewertet werden kann
+     */
+    public void evaluateColumns(String expression, Map<String, double[]> columns, double[] output) throws Exception {
+        Entry entry = entry(expression);
+        for (Map.Entry<String, double[]> column : columns.entrySet()) {
+            if (column.getValue().length < output.length) {
+                throw new IllegalArgumentException("Spalte " + column.getKey() + " hat nur "
+                        + column.getValue().length + " Werte (benötigt: " + output.length + ").");
+            }
+        }
+        if (entry.formula == null && !entry.promotionRequested.get()) {
+            long loops = entry.loopIterations.addAndGet(output.length);
+            if (entry.invocations.incrementAndGet() >= invocationThreshold || loops >= loopThreshold) {
+                requestPromotion(entry);
+            }
+        }
+
+        DoubleFormula formula = entry.formula;
+        double[][] bound = formula != null ? bindColumns(entry.variableNames, columns, output.length) : null;
+        if (bound != null) {
+            double[] row = new double[bound.length];
+            for (int r = 0; r < output.length; r++) {
+                for (int v = 0; v < row.length; v++) {
+                    row[v] = bound[v][r];
+                }
+                output[r] = formula.evaluate(row);
+            }
+            return;
+        }
+
+        // Interpretiert (auch übersetzt bei fehlender Spalte): Zeile für Zeile über die Variablen-Map
+        Map<String, Double> row = new HashMap<>();
+        for (int r = 0; r < output.length; r++) {
+            for (Map.Entry<String, double[]> column : columns.entrySet()) {
+                row.put(column.getKey(), column.getValue()[r]);
+            }
+            output[r] = evaluator.evaluate(entry.rpnValues, row);
+        }
+    }
+
+    /**
+     * Liefert den Zustand eines Ausdrucks.
+     *
+     * @param expression der Ausdruck
+     * @return der Zustand oder {@code null}, wenn der Ausdruck noch nicht ausgewertet wurde
+     */
+    public Status status(String expression) {
+        Entry entry = entries.get(expression);
+        return entry == null ? null : snapshot(entry);
+    }
+
+    /**
+     * Liefert den Zustand aller bekannten Ausdrücke.
+     *
+     * @return eine Momentaufnahme pro Ausdruck
+     */
+    public List<Status> statuses() {
+        List<Status> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            result.add(snapshot(entry));
+        }
+        return result;
+    }
+
+    /**
+     * Vergisst einen Ausdruck. Die generierte Klasse kann danach entladen werden.
+     *
+     * @param expression der Ausdruck
+     */
+    public void remove(String expression) {
+        entries.remove(expression);
+    }
+
+    /**
+     * Vergisst alle Ausdrücke.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Beendet den eigenen Übersetzungs-Thread (falls vorhanden). Ein übergebener
+     * Executor wird nicht beendet.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    private Entry entry(String expression) throws Exception {
+        Entry entry = entries.get(expression);
+        if (entry == null) {
+            // Fehler werden nicht gemerkt, ungültige Ausdrücke schlagen jedes Mal fehl
+            entry = new Entry(expression, shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+            Entry existing = entries.putIfAbsent(expression, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        return entry;
+    }
+
+    private void requestPromotion(Entry entry) {
+        if (!entry.promotionRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compileExecutor.execute(() -> promote(entry));
+        } catch (RejectedExecutionException e) {
+            entry.promotionFailure = "Übersetzung abgelehnt: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Übersetzt einen Ausdruck und schaltet ihn auf die neue Stufe um.
+     */
+    private void promote(Entry entry) {
+        long start = System.nanoTime();
+        try {
+            RpnProgram program = rpnCompiler.compile(entry.rpnTokens);
+            DoubleFormula formula = bytecodeCompiler.compile(program);
+            entry.variableNames = program.getVariableNames();
+            entry.promotionNanos = System.nanoTime() - start;
+            // Zuletzt setzen: Leser prüfen nur dieses Feld
+            entry.formula = formula;
+        } catch (RuntimeException e) {
+            // Ungültige Ausdrücke bleiben interpretiert und liefern dort ihre Fehlermeldung
+            entry.promotionFailure = e.getMessage();
+        }
+    }
+
+    private static Status snapshot(Entry entry) {
+        return new Status(entry.expression, entry.formula != null ? Tier.BYTECODE : Tier.INTERPRETED,
+                entry.invocations.get(), entry.loopIterations.get(), entry.promotionRequested.get(),
+                entry.promotionNanos, entry.promotionFailure);
+    }
+
+    /**
+     * Ordnet die Variablenwerte den Slots zu, mit denselben Regeln wie
+     * {@link RpnEvaluator#evaluate(List, Map)}.
+     *
+     * @return die Werte oder {@code null}, wenn eine Variable fehlt
+     */
+    private static double[] bind(String[] names, Map<String, Double> variables) {
+        double[] values = new double[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Double value = variables.get(names[i]);
+            if (value == null) {
+                // "NaN" und "Infinity" werden wie beim RpnEvaluator als Zahl akzeptiert
+                value = RpnEvaluator.specialValue(names[i]);
+                if (value == null) {
+                    return null;
+                }
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Ordnet die Spalten den Slots zu.
+     *
+     * @return die Spalten oder {@code null}, wenn eine Variable keine Spalte hat
+     */
+    private static double[][] bindColumns(String[] names, Map<String, double[]> columns, int rows) {
+        double[][] bound = new double[names.length][];
+        for (int v = 0; v < names.length; v++) {
+            bound[v] = columns.get(names[v]);
+            if (bound[v] == null) {
+                Double value = RpnEvaluator.specialValue(names[v]);
+                if (value == null) {
+                    return null;
+                }
+                bound[v] = new double[rows];
+                Arrays.fill(bound[v], value);
+            }
+        }
+        return bound;
+    }
+}
@@ -39,14 +39,26 @@ public class Token {
 
         RPARENECKIG,
 
+        /** Ein Variablenname (z. B. x, preis_netto) */
+        VARIABLE,
+
         /** Unbekanntes oder ungültiges Token */
-        UNKNOWN
+        UNKNOWN,
+
+        /** Ein registrierter Funktionsname (z. B. max, sqrt), siehe {@link OperatorRegistry} */
+        FUNCTION,
+
+        /** Argument-Trennzeichen ',' in Funktionsaufrufen */
+        SEPARATOR
     }
 
     private Type type = null;
 
     private String value = "";
 
+    /** Beim Zerlegen bereits geparster Zahlenwert, NaN wenn unbekannt. */
+    private final double number;
+
     /**
      * Erstellt ein neues {@code Token}-Objekt mit Typ und Textwert.
      *
@@ -54,8 +66,21 @@ public class Token {
      * @param value der Zeichenkettenwert des Tokens
      */
     public Token(Type type, String value) {
+        this(type, value, Double.NaN);
+    }
+
+    /**
+     * Erstellt ein Token mit dem bereits vom {@link Tokenizer} geparsten
+     * Zahlenwert, damit spätere Stufen die Zahl nicht erneut parsen müssen.
+     *
+     * @param type   der Typ des Tokens
+     * @param value  der Zeichenkettenwert des Tokens
+     * @param number der Zahlenwert oder NaN, wenn keiner bekannt ist
+     */
+    Token(Type type, String value, double number) {
         this.type = type;
         this.value = value;
+        this.number = number;
     }
 
     /**
@@ -76,6 +101,16 @@ public class Token {
         return value;
     }
 
+    /**
+     * Gibt den beim Zerlegen geparsten Zahlenwert zurück.
+     *
+     * @return der Zahlenwert oder NaN, wenn das Token nicht vom
+     *         {@link Tokenizer} stammt, keine Zahl oder ungültig ist
+     */
+    double getNumber() {
+        return number;
+    }
+
     /**
      * Gibt den Textwert des Tokens zurück, um eine einfache Ausgabe
      * bei der Tokenliste zu ermöglichen.
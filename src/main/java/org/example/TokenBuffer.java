@@ -0,0 +1,275 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ein wiederverwendbarer Token-Puffer im "Struct-of-Arrays"-Format.
+ *
+ * <p>Statt für jedes Token ein {@link Token}-Objekt mit eigenem String zu
+ * erzeugen, speichert der Puffer pro Token nur parallele Einträge:</p>
+ * <ul>
+ *   <li>{@code type}  – Token-Typ als {@code byte} (siehe Konstanten)</li>
+ *   <li>{@code start} – Startindex im Quelltext (inklusiv)</li>
+ *   <li>{@code end}   – Endindex im Quelltext (exklusiv)</li>
+ *   <li>{@code value} – bereits geparster Zahlenwert (nur bei {@link #NUMBER})</li>
+ *   <li>{@code code}  – Opcode in der {@link OperatorRegistry} (nur bei
+ *       {@link #OPERATOR} und {@link #FUNCTION}, sonst -1)</li>
+ * </ul>
+ *
+ * <p>Der Puffer wird vom {@link Tokenizer} gefüllt und kann direkt vom
+ * {@link ShuntingYard} verarbeitet werden. Die Arrays wachsen bei Bedarf und
+ * werden nie verkleinert, sodass ein "warmer" Puffer ohne Allokation
+ * wiederverwendet werden kann. Ein Puffer ist nicht thread-sicher.</p>
+ */
+public final class TokenBuffer {
+
+    /** Eine Zahl (entspricht {@link Token.Type#NUMBER}) */
+    public static final byte NUMBER = 0;
+    /** Ein Operator (entspricht {@link Token.Type#OPERATOR}) */
+    public static final byte OPERATOR = 1;
+    /** Linke Klammer '(' */
+    public static final byte LPARENNORMAL = 2;
+    /** Rechte Klammer ')' */
+    public static final byte RPARENNORMAL = 3;
+    /** Linke Klammer '[' */
+    public static final byte LPARENECKIG = 4;
+    /** Rechte Klammer ']' */
+    public static final byte RPARENECKIG = 5;
+    /** Unbekanntes oder ungültiges Token */
+    public static final byte UNKNOWN = 6;
+    /** Ein Variablenname (entspricht {@link Token.Type#VARIABLE}) */
+    public static final byte VARIABLE = 7;
+    /** Ein Funktionsname (entspricht {@link Token.Type#FUNCTION}) */
+    public static final byte FUNCTION = 8;
+    /** Argument-Trennzeichen ',' (entspricht {@link Token.Type#SEPARATOR}) */
+    public static final byte SEPARATOR = 9;
+
+    private byte[] type;
+    private int[] start;
+    private int[] end;
+    private double[] value;
+    private int[] code;
+    private int size;
+
+    // Quelltext, auf den sich start/end beziehen (wird nicht kopiert)
+    private CharSequence source = "";
+
+    // Arbeitsstack für ShuntingYard, damit die Konvertierung ohne Allokation auskommt
+    final IntStack scratch = new IntStack();
+
+    // Argumentzähler der offenen Funktionsaufrufe für ShuntingYard
+    final IntStack arguments = new IntStack();
+
+    // Größte Tiefe des Operator-Stacks bei der letzten Konvertierung in diesen Puffer
+    int maxOperatorDepth;
+
+    /**
+     * Erstellt einen leeren Puffer mit Standardkapazität.
+     */
+    public TokenBuffer() {
+        this(32);
+    }
+
+    /**
+     * Erstellt einen leeren Puffer mit der angegebenen Anfangskapazität.
+     *
+     * @param initialCapacity Anfangskapazität in Tokens
+     */
+    public TokenBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        type = new byte[capacity];
+        start = new int[capacity];
+        end = new int[capacity];
+        value = new double[capacity];
+        code = new int[capacity];
+    }
+
+    /**
+     * Leert den Puffer und setzt den Quelltext. Die Kapazität bleibt erhalten.
+     *
+     * @param source der Quelltext, auf den sich die Positionen beziehen
+     */
+    void reset(CharSequence source) {
+        this.source = source;
+        this.size = 0;
+        this.maxOperatorDepth = 0;
+    }
+
+    /**
+     * Hängt ein Token ohne Opcode an.
+     */
+    void add(byte tokenType, int tokenStart, int tokenEnd, double tokenValue) {
+        add(tokenType, tokenStart, tokenEnd, tokenValue, -1);
+    }
+
+    /**
+     * Hängt ein Token an.
+     */
+    void add(byte tokenType, int tokenStart, int tokenEnd, double tokenValue, int tokenCode) {
+        if (size == type.length) {
+            int capacity = size * 2;
+            type = Arrays.copyOf(type, capacity);
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            value = Arrays.copyOf(value, capacity);
+            code = Arrays.copyOf(code, capacity);
+        }
+        type[size] = tokenType;
+        start[size] = tokenStart;
+        end[size] = tokenEnd;
+        value[size] = tokenValue;
+        code[size] = tokenCode;
+        size++;
+    }
+
+    /**
+     * Kopiert das Token mit Index {@code index} aus einem anderen Puffer.
+     */
+    void addFrom(TokenBuffer other, int index) {
+        add(other.type[index], other.start[index], other.end[index], other.value[index], other.code[index]);
+    }
+
+    /** @return Anzahl der Tokens im Puffer */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true}, wenn der Puffer keine Tokens enthält */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return die größte Tiefe des Operator-Stacks (Operatoren und offene
+     * Klammern), die {@link ShuntingYard#convertToRPN(TokenBuffer, TokenBuffer)}
+     * beim Füllen dieses Puffers erreicht hat; auch nach einem Fehler gesetzt
+     */
+    public int getMaxOperatorDepth() {
+        return maxOperatorDepth;
+    }
+
+    /** @return der Quelltext, auf den sich die Positionen beziehen */
+    public CharSequence source() {
+        return source;
+    }
+
+    /** @return der Typ des Tokens mit dem gegebenen Index */
+    public byte type(int index) {
+        return type[index];
+    }
+
+    /** @return der Startindex (inklusiv) des Tokens im Quelltext */
+    public int start(int index) {
+        return start[index];
+    }
+
+    /** @return der Endindex (exklusiv) des Tokens im Quelltext */
+    public int end(int index) {
+        return end[index];
+    }
+
+    /** @return der geparste Zahlenwert (nur für {@link #NUMBER} sinnvoll) */
+    public double value(int index) {
+        return value[index];
+    }
+
+    /**
+     * @return der Opcode des Operators bzw. der Funktion in der
+     * {@link OperatorRegistry}, mit der zerlegt wurde; -1 bei anderen Tokens
+     */
+    public int code(int index) {
+        return code[index];
+    }
+
+    /**
+     * Gibt das erste Zeichen eines Tokens zurück, z.B. das Operator-Symbol.
+     *
+     * @param index Index des Tokens
+     * @return das erste Zeichen des Tokens im Quelltext
+     */
+    public char firstChar(int index) {
+        return source.charAt(start[index]);
+    }
+
+    /**
+     * Liefert den Textwert eines Tokens so, wie ihn {@link Token#getValue()}
+     * liefern würde. Erzeugt einen neuen String und ist daher nur für
+     * Fehlermeldungen und Debugging gedacht.
+     *
+     * @param index Index des Tokens
+     * @return der Textwert des Tokens
+     */
+    public String text(int index) {
+        if (type[index] == UNKNOWN) {
+            // Ungültige Zahlen beginnen immer mit Ziffer, '.' oder '-'
+            char c = source.charAt(start[index]);
+            if (Character.isDigit(c) || c == '.' || c == '-') {
+                return "Invalid number";
+            }
+            return "Invalid char: " + c;
+        }
+        return source.subSequence(start[index], end[index]).toString();
+    }
+
+    /**
+     * Wandelt einen Typ-Code in den passenden {@link Token.Type} um.
+     *
+     * @param tokenType der Typ-Code
+     * @return der entsprechende Enum-Wert
+     */
+    public static Token.Type toType(byte tokenType) {
+        switch (tokenType) {
+            case NUMBER: return Token.Type.NUMBER;
+            case OPERATOR: return Token.Type.OPERATOR;
+            case LPARENNORMAL: return Token.Type.LPARENNORMAL;
+            case RPARENNORMAL: return Token.Type.RPARENNORMAL;
+            case LPARENECKIG: return Token.Type.LPARENECKIG;
+            case RPARENECKIG: return Token.Type.RPARENECKIG;
+            case VARIABLE: return Token.Type.VARIABLE;
+            case FUNCTION: return Token.Type.FUNCTION;
+            case SEPARATOR: return Token.Type.SEPARATOR;
+            default: return Token.Type.UNKNOWN;
+        }
+    }
+
+    /**
+     * Erzeugt ein {@link Token} für einen Eintrag; Zahlen behalten ihren
+     * bereits geparsten Wert.
+     *
+     * @param index Index des Tokens
+     * @return das Token
+     */
+    Token token(int index) {
+        return new Token(toType(type[index]), text(index), type[index] == NUMBER ? value[index] : Double.NaN);
+    }
+
+    /**
+     * Erzeugt eine klassische Token-Liste aus dem Pufferinhalt.
+     *
+     * @return Liste von {@link Token}-Objekten
+     */
+    public List<Token> toTokens() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(token(i));
+        }
+        return tokens;
+    }
+
+    /**
+     * Gibt die Textwerte aller Tokens durch Leerzeichen getrennt aus.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(text(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package org.example;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-Event für {@link Tokenizer#tokenize(CharSequence, TokenBuffer)}.
+ */
+@Name("org.example.Tokenize")
+@Label("Tokenisieren")
+@Description("Zerlegen eines Ausdrucks in Tokens")
+@Threshold("1 ms")
+final class TokenizeEvent extends PipelineEvent {
+}
@@ -0,0 +1,301 @@
+
+package org.example;
+
+import java.util.List;
+
+/**
+ * Die Klasse {@code Tokenizer} ist dafür verantwortlich,
+ * einen Infix-String-Ausdruck in eine Liste von semantisch bedeutsamen
+ * {@code Token}-Objekten zu zerlegen.
+ *
+ * <p>Der Tokenizer kann Zahlen (inkl. Dezimalzahlen und Vorzeichen),
+ * Variablennamen, Operatoren (+, -, *, /, ^ und eigene aus der
+ * {@link OperatorRegistry}), Funktionsnamen mit ',' als Argument-Trennzeichen
+ * und zwei Typen von Klammern (runde und eckige) erkennen. Er unterscheidet
+ * dabei korrekt zwischen dem unären Minus (Vorzeichen) und dem binären Minus
+ * (Subtraktion).</p>
+ *
+ * <p>Neben der Listen-Ausgabe gibt es einen allokationsfreien Modus, der einen
+ * wiederverwendbaren {@link TokenBuffer} direkt aus einer {@link CharSequence}
+ * befüllt. Beide Modi teilen sich dieselbe Zerlegungslogik.</p>
+ */
+public class Tokenizer {
+
+    private final OperatorRegistry registry;
+
+    /**
+     * Erstellt einen Tokenizer mit der {@link OperatorRegistry#standard() Standard-Registry}.
+     */
+    public Tokenizer() {
+        this(OperatorRegistry.standard());
+    }
+
+    /**
+     * Erstellt einen Tokenizer, der die Operatoren und Funktionen der
+     * angegebenen Registry erkennt.
+     *
+     * @param registry die Registry
+     */
+    public Tokenizer(OperatorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry darf nicht null sein.");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Zerlegt einen mathematischen Ausdruck in Tokens.
+     *
+     * <p>Ignoriert Whitespace und verarbeitet den Ausdruck in einem Durchlauf.
+     * Stößt der Tokenizer auf ungültige Zeichen oder falsch formatierte Zahlen,
+     * fügt er ein {@code UNKNOWN} Token in die Liste ein.</p>
+     *
+     * @param expression der Ausdruck als String (z.B. "3 * [-5 + 1.2]")
+     * @return Liste von Tokens
+     */
+    public List<Token> tokenize(String expression) {
+        TokenBuffer buffer = new TokenBuffer(Math.max(1, expression.length() / 2));
+        tokenize(expression, buffer);
+        return buffer.toTokens();
+    }
+
+    /**
+     * Zerlegt einen Ausdruck in einen wiederverwendbaren {@link TokenBuffer}.
+     *
+     * <p>Der Puffer wird vorher geleert. Zahlen werden direkt beim Zerlegen
+     * geparst; ungültige Zeichen oder Zahlen werden wie im Listen-Modus als
+     * {@link TokenBuffer#UNKNOWN} eingetragen, ohne dass dabei Strings erzeugt
+     * werden. Ist der Puffer groß genug, findet keine Allokation statt.</p>
+     *
+     * @param expression der Ausdruck
+     * @param buffer     der zu befüllende Puffer
+     */
+    public void tokenize(CharSequence expression, TokenBuffer buffer) {
+        buffer.reset(expression);
+        int length = expression.length();
+        int i = 0;
+
+        while (i < length) {
+            if (Character.isWhitespace(expression.charAt(i))) {
+                i++;
+                continue;
+            }
+            i = scanToken(expression, i, length, isPreviousTokenOperatorOrLParen(buffer), registry, buffer);
+        }
+    }
+
+    /**
+     * Wie {@link #tokenize(CharSequence, TokenBuffer)}, meldet aber das erste
+     * ungültige Token über {@code result}: {@code INVALID_TOKEN} für
+     * ungültige Zeichen und Zahlen, die auch {@link ShuntingYard} ablehnt,
+     * {@code MALFORMED_TOKEN} für Zahlen wie "-.", die erst bei der Auswertung
+     * scheitern. Der Puffer ist in beiden Fällen vollständig gefüllt. Auch im
+     * Fehlerfall findet keine Allokation statt.
+     *
+     * @param expression der Ausdruck
+     * @param buffer     der zu befüllende Puffer
+     * @param result     erhält Erfolg oder Fehlercode mit Position
+     * @return {@code true}, wenn alle Tokens gültig sind
+     */
+    public boolean tokenize(CharSequence expression, TokenBuffer buffer, EvaluationResult result) {
+        tokenize(expression, buffer);
+        for (int i = 0; i < buffer.size(); i++) {
+            byte type = buffer.type(i);
+            if (type == TokenBuffer.UNKNOWN || (type == TokenBuffer.NUMBER && Double.isNaN(buffer.value(i)))) {
+                result.fail(type == TokenBuffer.UNKNOWN ? EvaluationResult.ErrorCode.INVALID_TOKEN
+                                : EvaluationResult.ErrorCode.MALFORMED_TOKEN,
+                        expression, buffer.start(i), buffer.end(i) - buffer.start(i), 0, 0);
+                return false;
+            }
+        }
+        result.succeed(expression, Double.NaN);
+        return true;
+    }
+
+    /**
+     * Liest genau ein Token ab Position {@code i} (kein Whitespace) und trägt
+     * es in den Puffer ein. Wird auch vom {@link IncrementalParser} verwendet,
+     * der nur einen Ausschnitt des Ausdrucks neu zerlegt.
+     *
+     * @param expression  der Ausdruck
+     * @param i           Beginn des Tokens
+     * @param length      Ende des Ausdrucks
+     * @param signAllowed ob ein Minus hier ein Vorzeichen sein darf (siehe
+     *                    {@link #isPreviousTokenOperatorOrLParen(TokenBuffer)})
+     * @param registry    Registry für Operatoren und Funktionsnamen
+     * @param buffer      der Puffer, an den das Token angehängt wird
+     * @return die Position direkt hinter dem Token
+     */
+    static int scanToken(CharSequence expression, int i, int length, boolean signAllowed,
+                         OperatorRegistry registry, TokenBuffer buffer) {
+        char c = expression.charAt(i);
+
+        // Zahlen (ganze und reelle) ggf. mit Vorzeichen
+        if (Character.isDigit(c) || c == '.' ||
+                // Prüft auf unäres Minus (Vorzeichen): Nur erlaubt am Anfang
+                // oder nach Operator/linker Klammer
+                (c == '-' && signAllowed)) {
+            int start = i;
+            boolean negative = false;
+
+            // Vorzeichen erfassen
+            if (c == '-') {
+                negative = true;
+                i++;
+                if (i >= length) {
+                    buffer.add(TokenBuffer.UNKNOWN, start, i, Double.NaN);
+                    return i;
+                }
+            }
+
+            // Ziffern direkt in eine Mantisse übernehmen (kein StringBuilder)
+            long mantissa = 0;
+            int significantDigits = 0;
+            int fractionDigits = 0;
+            int digitCount = 0;
+            boolean hasDecimal = false;
+            boolean parseable = true;
+            while (i < length) {
+                char current = expression.charAt(i);
+                if (Character.isDigit(current)) {
+                    // Nicht-ASCII-Ziffern erkennt parseDouble ebenfalls nicht
+                    parseable &= current <= '9';
+                    int digit = current - '0';
+                    if (significantDigits > 0 || digit != 0) {
+                        significantDigits++;
+                        if (significantDigits <= FastDoubleParser.MAX_DIGITS) {
+                            mantissa = mantissa * 10 + digit;
+                        }
+                    }
+                    if (hasDecimal) {
+                        fractionDigits++;
+                    }
+                    digitCount++;
+                    i++;
+                } else if (current == '.' && !hasDecimal) {
+                    hasDecimal = true;
+                    i++;
+                } else {
+                    break;
+                }
+            }
+
+            // Fehlerbehandlung für ungültige Zahlen (z.B. nur '-' oder '.')
+            int numberLength = i - start;
+            if (numberLength == 0 || (negative && numberLength == 1) || (!negative && hasDecimal && numberLength == 1)) {
+                buffer.add(TokenBuffer.UNKNOWN, start, i, Double.NaN);
+            } else if (digitCount == 0 || !parseable) {
+                // z.B. "-." wird wie bisher als NUMBER durchgereicht, ist aber keine gültige Zahl
+                buffer.add(TokenBuffer.NUMBER, start, i, Double.NaN);
+            } else {
+                double value = toDouble(expression, start, i, mantissa, significantDigits, fractionDigits);
+                buffer.add(TokenBuffer.NUMBER, start, i, negative ? -value : value);
+            }
+            return i;
+        }
+
+        // Variablen: Buchstabe oder '_', gefolgt von Buchstaben, Ziffern oder '_';
+        // registrierte Funktionsnamen sind reserviert
+        if (Character.isLetter(c) || c == '_') {
+            int start = i;
+            i++;
+            while (i < length && isIdentifierPart(expression.charAt(i))) {
+                i++;
+            }
+            OperatorRegistry.Entry function = registry.function(expression, start, i);
+            if (function != null) {
+                buffer.add(TokenBuffer.FUNCTION, start, i, Double.NaN, function.opcode());
+            } else {
+                buffer.add(TokenBuffer.VARIABLE, start, i, Double.NaN);
+            }
+            return i;
+        }
+
+        // Operatoren (Minus als Operator, wenn nicht Vorzeichen) über die Registry
+        OperatorRegistry.Entry operator = registry.operator(c);
+        if (operator != null) {
+            buffer.add(TokenBuffer.OPERATOR, i, i + 1, Double.NaN, operator.opcode());
+            return i + 1;
+        }
+
+        // Klammern und Trennzeichen
+        byte type = TokenBuffer.UNKNOWN;
+        switch (c) {
+            case ',':
+                type = TokenBuffer.SEPARATOR;
+                break;
+            case '(':
+                type = TokenBuffer.LPARENNORMAL;
+                break;
+            case '[':
+                type = TokenBuffer.LPARENECKIG;
+                break;
+            case ')':
+                type = TokenBuffer.RPARENNORMAL;
+                break;
+            case ']':
+                type = TokenBuffer.RPARENECKIG;
+                break;
+        }
+
+        // Auch ungültige Zeichen werden nur mit ihrer Position vermerkt
+        buffer.add(type, i, i + 1, Double.NaN);
+        return i + 1;
+    }
+
+    /**
+     * Wandelt die bereits eingelesenen Ziffern in einen {@code double} um.
+     *
+     * <p>Die Umwandlung übernimmt {@link FastDoubleParser} ohne Allokation
+     * (Clinger-Schnellpfad, sonst Eisel-Lemire). Nur in den seltenen Fällen, die
+     * dort nicht sicher entschieden werden, wird auf
+     * {@link Double#parseDouble(String)} zurückgegriffen. Wird auch vom
+     * {@link StreamingEvaluator} verwendet.</p>
+     */
+    static double toDouble(CharSequence expression, int start, int end, long mantissa,
+                            int significantDigits, int fractionDigits) {
+        double value = FastDoubleParser.toDouble(mantissa, significantDigits, -fractionDigits);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        // Seltener Fall: Halbwegfall oder subnormales Ergebnis (Vorzeichen wird außen angewendet)
+        int from = expression.charAt(start) == '-' ? start + 1 : start;
+        return Double.parseDouble(expression.subSequence(from, end).toString());
+    }
+
+    /**
+     * Prüft, ob ein Zeichen Teil eines Variablennamens sein darf.
+     *
+     * @param c das zu prüfende Zeichen
+     * @return {@code true} für Buchstaben, Ziffern und '_'
+     */
+    static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /** @return die Registry, mit der dieser Tokenizer arbeitet */
+    public OperatorRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Prüft, ob das vorherige Token ein Operator oder eine linke Klammer war.
+     *
+     * <p>Diese Hilfsmethode ist entscheidend, um den Unär-Operator (Vorzeichen)
+     * vom Binär-Operator (Subtraktion) zu unterscheiden. Ein Minus gilt als
+     * Vorzeichen, wenn es am Anfang des Ausdrucks steht oder direkt auf einen
+     * anderen Operator, eine linke Klammer oder ein ',' folgt.</p>
+     *
+     * @param tokens Die bisher erfassten Tokens.
+     * @return {@code true}, wenn das vorherige Token ein Operator, eine
+     * linke Klammer (runde oder eckige) oder ein ',' war, oder wenn der Puffer leer ist.
+     * Andernfalls {@code false}.
+     */
+    private boolean isPreviousTokenOperatorOrLParen(TokenBuffer tokens) {
+        if (tokens.isEmpty())
+            return true; // Am Anfang des Ausdrucks
+        byte prev = tokens.type(tokens.size() - 1);
+        return prev == TokenBuffer.OPERATOR || prev == TokenBuffer.LPARENNORMAL || prev == TokenBuffer.LPARENECKIG
+                || prev == TokenBuffer.SEPARATOR;
+    }
+}
@@ -0,0 +1,330 @@
+package org.example;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Wertet ein {@link RpnProgram} spaltenweise mit SIMD-Befehlen aus.
+ *
+ * <p>Im Gegensatz zu {@link RpnInterpreter#executeColumns(RpnProgram, double[][], double[])},
+ * der das Programm Zeile für Zeile interpretiert, wird hier jeder Befehl
+ * einmal auf einen ganzen Block von Zeilen angewendet. Jeder Stack-Eintrag ist
+ * also eine "Lane" von {@code double}-Werten, die mit der Vector API
+ * ({@code jdk.incubator.vector}) verarbeitet wird; der Rest eines Blocks, der
+ * nicht mehr in einen ganzen Vektor passt, wird skalar berechnet.</p>
+ *
+ * <p>Konstanten werden nicht in Lanes kopiert, sondern als Skalar geführt und
+ * bei Bedarf per Broadcast verknüpft. Variablen verweisen direkt auf die
+ * Eingabespalten, ohne sie zu kopieren.</p>
+ *
+ * <p>Division durch Null verhält sich wie beim {@link RpnEvaluator}: enthält
+ * irgendeine Zeile einen Divisor von 0, wird eine
+ * {@link RpnEvaluator.RpnEvaluationException} geworfen.</p>
+ *
+ * <p>Programme mit Funktionsaufrufen ({@link RpnProgram#OP_CALL}) haben keine
+ * Vektor-Entsprechung und werden zeilenweise vom {@link RpnInterpreter}
+ * ausgewertet.</p>
+ *
+ * <p>Zur Laufzeit muss das Modul mit {@code --add-modules jdk.incubator.vector}
+ * freigeschaltet sein, siehe {@link #isAvailable()}. Eine Instanz ist nicht
+ * thread-sicher.</p>
+ */
+public class VectorizedEvaluator {
+
+    /** Anzahl der Zeilen, die gemeinsam verarbeitet werden (passt in den L1/L2-Cache). */
+    private static final int BLOCK_SIZE = 1024;
+
+    // Ein Stack-Eintrag ist entweder ein Skalar oder ein Ausschnitt eines Arrays
+    private boolean[] scalar = new boolean[0];
+    private double[] scalarValue = new double[0];
+    private double[][] array = new double[0][];
+    private int[] offset = new int[0];
+
+    // Eigene Lanes pro Stack-Tiefe für Zwischenergebnisse
+    private double[][] lanes = new double[0][];
+
+    // Zwischenspeicher für gemeinsame Teilausdrücke (OP_STORE/OP_LOAD)
+    private boolean[] tempScalar = new boolean[0];
+    private double[] tempScalarValue = new double[0];
+    private double[][] tempLanes = new double[0][];
+
+    // Für Programme mit Funktionsaufrufen, erst bei Bedarf erzeugt
+    private RpnInterpreter interpreter;
+
+    /**
+     * Prüft, ob die Vector API zur Laufzeit verfügbar ist.
+     *
+     * @return {@code true}, wenn {@code jdk.incubator.vector} geladen ist
+     */
+    public static boolean isAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * Wertet ein Programm über viele Zeilen aus.
+     *
+     * @param program das auszuführende Programm
+     * @param columns eine Spalte pro Variable in Slot-Reihenfolge
+     *                (siehe {@link RpnProgram#bindColumns(java.util.Map)})
+     * @param output  Zielarray, erhält ein Ergebnis pro Zeile
+     * @throws RpnEvaluator.RpnEvaluationException bei Division durch Null (in irgendeiner Zeile)
+     * @throws IllegalArgumentException wenn Spalten fehlen oder zu kurz sind
+     */
+    public void executeColumns(RpnProgram program, double[][] columns, double[] output)
+            throws RpnEvaluator.RpnEvaluationException {
+        if (program.hasCalls()) {
+            if (interpreter == null) {
+                interpreter = new RpnInterpreter();
+            }
+            interpreter.executeColumns(program, columns, output);
+            return;
+        }
+        int variableCount = program.getVariableCount();
+        int rows = output.length;
+        if (columns.length < variableCount) {
+            throw new IllegalArgumentException("Erwartet " + variableCount + " Spalten, erhalten: " + columns.length);
+        }
+        for (int v = 0; v < variableCount; v++) {
+            if (columns[v].length < rows) {
+                throw new IllegalArgumentException("Spalte " + v + " hat nur " + columns[v].length
+                        + " Werte (benötigt: " + rows + ").");
+            }
+        }
+        ensureCapacity(program.getMaxStackDepth());
+        ensureTempCapacity(program.getTempCount());
+
+        for (int from = 0; from < rows; from += BLOCK_SIZE) {
+            executeBlock(program, columns, output, from, Math.min(BLOCK_SIZE, rows - from));
+        }
+    }
+
+    /**
+     * Führt das Programm für die Zeilen {@code [from, from + length)} aus.
+     */
+    private void executeBlock(RpnProgram program, double[][] columns, double[] output, int from, int length) {
+        final double[] constants = program.constants();
+        int sp = -1;
+
+        for (int instruction : program.code()) {
+            int opcode = RpnProgram.opcode(instruction);
+            switch (opcode) {
+                case RpnProgram.OP_CONST:
+                    sp++;
+                    scalar[sp] = true;
+                    scalarValue[sp] = constants[RpnProgram.operand(instruction)];
+                    break;
+                case RpnProgram.OP_VAR:
+                    sp++;
+                    scalar[sp] = false;
+                    array[sp] = columns[RpnProgram.operand(instruction)];
+                    offset[sp] = from;
+                    break;
+                case RpnProgram.OP_STORE:
+                    store(RpnProgram.operand(instruction), sp, length);
+                    break;
+                case RpnProgram.OP_LOAD:
+                    sp++;
+                    load(RpnProgram.operand(instruction), sp);
+                    break;
+                default:
+                    binary(opcode, sp - 1, sp, length);
+                    sp--;
+                    break;
+            }
+        }
+
+        if (scalar[0]) {
+            Arrays.fill(output, from, from + length, scalarValue[0]);
+        } else {
+            System.arraycopy(array[0], offset[0], output, from, length);
+        }
+    }
+
+    /**
+     * Verknüpft die Stack-Einträge {@code a} und {@code b} und legt das
+     * Ergebnis in {@code a} ab.
+     */
+    private void binary(int opcode, int a, int b, int length) {
+        if (opcode == RpnProgram.OP_DIV) {
+            checkDivisor(b, length);
+        }
+
+        if (scalar[a] && scalar[b]) {
+            scalarValue[a] = Kernels.apply(opcode, scalarValue[a], scalarValue[b]);
+            return;
+        }
+
+        double[] target = lanes[a];
+        if (scalar[a]) {
+            Kernels.scalarVector(opcode, scalarValue[a], array[b], offset[b], target, length);
+        } else if (scalar[b]) {
+            Kernels.vectorScalar(opcode, array[a], offset[a], scalarValue[b], target, length);
+        } else {
+            Kernels.vectorVector(opcode, array[a], offset[a], array[b], offset[b], target, length);
+        }
+        scalar[a] = false;
+        array[a] = target;
+        offset[a] = 0;
+    }
+
+    /**
+     * Kopiert den Stack-Eintrag {@code sp} in den Zwischenspeicher {@code slot}.
+     * Lanes werden kopiert, da sie von späteren Befehlen überschrieben werden.
+     */
+    private void store(int slot, int sp, int length) {
+        tempScalar[slot] = scalar[sp];
+        if (scalar[sp]) {
+            tempScalarValue[slot] = scalarValue[sp];
+        } else {
+            System.arraycopy(array[sp], offset[sp], tempLanes[slot], 0, length);
+        }
+    }
+
+    /**
+     * Legt den Zwischenspeicher {@code slot} als Stack-Eintrag {@code sp} ab,
+     * ohne ihn zu kopieren (er wird bis zum nächsten Block nicht verändert).
+     */
+    private void load(int slot, int sp) {
+        scalar[sp] = tempScalar[slot];
+        if (tempScalar[slot]) {
+            scalarValue[sp] = tempScalarValue[slot];
+        } else {
+            array[sp] = tempLanes[slot];
+            offset[sp] = 0;
+        }
+    }
+
+    /**
+     * Wirft eine Exception, wenn irgendein Divisor im Block 0 ist.
+     */
+    private void checkDivisor(int b, int length) {
+        boolean zero = scalar[b] ? scalarValue[b] == 0 : Kernels.containsZero(array[b], offset[b], length);
+        if (zero) {
+            // Gleiches Verhalten wie RpnEvaluator
+            throw new RpnEvaluator.RpnEvaluationException("Division durch Null!");
+        }
+    }
+
+    private void ensureTempCapacity(int count) {
+        if (tempScalar.length < count) {
+            tempScalar = new boolean[count];
+            tempScalarValue = new double[count];
+            double[][] grown = Arrays.copyOf(tempLanes, count);
+            for (int i = tempLanes.length; i < count; i++) {
+                grown[i] = new double[BLOCK_SIZE];
+            }
+            tempLanes = grown;
+        }
+    }
+
+    private void ensureCapacity(int depth) {
+        if (scalar.length < depth) {
+            scalar = new boolean[depth];
+            scalarValue = new double[depth];
+            array = new double[depth][];
+            offset = new int[depth];
+            double[][] grown = Arrays.copyOf(lanes, depth);
+            for (int i = lanes.length; i < depth; i++) {
+                grown[i] = new double[BLOCK_SIZE];
+            }
+            lanes = grown;
+        }
+    }
+
+    /**
+     * Die eigentlichen SIMD-Schleifen. Als eigene Klasse, damit die Vector API
+     * erst bei der ersten Auswertung geladen wird.
+     */
+    private static final class Kernels {
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+        /**
+         * Verknüpft zwei Vektoren. Der Operator muss für C2 eine Konstante sein,
+         * daher ein {@code switch} statt eines übergebenen {@link VectorOperators.Binary};
+         * da {@code opcode} in der Schleife konstant ist, wird der Zweig herausgezogen.
+         */
+        private static DoubleVector apply(int opcode, DoubleVector a, DoubleVector b) {
+            switch (opcode) {
+                case RpnProgram.OP_ADD: return a.add(b);
+                case RpnProgram.OP_SUB: return a.sub(b);
+                case RpnProgram.OP_MUL: return a.mul(b);
+                case RpnProgram.OP_DIV: return a.div(b);
+                case RpnProgram.OP_POW: return a.lanewise(VectorOperators.POW, b);
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Unbekannter Opcode: " + opcode);
+            }
+        }
+
+        /** Skalare Variante für den Rest eines Blocks. */
+        static double apply(int opcode, double a, double b) {
+            switch (opcode) {
+                case RpnProgram.OP_ADD: return a + b;
+                case RpnProgram.OP_SUB: return a - b;
+                case RpnProgram.OP_MUL: return a * b;
+                case RpnProgram.OP_DIV: return a / b;
+                case RpnProgram.OP_POW: return Math.pow(a, b);
+                default:
+                    throw new RpnEvaluator.RpnEvaluationException("Unbekannter Opcode: " + opcode);
+            }
+        }
+
+        static void vectorVector(int opcode, double[] a, int aOffset, double[] b, int bOffset,
+                                 double[] target, int length) {
+            int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+                DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+                apply(opcode, va, vb).intoArray(target, i);
+            }
+            for (; i < length; i++) {
+                target[i] = apply(opcode, a[aOffset + i], b[bOffset + i]);
+            }
+        }
+
+        static void vectorScalar(int opcode, double[] a, int aOffset, double b, double[] target, int length) {
+            DoubleVector vb = DoubleVector.broadcast(SPECIES, b);
+            int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                apply(opcode, DoubleVector.fromArray(SPECIES, a, aOffset + i), vb).intoArray(target, i);
+            }
+            for (; i < length; i++) {
+                target[i] = apply(opcode, a[aOffset + i], b);
+            }
+        }
+
+        static void scalarVector(int opcode, double a, double[] b, int bOffset, double[] target, int length) {
+            DoubleVector va = DoubleVector.broadcast(SPECIES, a);
+            int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                apply(opcode, va, DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(target, i);
+            }
+            for (; i < length; i++) {
+                target[i] = apply(opcode, a, b[bOffset + i]);
+            }
+        }
+
+        static boolean containsZero(double[] values, int from, int length) {
+            int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                VectorMask<Double> zero = DoubleVector.fromArray(SPECIES, values, from + i).compare(VectorOperators.EQ, 0.0);
+                if (zero.anyTrue()) {
+                    return true;
+                }
+            }
+            for (; i < length; i++) {
+                if (values[from + i] == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+/**
+ * Unit Tests für AstInterner und die Eliminierung gemeinsamer Teilausdrücke.
+ * Überprüft das Teilen der Knoten, die Zwischenspeicher im Programm und dass
+ * alle Ausführungswege dasselbe Ergebnis liefern.
+ */
+public class AstInternerTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final AstBuilder builder = new AstBuilder();
+    private final RpnCompiler compiler = new RpnCompiler();
+    private final RpnInterpreter interpreter = new RpnInterpreter();
+
+    /**
+     * Hilfsmethode: Ausdruck tokenisieren, konvertieren und als Baum aufbauen.
+     */
+    private AstNode tree(String expression) throws Exception {
+        return builder.build(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Interning
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testGleicheTeilbaeumeWerdenGeteilt() throws Exception {
+        AstInterner interner = new AstInterner();
+        AstNode root = interner.intern(tree("(a+b)*(a+b)/(a+b)"));
+
+        AstNode product = root.getLeft();
+        assertSame(product.getLeft(), product.getRight(), "a+b sollte nur einmal existieren.");
+        assertSame(product.getLeft(), root.getRight());
+        assertEquals(5, root.size(), "Erwartet: a, b, a+b, *, /");
+        assertSame(interner.leaf("a"), product.getLeft().getLeft());
+    }
+
+    @Test
+    void testFabrikMethoden() {
+        AstInterner interner = new AstInterner();
+        AstNode sum = interner.node("+", interner.leaf("x"), interner.leaf("1"));
+        assertSame(sum, interner.node("+", interner.leaf("x"), interner.leaf("1")));
+        assertNotSame(sum, interner.node("+", interner.leaf("1"), interner.leaf("x")),
+                "Die Reihenfolge der Operanden ist Teil der Struktur.");
+        assertEquals(4, interner.size());
+
+        AstNode call = interner.call("max", interner.leaf("x"), sum);
+        assertSame(call, interner.call("max", interner.leaf("x"), sum));
+        assertNotSame(call, interner.node("max", interner.leaf("x"), sum), "Aufrufe sind keine Operatorknoten.");
+        assertSame(interner.call("pi"), interner.call("pi"));
+    }
+
+    @Test
+    void testAufrufeWerdenGeteilt() throws Exception {
+        AstInterner interner = new AstInterner();
+        AstNode root = interner.intern(tree("sqrt(a*a + 1) / (sqrt(a*a + 1) - max(a*a, 1))"));
+        AstNode sqrt = root.getLeft();
+        assertTrue(sqrt.isCall());
+        assertSame(sqrt, root.getRight().getLeft());
+        assertSame(sqrt.getArguments().get(0).getLeft(), root.getRight().getRight().getArguments().get(0));
+
+        RpnProgram program = compiler.compile(root);
+        assertEquals(2, program.getTempCount(), "sqrt(...) und a*a werden zwischengespeichert");
+        assertEquals(interpreter.execute(compiler.compile(tree("sqrt(a*a + 1) / (sqrt(a*a + 1) - max(a*a, 1))")),
+                new double[] {3}), interpreter.execute(program, new double[] {3}), 0.0);
+    }
+
+    @Test
+    void testBericht() throws Exception {
+        AstInterner interner = new AstInterner();
+        interner.intern(tree("(a+b)*(a+b)/(a+b)"));
+        AstInterner.Report report = interner.report();
+        assertEquals(11, report.inputNodes());
+        assertEquals(5, report.uniqueNodes());
+        assertEquals(6, report.savedNodes());
+        assertEquals(6 * AstInterner.NODE_BYTES, report.savedBytes());
+
+        // Teilbäume werden auch zwischen Ausdrücken geteilt
+        interner.intern(tree("(a+b) - c"));
+        assertEquals(16, interner.report().inputNodes());
+        assertEquals(7, interner.report().uniqueNodes(), "Nur c und - sind neu.");
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Gemeinsame Teilausdrücke im Programm
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testGemeinsamerKnotenWirdNurEinmalBerechnet() throws Exception {
+        RpnProgram plain = compiler.compile(tree("(a+b)*(a+b)/(a+b)"));
+        RpnProgram shared = compiler.compile(new AstInterner().intern(tree("(a+b)*(a+b)/(a+b)")));
+
+        assertEquals(0, plain.getTempCount());
+        assertEquals(1, shared.getTempCount());
+        assertEquals("a b + =t0 t0 * t0 /", shared.toString());
+        assertTrue(shared.getInstructionCount() < plain.getInstructionCount());
+
+        double[] values = {2, 5};
+        assertEquals(interpreter.execute(plain, values), interpreter.execute(shared, values), 0.0);
+        assertEquals(7.0, interpreter.execute(shared, values), DELTA);
+    }
+
+    @Test
+    void testAlleAusfuehrungswegeGleich() throws Exception {
+        String expression = "((x*y+1)^2 - (x*y+1)) / ((x*y+1)^2 + z) * (x*y+1)";
+        RpnProgram program = compiler.compile(new AstInterner().intern(tree(expression)));
+        assertEquals(2, program.getTempCount(), "x*y+1 und (x*y+1)^2 sollten zwischengespeichert werden.");
+
+        int rows = 2000;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        double[] z = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.25 - 100;
+            y[i] = Math.sin(i);
+            z[i] = 1 + i % 7;
+        }
+        double[][] columns = program.bindColumns(Map.of("x", x, "y", y, "z", z));
+        double[] expected = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            expected[i] = interpreter.execute(compiler.compile(tree(expression)), new double[] {x[i], y[i], z[i]});
+        }
+
+        double[] interpreted = new double[rows];
+        interpreter.executeColumns(program, columns, interpreted);
+        assertArrayEquals(expected, interpreted, 0.0);
+
+        DoubleFormula formula = new BytecodeCompiler().compile(program);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(expected[i], formula.evaluate(new double[] {x[i], y[i], z[i]}), 0.0);
+        }
+
+        double[] vectorized = new double[rows];
+        new VectorizedEvaluator().executeColumns(program, columns, vectorized);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(expected[i], vectorized[i], Math.ulp(expected[i]) * 4);
+        }
+    }
+
+    @Test
+    void testDivisionDurchNullImGemeinsamenKnoten() throws Exception {
+        RpnProgram program = compiler.compile(new AstInterner().intern(tree("1/(x-1) + 1/(x-1)")));
+        assertEquals(1.0, interpreter.execute(program, new double[] {3}), DELTA);
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> interpreter.execute(program, new double[] {1}));
+        assertTrue(exception.getMessage().contains("Division durch Null"));
+    }
+
+    @Test
+    void testTieferBaum() throws Exception {
+        // Sehr tiefe Verschachtelung darf keinen StackOverflowError auslösen
+        StringBuilder expression = new StringBuilder("x");
+        for (int i = 0; i < 20000; i++) {
+            expression.append(" + x");
+        }
+        AstInterner interner = new AstInterner();
+        RpnProgram program = compiler.compile(interner.intern(tree(expression.toString())));
+        assertEquals(20001.0, interpreter.execute(program, new double[] {1}), DELTA);
+    }
+}
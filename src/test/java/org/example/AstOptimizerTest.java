@@ -0,0 +1,231 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit Tests für AstBuilder und AstOptimizer.
+ * Überprüft den Aufbau des Baums, die Konstantenfaltung und dass die
+ * Identitäten das Ergebnis nicht verändern.
+ */
+public class AstOptimizerTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final AstBuilder builder = new AstBuilder();
+    private final AstOptimizer strict = new AstOptimizer();
+    private final AstOptimizer relaxed = new AstOptimizer(true);
+    private final RpnCompiler compiler = new RpnCompiler();
+    private final RpnInterpreter interpreter = new RpnInterpreter();
+
+    /**
+     * Hilfsmethode: Ausdruck tokenisieren, konvertieren und als Baum aufbauen.
+     */
+    private AstNode tree(String expression) throws Exception {
+        return builder.build(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+    }
+
+    /**
+     * Hilfsmethode: optimierten Baum als RPN-Text ausgeben.
+     */
+    private String rpn(AstNode node) {
+        return compiler.compile(node).toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. AstBuilder
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testBaumAusRpn() throws Exception {
+        AstNode root = tree("3 + 4 * x");
+        assertEquals("+", root.getValue());
+        assertEquals("3", root.getLeft().getValue());
+        assertEquals("*", root.getRight().getValue());
+        assertEquals("x", root.getRight().getRight().getValue());
+        assertEquals(5, root.size());
+    }
+
+    @Test
+    void testBaumGleichesErgebnisWieRpn() throws Exception {
+        String expression = "7+(3*3)/(4-3)^2";
+        List<Token> rpnTokens = shuntingYard.convertToRPN(tokenizer.tokenize(expression));
+        assertEquals(interpreter.execute(compiler.compile(rpnTokens)),
+                interpreter.execute(compiler.compile(builder.build(rpnTokens))), 0.0);
+    }
+
+    @Test
+    void testBaumFehlermeldungen() {
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> builder.build(List.of(new Token(Token.Type.NUMBER, "5"), new Token(Token.Type.OPERATOR, "+"))));
+        assertTrue(exception.getMessage().contains("Zu wenige Operanden"));
+
+        exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> builder.build(List.of(new Token(Token.Type.NUMBER, "1"), new Token(Token.Type.NUMBER, "2"))));
+        assertTrue(exception.getMessage().contains("Es verbleiben 2 Elemente"));
+
+        exception = assertThrows(RpnEvaluator.RpnEvaluationException.class, () -> builder.build(List.of()));
+        assertTrue(exception.getMessage().contains("Stack am Ende leer"));
+
+        exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> builder.build(List.of(new Token(Token.Type.NUMBER, "1"), new Token(Token.Type.FUNCTION, "max"))));
+        assertEquals("Zu wenige Argumente für die Funktion: max", exception.getMessage());
+    }
+
+    @Test
+    void testFunktionsaufrufe() throws Exception {
+        AstNode root = tree("max(x, 2 * 3) + sqrt(abs(-16))");
+        AstNode max = root.getLeft();
+        assertTrue(max.isCall());
+        assertNull(max.getLeft());
+        assertEquals(List.of("x", "*"), max.getArguments().stream().map(AstNode::getValue).toList());
+        assertEquals(9, root.size());
+
+        for (String expression : new String[] {"max(x, 2 * 3) + sqrt(abs(-16))", "min(x, y) ^ 2 - abs(x - y)"}) {
+            List<Token> rpnTokens = shuntingYard.convertToRPN(tokenizer.tokenize(expression));
+            RpnProgram program = compiler.compile(builder.build(rpnTokens));
+            assertEquals(compiler.compile(rpnTokens).toString(), program.toString(), expression);
+            assertEquals(interpreter.execute(compiler.compile(rpnTokens), new double[] {-3, 5}),
+                    interpreter.execute(program, new double[] {-3, 5}), 0.0, expression);
+        }
+
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> compiler.compile(AstNode.call("max", new AstNode("1"))));
+        assertEquals("Falsche Anzahl Argumente für die Funktion: max (erwartet: 2)", exception.getMessage());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Konstantenfaltung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testKonstantenFalten() throws Exception {
+        AstNode optimized = strict.optimize(tree("7+(3*3)/(4-3)^2"));
+        assertTrue(optimized.isLeaf(), "Ein rein konstanter Ausdruck sollte zu einem Blatt werden.");
+        assertEquals(16.0, Double.parseDouble(optimized.getValue()), DELTA);
+    }
+
+    @Test
+    void testKonstantenUmVariablen() throws Exception {
+        AstNode original = tree("(2 * 3 + 4) * x - (10 / 4) ^ 2");
+        AstNode optimized = strict.optimize(original);
+        assertEquals("10.0 x * 6.25 -", rpn(optimized));
+        assertTrue(optimized.size() < original.size());
+        assertEquals(original.size(), tree("(2 * 3 + 4) * x - (10 / 4) ^ 2").size(),
+                "Der ursprüngliche Baum darf nicht verändert werden.");
+    }
+
+    @Test
+    void testArgumenteVonAufrufenWerdenGefaltet() throws Exception {
+        assertEquals("x 6.0 max 16.0 sqrt +", rpn(strict.optimize(tree("max(x, 2 * 3) + sqrt(2 ^ 4)"))));
+        AstNode unchanged = tree("max(x, y)");
+        assertSame(unchanged, strict.optimize(unchanged));
+        // Aufrufe könnten werfen und fallen daher nicht weg
+        assertEquals("x sqrt 0.0 *", rpn(relaxed.optimize(tree("sqrt(x) * 0"))));
+    }
+
+    @Test
+    void testDivisionDurchKonstanteNullBleibtErhalten() throws Exception {
+        AstNode optimized = strict.optimize(tree("1 + 5 / (2 - 2)"));
+        RpnProgram program = compiler.compile(optimized);
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> interpreter.execute(program));
+        assertTrue(exception.getMessage().contains("Division durch Null"));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Identitäten
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testBitgenaueIdentitaeten() throws Exception {
+        assertEquals("x", rpn(strict.optimize(tree("x * 1"))));
+        assertEquals("x", rpn(strict.optimize(tree("1 * x"))));
+        assertEquals("x", rpn(strict.optimize(tree("x / (3 - 2)"))));
+        assertEquals("x", rpn(strict.optimize(tree("x ^ 1"))));
+        assertEquals("x", rpn(strict.optimize(tree("x - 0"))));
+    }
+
+    @Test
+    void testStrengeRegelnBehaltenSonderwerte() throws Exception {
+        // x + 0 ändert -0, x * 0 und x - x ändern NaN/Unendlich
+        assertEquals("x 0.0 +", rpn(strict.optimize(tree("x + 0"))));
+        assertEquals("x 0.0 *", rpn(strict.optimize(tree("x * 0"))));
+        assertEquals("x x -", rpn(strict.optimize(tree("x - x"))));
+    }
+
+    @Test
+    void testStrengeRegelnEntfernenKeineVariablen() throws Exception {
+        // y ^ 0 ist zwar für jeden Wert 1, ohne Wert für y meldet der RpnEvaluator aber einen Fehler
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> new RpnEvaluator().evaluate(List.of("y", "0", "^")));
+        assertEquals("Unbekannte Variable: y", e.getMessage());
+
+        for (String expression : new String[] {"y ^ 0", "y * 0", "y - y", "(x + y) ^ 0"}) {
+            RpnProgram optimized = compiler.compile(strict.optimize(tree(expression)));
+            assertTrue(Arrays.asList(optimized.getVariableNames()).contains("y"),
+                    "y sollte erhalten bleiben: " + expression + " -> " + optimized);
+            IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                    () -> optimized.bindColumns(Map.of("x", new double[1])), expression);
+            assertEquals("Keine Werte für Variable: y", missing.getMessage());
+        }
+    }
+
+    @Test
+    void testLockereRegeln() throws Exception {
+        assertEquals("x", rpn(relaxed.optimize(tree("x + 0"))));
+        assertEquals("x", rpn(relaxed.optimize(tree("0 + x"))));
+        assertEquals("3.0", rpn(relaxed.optimize(tree("x * 0 + 3"))));
+        assertEquals("y", rpn(relaxed.optimize(tree("(x + 1) - (x + 1) + y"))));
+        assertEquals("1.0", rpn(relaxed.optimize(tree("x ^ 0"))));
+    }
+
+    @Test
+    void testLockereRegelnSetzenWerteFuerAlleVariablenVoraus() throws Exception {
+        // Dokumentierte Einschränkung: die entfernte Variable wird nicht mehr verlangt
+        for (String expression : new String[] {"y ^ 0 * x", "y * 0 + x", "y - y + x"}) {
+            RpnProgram optimized = compiler.compile(relaxed.optimize(tree(expression)));
+            assertArrayEquals(new String[] {"x"}, optimized.getVariableNames(), expression);
+            assertEquals(2.0, interpreter.execute(optimized, new double[] {2}), DELTA, expression);
+        }
+    }
+
+    @Test
+    void testMoeglicheDivisionDurchNullWirdNichtEntfernt() throws Exception {
+        assertEquals("1.0 x / 0.0 *", rpn(relaxed.optimize(tree("1 / x * 0"))));
+        assertEquals("1.0 x / 1.0 x / -", rpn(relaxed.optimize(tree("1 / x - 1 / x"))));
+        assertEquals("1.0 x / 0.0 ^", rpn(strict.optimize(tree("(1 / x) ^ 0"))));
+        // Division durch eine Konstante ungleich Null kann nicht fehlschlagen
+        assertEquals("0.0", rpn(relaxed.optimize(tree("x / 2 * 0"))));
+    }
+
+    @Test
+    void testOptimierungAendertErgebnisNicht() throws Exception {
+        String[] expressions = {
+                "(a * 1 + 0) * (2 + 3) - b / 1",
+                "a ^ (4 - 3) - (b - 0) * (c ^ 0)",
+                "-0 + a * (1 * (b + -0))",
+        };
+        double[][] samples = {{2, 3, 4}, {-0.0, 0.0, 1}, {Double.NaN, 1, 2}, {Double.POSITIVE_INFINITY, 2, 3}};
+        for (String expression : expressions) {
+            RpnProgram original = compiler.compile(tree(expression));
+            RpnProgram optimized = compiler.compile(strict.optimize(tree(expression)));
+            for (double[] sample : samples) {
+                double[] values = Arrays.copyOf(sample, original.getVariableCount());
+                double[] reordered = new double[optimized.getVariableCount()];
+                for (int i = 0; i < reordered.length; i++) {
+                    reordered[i] = values[original.variableIndex(optimized.getVariableNames()[i])];
+                }
+                assertEquals(Double.doubleToLongBits(interpreter.execute(original, values)),
+                        Double.doubleToLongBits(interpreter.execute(optimized, reordered)),
+                        "Bitgenaue Regeln dürfen das Ergebnis nicht verändern: " + expression);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit Tests für BatchFileEvaluator.
+ * Überprüft Reihenfolge der Ausgabe, Zeilenenden, Fehler mit Byte-Offset und
+ * Zeilen, die über Segmentgrenzen reichen (mit sehr kleinen Segmenten).
+ */
+public class BatchFileEvaluatorTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Hilfsmethode: Eingabe schreiben, auswerten und die Ausgabezeilen liefern.
+     */
+    private List<String> run(BatchFileEvaluator evaluator, String input, BatchFileEvaluator.Report[] report) throws Exception {
+        Path in = directory.resolve("in.txt");
+        Path out = directory.resolve("out.txt");
+        Files.writeString(in, input, StandardCharsets.UTF_8);
+        report[0] = evaluator.evaluate(in, out);
+        return Files.readAllLines(out, StandardCharsets.UTF_8);
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Ergebnisse
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testErgebnisseInReihenfolge() throws Exception {
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        List<String> lines = run(new BatchFileEvaluator(), "1 + 2\n3 * (4 - 1)\n2 ^ 10\n-5 + 1\n", report);
+
+        assertEquals(List.of("3.0", "9.0", "1024.0", "-4.0"), lines);
+        assertEquals(4, report[0].lines());
+        assertEquals(0, report[0].failureCount());
+        assertEquals(1, report[0].segments());
+    }
+
+    @Test
+    void testZeilenendenUndLetzteZeileOhneUmbruch() throws Exception {
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        List<String> lines = run(new BatchFileEvaluator(), "1 + 1\r\n2 + 2\r\n3 + 3", report);
+
+        assertEquals(List.of("2.0", "4.0", "6.0"), lines);
+        assertEquals(3, report[0].lines());
+    }
+
+    @Test
+    void testLeereDatei() throws Exception {
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        assertEquals(List.of(), run(new BatchFileEvaluator(), "", report));
+        assertEquals(0, report[0].lines());
+        assertEquals(0, report[0].segments());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Fehler
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testFehlerMitByteOffset() throws Exception {
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        String input = "1 + 2\n4 / 0\n(1 + 2\n\n7\n";
+        List<String> lines = run(new BatchFileEvaluator(), input, report);
+
+        assertEquals(5, lines.size(), "Jede Eingabezeile erzeugt genau eine Ausgabezeile.");
+        assertEquals("3.0", lines.get(0));
+        assertEquals("Fehler: Division durch Null!", lines.get(1));
+        assertTrue(lines.get(2).startsWith("Fehler: Mismatched parentheses"));
+        assertTrue(lines.get(3).startsWith("Fehler: "), "Leere Zeile ist ein Fehler.");
+        assertEquals("7.0", lines.get(4));
+
+        assertEquals(3, report[0].failureCount());
+        List<BatchFileEvaluator.Failure> failures = report[0].failures();
+        assertEquals(2, failures.get(0).lineNumber());
+        assertEquals(6, failures.get(0).byteOffset());
+        assertEquals(3, failures.get(1).lineNumber());
+        assertEquals(12, failures.get(1).byteOffset());
+        assertEquals(4, failures.get(2).lineNumber());
+        assertEquals(19, failures.get(2).byteOffset());
+    }
+
+    @Test
+    void testAnzahlGemeldeterFehlerBegrenzt() throws Exception {
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        run(new BatchFileEvaluator(2), "1/0\n1/0\n1/0\n1/0\n", report);
+
+        assertEquals(4, report[0].failureCount());
+        assertEquals(2, report[0].failures().size());
+    }
+
+    @Test
+    void testEvaluatorMitTokenBufferWieListe() throws Exception {
+        // Der allokationsfreie Pfad liefert dieselben Ergebnisse und Meldungen
+        Tokenizer tokenizer = new Tokenizer();
+        ShuntingYard shuntingYard = new ShuntingYard();
+        RpnEvaluator evaluator = new RpnEvaluator();
+        TokenBuffer tokens = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        DoubleStack stack = new DoubleStack();
+
+        for (String expression : new String[] {"3 + 4 * 2 / (1 - 5) ^ 2", "-2 ^ 2", "NaN + 1", "x + 1", "1 / (2 - 2)"}) {
+            String expected;
+            try {
+                List<String> list = shuntingYard.convertToRPN(tokenizer.tokenize(expression))
+                        .stream().map(Token::getValue).toList();
+                expected = String.valueOf(evaluator.evaluate(list));
+            } catch (Exception e) {
+                expected = e.getMessage();
+            }
+            String actual;
+            try {
+                tokenizer.tokenize(expression, tokens);
+                shuntingYard.convertToRPN(tokens, rpn);
+                actual = String.valueOf(evaluator.evaluate(rpn, stack));
+            } catch (Exception e) {
+                actual = e.getMessage();
+            }
+            assertEquals(expected, actual, expression);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Segmente
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testZeilenUeberSegmentgrenzen() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(i).append(" * 2 + ").append(i % 7).append(i % 3 == 0 ? "\r\n" : "\n");
+            expected.append((double) (i * 2 + i % 7)).append('\n');
+        }
+
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        List<String> lines = run(new BatchFileEvaluator(32, 10), input.toString(), report);
+
+        assertEquals(List.of(expected.toString().split("\n")), lines);
+        assertEquals(200, report[0].lines());
+        assertEquals(0, report[0].failureCount());
+        assertTrue(report[0].segments() > 50, "Die Datei sollte in viele Segmente aufgeteilt werden.");
+    }
+
+    @Test
+    void testZeileLaengerAlsSegment() throws Exception {
+        String longLine = "1" + " + 1".repeat(20);
+        String input = "2 * 3\n" + longLine + "\n4 + 4\n" + longLine;
+        BatchFileEvaluator.Report[] report = new BatchFileEvaluator.Report[1];
+        List<String> lines = run(new BatchFileEvaluator(16, 10), input, report);
+
+        assertEquals(4, lines.size());
+        assertEquals("6.0", lines.get(0));
+        assertTrue(lines.get(1).startsWith("Fehler: Zeile länger als ein Segment"));
+        assertEquals("8.0", lines.get(2));
+        assertTrue(lines.get(3).startsWith("Fehler: Zeile länger als ein Segment"));
+
+        assertEquals(2, report[0].failureCount());
+        assertEquals(6, report[0].failures().get(0).byteOffset());
+        assertEquals(2, report[0].failures().get(0).lineNumber());
+        assertEquals(6 + longLine.length() + 1 + 6, report[0].failures().get(1).byteOffset());
+        assertEquals(4, report[0].failures().get(1).lineNumber());
+    }
+}
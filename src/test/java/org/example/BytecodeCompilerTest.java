@@ -0,0 +1,126 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit Tests für den BytecodeCompiler.
+ * Überprüft, dass die generierten Klassen dieselben Ergebnisse und
+ * Fehlermeldungen liefern wie der RpnInterpreter.
+ */
+public class BytecodeCompilerTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnCompiler rpnCompiler = new RpnCompiler();
+    private final RpnInterpreter interpreter = new RpnInterpreter();
+    private final BytecodeCompiler compiler = new BytecodeCompiler();
+
+    /**
+     * Hilfsmethode: Ausdruck tokenisieren und in RPN umwandeln.
+     */
+    private List<Token> rpn(String expression) throws Exception {
+        return shuntingYard.convertToRPN(tokenizer.tokenize(expression));
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Korrekte Auswertung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testBeispielAusdruck() throws Exception {
+        assertEquals(1.0, compiler.compile(rpn("3 + 4 * 2 / (1 - 5)")).evaluate(), DELTA);
+        assertEquals(16.0, compiler.compile(rpn("7+(3*3)/(4-3)^2")).evaluate(), DELTA);
+    }
+
+    @Test
+    void testGleichesErgebnisWieInterpreter() throws Exception {
+        String[] expressions = {
+                "2 ^ 3 ^ 2",
+                "[1.5 + 2.5] * -2",
+                "0 * 1 + 1 - 0",
+                "99999999.5 * 99999999 ^ 40",
+                "(a - 2) / [b + c] * 1.5 + a * b - c / 4",
+                "x ^ 0.5 - y * y",
+        };
+        double[] variables = {7, -3.5, 0.25};
+        for (String expression : expressions) {
+            RpnProgram program = rpnCompiler.compile(rpn(expression));
+            double[] values = Arrays.copyOf(variables, program.getVariableCount());
+            assertEquals(interpreter.execute(program, values), compiler.compile(program).evaluate(values), 0.0,
+                    "Unterschiedliches Ergebnis für: " + expression);
+        }
+    }
+
+    @Test
+    void testVariablen() throws Exception {
+        DoubleFormula formula = compiler.compile(rpn("preis * (1 + steuer) - rabatt"));
+        assertEquals(109.0, formula.evaluate(new double[] {100, 0.19, 10}), DELTA);
+        assertEquals(214.0, formula.evaluate(new double[] {200, 0.07, 0}), DELTA);
+    }
+
+    @Test
+    void testVieleVariablenUndKonstanten() throws Exception {
+        // Slots und Konstanten jenseits von bipush/sipush-Grenzen
+        StringBuilder expression = new StringBuilder("0");
+        double[] values = new double[300];
+        double expected = 0;
+        for (int i = 0; i < values.length; i++) {
+            expression.append(" + v").append(i).append(" * ").append(i + 0.5);
+            values[i] = i;
+            expected += i * (i + 0.5);
+        }
+        assertEquals(expected, compiler.compile(rpn(expression.toString())).evaluate(values), DELTA);
+    }
+
+    @Test
+    void testAusSyntaxbaum() {
+        AstNode tree = new AstNode("*",
+                new AstNode("+", new AstNode("x"), new AstNode("1")),
+                new AstNode("-", new AstNode("x"), new AstNode("3")));
+        assertEquals(-3.0, compiler.compile(tree).evaluate(new double[] {2}), DELTA);
+    }
+
+    @Test
+    void testVersteckteKlasse() throws Exception {
+        DoubleFormula formula = compiler.compile(rpn("1 + x"));
+        assertTrue(formula.getClass().isHidden(), "Die Formel sollte als versteckte Klasse definiert sein.");
+        assertEquals("1.0 x +", formula.toString());
+        assertNotSame(formula.getClass(), compiler.compile(rpn("1 + x")).getClass());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Fehlerfälle
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testDivisionDurchNull() throws Exception {
+        DoubleFormula formula = compiler.compile(rpn("5 / (2 - x)"));
+        assertEquals(5.0, formula.evaluate(new double[] {1}), DELTA);
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> formula.evaluate(new double[] {2}));
+        assertTrue(exception.getMessage().contains("Division durch Null"));
+    }
+
+    @Test
+    void testFehlendeVariablenwerte() throws Exception {
+        DoubleFormula formula = compiler.compile(rpn("x + y"));
+        assertThrows(IllegalArgumentException.class, () -> formula.evaluate(new double[] {1}));
+    }
+
+    @Test
+    void testUngueltigerSyntaxbaum() {
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> compiler.compile(new AstNode("+", new AstNode("1"), null)));
+        assertTrue(exception.getMessage().contains("Zu wenige Operanden"));
+
+        exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> compiler.compile(new AstNode("1x")));
+        assertTrue(exception.getMessage().contains("Ungültiges Token"));
+    }
+}
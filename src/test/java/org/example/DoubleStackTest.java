@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests für die primitive DoubleStack-Klasse.
+ * Überprüft denselben Vertrag wie bei Stack<T> sowie die Bulk-Operationen.
+ */
+public class DoubleStackTest {
+
+    private DoubleStack stack;
+
+    @BeforeEach
+    void setUp() {
+        stack = new DoubleStack(2);
+    }
+
+    // -------------------------------------------------------------------------
+    // Basisfunktionalität (push, pop, peek, size, isEmpty)
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testNewStackIsEmpty() {
+        assertTrue(stack.isEmpty(), "Ein neuer Stack sollte leer sein.");
+        assertEquals(0, stack.size());
+    }
+
+    @Test
+    void testPushPopLIFO() {
+        stack.push(1.5);
+        stack.push(2.5);
+        stack.push(3.5); // erzwingt Wachstum über die Anfangskapazität
+
+        assertEquals(3, stack.size());
+        assertEquals(3.5, stack.peek());
+        assertEquals(3.5, stack.pop());
+        assertEquals(2.5, stack.pop());
+        assertEquals(1.5, stack.pop());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void testPopAndPeekOnEmptyStackThrowException() {
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.pop(),
+                "pop() auf einem leeren Stack sollte eine IndexOutOfBoundsException werfen.");
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.peek(),
+                "peek() auf einem leeren Stack sollte eine IndexOutOfBoundsException werfen.");
+    }
+
+    // -------------------------------------------------------------------------
+    // Bulk-Operationen und clear()
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testPushAllAndPopNPreserveOrder() {
+        stack.pushAll(new double[] {1, 2, 3, 4, 5});
+        assertEquals(5, stack.size());
+        assertEquals(5.0, stack.peek(), "Das letzte Element des Arrays sollte die Spitze sein.");
+
+        double[] target = new double[4];
+        stack.popN(3, target, 1);
+        assertArrayEquals(new double[] {0, 3, 4, 5}, target);
+        assertEquals(2, stack.size());
+
+        stack.popN(2);
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void testPopNWithTooFewElementsThrowsException() {
+        stack.push(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.popN(2));
+        assertEquals(1, stack.size(), "Ein fehlgeschlagenes popN() darf den Stack nicht verändern.");
+    }
+
+    @Test
+    void testClearKeepsCapacity() {
+        stack.pushAll(new double[100]);
+        int capacity = stack.capacity();
+        stack.clear();
+        assertTrue(stack.isEmpty());
+        assertEquals(capacity, stack.capacity(), "clear() sollte das interne Array nicht verkleinern.");
+    }
+}
@@ -0,0 +1,236 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Unit Tests für die Fehlerrückgabe über EvaluationResult.
+ * Prüft, dass Fehlercodes, Positionen und Meldungen zu den werfenden Varianten
+ * passen, dass die reine Prüfung dieselben Fehler findet und dass ungültige
+ * Eingaben ohne Allokation gemeldet werden.
+ */
+public class EvaluationResultTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static final String[] INVALID = {
+            "(1 + 2", "1 + 2)", "[1 + 2)", "(1 + 2]", "1 + 2]", "[1 + 2",
+            "3 $ 4", "1 + -", "1 +", "* 2", "", "   ", "1 2", "(1)(2)",
+            "max 1", "max(1)", "max(1,,2)", "max(1, 2, 3)", "1, 2", "sqrt()",
+            "abs(1, 2)", "1 / 0", "x + 1", "2 ^ y", "min(1, 2", "-.", "1 - -."
+    };
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnEvaluator evaluator = new RpnEvaluator();
+    private final TokenBuffer infix = new TokenBuffer();
+    private final TokenBuffer rpn = new TokenBuffer();
+    private final DoubleStack stack = new DoubleStack();
+    private final EvaluationResult result = new EvaluationResult();
+
+    /**
+     * Hilfsmethode: wertet über die werfenden Puffer-Methoden aus und liefert
+     * die Meldung der Exception oder {@code null}.
+     */
+    private String thrownMessage(String expression) {
+        try {
+            tokenizer.tokenize(expression, infix);
+            shuntingYard.convertToRPN(infix, rpn);
+            evaluator.evaluate(rpn, stack, Collections.emptyMap());
+            return null;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Hilfsmethode: wertet über die Methoden mit EvaluationResult aus.
+     */
+    private boolean evaluateWithResult(String expression, Map<String, Double> variables) {
+        tokenizer.tokenize(expression, infix);
+        return shuntingYard.convertToRPN(infix, rpn, result) && evaluator.evaluate(rpn, stack, variables, result);
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Erfolg
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testSuccessCarriesValue() {
+        assertTrue(evaluateWithResult("max(2, 3) * [1 + x]", Map.of("x", 1.5)));
+        assertTrue(result.isOk());
+        assertNull(result.errorCode());
+        assertNull(result.message());
+        assertEquals(7.5, result.value(), DELTA);
+    }
+
+    @Test
+    void testResultIsOverwrittenOnReuse() {
+        assertFalse(evaluateWithResult("1 / 0", Collections.emptyMap()));
+        assertTrue(Double.isNaN(result.value()), "Nach einem Fehler sollte der Wert NaN sein");
+        assertTrue(evaluateWithResult("1 / 4", Collections.emptyMap()));
+        assertTrue(result.isOk(), "Ein Erfolg sollte den vorherigen Fehler überschreiben");
+        assertEquals(0.25, result.value(), DELTA);
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Gleiche Meldungen wie die werfenden Varianten
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testMessagesMatchThrowingMethods() {
+        for (String expression : INVALID) {
+            String expected = thrownMessage(expression);
+            assertNotNull(expected, "Ausdruck sollte ungültig sein: \"" + expression + "\"");
+            assertFalse(evaluateWithResult(expression, Collections.emptyMap()),
+                    "Ausdruck sollte scheitern: \"" + expression + "\"");
+            assertEquals(expected, result.message(), "Meldung für \"" + expression + "\"");
+        }
+    }
+
+    @Test
+    void testPipelineThrowsSameExceptionTypes() {
+        BufferPipeline pipeline = new BufferPipeline(new PipelineMetrics(false));
+        RpnEvaluator.RpnEvaluationException division =
+                assertThrows(RpnEvaluator.RpnEvaluationException.class, () -> pipeline.evaluate("1 / 0"));
+        assertEquals("Division durch Null!", division.getMessage());
+
+        Exception parentheses = assertThrows(Exception.class, () -> pipeline.evaluate("(1 + 2"));
+        assertFalse(parentheses instanceof RpnEvaluator.RpnEvaluationException,
+                "Fehler des ShuntingYard sollten allgemeine Exceptions bleiben");
+        assertEquals("Mismatched parentheses: Missing ')'", parentheses.getMessage());
+    }
+
+    @Test
+    void testPipelineCountsErrorsByType() {
+        PipelineMetrics metrics = new PipelineMetrics(true);
+        BufferPipeline pipeline = new BufferPipeline(metrics);
+
+        assertFalse(pipeline.evaluate("(1", Collections.emptyMap(), result));
+        assertFalse(pipeline.evaluate("1 / 0", Collections.emptyMap(), result));
+        assertFalse(pipeline.evaluate("x", Collections.emptyMap(), result));
+        assertFalse(pipeline.evaluate("1 2", Collections.emptyMap(), result));
+
+        assertEquals(1, metrics.errorCount(PipelineMetrics.ErrorType.MISMATCHED_PARENTHESES));
+        assertEquals(1, metrics.errorCount(PipelineMetrics.ErrorType.DIVISION_BY_ZERO));
+        assertEquals(1, metrics.errorCount(PipelineMetrics.ErrorType.UNKNOWN_VARIABLE));
+        assertEquals(1, metrics.errorCount(PipelineMetrics.ErrorType.MALFORMED_EXPRESSION));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Fehlercodes und Positionen
+    // -------------------------------------------------------------------------
+
+    /**
+     * Hilfsmethode: prüft Code und markierten Text eines Fehlers.
+     */
+    private void assertError(String expression, EvaluationResult.ErrorCode code, String marked) {
+        assertFalse(evaluateWithResult(expression, Collections.emptyMap()), "\"" + expression + "\" sollte scheitern");
+        assertEquals(code, result.errorCode(), "Fehlercode für \"" + expression + "\"");
+        assertEquals(marked, expression.substring(result.offset(), result.offset() + result.length()),
+                "Markierte Stelle für \"" + expression + "\"");
+    }
+
+    @Test
+    void testErrorPositions() {
+        assertError("(1 + 2", EvaluationResult.ErrorCode.MISSING_CLOSE_PAREN, "(");
+        assertError("1 + 2 )", EvaluationResult.ErrorCode.MISSING_OPEN_PAREN, ")");
+        assertError("[1 + 2)", EvaluationResult.ErrorCode.MISMATCHED_PAREN, ")");
+        assertError("3 $ 4", EvaluationResult.ErrorCode.INVALID_TOKEN, "$");
+        assertError("max 1", EvaluationResult.ErrorCode.MISSING_FUNCTION_PAREN, "max");
+        assertError("1 + max(1,,2)", EvaluationResult.ErrorCode.EMPTY_ARGUMENT, "max");
+        assertError("min(1, 2, 3)", EvaluationResult.ErrorCode.WRONG_ARGUMENT_COUNT, "min");
+        assertError("1, 2", EvaluationResult.ErrorCode.MISPLACED_SEPARATOR, ",");
+        assertError("2 * 3 *", EvaluationResult.ErrorCode.MISSING_OPERAND, "*");
+        assertError("1 + 2 / 0", EvaluationResult.ErrorCode.DIVISION_BY_ZERO, "/");
+        assertError("2 * foo", EvaluationResult.ErrorCode.UNKNOWN_VARIABLE, "foo");
+        assertError("1 2", EvaluationResult.ErrorCode.TOO_MANY_OPERANDS, "1 2");
+        assertError("", EvaluationResult.ErrorCode.EMPTY_EXPRESSION, "");
+    }
+
+    @Test
+    void testTokenizerReportsFirstInvalidToken() {
+        assertFalse(tokenizer.tokenize("1 + 2 $ 3 # 4", infix, result));
+        assertEquals(EvaluationResult.ErrorCode.INVALID_TOKEN, result.errorCode());
+        assertEquals(6, result.offset(), "Das erste ungültige Zeichen sollte gemeldet werden");
+        assertEquals("Invalid token encountered: Invalid char: $", result.message());
+        assertEquals(7, infix.size(), "Der Puffer sollte trotzdem vollständig gefüllt sein");
+
+        assertTrue(tokenizer.tokenize("1 + 2", infix, result));
+        assertTrue(result.isOk());
+    }
+
+    // -------------------------------------------------------------------------
+    // 4. Reine Prüfung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testValidateFindsSameStructuralErrors() {
+        for (String expression : INVALID) {
+            tokenizer.tokenize(expression, infix);
+            boolean valid = shuntingYard.validate(infix, result);
+            EvaluationResult.ErrorCode validated = result.errorCode();
+            String validatedMessage = result.message();
+
+            evaluateWithResult(expression, Collections.emptyMap());
+            EvaluationResult.ErrorCode code = result.errorCode();
+            if (code == EvaluationResult.ErrorCode.UNKNOWN_VARIABLE || code == EvaluationResult.ErrorCode.DIVISION_BY_ZERO) {
+                assertTrue(valid, "\"" + expression + "\" scheitert erst bei der Auswertung");
+            } else {
+                assertFalse(valid, "\"" + expression + "\" sollte bei der Prüfung scheitern");
+                assertEquals(code, validated, "Fehlercode der Prüfung für \"" + expression + "\"");
+                assertEquals(result.message(), validatedMessage, "Meldung der Prüfung für \"" + expression + "\"");
+            }
+        }
+    }
+
+    @Test
+    void testValidateAcceptsValidExpressions() {
+        String[] valid = {"1", "-2 ^ 2", "max(1, min(2, 3)) * [x - 1]", "sqrt(abs(-16)) / 4", "((1))"};
+        for (String expression : valid) {
+            tokenizer.tokenize(expression, infix);
+            assertTrue(shuntingYard.validate(infix, result), "\"" + expression + "\" sollte gültig sein: " + result);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 5. Keine Allokation bei ungültigen Eingaben
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testErrorPathDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return; // Messung auf dieser JVM nicht verfügbar
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().threadId();
+        Map<String, Double> variables = Collections.emptyMap();
+
+        // Variablen werden über ihren Namen als String nachgeschlagen, auch im Erfolgsfall
+        String[] withoutVariables = java.util.Arrays.stream(INVALID)
+                .filter(expression -> expression.indexOf('x') < 0 && expression.indexOf('y') < 0)
+                .toArray(String[]::new);
+
+        for (int i = 0; i < 10_000; i++) { // Aufwärmen
+            for (String expression : withoutVariables) {
+                evaluateWithResult(expression, variables);
+            }
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            for (String expression : withoutVariables) {
+                evaluateWithResult(expression, variables);
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Kleine Toleranz für die Messung selbst
+        assertTrue(allocated < 1024, "Fehler sollten ohne Allokation gemeldet werden, war: " + allocated + " Bytes");
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit Tests für EvaluationServer und den JSON-Leser.
+ * Der Server läuft auf einem freien Port von localhost.
+ */
+public class EvaluationServerTest {
+
+    private EvaluationServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EvaluationServer(0, 1, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Hilfsmethode: sendet einen POST-Request mit JSON-Body.
+     */
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Endpunkte
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEinzelauswertung() throws Exception {
+        HttpResponse<String> response = post("/evaluate", "{\"expression\": \"3 + 4 * 2\"}");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"result\":11.0}", response.body());
+
+        response = post("/evaluate", "{\"expression\": \"x * [y - 1]\", \"variables\": {\"x\": 1.5, \"y\": 3}}");
+        assertEquals("{\"result\":3.0}", response.body());
+    }
+
+    @Test
+    void testFehlerhafterAusdruck() throws Exception {
+        HttpResponse<String> response = post("/evaluate", "{\"expression\": \"1 / 0\"}");
+        assertEquals(422, response.statusCode());
+        assertEquals("{\"error\":\"Division durch Null!\"}", response.body());
+
+        assertEquals(422, post("/evaluate", "{\"expression\": \"x + 1\"}").statusCode());
+    }
+
+    @Test
+    void testBatch() throws Exception {
+        HttpResponse<String> response = post("/evaluate/batch", "{\"expressions\": [\"1 + 2\", \"1 / 0\", \"2 ^ 3\"]}");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"results\":[{\"result\":3.0},{\"error\":\"Division durch Null!\"},{\"result\":8.0}],\"failures\":1}",
+                response.body());
+    }
+
+    @Test
+    void testUngueltigeAnfragen() throws Exception {
+        assertEquals(400, post("/evaluate", "{\"expression\": ").statusCode(), "Ungültiges JSON");
+        assertEquals(400, post("/evaluate", "{\"expr\": \"1\"}").statusCode(), "Feld fehlt");
+        assertEquals(400, post("/evaluate", "{\"expression\": \"x\", \"variables\": {\"x\": \"a\"}}").statusCode());
+        assertEquals(400, post("/evaluate/batch", "{\"expressions\": \"1 + 2\"}").statusCode());
+        assertEquals(404, post("/evaluate/unbekannt", "{}").statusCode());
+
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/evaluate")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Last
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testVolleWarteschlangeErgibt429() throws Exception {
+        // Den einzigen Platz (1 gleichzeitig, 0 wartend) selbst belegen
+        assertTrue(server.admissionLimit().enter());
+        try {
+            HttpResponse<String> response = post("/evaluate", "{\"expression\": \"1\"}");
+            assertEquals(429, response.statusCode());
+            assertEquals(1, server.getRejectedCount());
+        } finally {
+            server.admissionLimit().exit();
+        }
+        assertEquals(200, post("/evaluate", "{\"expression\": \"1\"}").statusCode());
+        // Der Platz wird erst nach dem Senden der Antwort freigegeben
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.admissionLimit().admitted() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, server.admissionLimit().admitted());
+    }
+
+    @Test
+    void testZulassungsgrenze() throws Exception {
+        EvaluationServer.AdmissionLimit limit = new EvaluationServer.AdmissionLimit(1, 1);
+        assertTrue(limit.enter());
+        Thread waiting = Thread.ofVirtual().start(() -> {
+            try {
+                limit.enter();
+                limit.exit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (limit.admitted() < 2) {
+            Thread.onSpinWait();
+        }
+        assertFalse(limit.enter(), "Warteschlange ist voll.");
+        limit.exit();
+        waiting.join();
+        assertEquals(0, limit.admitted());
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationServer.AdmissionLimit(0, 1));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. JSON
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testJson() {
+        Object value = Json.parse(" {\"a\": [1, -2.5e1, true, null], \"b\": \"x\\\"\\u00e4\\n\", \"c\": {}} ");
+        assertEquals(Map.of("a", java.util.Arrays.asList(1.0, -25.0, true, null), "b", "x\"ä\n", "c", Map.of()), value);
+        assertEquals(List.of(), Json.parse("[]"));
+
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": 1,}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1] 2"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[".repeat(100) + "]".repeat(100)));
+
+        assertEquals("\"a\\\"b\\n\"", Json.appendString(new StringBuilder(), "a\"b\n").toString());
+        assertEquals("\"NaN\"", Json.appendNumber(new StringBuilder(), Double.NaN).toString());
+    }
+}
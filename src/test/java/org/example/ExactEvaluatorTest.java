@@ -0,0 +1,232 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit Tests für ExactEvaluator.
+ * Prüft exakte Ergebnisse, den Wechsel von long auf BigDecimal und die Zähler der Rechenpfade.
+ */
+public class ExactEvaluatorTest {
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+
+    /**
+     * Hilfsmethode: Ausdruck einmal in die RPN-Liste übersetzen, wie sie jeder Modus annimmt.
+     */
+    private List<String> rpn(String expression) throws Exception {
+        List<String> result = new ArrayList<>();
+        for (Token token : shuntingYard.convertToRPN(tokenizer.tokenize(expression))) {
+            result.add(token.getValue());
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Exakte Ergebnisse
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testKeineBinaerenRundungsfehler() throws Exception {
+        List<String> rpn = rpn("0.1 + 0.2");
+        assertNotEquals(0.3, new RpnEvaluator().evaluate(rpn), "double rundet binär");
+        assertEquals(new BigDecimal("0.3"), new ExactEvaluator().evaluate(rpn));
+        assertEquals(new BigDecimal("0.3"),
+                new ExactEvaluator(ExactEvaluator.Mode.DECIMAL, MathContext.DECIMAL64).evaluate(rpn));
+
+        assertEquals(new BigDecimal("19.99"), new ExactEvaluator().evaluate(rpn("[1999 * 3 - 1999 * 2] / 100")));
+    }
+
+    @Test
+    void testGanzzahlenBleibenLong() throws Exception {
+        ExactEvaluator evaluator = new ExactEvaluator();
+        // 2^62 ist in double noch exakt, 2^62 + 1 nicht mehr
+        assertEquals(BigDecimal.valueOf(4611686018427387905L), evaluator.evaluate(rpn("2 ^ 62 + 1")));
+        assertEquals(BigDecimal.valueOf(-6), evaluator.evaluate(rpn("[12 / -4] * [7 - 5]")));
+        assertEquals(BigDecimal.ONE, evaluator.evaluate(rpn("-1 ^ -3 * -1")));
+
+        ExactEvaluator.Stats stats = evaluator.stats();
+        assertEquals(0, stats.overflowPromotions() + stats.fractionPromotions() + stats.decimalOperations(), stats.toString());
+        assertEquals(7, stats.longOperations(), stats.toString());
+    }
+
+    @Test
+    void testVariablen() throws Exception {
+        ExactEvaluator evaluator = new ExactEvaluator();
+        List<String> rpn = rpn("netto * [100 + satz] / 100");
+        Map<String, BigDecimal> values = Map.of("netto", new BigDecimal("19.99"), "satz", new BigDecimal("19"));
+        assertEquals(new BigDecimal("23.7881"), evaluator.evaluate(rpn, values));
+
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate(rpn, Map.of("netto", BigDecimal.ONE)));
+        assertEquals("Unbekannte Variable: satz", e.getMessage());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Wechsel auf BigDecimal
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testUeberlaufWechseltAufBigDecimal() throws Exception {
+        ExactEvaluator evaluator = new ExactEvaluator();
+        assertEquals(new BigDecimal("9223372036854775808"), evaluator.evaluate(rpn("9223372036854775807 + 1")));
+        assertEquals(new BigDecimal("1267650600228229401496703205376"), evaluator.evaluate(rpn("2 ^ 100")));
+        assertEquals(new BigDecimal("9223372036854775808"), evaluator.evaluate(rpn("-9223372036854775808 / -1")));
+        // Der Teilbaum über dem Überlauf bleibt BigDecimal
+        assertEquals(new BigDecimal("-1"), evaluator.evaluate(rpn("[9223372036854775807 * 2] - [9223372036854775807 * 2 + 1]")));
+
+        ExactEvaluator.Stats stats = evaluator.stats();
+        assertEquals(5, stats.overflowPromotions(), stats.toString());
+        assertEquals(2, stats.decimalOperations(), stats.toString());
+        assertEquals(0, stats.fractionPromotions(), stats.toString());
+    }
+
+    @Test
+    void testBruchWechseltAufBigDecimal() throws Exception {
+        ExactEvaluator evaluator = new ExactEvaluator(ExactEvaluator.Mode.EXACT, new MathContext(10));
+        assertEquals(new BigDecimal("3.5"), evaluator.evaluate(rpn("7 / 2")));
+        assertEquals(new BigDecimal("0.3333333333"), evaluator.evaluate(rpn("1 / 3")));
+        assertEquals(new BigDecimal("0.125"), evaluator.evaluate(rpn("2 ^ -3")));
+        assertEquals(new BigDecimal("1.414213562"), evaluator.evaluate(rpn("2 ^ 0.5")));
+        assertEquals(4, evaluator.stats().fractionPromotions(), "Drei Divisionen/Potenzen und die Zahl 0.5");
+
+        ExactEvaluator unlimited = new ExactEvaluator(ExactEvaluator.Mode.EXACT, MathContext.UNLIMITED);
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> unlimited.evaluate(rpn("1 / 3")));
+        assertTrue(e.getMessage().startsWith("Ergebnis nicht darstellbar"), e.getMessage());
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Dieselbe RPN in jedem Modus
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testAlleModiMitDerselbenRpn() throws Exception {
+        Random random = new Random(21);
+        ExactEvaluator exact = new ExactEvaluator();
+        ExactEvaluator decimal = new ExactEvaluator(ExactEvaluator.Mode.DECIMAL, MathContext.DECIMAL128);
+        RpnEvaluator doubles = new RpnEvaluator();
+        char[] operators = {'+', '-', '*', '/'};
+        for (int run = 0; run < 500; run++) {
+            StringBuilder expression = new StringBuilder().append(1 + random.nextInt(1000));
+            for (int i = 0; i < 6; i++) {
+                expression.append(' ').append(operators[random.nextInt(operators.length)]).append(" [")
+                        .append(random.nextInt(200) - 100).append(random.nextBoolean() ? ".25" : "")
+                        .append(" + ").append(1000 + random.nextInt(1000)).append(']');
+            }
+            List<String> rpn = rpn(expression.toString());
+            BigDecimal viaExact = exact.evaluate(rpn);
+            assertEquals(0, viaExact.compareTo(decimal.evaluate(rpn)), expression.toString());
+            assertEquals(doubles.evaluate(rpn), viaExact.doubleValue(), Math.abs(viaExact.doubleValue()) * 1e-12,
+                    expression.toString());
+        }
+        assertTrue(exact.stats().longOperations() > 0, exact.stats().toString());
+        assertEquals(0, decimal.stats().longOperations(), "DECIMAL rechnet nie mit long");
+    }
+
+    // -------------------------------------------------------------------------
+    // 4. Fehlerfälle wie im RpnEvaluator
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testFehlermeldungenWieRpnEvaluator() {
+        RpnEvaluator doubles = new RpnEvaluator();
+        List<List<String>> invalid = List.of(
+                List.of("1", "0", "/"),
+                List.of("1.5", "0.0", "/"),
+                List.of("1", "+"),
+                List.of("1", "max"),
+                List.of("sqrt"),
+                List.of("1", "2"),
+                List.of(),
+                List.of("1", "2x", "+"));
+        for (ExactEvaluator.Mode mode : ExactEvaluator.Mode.values()) {
+            ExactEvaluator evaluator = new ExactEvaluator(mode, MathContext.DECIMAL128);
+            for (List<String> rpn : invalid) {
+                String expected = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                        () -> doubles.evaluate(rpn)).getMessage();
+                String actual = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                        () -> evaluator.evaluate(rpn)).getMessage();
+                assertEquals(expected, actual, mode + " " + rpn);
+            }
+            assertEquals("Division durch Null!", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                    () -> evaluator.evaluate(List.of("0", "-2", "^"))).getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ExactEvaluator(null, MathContext.DECIMAL64));
+        assertThrows(IllegalArgumentException.class, () -> new ExactEvaluator(ExactEvaluator.Mode.EXACT, null));
+    }
+
+    // -------------------------------------------------------------------------
+    // 5. Funktionen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testFunktionenExakt() throws Exception {
+        ExactEvaluator evaluator = new ExactEvaluator(ExactEvaluator.Mode.EXACT, new MathContext(10));
+        assertEquals(BigDecimal.valueOf(2), evaluator.evaluate(List.of("1", "2", "max")));
+        assertEquals(new BigDecimal("0.1"), evaluator.evaluate(rpn("min(0.1, 0.2) + max(-1, -2) + 1")));
+        assertEquals(new BigDecimal("9223372036854775808"), evaluator.evaluate(rpn("abs(-9223372036854775808)")));
+        assertEquals(BigDecimal.valueOf(3037000499L), evaluator.evaluate(rpn("sqrt(9223372030926249001)")));
+        assertEquals(new BigDecimal("1.414213562"), evaluator.evaluate(rpn("sqrt(2)")));
+        assertEquals(new BigDecimal("1.5"), evaluator.evaluate(rpn("sqrt(2.25)")));
+        assertEquals(new BigDecimal("4.5"), evaluator.evaluate(rpn("abs(x) * 1.5"), Map.of("x", BigDecimal.valueOf(-3))));
+
+        ExactEvaluator counting = new ExactEvaluator();
+        counting.evaluate(rpn("max(sqrt(16), abs(-3)) * 2"));
+        assertEquals(4, counting.stats().longOperations(), "Quadratzahlen und Ganzzahlen bleiben long");
+    }
+
+    @Test
+    void testFunktionenWieDouble() throws Exception {
+        Random random = new Random(5);
+        ExactEvaluator exact = new ExactEvaluator();
+        ExactEvaluator decimal = new ExactEvaluator(ExactEvaluator.Mode.DECIMAL, MathContext.DECIMAL128);
+        RpnEvaluator doubles = new RpnEvaluator();
+        String[] functions = {"min", "max"};
+        for (int run = 0; run < 500; run++) {
+            StringBuilder expression = new StringBuilder("sqrt(").append(random.nextInt(10_000)).append(')');
+            for (int i = 0; i < 4; i++) {
+                expression.insert(0, functions[random.nextInt(2)] + "(abs(" + (random.nextInt(200) - 100)
+                        + (random.nextBoolean() ? ".5" : "") + "), ").append(") - 3");
+            }
+            List<String> rpn = rpn(expression.toString());
+            BigDecimal viaExact = exact.evaluate(rpn);
+            assertEquals(0, viaExact.compareTo(decimal.evaluate(rpn)), expression.toString());
+            assertEquals(doubles.evaluate(rpn), viaExact.doubleValue(), Math.abs(viaExact.doubleValue()) * 1e-12,
+                    expression.toString());
+        }
+    }
+
+    @Test
+    void testNichtExaktUnterstuetzt() {
+        ExactEvaluator evaluator = new ExactEvaluator();
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate(rpn("sqrt(1 - 2)")));
+        assertEquals("Ergebnis nicht darstellbar: sqrt(-1)", e.getMessage());
+
+        ExactEvaluator unlimited = new ExactEvaluator(ExactEvaluator.Mode.EXACT, MathContext.UNLIMITED);
+        assertEquals(BigDecimal.valueOf(12), assertDoesNotThrow(() -> unlimited.evaluate(rpn("sqrt(144)"))));
+        assertTrue(assertThrows(RpnEvaluator.RpnEvaluationException.class, () -> unlimited.evaluate(rpn("sqrt(2)")))
+                .getMessage().startsWith("Ergebnis nicht darstellbar"));
+
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]));
+        registry.registerOperator('%', 2, true, (a, i) -> a[i] % a[i + 1]);
+        ExactEvaluator custom = new ExactEvaluator(ExactEvaluator.Mode.EXACT, MathContext.DECIMAL64, registry);
+        assertEquals(BigDecimal.valueOf(5), assertDoesNotThrow(() -> custom.evaluate(List.of("3", "5", "max"))));
+        assertEquals("Funktion nicht exakt unterstützt: hypot", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> custom.evaluate(List.of("3", "4", "hypot"))).getMessage());
+        assertEquals("Operator nicht exakt unterstützt: %", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> custom.evaluate(List.of("7", "4", "%"))).getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExactEvaluator(ExactEvaluator.Mode.EXACT, MathContext.DECIMAL64, null));
+    }
+}
@@ -0,0 +1,152 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit Tests für den ExpressionCache.
+ * Überprüft Treffer/Fehlzugriffe, die Begrenzung nach Einträgen und Bytes,
+ * die Scan-Resistenz der TinyLFU-Admission und die Thread-Sicherheit.
+ */
+public class ExpressionCacheTest {
+
+    private static final double DELTA = 1e-9;
+
+    // -------------------------------------------------------------------------
+    // 1. Grundfunktionen und Statistik
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testHitsAndMisses() throws Exception {
+        ExpressionCache cache = new ExpressionCache(10, 1 << 20);
+        assertEquals(16.0, cache.evaluate("7+(3*3)/(4-3)^2"), DELTA);
+        assertEquals(16.0, cache.evaluate("7+(3*3)/(4-3)^2"), DELTA);
+        assertEquals(16.0, cache.evaluate("7+(3*3)/(4-3)^2"), DELTA);
+
+        ExpressionCache.Stats stats = cache.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(2, stats.hits());
+        assertEquals(2.0 / 3.0, stats.hitRate(), DELTA);
+        assertEquals(1, stats.entries());
+        assertTrue(stats.estimatedBytes() > 0);
+        assertTrue(stats.totalLoadTimeNanos() > 0);
+    }
+
+    @Test
+    void testCachedEntryHoldsRpnAndProgram() throws Exception {
+        ExpressionCache cache = new ExpressionCache(10, 1 << 20);
+        CompiledExpression compiled = cache.get("3 + 4 * 2");
+        assertEquals("[3, 4, 2, *, +]", compiled.getRpnTokens().toString());
+        assertSame(compiled, cache.get("3 + 4 * 2"), "Ein Treffer sollte dieselbe Instanz liefern.");
+    }
+
+    @Test
+    void testSpecialValuesAreConstants() throws Exception {
+        ExpressionCache cache = new ExpressionCache(10, 100000);
+        BufferPipeline pipeline = new BufferPipeline(new PipelineMetrics(false));
+        for (String expression : new String[] {"Infinity - 1", "NaN * 0", "2 / Infinity"}) {
+            assertEquals(pipeline.evaluate(expression), cache.evaluate(expression), "Wie die Pipeline: " + expression);
+        }
+        assertEquals(0, cache.get("Infinity - 1").getProgram().getVariableCount(),
+                "NaN und Infinity sind keine Variablen");
+    }
+
+    @Test
+    void testInvalidExpressionsAreNotCached() {
+        ExpressionCache cache = new ExpressionCache(10, 1 << 20);
+        Exception exception = assertThrows(Exception.class, () -> cache.get("1 + (2"));
+        assertTrue(exception.getMessage().contains("Missing ')'"));
+        assertFalse(cache.contains("1 + (2"));
+        assertEquals(1, cache.stats().loadFailures());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Begrenzung und Admission
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEntryCountIsBounded() throws Exception {
+        ExpressionCache cache = new ExpressionCache(5, 1 << 20);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20; i++) {
+                cache.get(i + " + 1");
+            }
+        }
+        assertTrue(cache.size() <= 5, "Der Cache darf nicht mehr als 5 Einträge enthalten: " + cache.size());
+    }
+
+    @Test
+    void testByteLimitIsRespected() throws Exception {
+        long limit = 2_000;
+        ExpressionCache cache = new ExpressionCache(1000, limit);
+        for (int i = 0; i < 50; i++) {
+            // Jeder neue Ausdruck wird häufiger genutzt als seine Vorgänger
+            for (int j = 0; j <= i % 10; j++) {
+                cache.get("1 + 2 * 3 - " + i);
+            }
+            assertTrue(cache.stats().estimatedBytes() <= limit);
+        }
+        assertTrue(cache.stats().evictions() > 0, "Häufigere Ausdrücke sollten ältere verdrängen.");
+    }
+
+    @Test
+    void testScanDoesNotEvictFrequentEntries() throws Exception {
+        ExpressionCache cache = new ExpressionCache(4, 1 << 20);
+        String[] hot = {"1 + 1", "2 + 2", "3 + 3", "4 + 4"};
+        for (int i = 0; i < 5; i++) {
+            for (String expression : hot) {
+                cache.get(expression);
+            }
+        }
+        // Scan über viele einmalige Ausdrücke, zwischendurch weiter normale Last.
+        // Ein reiner LRU-Cache würde hier alle häufigen Einträge verlieren.
+        for (int i = 0; i < 500; i++) {
+            cache.get("100 * " + i);
+            if (i % 10 == 9) {
+                for (String expression : hot) {
+                    cache.get(expression);
+                }
+            }
+        }
+        for (String expression : hot) {
+            assertTrue(cache.contains(expression), "Häufiger Ausdruck wurde verdrängt: " + expression);
+        }
+        assertTrue(cache.stats().rejections() > 0);
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Nebenläufigkeit
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        ExpressionCache cache = new ExpressionCache(16, 1 << 20);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        int n = i % 32;
+                        assertEquals(n * 2.0, cache.evaluate(n + " * 2"), DELTA);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        ExpressionCache.Stats stats = cache.stats();
+        assertEquals(8_000, stats.hits() + stats.misses());
+        assertTrue(stats.entries() <= 16);
+    }
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit Tests für FastDoubleParser.
+ * Differenztest gegen Double.parseDouble: jedes Ergebnis muss bitgenau übereinstimmen.
+ */
+public class FastDoubleParserTest {
+
+    /**
+     * Hilfsmethode: vergleicht Bits bzw. die Exception mit Double.parseDouble.
+     */
+    private static void assertSameAsParseDouble(String text) {
+        double expected;
+        try {
+            expected = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            assertThrows(NumberFormatException.class, () -> FastDoubleParser.parse(text, 0, text.length()),
+                    "\"" + text + "\"");
+            return;
+        }
+        double actual = FastDoubleParser.parse(text, 0, text.length());
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual),
+                "\"" + text + "\": " + expected + " != " + actual);
+    }
+
+    /**
+     * Hilfsmethode: zufällige Dezimalzahl mit 1 bis 25 Ziffern, Punkt und Exponent.
+     */
+    private static String randomDecimal(Random random) {
+        StringBuilder text = new StringBuilder();
+        if (random.nextInt(4) == 0) {
+            text.append(random.nextBoolean() ? '-' : '+');
+        }
+        int digits = 1 + random.nextInt(25);
+        int point = random.nextInt(digits + 2) - 1;
+        for (int i = 0; i < digits; i++) {
+            if (i == point) {
+                text.append('.');
+            }
+            text.append((char) ('0' + random.nextInt(10)));
+        }
+        if (random.nextBoolean()) {
+            text.append(random.nextBoolean() ? 'e' : 'E').append(random.nextInt(700) - 350);
+        }
+        return text.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Differenztest
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testZufaelligeDezimalzahlen() {
+        Random random = new Random(22);
+        for (int i = 0; i < 300_000; i++) {
+            assertSameAsParseDouble(randomDecimal(random));
+        }
+    }
+
+    @Test
+    void testZufaelligeDoubles() {
+        // Kürzeste Darstellung (17 Stellen) und exakte Dezimalentwicklung beliebiger Bitmuster
+        Random random = new Random(221);
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            assertSameAsParseDouble(Double.toString(value));
+            assertSameAsParseDouble(String.format("%.17e", value));
+            if (i % 10 == 0) {
+                assertSameAsParseDouble(new BigDecimal(value).toString());
+            }
+        }
+    }
+
+    @Test
+    void testHalbwegfaelle() {
+        // Genau zwischen zwei benachbarten doubles entscheidet round-half-even;
+        // knapp daneben muss in die jeweilige Richtung gerundet werden
+        Random random = new Random(222);
+        BigDecimal half = new BigDecimal("0.5");
+        for (int i = 0; i < 20_000; i++) {
+            double value = random.nextInt(3) == 0
+                    ? Double.longBitsToDouble(random.nextLong() & 0x7FEF_FFFF_FFFF_FFFFL)
+                    : random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+            BigDecimal lower = new BigDecimal(value);
+            BigDecimal middle = lower.add(new BigDecimal(Math.nextUp(value))).multiply(half);
+            BigDecimal epsilon = BigDecimal.ONE.movePointLeft(middle.scale() + 3);
+            assertSameAsParseDouble(middle.toString());
+            assertSameAsParseDouble(middle.add(epsilon).toString());
+            assertSameAsParseDouble(middle.subtract(epsilon).toString());
+        }
+    }
+
+    @Test
+    void testGrenzfaelle() {
+        List<String> cases = List.of(
+                "0", "-0", "0.0", "-0.0e10", "1", "9007199254740992", "9007199254740993", "9007199254740995",
+                "1e23", "8.988465674311579e307", "1.7976931348623157e308", "1.7976931348623158e308",
+                "1.7976931348623159e308", "1e309", "2.2250738585072014e-308", "2.2250738585072011e-308",
+                "4.9e-324", "2.4703282292062328e-324", "2.4703282292062327e-324", "1e-400",
+                "7.2057594037927933e16", "123456789012345678901234567890", "0.000000000000000000000000000001",
+                "1.00000000000000011102230246251565404236316680908203125",
+                "1.00000000000000011102230246251565404236316680908203124",
+                "1.00000000000000011102230246251565404236316680908203126",
+                "1.", ".5", "-.5", "+1", "1e+5", "1E-5", "00000000000000000000000000001.5");
+        for (String text : cases) {
+            assertSameAsParseDouble(text);
+        }
+    }
+
+    @Test
+    void testSonderfaelleGehenAnParseDouble() {
+        List<String> cases = List.of("NaN", "-Infinity", "Infinity", "0x1p3", " 1", "1 ", "1d", "2f",
+                "", "-", "+", ".", "1e", "1e+", "1..2", "1.2.3", "e5", "--1", "1x", "٣");
+        for (String text : cases) {
+            assertSameAsParseDouble(text);
+        }
+        // Bereich innerhalb eines längeren Textes
+        assertEquals(12.5, FastDoubleParser.parse("x=12.5;", 2, 6));
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Tokenizer und Schnellpfad
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testTokenizerParstJedeZahlBitgenau() {
+        Random random = new Random(223);
+        Tokenizer tokenizer = new Tokenizer();
+        TokenBuffer buffer = new TokenBuffer();
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder number = new StringBuilder();
+            int digits = 1 + random.nextInt(30);
+            int point = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == point) {
+                    number.append('.');
+                }
+                number.append((char) ('0' + random.nextInt(10)));
+            }
+            String text = number.toString();
+            tokenizer.tokenize("1 + " + text, buffer);
+            assertEquals(TokenBuffer.NUMBER, buffer.type(2), text);
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)),
+                    Double.doubleToRawLongBits(buffer.value(2)), text);
+            // Die Token-Liste behält den Wert, damit er nicht erneut geparst werden muss
+            assertEquals(buffer.value(2), buffer.toTokens().get(2).getNumber(), text);
+        }
+    }
+
+    @Test
+    void testSchnellpfadEntscheidetFastImmer() {
+        Random random = new Random(224);
+        int undecided = 0;
+        for (int i = 0; i < 100_000; i++) {
+            // 17 signifikante Ziffern und Exponent wie bei Double.toString
+            long significand = 10_000_000_000_000_000L + (random.nextLong() >>> 1) % 90_000_000_000_000_000L;
+            if (Double.isNaN(FastDoubleParser.toDouble(significand, 17, random.nextInt(600) - 320))) {
+                undecided++;
+            }
+        }
+        assertTrue(undecided < 1000, "Fallback auf parseDouble sollte selten sein: " + undecided);
+    }
+}
@@ -0,0 +1,192 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit Tests für FormulaGraph.
+ * Prüft Werte, Zyklen, topologische Ordnung und den Umfang jeder Neuberechnung.
+ */
+public class FormulaGraphTest {
+
+    // -------------------------------------------------------------------------
+    // 1. Werte und Abhängigkeiten
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testKetteUndNeuberechnung() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.set("preis", 2.5);
+            graph.set("menge", 4);
+            graph.define("netto", "preis * menge");
+            graph.define("brutto", "netto * 1.19");
+            graph.define("rabatt", "[menge - 1] * 0.5");
+            assertEquals(10.0, graph.value("netto"));
+            assertEquals(11.9, graph.value("brutto"), 1e-12);
+
+            FormulaGraph.Update update = graph.set("preis", 3);
+            assertEquals(3, update.touchedCells(), "preis, netto und brutto, aber nicht rabatt");
+            assertEquals(2, update.levels());
+            assertEquals(14.28, graph.value("brutto"), 1e-12);
+            assertEquals(1.5, graph.value("rabatt"));
+        }
+    }
+
+    @Test
+    void testFunktionenInFormeln() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.set("b", -4);
+            graph.define("a", "max(b, 1)");
+            graph.define("c", "sqrt(abs(b)) + min(a, b)");
+            assertEquals(1.0, graph.value("a"));
+            assertEquals(-2.0, graph.value("c"));
+
+            graph.set("b", 9);
+            assertEquals(9.0, graph.value("a"));
+            assertEquals(12.0, graph.value("c"));
+        }
+    }
+
+    @Test
+    void testUnveraenderterWertStopptDieNeuberechnung() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.set("x", 3);
+            graph.define("vorzeichen", "x / [x ^ 2] ^ 0.5");
+            graph.define("a", "vorzeichen * 10");
+            graph.define("b", "a + 1");
+
+            FormulaGraph.Update update = graph.set("x", 5);
+            assertEquals(2, update.touchedCells(), "vorzeichen bleibt 1, a und b werden nicht berechnet");
+            assertEquals(1, update.changedCells());
+            assertEquals(11.0, graph.value("b"));
+
+            assertEquals(1, graph.set("x", 5).touchedCells(), "Gleicher Wert: nichts zu berechnen");
+        }
+    }
+
+    @Test
+    void testFehlerUndNichtDefinierteZellen() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.define("quote", "treffer / versuche");
+            graph.define("prozent", "quote * 100");
+            assertEquals("Unbekannte Variable: treffer", graph.error("quote"));
+            assertEquals("Fehler in Abhängigkeit: quote", graph.error("prozent"));
+            assertFalse(graph.contains("treffer"), "Referenzierte Namen werden nicht definiert.");
+
+            graph.set("treffer", 3);
+            graph.set("versuche", 0);
+            assertEquals("Division durch Null!", graph.error("quote"));
+            assertThrows(IllegalStateException.class, () -> graph.value("prozent"));
+
+            graph.set("versuche", 4);
+            assertEquals(75.0, graph.value("prozent"));
+            assertNull(graph.error("prozent"));
+
+            graph.remove("treffer");
+            assertEquals("Unbekannte Variable: treffer", graph.error("quote"));
+            assertThrows(IllegalArgumentException.class, () -> graph.value("treffer"));
+        }
+    }
+
+    @Test
+    void testUngueltigeDefinitionenAendernNichts() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.define("a", "1 + 2");
+            assertThrows(Exception.class, () -> graph.define("a", "(1 + 2"));
+            assertThrows(IllegalArgumentException.class, () -> graph.define("1a", "1"));
+            Exception function = assertThrows(Exception.class, () -> graph.define("b", "max + 1"));
+            assertEquals("Missing '(' after function: max", function.getMessage(), "Funktionsnamen sind keine Zellen");
+            assertFalse(graph.contains("max"));
+            assertEquals(3.0, graph.value("a"));
+            assertEquals("1 + 2", graph.expression("a"));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Zyklen und topologische Ordnung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testZyklenWerdenAbgelehnt() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.define("a", "b + 1");
+            graph.define("b", "c * 2");
+            graph.set("c", 1);
+
+            FormulaGraph.CycleException e = assertThrows(FormulaGraph.CycleException.class,
+                    () -> graph.define("c", "a - 1"));
+            assertEquals(List.of("c", "a", "b", "c"), e.getCycle());
+            assertEquals("Zyklische Abhängigkeit: c -> a -> b -> c", e.getMessage());
+            assertEquals(3.0, graph.value("a"), "Graph bleibt unverändert");
+
+            e = assertThrows(FormulaGraph.CycleException.class, () -> graph.define("d", "d + 1"));
+            assertEquals(List.of("d", "d"), e.getCycle());
+            assertFalse(graph.contains("d"));
+        }
+    }
+
+    @Test
+    void testTopologischeOrdnungNachUmdefinition() throws Exception {
+        try (FormulaGraph graph = new FormulaGraph()) {
+            graph.define("summe", "a + b");
+            graph.set("a", 1);
+            graph.set("b", 2);
+            graph.define("doppelt", "summe * 2");
+            // b hängt jetzt von einer neuen Kette ab: die Ordnung muss nachgeführt werden
+            graph.define("c", "7");
+            graph.define("d", "c + 1");
+            graph.define("b", "d * 10");
+            List<String> order = graph.topologicalOrder();
+            assertTrue(order.indexOf("d") < order.indexOf("b"));
+            assertTrue(order.indexOf("b") < order.indexOf("summe"));
+            assertTrue(order.indexOf("summe") < order.indexOf("doppelt"));
+            assertEquals(162.0, graph.value("doppelt"));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Parallele Neuberechnung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testParallelWieSequentiell() throws Exception {
+        Random random = new Random(20);
+        Map<String, String> formulas = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            // Jede Zelle referenziert bis zu drei Zellen mit kleinerem Index
+            StringBuilder formula = new StringBuilder("e0 + " + i);
+            for (int r = 0; r < 3 && i > 1; r++) {
+                formula.append(" * 0.5 + c").append(1 + random.nextInt(i - 1));
+            }
+            formulas.put("c" + i, formula.toString());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (FormulaGraph parallel = new FormulaGraph(pool, 8);
+             FormulaGraph sequential = new FormulaGraph(ForkJoinPool.commonPool(), Integer.MAX_VALUE)) {
+            for (FormulaGraph graph : List.of(parallel, sequential)) {
+                graph.set("e0", 1);
+                for (int i = 0; i < 2000; i++) {
+                    graph.define("c" + i, formulas.get("c" + i));
+                }
+            }
+            FormulaGraph.Update update = parallel.set("e0", 2);
+            FormulaGraph.Update reference = sequential.set("e0", 2);
+            assertEquals(2001, update.touchedCells(), "Alle Zellen hängen von e0 ab");
+            assertEquals(reference.touchedCells(), update.touchedCells());
+            assertTrue(update.parallelLevels() > 0, "Breite Ebenen werden parallel berechnet: " + update);
+            assertEquals(0, reference.parallelLevels());
+            for (int i = 0; i < 2000; i++) {
+                assertEquals(sequential.value("c" + i), parallel.value("c" + i), "c" + i);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit Tests für IncrementalParser.
+ * Nach jeder Änderung müssen Tokens und Baum denen einer vollständigen Neuzerlegung entsprechen.
+ */
+public class IncrementalParserTest {
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final AstBuilder builder = new AstBuilder();
+
+    /**
+     * Hilfsmethode: Tokens als Text mit Typ, damit auch Typunterschiede auffallen.
+     */
+    private static List<String> describe(List<Token> tokens) {
+        List<String> result = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            result.add(token.getType() + ":" + token.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Hilfsmethode: Baum vollständig geklammert als Text (iterativ, auch für tiefe Bäume).
+     */
+    private static String render(AstNode root) {
+        Map<AstNode, String> text = new IdentityHashMap<>();
+        for (AstNode node : AstNode.postorder(root)) {
+            text.put(node, node.isLeaf() ? node.getValue()
+                    : "(" + text.get(node.getLeft()) + " " + node.getValue() + " " + text.get(node.getRight()) + ")");
+        }
+        return text.get(root);
+    }
+
+    private String viaIncremental(IncrementalParser parser) {
+        try {
+            return render(parser.parse());
+        } catch (Exception e) {
+            return "Fehler: " + e.getMessage();
+        }
+    }
+
+    private String viaPipeline(String expression) {
+        try {
+            return render(builder.build(shuntingYard.convertToRPN(tokenizer.tokenize(expression))));
+        } catch (Exception e) {
+            return "Fehler: " + e.getMessage();
+        }
+    }
+
+    private void assertSameAsFullRun(IncrementalParser parser, String context) {
+        String expression = parser.getText();
+        assertEquals(describe(tokenizer.tokenize(expression)), describe(parser.getTokens()), context);
+        assertEquals(viaPipeline(expression), viaIncremental(parser), context);
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Neuzerlegen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEinfacheAenderungen() throws Exception {
+        IncrementalParser parser = new IncrementalParser("12 + x");
+        parser.edit(2, 0, "3");
+        assertEquals("123 + x", parser.getText());
+        assertEquals(List.of("NUMBER:123", "OPERATOR:+", "VARIABLE:x"), describe(parser.getTokens()),
+                "Angrenzende Ziffern verschmelzen mit dem alten Token.");
+
+        parser.edit(6, 1, "[y * 2]");
+        assertEquals("123 + [y * 2]", parser.getText());
+        assertEquals("(123 + (y * 2))", render(parser.parse()));
+
+        parser.edit(0, 6, "");
+        assertEquals("[y * 2]", parser.getText());
+        assertSameAsFullRun(parser, "Löschen am Anfang");
+    }
+
+    @Test
+    void testVorzeichenKontextHinterDerAenderung() {
+        // Das Minus steht hinter der Änderung, sein Typ hängt aber vom Token davor ab
+        IncrementalParser parser = new IncrementalParser("a -1");
+        assertEquals(List.of("VARIABLE:a", "OPERATOR:-", "NUMBER:1"), describe(parser.getTokens()));
+
+        parser.edit(1, 0, "+");
+        assertEquals("a+ -1", parser.getText());
+        assertEquals(List.of("VARIABLE:a", "OPERATOR:+", "NUMBER:-1"), describe(parser.getTokens()));
+
+        parser.edit(1, 1, "");
+        assertEquals(List.of("VARIABLE:a", "OPERATOR:-", "NUMBER:1"), describe(parser.getTokens()));
+
+        parser.edit(0, 1, "(");
+        assertEquals(List.of("LPARENNORMAL:(", "NUMBER:-1"), describe(parser.getTokens()));
+    }
+
+    @Test
+    void testUngueltigerBereich() {
+        IncrementalParser parser = new IncrementalParser("1 + 2");
+        assertThrows(IndexOutOfBoundsException.class, () -> parser.edit(4, 2, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> parser.edit(-1, 0, "x"));
+        assertEquals("1 + 2", parser.getText(), "Ungültige Änderungen lassen den Text unverändert.");
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Aufwand hängt von der Änderung ab, nicht von der Formellänge
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testAufwandEinerKleinenAenderung() throws Exception {
+        // Summe aus 64 Gruppen zu je 64 Gruppen: einige zehntausend Tokens
+        StringBuilder formula = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            formula.append(i == 0 ? "(" : " + (");
+            for (int j = 0; j < 64; j++) {
+                formula.append(j == 0 ? "" : " * ").append("[x").append(j).append(" - ").append(i + j).append(']');
+            }
+            formula.append(')');
+        }
+        IncrementalParser parser = new IncrementalParser(formula.toString());
+        int tokens = parser.getTokenCount();
+        assertTrue(tokens > 20000, "Formel sollte groß sein: " + tokens);
+        parser.parse();
+
+        // Eine Ziffer in der Mitte anhängen
+        int offset = formula.indexOf("- 40]", formula.length() / 2) + 4;
+        parser.edit(offset, 0, "7");
+        assertEquals(1, parser.getLastRelexedTokens(), "Nur die geänderte Zahl wird neu zerlegt.");
+        AstNode tree = parser.parse();
+        assertTrue(parser.getLastParsedTokens() < 400,
+                "Nur die Klammerebenen um die Änderung werden gelesen: " + parser.getLastParsedTokens());
+        assertTrue(parser.getLastReusedGroups() > 100, "Gruppen werden übernommen: " + parser.getLastReusedGroups());
+        assertEquals(viaPipeline(parser.getText()), render(tree));
+
+        // Ohne Änderung wird jede Gruppe auf oberster Ebene übernommen
+        parser.parse();
+        assertEquals(64, parser.getLastReusedGroups());
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Differenztest
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testZufaelligeAenderungenWieVollstaendigerLauf() {
+        Random random = new Random(19);
+        String alphabet = "0123456789..+-*/^()[] xy_-(";
+        for (int run = 0; run < 200; run++) {
+            IncrementalParser parser = new IncrementalParser("(1 + x) * [2 - -3] ^ y");
+            for (int step = 0; step < 50; step++) {
+                String before = parser.getText();
+                int offset = random.nextInt(before.length() + 1);
+                int removed = random.nextInt(Math.min(3, before.length() - offset) + 1);
+                StringBuilder inserted = new StringBuilder();
+                int count = random.nextInt(4);
+                for (int i = 0; i < count; i++) {
+                    inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                parser.edit(offset, removed, inserted.toString());
+                // Nicht nach jeder Änderung parsen, damit sich Änderungen ansammeln
+                if (random.nextInt(3) > 0) {
+                    assertSameAsFullRun(parser, "\"" + before + "\" -> edit(" + offset + ", " + removed
+                            + ", \"" + inserted + "\")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testZufaelligeGueltigeAenderungen() throws Exception {
+        // Ziffern und Operatoren austauschen: der Ausdruck bleibt wohlgeformt, gemerkte Gruppen werden genutzt
+        Random random = new Random(191);
+        String start = "[(1 + x) * (2 - -3)] ^ [y / (4 + [5 * 6])] - ((7 - 8) * 9) + [x ^ (2 - 1)]";
+        IncrementalParser parser = new IncrementalParser(start);
+        int reused = 0;
+        for (int step = 0; step < 2000; step++) {
+            String text = parser.getText();
+            int offset = random.nextInt(text.length());
+            char c = text.charAt(offset);
+            if (Character.isDigit(c)) {
+                parser.edit(offset, 1, String.valueOf((char) ('0' + random.nextInt(10))));
+            } else if ("+*/^".indexOf(c) >= 0) {
+                parser.edit(offset, 1, String.valueOf("+*/^".charAt(random.nextInt(4))));
+            } else {
+                continue;
+            }
+            assertEquals(viaPipeline(parser.getText()), render(parser.parse()), parser.getText());
+            reused += parser.getLastReusedGroups();
+        }
+        assertTrue(reused > 1000, "Gemerkte Gruppen sollten übernommen werden: " + reused);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests für die primitive IntStack-Klasse.
+ */
+public class IntStackTest {
+
+    @Test
+    void testPushPopPeek() {
+        IntStack stack = new IntStack(1);
+        stack.push(7);
+        stack.push(8);
+        assertEquals(8, stack.peek());
+        assertEquals(8, stack.pop());
+        assertEquals(7, stack.pop());
+        assertThrows(IndexOutOfBoundsException.class, stack::pop);
+    }
+
+    @Test
+    void testBulkOperations() {
+        IntStack stack = new IntStack();
+        stack.pushAll(new int[] {9, 1, 2, 3, 9}, 1, 3);
+        int[] target = new int[2];
+        stack.popN(2, target, 0);
+        assertArrayEquals(new int[] {2, 3}, target);
+        assertEquals(1, stack.peek());
+    }
+}
@@ -0,0 +1,54 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests für die primitive LongStack-Klasse.
+ */
+public class LongStackTest {
+
+    @Test
+    void testPushPopPeek() {
+        LongStack stack = new LongStack(1);
+        stack.push(7);
+        stack.push(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, stack.peek());
+        assertEquals(Long.MAX_VALUE, stack.pop());
+        assertEquals(7, stack.pop());
+        assertTrue(stack.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, stack::pop);
+        assertThrows(IndexOutOfBoundsException.class, stack::peek);
+    }
+
+    @Test
+    void testBulkOperations() {
+        LongStack stack = new LongStack();
+        stack.pushAll(new long[] {9, 1, 2, 3, 9}, 1, 3);
+        stack.pushAll(new long[] {4, 5});
+        long[] target = new long[3];
+        stack.popN(2, target, 1);
+        assertArrayEquals(new long[] {0, 4, 5}, target);
+        stack.popN(1);
+        assertEquals(2, stack.size());
+        assertEquals(2, stack.peek());
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.popN(3));
+    }
+
+    @Test
+    void testCapacityGrowsAndClearKeepsIt() {
+        LongStack stack = new LongStack(0);
+        assertEquals(1, stack.capacity(), "Mindestkapazität ist 1");
+        for (long i = 0; i < 100; i++) {
+            stack.push(i);
+        }
+        assertTrue(stack.capacity() >= 100);
+        stack.pushAll(new long[1000]);
+        assertEquals(1100, stack.size());
+        int capacity = stack.capacity();
+        stack.clear();
+        assertTrue(stack.isEmpty());
+        assertEquals(capacity, stack.capacity(), "clear() sollte die Kapazität behalten");
+    }
+}
@@ -0,0 +1,296 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit Tests für die OperatorRegistry.
+ * Prüft Funktionen und eigene Operatoren in allen Stufen der Pipeline, die
+ * dichte Vergabe der Opcodes und die Fehlermeldungen.
+ */
+public class OperatorRegistryTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Hilfsmethode: wertet einen Ausdruck über die Token-Liste, den Puffer,
+     * den Interpreter und (falls übersetzbar) den Bytecode aus und prüft, dass
+     * alle Wege dasselbe Ergebnis liefern.
+     */
+    private static double evaluateEverywhere(OperatorRegistry registry, String expression,
+                                             Map<String, Double> variables) throws Exception {
+        Tokenizer tokenizer = new Tokenizer(registry);
+        ShuntingYard shuntingYard = new ShuntingYard(registry);
+        RpnEvaluator evaluator = new RpnEvaluator(registry);
+
+        List<Token> rpnTokens = shuntingYard.convertToRPN(tokenizer.tokenize(expression));
+        List<String> rpn = new ArrayList<>();
+        for (Token token : rpnTokens) {
+            rpn.add(token.getValue());
+        }
+        double viaList = evaluator.evaluate(rpn, variables);
+
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer postfix = new TokenBuffer();
+        tokenizer.tokenize(expression, infix);
+        shuntingYard.convertToRPN(infix, postfix);
+        assertEquals(rpn.toString(), postfix.toTokens().stream().map(Token::getValue).toList().toString(), expression);
+        assertEquals(viaList, evaluator.evaluate(postfix, new DoubleStack(), variables), 0.0, expression);
+
+        RpnProgram program = new RpnCompiler(registry).compile(postfix);
+        assertEquals(program.toString(), new RpnCompiler(registry).compile(rpnTokens).toString(), expression);
+        double[] values = new double[program.getVariableCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = variables.get(program.getVariableNames()[i]);
+        }
+        assertEquals(viaList, new RpnInterpreter().execute(program, values), 0.0, expression);
+        return viaList;
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Vordefinierte Funktionen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testVordefinierteFunktionen() throws Exception {
+        OperatorRegistry standard = OperatorRegistry.standard();
+        assertEquals(7.0, evaluateEverywhere(standard, "max(2, 3) * sqrt(16) - abs(-5)", Map.of()), DELTA);
+        assertEquals(-1.0, evaluateEverywhere(standard, "max(-1, -2)", Map.of()), DELTA);
+        assertEquals(-2.0, evaluateEverywhere(standard, "max(min(1, 2), [-3 + 1]) - 3", Map.of()), DELTA);
+        assertEquals(4.0, evaluateEverywhere(standard, "min(x, 2 ^ 3) + 1", Map.of("x", 3.0)), DELTA);
+        assertEquals(9.0, evaluateEverywhere(standard, "abs(x - 2 * y) ^ 2", Map.of("x", 1.0, "y", 2.0)), DELTA);
+
+        // Standardkonstruktoren verwenden dieselbe Registry
+        List<Token> tokens = new ShuntingYard().convertToRPN(new Tokenizer().tokenize("sqrt(2 + 7)"));
+        assertEquals(3.0, new BytecodeCompiler().compile(tokens).evaluate(), DELTA);
+        assertEquals("2.0 7.0 + sqrt", new RpnCompiler().compile(tokens).toString());
+    }
+
+    @Test
+    void testTokenizerErkenntFunktionenUndTrennzeichen() {
+        TokenBuffer buffer = new TokenBuffer();
+        new Tokenizer().tokenize("max(maxi, -1)", buffer);
+        assertEquals(TokenBuffer.FUNCTION, buffer.type(0));
+        assertEquals(OperatorRegistry.MAX, buffer.code(0));
+        assertEquals(TokenBuffer.VARIABLE, buffer.type(2), "Nur der ganze Name ist reserviert");
+        assertEquals(-1, buffer.code(2));
+        assertEquals(TokenBuffer.SEPARATOR, buffer.type(3));
+        assertEquals(TokenBuffer.NUMBER, buffer.type(4), "Nach ',' ist '-' ein Vorzeichen");
+        assertEquals(-1.0, buffer.value(4));
+
+        List<Token> tokens = new Tokenizer().tokenize("2 * abs");
+        assertEquals(Token.Type.OPERATOR, tokens.get(1).getType());
+        assertEquals(Token.Type.FUNCTION, tokens.get(2).getType());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Eigene Einträge
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEigeneFunktionen() throws Exception {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]));
+        registry.registerFunction("clamp", 3, (a, i) -> Math.max(a[i + 1], Math.min(a[i + 2], a[i])));
+        registry.registerFunction("zehn", 0, (a, i) -> 10);
+
+        assertEquals(5.0, evaluateEverywhere(registry, "hypot(3, 4)", Map.of()), DELTA);
+        assertEquals(12.0, evaluateEverywhere(registry, "clamp(x, 0, 10) + 2", Map.of("x", 42.0)), DELTA);
+        assertEquals(25.0, evaluateEverywhere(registry, "zehn() * 2 + hypot(zehn() - 7, 4)", Map.of()), DELTA);
+
+        // Die Standard-Registry kennt die neuen Namen nicht: dort sind es Variablen
+        assertEquals(TokenBuffer.VARIABLE, typeOfFirstToken(OperatorRegistry.standard(), "hypot"));
+        assertEquals(TokenBuffer.FUNCTION, typeOfFirstToken(registry, "hypot"));
+    }
+
+    @Test
+    void testEigeneOperatoren() throws Exception {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerOperator('%', 2, true, (a, i) -> a[i] % a[i + 1]);
+        registry.registerOperator('#', 4, false, (a, i) -> a[i] * 10 + a[i + 1]);
+
+        assertEquals(9.0, evaluateEverywhere(registry, "7 + 10 % 4", Map.of()), DELTA);
+        assertEquals(0.0, evaluateEverywhere(registry, "[7 + 10] % 17 * 3", Map.of()), DELTA);
+        // Rechtsassoziativ und stärker als ^: 1 # [2 # 3] = 10 + 23
+        assertEquals(33.0, evaluateEverywhere(registry, "1 # 2 # 3", Map.of()), DELTA);
+        assertEquals(144.0, evaluateEverywhere(registry, "1 # 2 ^ 2", Map.of()), DELTA);
+        // Vorzeichen nach einem eigenen Operator
+        assertEquals(-1.0, evaluateEverywhere(registry, "x % -4", Map.of("x", -5.0)), DELTA);
+
+        assertEquals(TokenBuffer.UNKNOWN, typeOfFirstToken(OperatorRegistry.standard(), "%"));
+    }
+
+    @Test
+    void testOpcodesSindDicht() {
+        OperatorRegistry registry = new OperatorRegistry();
+        assertEquals(9, registry.size());
+        assertEquals(9, registry.registerFunction("f", 1, (a, i) -> a[i]).opcode());
+        assertEquals(10, registry.registerOperator('%', 2, true, (a, i) -> a[i] % a[i + 1]).opcode());
+        for (int opcode = 0; opcode < registry.size(); opcode++) {
+            assertEquals(opcode, registry.entry(opcode).opcode());
+            assertEquals(opcode, registry.entries().get(opcode).opcode());
+        }
+        assertEquals(OperatorRegistry.POW, registry.operator('^').opcode());
+        assertFalse(registry.operator('^').isLeftAssociative());
+        assertEquals(OperatorRegistry.SQRT, registry.function("sqrt").opcode());
+        assertEquals(OperatorRegistry.ABS, registry.function("x=abs;", 2, 5).opcode());
+        assertNull(registry.function("ab"));
+        assertNull(registry.operator('ä'));
+
+        // Viele Funktionen: die Hashtabelle wächst mit
+        for (int i = 0; i < 500; i++) {
+            registry.registerFunction("g" + i, 1, (a, j) -> a[j]);
+        }
+        assertEquals(511, registry.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(11 + i, registry.function("g" + i).opcode());
+        }
+        assertEquals(9, OperatorRegistry.standard().size(), "Eigene Registries ändern die Standard-Registry nicht");
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Fehlerfälle
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testUngueltigeRegistrierungen() {
+        OperatorRegistry registry = new OperatorRegistry();
+        OperatorRegistry.Implementation identity = (a, i) -> a[i];
+        assertThrows(IllegalStateException.class, () -> OperatorRegistry.standard().registerFunction("f", 1, identity));
+        for (String name : new String[]{"", "1a", "a-b", "NaN", "Infinity", "a b"}) {
+            assertThrows(IllegalArgumentException.class, () -> registry.registerFunction(name, 1, identity), name);
+        }
+        assertEquals("Bereits registriert: max", assertThrows(IllegalArgumentException.class,
+                () -> registry.registerFunction("max", 1, identity)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> registry.registerFunction("f", -1, identity));
+        assertThrows(IllegalArgumentException.class, () -> registry.registerFunction("f", 256, identity));
+        assertThrows(IllegalArgumentException.class, () -> registry.registerFunction("f", 1, null));
+        for (char symbol : new char[]{'(', ']', 'a', '7', ',', '.', '_', ' ', 'ä', '+'}) {
+            assertThrows(IllegalArgumentException.class, () -> registry.registerOperator(symbol, 1, true, identity),
+                    String.valueOf(symbol));
+        }
+        assertThrows(IllegalArgumentException.class, () -> registry.registerOperator('%', 0, true, identity));
+        assertEquals(9, registry.size(), "Fehlgeschlagene Registrierungen vergeben keinen Opcode");
+    }
+
+    @Test
+    void testFehlerBeiFunktionsaufrufen() {
+        Map<String, String> cases = Map.of(
+                "max(1)", "Wrong number of arguments for max: expected 2, found 1",
+                "sqrt(1, 2)", "Wrong number of arguments for sqrt: expected 1, found 2",
+                "abs()", "Wrong number of arguments for abs: expected 1, found 0",
+                "max 1", "Missing '(' after function: max",
+                "2 * sqrt", "Missing '(' after function: sqrt",
+                "1, 2", "Misplaced ','",
+                "max(1, [2, 3])", "Misplaced ','",
+                "max(1,, 2)", "Empty argument in call of max",
+                "max(, 2)", "Empty argument in call of max",
+                "max(1, )", "Empty argument in call of max");
+        Tokenizer tokenizer = new Tokenizer();
+        ShuntingYard shuntingYard = new ShuntingYard();
+        for (Map.Entry<String, String> entry : cases.entrySet()) {
+            String expression = entry.getKey();
+            Exception viaList = assertThrows(Exception.class,
+                    () -> shuntingYard.convertToRPN(tokenizer.tokenize(expression)), expression);
+            assertEquals(entry.getValue(), viaList.getMessage(), expression);
+
+            TokenBuffer infix = new TokenBuffer();
+            tokenizer.tokenize(expression, infix);
+            Exception viaBuffer = assertThrows(Exception.class,
+                    () -> shuntingYard.convertToRPN(infix, new TokenBuffer()), expression);
+            assertEquals(entry.getValue(), viaBuffer.getMessage(), expression);
+        }
+        assertThrows(Exception.class, () -> shuntingYard.convertToRPN(tokenizer.tokenize("max(1, 2")));
+    }
+
+    @Test
+    void testFehlermeldungenDerAuswertung() {
+        RpnEvaluator evaluator = new RpnEvaluator();
+        assertEquals("Zu wenige Argumente für die Funktion: max", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate(List.of("1", "max"))).getMessage());
+        assertEquals("Zu wenige Operanden für den Operator: +", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate(List.of("1", "+"))).getMessage());
+        assertEquals("Zu wenige Argumente für die Funktion: sqrt", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> new RpnCompiler().compile(List.of(new Token(Token.Type.FUNCTION, "sqrt")))).getMessage());
+        assertEquals("Unbekannte Variable: hypot", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate(List.of("3", "4", "hypot"))).getMessage());
+
+        // Eigene Implementierungen dürfen selbst Fehler melden
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerFunction("ln", 1, (a, i) -> {
+            if (a[i] <= 0) {
+                throw new RpnEvaluator.RpnEvaluationException("Logarithmus nur für positive Zahlen!");
+            }
+            return Math.log(a[i]);
+        });
+        assertEquals("Logarithmus nur für positive Zahlen!", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> new RpnEvaluator(registry).evaluate(List.of("0", "ln"))).getMessage());
+    }
+
+    // -------------------------------------------------------------------------
+    // 4. Interpreter, Bytecode und spaltenweise Auswertung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testGleichesErgebnisInAllenStufen() throws Exception {
+        Random random = new Random(23);
+        String[] functions = {"min(%s, %s)", "max(%s, %s)", "sqrt(abs(%s) + %s * 0)", "abs(%s - %s)"};
+        Tokenizer tokenizer = new Tokenizer();
+        ShuntingYard shuntingYard = new ShuntingYard();
+        RpnCompiler compiler = new RpnCompiler();
+        RpnInterpreter interpreter = new RpnInterpreter();
+        BytecodeCompiler bytecode = new BytecodeCompiler();
+        for (int run = 0; run < 200; run++) {
+            String expression = "x";
+            for (int depth = 0; depth < 4; depth++) {
+                String other = random.nextBoolean() ? "y" : String.valueOf(random.nextInt(20) - 10);
+                expression = String.format(functions[random.nextInt(functions.length)],
+                        random.nextBoolean() ? expression : other, random.nextBoolean() ? other : expression)
+                        + (random.nextBoolean() ? " * 2 - y" : "");
+            }
+            RpnProgram program = compiler.compile(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+            double[] values = Arrays.copyOf(new double[]{random.nextInt(100) - 50, random.nextDouble() * 10},
+                    program.getVariableCount());
+            assertEquals(interpreter.execute(program, values), bytecode.compile(program).evaluate(values), 0.0,
+                    expression);
+        }
+    }
+
+    @Test
+    void testEigeneFunktionenWerdenInterpretiert() throws Exception {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]));
+        RpnProgram program = new RpnCompiler(registry).compile(
+                new ShuntingYard(registry).convertToRPN(new Tokenizer(registry).tokenize("hypot(x, 4) + 1")));
+        assertEquals("x 4.0 hypot 1.0 +", program.toString());
+
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> new BytecodeCompiler().compile(program));
+        assertEquals("Eigene Funktion nicht übersetzbar: hypot", e.getMessage());
+
+        // Spaltenweise: der VectorizedEvaluator weicht auf den Interpreter aus
+        double[] output = new double[3];
+        new RpnInterpreter().executeColumns(program, new double[][]{{3, 0, -3}}, output);
+        assertArrayEquals(new double[]{6, 5, 6}, output, DELTA);
+        if (VectorizedEvaluator.isAvailable()) {
+            double[] vectorized = new double[3];
+            new VectorizedEvaluator().executeColumns(program, new double[][]{{3, 0, -3}}, vectorized);
+            assertArrayEquals(output, vectorized, 0.0);
+        }
+    }
+
+    /**
+     * Hilfsmethode: Typ des ersten Tokens eines Ausdrucks.
+     */
+    private static byte typeOfFirstToken(OperatorRegistry registry, String expression) {
+        TokenBuffer buffer = new TokenBuffer();
+        new Tokenizer(registry).tokenize(expression, buffer);
+        return buffer.type(0);
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit Tests für ParallelBatchEvaluator.
+ * Überprüft Reihenfolge, Fehler pro Ausdruck und die Wahl des Pools.
+ */
+public class ParallelBatchEvaluatorTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Hilfsmethode: erzeugt Ausdrücke, deren Ergebnis der Index ist; jeder
+     * zehnte Ausdruck teilt durch Null.
+     */
+    private List<String> expressions(int count) {
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(i % 10 == 9 ? i + " / 0" : "(" + i + " * 2 + 4) / 2 - 2");
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Ergebnisse
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testReihenfolgeUndFehlerProAusdruck() {
+        try (ParallelBatchEvaluator evaluator = new ParallelBatchEvaluator(4)) {
+            ParallelBatchEvaluator.Results results = evaluator.evaluate(expressions(10000));
+
+            assertEquals(10000, results.size());
+            assertEquals(1000, results.failureCount());
+            for (int i = 0; i < results.size(); i++) {
+                if (i % 10 == 9) {
+                    assertFalse(results.isSuccess(i));
+                    assertEquals("Division durch Null!", results.error(i));
+                } else {
+                    assertTrue(results.isSuccess(i), "Ausdruck " + i + " sollte erfolgreich sein.");
+                    assertEquals(i, results.value(i), DELTA);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGleicheErgebnisseWieSequenziell() {
+        List<String> input = Arrays.asList("3 + 4 * 2 / (1 - 5) ^ 2", "-2 ^ 2", "x + 1", "(1 + 2", "", null, "[2 + 3] * 4");
+        ParallelBatchEvaluator.Results results = new ParallelBatchEvaluator(ForkJoinPool.commonPool(), 1).evaluate(input);
+
+        assertEquals(3 + 4 * 2 / 16.0, results.value(0), DELTA);
+        assertEquals(4.0, results.value(1), DELTA);
+        assertEquals("Unbekannte Variable: x", results.error(2));
+        assertTrue(results.error(3).startsWith("Mismatched parentheses"));
+        assertFalse(results.isSuccess(4));
+        assertFalse(results.isSuccess(5));
+        assertEquals(20.0, results.value(6), DELTA);
+        assertEquals(4, results.failureCount());
+        assertThrows(IllegalStateException.class, () -> results.value(2));
+    }
+
+    @Test
+    void testLeereEingabe() {
+        assertEquals(0, new ParallelBatchEvaluator().evaluate(List.of()).size());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Pool
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEigenerPoolWirdBeendet() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (ParallelBatchEvaluator evaluator = new ParallelBatchEvaluator(pool, 16)) {
+            assertEquals(2, evaluator.getParallelism());
+            assertEquals(0, evaluator.evaluate(expressions(500)).value(0), DELTA);
+        }
+        assertFalse(pool.isShutdown(), "Ein übergebener Pool darf nicht beendet werden.");
+        pool.shutdown();
+
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBatchEvaluator(pool, 0));
+    }
+}
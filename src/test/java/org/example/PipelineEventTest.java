@@ -0,0 +1,136 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Unit Tests für die JFR-Events der Pipeline und die Einstellungsdatei
+ * rechner.jfc.
+ */
+public class PipelineEventTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Hilfsmethode: wertet die Ausdrücke mit laufender Aufzeichnung (ohne
+     * Schwellwert) aus und liefert die aufgezeichneten Events.
+     */
+    private List<RecordedEvent> record(String... expressions) throws Exception {
+        Path file = directory.resolve("test.jfr");
+        BufferPipeline pipeline = new BufferPipeline(new PipelineMetrics(false));
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] {"org.example.Tokenize", "org.example.Convert", "org.example.Evaluate"}) {
+                recording.enable(name).withThreshold(java.time.Duration.ZERO);
+            }
+            recording.start();
+            for (String expression : expressions) {
+                try {
+                    pipeline.evaluate(expression);
+                } catch (Exception e) {
+                    // Fehler werden im Event als Ergebnis aufgezeichnet
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Events
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEventsProStufe() throws Exception {
+        List<RecordedEvent> events = record("3 + 4 * [2 - (1 + 5)]");
+
+        List<RecordedEvent> tokenize = ofType(events, "org.example.Tokenize");
+        List<RecordedEvent> convert = ofType(events, "org.example.Convert");
+        List<RecordedEvent> evaluate = ofType(events, "org.example.Evaluate");
+        assertEquals(1, tokenize.size());
+        assertEquals(1, convert.size());
+        assertEquals(1, evaluate.size());
+
+        assertEquals(21, tokenize.get(0).getInt("expressionLength"));
+        assertEquals(13, tokenize.get(0).getInt("tokenCount"));
+        assertEquals("OK", tokenize.get(0).getString("outcome"));
+        // + * [ - ( + liegen gleichzeitig auf dem Stack
+        assertEquals(6, convert.get(0).getInt("maxOperatorDepth"));
+        assertEquals(9, evaluate.get(0).getInt("tokenCount"), "Die Auswertung zählt die RPN-Tokens.");
+    }
+
+    @Test
+    void testFehlerImErgebnis() throws Exception {
+        List<RecordedEvent> events = record("(1 + 2", "1 / 0");
+
+        List<RecordedEvent> convert = ofType(events, "org.example.Convert");
+        assertEquals(2, convert.size());
+        assertEquals("MISMATCHED_PARENTHESES", convert.get(0).getString("outcome"));
+        assertEquals(2, convert.get(0).getInt("maxOperatorDepth"));
+        assertEquals("OK", convert.get(1).getString("outcome"));
+
+        List<RecordedEvent> evaluate = ofType(events, "org.example.Evaluate");
+        assertEquals(1, evaluate.size(), "Nach dem Klammerfehler wird nicht ausgewertet.");
+        assertEquals("DIVISION_BY_ZERO", evaluate.get(0).getString("outcome"));
+    }
+
+    @Test
+    void testOhneAufzeichnungKeineEvents() throws Exception {
+        // Ohne laufende Aufzeichnung sind die Events ausgeschaltet
+        assertFalse(new TokenizeEvent().isEnabled());
+        assertEquals(7.0, new BufferPipeline(new PipelineMetrics(false)).evaluate("3 + 4"), 1e-9);
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Einstellungen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testEinstellungsdatei() throws Exception {
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(Objects.requireNonNull(
+                getClass().getResourceAsStream("/rechner.jfc")), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+        Map<String, String> settings = configuration.getSettings();
+        assertEquals("Rechner", configuration.getLabel());
+        for (String name : new String[] {"org.example.Tokenize", "org.example.Convert", "org.example.Evaluate"}) {
+            assertEquals("true", settings.get(name + "#enabled"), name);
+            assertEquals("1 ms", settings.get(name + "#threshold"), name);
+        }
+        assertEquals("true", settings.get("jdk.GCPhasePause#enabled"));
+        assertEquals("true", settings.get("jdk.SafepointBegin#enabled"));
+    }
+
+    @Test
+    void testMaxOperatorDepth() throws Exception {
+        TokenBuffer tokens = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        new Tokenizer().tokenize("1 + 2 + 3", tokens);
+        new ShuntingYard().convertToRPN(tokens, rpn);
+        assertEquals(1, rpn.getMaxOperatorDepth(), "Linksassoziativ: höchstens ein Operator auf dem Stack.");
+
+        new Tokenizer().tokenize("((((1))))", tokens);
+        new ShuntingYard().convertToRPN(tokens, rpn);
+        assertEquals(4, rpn.getMaxOperatorDepth());
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit Tests für PipelineMetrics, LatencyHistogram und die Messung in
+ * BufferPipeline.
+ */
+public class PipelineMetricsTest {
+
+    // -------------------------------------------------------------------------
+    // 1. Histogramm
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testHistogrammBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(1000);   // [512, 1024)
+        histogram.record(1023);
+        histogram.record(1024);   // [1024, 2048)
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(6, histogram.count());
+        assertEquals(1, histogram.bucketCount(0));
+        assertEquals(1, histogram.bucketCount(1));
+        assertEquals(2, histogram.bucketCount(10));
+        assertEquals(1, histogram.bucketCount(11));
+        assertEquals(1, histogram.bucketCount(LatencyHistogram.BUCKETS - 1), "Überlauf im letzten Bucket");
+    }
+
+    @Test
+    void testPerzentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentileNanos(0.99), "Ohne Werte");
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);      // Bucket [64, 128)
+        }
+        histogram.record(1_000_000);    // Bucket [2^19, 2^20)
+
+        assertEquals(128, histogram.percentileNanos(0.5));
+        assertEquals(128, histogram.percentileNanos(0.99));
+        assertEquals(1L << 20, histogram.percentileNanos(1.0));
+        assertEquals((99 * 100 + 1_000_000) / 100.0, histogram.meanNanos(), 1e-9);
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+    }
+
+    @Test
+    void testGleichzeitigeAufzeichnung() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.count());
+        assertEquals(4L * 9999 * 10000 / 2, histogram.totalNanos());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Fehlerarten
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testFehlerArten() {
+        assertEquals(PipelineMetrics.ErrorType.MISMATCHED_PARENTHESES,
+                PipelineMetrics.classify(new Exception("Mismatched parentheses: Missing ')'")));
+        assertEquals(PipelineMetrics.ErrorType.DIVISION_BY_ZERO,
+                PipelineMetrics.classify(new RpnEvaluator.RpnEvaluationException("Division durch Null!")));
+        assertEquals(PipelineMetrics.ErrorType.INVALID_TOKEN,
+                PipelineMetrics.classify(new Exception("Invalid token encountered: $")));
+        assertEquals(PipelineMetrics.ErrorType.UNKNOWN_VARIABLE,
+                PipelineMetrics.classify(new Exception("Unbekannte Variable: x")));
+        assertEquals(PipelineMetrics.ErrorType.MALFORMED_EXPRESSION,
+                PipelineMetrics.classify(new Exception("Zu wenige Operanden für den Operator: +")));
+        assertEquals(PipelineMetrics.ErrorType.OTHER, PipelineMetrics.classify(new NullPointerException()));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Messung in der Pipeline
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testPipelineMisstJedeStufe() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics(true);
+        BufferPipeline pipeline = new BufferPipeline(metrics);
+
+        assertEquals(14.0, pipeline.evaluate("2 * (3 + 4)"), 1e-9);
+        assertEquals(3.0, pipeline.evaluate("1 + 2"), 1e-9);
+        assertThrows(Exception.class, () -> pipeline.evaluate("(1 + 2"));
+        assertThrows(Exception.class, () -> pipeline.evaluate("1 / 0"));
+        assertThrows(Exception.class, () -> pipeline.evaluate("1 $ 2"));
+
+        assertEquals(5, metrics.getEvaluations());
+        assertEquals(5, metrics.getTokenizeCount());
+        assertEquals(3, metrics.getConvertCount(), "Klammerfehler und ungültiges Token scheitern im Shunting-Yard.");
+        assertEquals(2, metrics.getEvaluateCount());
+        assertEquals(3, metrics.getFailures());
+        assertEquals(1, metrics.getMismatchedParenthesesErrors());
+        assertEquals(1, metrics.getDivisionByZeroErrors());
+        assertEquals(1, metrics.getInvalidTokenErrors());
+        assertTrue(metrics.getTokenizeP99Micros() > 0);
+
+        metrics.reset();
+        assertEquals(0, metrics.getEvaluations());
+        assertEquals(0, metrics.getTokenizeCount());
+        assertEquals(0, metrics.getFailures());
+    }
+
+    @Test
+    void testAusgeschaltetWirdNichtsGezaehlt() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics(false);
+        BufferPipeline pipeline = new BufferPipeline(metrics);
+        pipeline.evaluate("1 + 2");
+        assertThrows(Exception.class, () -> pipeline.evaluate("1 / 0"));
+
+        assertEquals(0, metrics.getEvaluations());
+        assertEquals(0, metrics.getTokenizeCount());
+        assertEquals(0, metrics.getFailures());
+
+        metrics.setEnabled(true);
+        pipeline.evaluate("1 + 2");
+        assertEquals(1, metrics.getEvaluations());
+    }
+
+    @Test
+    void testMBean() throws Exception {
+        ObjectName name = PipelineMetrics.registerMBean();
+        assertEquals(name, PipelineMetrics.registerMBean(), "Zweite Registrierung ist unschädlich.");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+        assertEquals(PipelineMetrics.global().isEnabled(), server.getAttribute(name, "Enabled"));
+        assertNotNull(server.getAttribute(name, "EvaluateP99Micros"));
+        assertNotNull(server.getAttribute(name, "DivisionByZeroErrors"));
+    }
+}
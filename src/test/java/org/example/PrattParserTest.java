@@ -0,0 +1,205 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit Tests für PrattParser.
+ * Vergleicht Bäume und Fehlermeldungen mit Tokenizer → ShuntingYard → AstBuilder.
+ */
+public class PrattParserTest {
+
+    private final PrattParser parser = new PrattParser();
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final AstBuilder builder = new AstBuilder();
+
+    /**
+     * Hilfsmethode: Baum vollständig geklammert als Text (iterativ, auch für tiefe Bäume).
+     */
+    private static String render(AstNode root) {
+        Map<AstNode, String> text = new IdentityHashMap<>();
+        for (AstNode node : AstNode.postorder(root)) {
+            if (node.isCall()) {
+                List<String> arguments = new ArrayList<>();
+                for (AstNode argument : node.getArguments()) {
+                    arguments.add(text.get(argument));
+                }
+                text.put(node, node.getValue() + "(" + String.join(", ", arguments) + ")");
+                continue;
+            }
+            text.put(node, node.isLeaf() ? node.getValue()
+                    : "(" + text.get(node.getLeft()) + " " + node.getValue() + " " + text.get(node.getRight()) + ")");
+        }
+        return text.get(root);
+    }
+
+    /**
+     * Hilfsmethode: Ergebnis oder Fehlermeldung eines Wegs als Text.
+     */
+    private String viaPratt(String expression) {
+        try {
+            return render(parser.parse(expression));
+        } catch (Exception e) {
+            return "Fehler: " + e.getMessage();
+        }
+    }
+
+    private String viaPipeline(String expression) {
+        try {
+            return render(builder.build(shuntingYard.convertToRPN(tokenizer.tokenize(expression))));
+        } catch (Exception e) {
+            return "Fehler: " + e.getMessage();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Prioritäten und Assoziativität
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testPrioritaeten() throws Exception {
+        assertEquals("(3 + ((4 * 2) / ((1 - 5) ^ (2 ^ 3))))", render(parser.parse("3 + 4 * 2 / ( 1 - 5 ) ^ 2 ^ 3")));
+        assertEquals("((10 - 4) - 3)", render(parser.parse("10 - 4 - 3")), "Linksassoziativ");
+        assertEquals("(2 ^ (3 ^ 2))", render(parser.parse("2^3^2")), "Rechtsassoziativ");
+        assertEquals("((a + b) * c)", render(parser.parse("[a + b] * c")));
+    }
+
+    @Test
+    void testVorzeichenWieTokenizer() throws Exception {
+        assertEquals("(-2 ^ 2)", render(parser.parse("-2 ^ 2")), "Das Vorzeichen gehört zur Zahl.");
+        assertEquals("(3 - -2)", render(parser.parse("3 - -2")));
+        assertEquals("(3 - 2)", render(parser.parse("3 -2")), "Nach einer Zahl ist Minus binär.");
+        assertEquals("(2 * -.5)", render(parser.parse("2*(-.5)")));
+        assertEquals("(x_1 - 1.50)", render(parser.parse("x_1-1.50")), "Zahlentext bleibt erhalten.");
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Fehler und Sonderfälle
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testGleicheFehlermeldungen() {
+        for (String expression : new String[] {
+                "(1 + 2", "1 + 2)", "[1 + 2)", "(1 + 2]", "1 $ 2", "- x", "1 +", "+ 1", "", "()", "1 2",
+                "(1)(2)", "1 + * 2", "-", ".", "-.", "1..2", "2 ^ - 3"}) {
+            String expected = viaPipeline(expression);
+            assertTrue(expected.startsWith("Fehler: "), "Referenz sollte fehlschlagen: " + expression);
+            assertEquals(expected, viaPratt(expression), expression);
+        }
+    }
+
+    @Test
+    void testUngewoehnlicheAberGueltigeEingaben() {
+        // Die alte Pipeline akzeptiert diese Eingaben; der Parser muss dasselbe liefern
+        for (String expression : new String[] {"1 2 +", "1 (+ 2)", "3 [4 *] 2"}) {
+            assertEquals(viaPipeline(expression), viaPratt(expression), expression);
+        }
+        assertEquals("(1 + 2)", viaPratt("1 2 +"));
+    }
+
+    @Test
+    void testTiefeVerschachtelung() throws Exception {
+        int depth = 5 * PrattParser.MAX_DEPTH;
+        String nested = "(".repeat(depth) + "x" + ")".repeat(depth);
+        assertEquals("x", render(parser.parse(nested)));
+
+        StringBuilder power = new StringBuilder("2");
+        for (int i = 0; i < depth; i++) {
+            power.append(" ^ 1");
+        }
+        assertEquals(2 * depth + 1, parser.parse(power.toString()).size(), "Lange rechtsassoziative Kette");
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Differenztest
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testZufaelligeAusdrueckeWiePipeline() {
+        Random random = new Random(17);
+        String alphabet = "0123456789..+-*/^()[] xy_-";
+        List<String> mismatches = new ArrayList<>();
+        int accepted = 0;
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder expression = new StringBuilder();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                expression.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expected = viaPipeline(expression.toString());
+            if (!expected.startsWith("Fehler: ")) {
+                accepted++;
+            }
+            if (!expected.equals(viaPratt(expression.toString()))) {
+                mismatches.add(expression.toString());
+            }
+        }
+        assertEquals(List.of(), mismatches);
+        assertTrue(accepted > 500, "Der Test sollte auch viele gültige Ausdrücke enthalten: " + accepted);
+    }
+
+    @Test
+    void testFunktionsnamenWiePipeline() {
+        // Funktionsnamen sind keine Variablen, auch ohne Klammer
+        for (String expression : new String[] {"max", "max + 1", "2 * sqrt", "min(x) + 1"}) {
+            String expected = viaPipeline(expression);
+            assertTrue(expected.startsWith("Fehler: "), "Referenz sollte fehlschlagen: " + expression);
+            assertEquals(expected, viaPratt(expression), expression);
+        }
+        // Aufrufe werden zu Aufrufknoten
+        assertEquals("abs(x)", viaPratt("abs(x)"));
+        assertEquals("(max(1, (x * 2)) + sqrt(abs(-3)))", viaPratt("max(1, x * 2) + sqrt(abs(-3))"));
+        assertEquals(viaPipeline("min(x, y) ^ 2"), viaPratt("min(x, y) ^ 2"));
+
+        Random random = new Random(23);
+        String[] pieces = {"max", "min", "sqrt", "abs", "maxi", "x", "1", "2.5", "+", "*", "^", "(", ")", ",", " "};
+        List<String> mismatches = new ArrayList<>();
+        for (int n = 0; n < 5000; n++) {
+            StringBuilder expression = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int i = 0; i < length; i++) {
+                expression.append(pieces[random.nextInt(pieces.length)]);
+            }
+            if (!viaPipeline(expression.toString()).equals(viaPratt(expression.toString()))) {
+                mismatches.add(expression.toString());
+            }
+        }
+        assertEquals(List.of(), mismatches);
+    }
+
+    @Test
+    void testGenerierteAusdrueckeWiePipeline() throws Exception {
+        // Wohlgeformte Ausdrücke laufen über den schnellen Weg
+        Random random = new Random(5);
+        for (int n = 0; n < 2000; n++) {
+            String expression = randomExpression(random, 4);
+            assertEquals(viaPipeline(expression), render(parser.parse(expression)), expression);
+        }
+    }
+
+    private static String randomExpression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            switch (random.nextInt(4)) {
+                case 0: return "x";
+                case 1: return "-" + random.nextInt(10) + "." + random.nextInt(10);
+                default: return String.valueOf(random.nextInt(100));
+            }
+        }
+        String left = randomExpression(random, depth - 1);
+        String right = randomExpression(random, depth - 1);
+        String operator = String.valueOf("+-*/^".charAt(random.nextInt(5)));
+        String result = left + " " + operator + " " + right;
+        switch (random.nextInt(3)) {
+            case 0: return "(" + result + ")";
+            case 1: return "[" + result + "]";
+            default: return result;
+        }
+    }
+}
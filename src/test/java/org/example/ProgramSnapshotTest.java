@@ -0,0 +1,236 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Unit Tests für ProgramSnapshot.
+ * Prüft, dass Programme aus der eingeblendeten Datei dieselben Ergebnisse
+ * liefern wie frisch kompilierte, und dass beschädigte, fremde oder
+ * unpassende Dateien abgelehnt werden.
+ */
+public class ProgramSnapshotTest {
+
+    private static final double DELTA = 1e-9;
+
+    @TempDir
+    Path directory;
+
+    private final RpnInterpreter interpreter = new RpnInterpreter();
+
+    /**
+     * Hilfsmethode: kompiliert einen Ausdruck über die Puffer-Pipeline.
+     */
+    private RpnProgram compile(String expression, OperatorRegistry registry) throws Exception {
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        new Tokenizer(registry).tokenize(expression, infix);
+        new ShuntingYard(registry).convertToRPN(infix, rpn);
+        return new RpnCompiler(registry).compile(rpn);
+    }
+
+    private RpnProgram compile(String expression) throws Exception {
+        return compile(expression, OperatorRegistry.standard());
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Schreiben und Auswerten
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testSnapshotEvaluatesLikeCompiledPrograms() throws Exception {
+        String[] expressions = {
+                "1 + 2 * 3", "-2 ^ 2 - (4 - 6)", "[x + y] * x - 0.5", "max(a, b) / sqrt(abs(c))",
+                "1000000 * 1000000", "2 ^ 0.5", "x", "(x + 1) * (x + 1) + (x + 1)"
+        };
+        List<RpnProgram> programs = new ArrayList<>();
+        for (String expression : expressions) {
+            programs.add(compile(expression));
+        }
+        Path file = directory.resolve("formeln.rpns");
+        ProgramSnapshot.write(file, programs);
+
+        ProgramSnapshot snapshot = ProgramSnapshot.open(file);
+        assertEquals(expressions.length, snapshot.size());
+        assertEquals(Files.size(file), snapshot.byteSize());
+
+        double[] values = {3, -1.5, 7};
+        for (int i = 0; i < expressions.length; i++) {
+            RpnProgram program = programs.get(i);
+            double[] variables = Arrays.copyOf(values, program.getVariableCount());
+            double expected = interpreter.execute(program, variables);
+            assertEquals(expected, interpreter.execute(snapshot, i, variables), DELTA,
+                    "Ergebnis aus dem Snapshot für \"" + expressions[i] + "\"");
+            assertArrayEquals(program.getVariableNames(), snapshot.variableNames(i));
+            assertEquals(program.toString(), snapshot.program(i).toString(), "Geladenes Programm für " + i);
+        }
+    }
+
+    @Test
+    void testManyRandomPrograms() throws Exception {
+        Random random = new Random(7);
+        List<RpnProgram> programs = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder expression = new StringBuilder().append(random.nextInt(100));
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                expression.append(" +-*".charAt(1 + random.nextInt(3))).append(' ')
+                        .append(random.nextBoolean() ? "x" : String.valueOf(random.nextInt(1000) / 8.0));
+            }
+            programs.add(compile(expression.toString()));
+        }
+        Path file = directory.resolve("viele.rpns");
+        ProgramSnapshot.write(file, programs);
+        ProgramSnapshot snapshot = ProgramSnapshot.open(file);
+
+        double[] x = {1.25};
+        for (int i = 0; i < programs.size(); i++) {
+            double[] variables = programs.get(i).getVariableCount() == 0 ? new double[0] : x;
+            assertEquals(interpreter.execute(programs.get(i), variables), interpreter.execute(snapshot, i, variables),
+                    DELTA, "Programm " + i + ": " + programs.get(i));
+        }
+    }
+
+    @Test
+    void testDivisionByZeroAndMissingVariables() throws Exception {
+        Path file = directory.resolve("fehler.rpns");
+        ProgramSnapshot.write(file, List.of(compile("1 / (x - 1)")));
+        ProgramSnapshot snapshot = ProgramSnapshot.open(file);
+
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> interpreter.execute(snapshot, 0, new double[] {1}));
+        assertEquals("Division durch Null!", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> interpreter.execute(snapshot, 0, new double[0]));
+        assertThrows(IndexOutOfBoundsException.class, () -> interpreter.execute(snapshot, 1, new double[] {2}));
+    }
+
+    @Test
+    void testEmptySnapshot() throws Exception {
+        Path file = directory.resolve("leer.rpns");
+        ProgramSnapshot.write(file, List.of());
+        assertEquals(0, ProgramSnapshot.open(file).size());
+    }
+
+    @Test
+    void testConcurrentWritersDoNotCollide() throws Exception {
+        Path file = directory.resolve("gleichzeitig.rpns");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                List<RpnProgram> programs = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    programs.add(compile("x * " + writer));
+                }
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        ProgramSnapshot.write(file, programs);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Vollständig von genau einem Schreiber, keine temporären Dateien übrig
+        ProgramSnapshot snapshot = ProgramSnapshot.open(file);
+        assertEquals(50, snapshot.size());
+        double first = interpreter.execute(snapshot, 0, new double[] {1});
+        for (int i = 1; i < snapshot.size(); i++) {
+            assertEquals(first, interpreter.execute(snapshot, i, new double[] {1}), DELTA);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Eigene Funktionen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testCustomFunctionsNeedMatchingRegistry() throws Exception {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]));
+        Path file = directory.resolve("eigene.rpns");
+        ProgramSnapshot.write(file, List.of(compile("hypot(3, x) + max(1, 2)", registry)));
+
+        ProgramSnapshot snapshot = ProgramSnapshot.open(file, registry);
+        assertEquals(7.0, interpreter.execute(snapshot, 0, new double[] {4}), DELTA);
+
+        // Die Standard-Registry kennt hypot nicht
+        IOException e = assertThrows(IOException.class, () -> ProgramSnapshot.open(file));
+        assertTrue(e.getMessage().contains("hypot"), "Meldung sollte die Funktion nennen: " + e.getMessage());
+
+        // Dieselbe Funktion unter einem anderen Opcode passt ebenfalls nicht
+        OperatorRegistry other = new OperatorRegistry();
+        other.registerFunction("cube", 1, (a, i) -> a[i] * a[i] * a[i]);
+        other.registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]));
+        assertThrows(IOException.class, () -> ProgramSnapshot.open(file, other));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Ungültige Dateien
+    // -------------------------------------------------------------------------
+
+    /**
+     * Hilfsmethode: schreibt einen Snapshot und liefert seine Bytes.
+     */
+    private byte[] snapshotBytes() throws Exception {
+        Path file = directory.resolve("gut.rpns");
+        ProgramSnapshot.write(file, List.of(compile("1 + 2"), compile("x * 3")));
+        return Files.readAllBytes(file);
+    }
+
+    private IOException openBroken(byte[] bytes) throws IOException {
+        Path file = directory.resolve("kaputt.rpns");
+        Files.write(file, bytes);
+        return assertThrows(IOException.class, () -> ProgramSnapshot.open(file));
+    }
+
+    @Test
+    void testCorruptedBodyIsRejected() throws Exception {
+        byte[] bytes = snapshotBytes();
+        bytes[bytes.length - 3] ^= 1;
+        assertEquals("Prüfsumme des Snapshots stimmt nicht.", openBroken(bytes).getMessage());
+    }
+
+    @Test
+    void testTruncatedFileIsRejected() throws Exception {
+        byte[] bytes = snapshotBytes();
+        assertTrue(openBroken(Arrays.copyOf(bytes, bytes.length - 8)).getMessage().startsWith("Snapshot unvollständig"));
+        assertTrue(openBroken(new byte[3]).getMessage().startsWith("Kein Snapshot"));
+    }
+
+    @Test
+    void testOtherVersionIsRejected() throws Exception {
+        byte[] bytes = snapshotBytes();
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, ProgramSnapshot.VERSION + 1);
+        assertEquals("Nicht unterstützte Snapshot-Version: 2 (erwartet: 1)", openBroken(bytes).getMessage());
+    }
+
+    @Test
+    void testOtherFileIsRejected() throws Exception {
+        Path file = directory.resolve("text.rpns");
+        Files.writeString(file, "1 + 2\n3 * 4\nsqrt(16)\n1 + 2 + 3 + 4 + 5\n");
+        assertThrows(IOException.class, () -> ProgramSnapshot.open(file));
+    }
+}
@@ -0,0 +1,155 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit Tests für RpnCompiler und RpnInterpreter.
+ * Überprüft, dass das kompilierte Programm dieselben Ergebnisse und
+ * Fehlermeldungen liefert wie der RpnEvaluator.
+ */
+public class RpnCompilerTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnCompiler compiler = new RpnCompiler();
+    private final RpnInterpreter interpreter = new RpnInterpreter();
+
+    /**
+     * Hilfsmethode: Ausdruck tokenisieren, konvertieren und kompilieren.
+     */
+    private RpnProgram compile(String expression) throws Exception {
+        return compiler.compile(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+    }
+
+    /**
+     * Hilfsmethode zur Erstellung von RPN-Tokens aus Strings.
+     */
+    private List<Token> rpn(String... values) {
+        List<Token> tokens = new ArrayList<>();
+        for (String value : values) {
+            boolean operator = value.length() == 1 && "+-*/^".indexOf(value.charAt(0)) >= 0;
+            tokens.add(new Token(operator ? Token.Type.OPERATOR : Token.Type.NUMBER, value));
+        }
+        return tokens;
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Korrekte Auswertung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testBeispielAusdruck() throws Exception {
+        assertEquals(1.0, interpreter.execute(compile("3 + 4 * 2 / (1 - 5)")), DELTA);
+    }
+
+    @Test
+    void testPotenzRechtsassoziativ() throws Exception {
+        assertEquals(512.0, interpreter.execute(compile("2 ^ 3 ^ 2")), DELTA);
+        assertEquals(16.0, interpreter.execute(compile("7+(3*3)/(4-3)^2")), DELTA);
+    }
+
+    @Test
+    void testGleichesErgebnisWieRpnEvaluator() throws Exception {
+        List<String> values = List.of("3", "4", "2", "*", "1", "5", "-", "/", "+");
+        double expected = new RpnEvaluator().evaluate(values);
+        RpnProgram program = compiler.compile(rpn(values.toArray(new String[0])));
+        assertEquals(expected, interpreter.execute(program), DELTA);
+    }
+
+    @Test
+    void testKonstantenWerdenDedupliziert() throws Exception {
+        RpnProgram program = compile("2 * 2 + 2");
+        assertEquals(5, program.getInstructionCount());
+        assertEquals(1, program.getConstantCount(), "Gleiche Konstanten sollten nur einmal im Pool liegen.");
+        assertEquals(2, program.getMaxStackDepth());
+    }
+
+    @Test
+    void testProgrammMehrfachAusfuehrbar() throws Exception {
+        RpnProgram program = compile("[1.5 + 2.5] * -2");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(-8.0, interpreter.execute(program), DELTA);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Fehlerfälle
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testDivisionDurchNull() throws Exception {
+        RpnProgram program = compile("5 / (2 - 2)");
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> interpreter.execute(program));
+        assertTrue(exception.getMessage().contains("Division durch Null"));
+    }
+
+    @Test
+    void testZuWenigeOperanden() {
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> compiler.compile(rpn("5", "+")));
+        assertTrue(exception.getMessage().contains("Zu wenige Operanden"));
+    }
+
+    @Test
+    void testZuVieleOperanden() {
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> compiler.compile(rpn("1", "2", "3")));
+        assertTrue(exception.getMessage().contains("Es verbleiben 3 Elemente"));
+    }
+
+    @Test
+    void testLeererAusdruck() {
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> compiler.compile(List.of()));
+        assertTrue(exception.getMessage().contains("Stack am Ende leer"));
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Variablen und spaltenweise Auswertung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testVariablenSlots() throws Exception {
+        RpnProgram program = compile("b * a + b");
+        assertArrayEquals(new String[] {"b", "a"}, program.getVariableNames(),
+                "Slots sollten in der Reihenfolge des ersten Auftretens vergeben werden.");
+        assertEquals(0, program.variableIndex("b"));
+        assertEquals(-1, program.variableIndex("c"));
+        assertEquals(16.0, interpreter.execute(program, new double[] {2, 7}), DELTA);
+    }
+
+    @Test
+    void testFehlendeVariablenwerte() throws Exception {
+        RpnProgram program = compile("x + 1");
+        assertThrows(IllegalArgumentException.class, () -> interpreter.execute(program));
+    }
+
+    @Test
+    void testSpaltenweiseAuswertung() throws Exception {
+        RpnProgram program = compile("preis * (1 + steuer) - rabatt");
+        double[] preis = {100, 200, 50};
+        double[] steuer = {0.19, 0.07, 0};
+        double[] rabatt = {10, 0, 5};
+        double[][] columns = program.bindColumns(Map.of("preis", preis, "steuer", steuer, "rabatt", rabatt));
+
+        double[] output = new double[3];
+        interpreter.executeColumns(program, columns, output);
+        assertArrayEquals(new double[] {109, 214, 45}, output, DELTA);
+    }
+
+    @Test
+    void testSpaltenweiseAuswertungMitDivisionDurchNull() throws Exception {
+        RpnProgram program = compile("1 / x");
+        double[] output = new double[3];
+        assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> interpreter.executeColumns(program, new double[][] {{1, 0, 2}}, output));
+    }
+}
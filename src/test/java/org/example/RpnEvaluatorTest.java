@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit Tests für die Klasse RpnEvaluator (Teilaufgabe 3.3).
@@ -61,6 +62,11 @@ class TestRpnEvaluator {
         assertEquals(2.5, evaluator.evaluate(Arrays.asList("10", "4", "/")), DELTA, "Division fehlerhaft.");
     }
 
+    @Test
+    void testOperatorPotenz() {
+        assertEquals(512.0, evaluator.evaluate(Arrays.asList("2", "3", "2", "^", "^")), DELTA, "Potenz fehlerhaft.");
+    }
+
     // --- Verhalten bei Division durch 0 (Exception oder Fehlermeldung) ---
 
     @Test
@@ -116,4 +122,19 @@ class TestRpnEvaluator {
 
         assertTrue(exception.getMessage().contains("Ungültiges Token") || exception.getMessage().contains("$"), "Fehlermeldung sollte auf das ungültige Token hinweisen.");
     }
-}
\ No newline at end of file
+
+    // --- Variablen ---
+
+    @Test
+    void testVariablen() {
+        List<String> rpn = Arrays.asList("x", "2", "*", "y", "+");
+        assertEquals(11.0, evaluator.evaluate(rpn, Map.of("x", 4.0, "y", 3.0)), DELTA);
+    }
+
+    @Test
+    void testUnbekannteVariable() {
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate(Arrays.asList("x", "1", "+")));
+        assertTrue(exception.getMessage().contains("Unbekannte Variable: x"));
+    }
+}
@@ -204,4 +204,20 @@ public class ShuntingYardTest {
 
         assertTrue(exception.getMessage().contains("Invalid token encountered: $"), "Fehlermeldung sollte das ungültige Token nennen.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Prüft, dass Variablen wie Zahlen direkt in die Ausgabe gehen.
+     * a + b * ( c - 1 ) -> a b c 1 - * +
+     */
+    @Test
+    void testVariablesAreOperands() throws Exception {
+        String[] values = {"a", "+", "b", "*", "(", "c", "-", "1", ")"};
+        Token.Type[] types = {
+            Token.Type.VARIABLE, Token.Type.OPERATOR, Token.Type.VARIABLE, Token.Type.OPERATOR,
+            Token.Type.LPARENNORMAL, Token.Type.VARIABLE, Token.Type.OPERATOR, Token.Type.NUMBER,
+            Token.Type.RPARENNORMAL
+        };
+        List<Token> rpn = shuntingYard.convertToRPN(createInfixTokens(values, types));
+        assertEquals("a b c 1 - * +", tokensToRpnString(rpn));
+    }
+}
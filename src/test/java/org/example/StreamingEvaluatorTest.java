@@ -0,0 +1,202 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit Tests für StreamingEvaluator.
+ * Vergleicht Ergebnisse und Fehlermeldungen mit Tokenizer → ShuntingYard → RpnEvaluator.
+ */
+public class StreamingEvaluatorTest {
+
+    private final StreamingEvaluator evaluator = new StreamingEvaluator();
+    private final BufferPipeline pipeline = new BufferPipeline();
+
+    /**
+     * Hilfsmethode: Ergebnis oder Fehlermeldung eines Wegs als Text.
+     */
+    private String viaStreaming(String expression, Map<String, Double> variables) {
+        try {
+            return String.valueOf(evaluator.evaluate(expression, variables));
+        } catch (Exception e) {
+            return "Fehler: " + e.getMessage();
+        }
+    }
+
+    private String viaPipeline(String expression, Map<String, Double> variables) {
+        try {
+            return String.valueOf(pipeline.evaluate(expression, variables));
+        } catch (Exception e) {
+            return "Fehler: " + e.getMessage();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Auswertung
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testPrioritaetenUndKlammern() throws Exception {
+        assertEquals(3.0001220703125, evaluator.evaluate("3 + 4 * 2 / ( 1 - 5 ) ^ 2 ^ 3"), 1e-12);
+        assertEquals(3.0, evaluator.evaluate("10 - 4 - 3"), "Linksassoziativ");
+        assertEquals(512.0, evaluator.evaluate("2^3^2"), "Rechtsassoziativ");
+        assertEquals(-18.0, evaluator.evaluate("3 * [-5 + (2 - 3)]"));
+    }
+
+    @Test
+    void testVorzeichenWieTokenizer() throws Exception {
+        assertEquals(4.0, evaluator.evaluate("-2 ^ 2"), "Das Vorzeichen gehört zur Zahl.");
+        assertEquals(5.0, evaluator.evaluate("3 - -2"));
+        assertEquals(1.0, evaluator.evaluate("3 -2"), "Nach einer Zahl ist Minus binär.");
+        assertEquals(-1.0, evaluator.evaluate("2*(-.5)"));
+        assertEquals(0.1 + 0.2, evaluator.evaluate("0.1 + 0.2"), "Zahlen wie im Tokenizer gerundet");
+    }
+
+    @Test
+    void testVariablen() throws Exception {
+        assertEquals(7.0, evaluator.evaluate("x * 2 + y_1", Map.of("x", 3.0, "y_1", 1.0)));
+        assertTrue(Double.isNaN(evaluator.evaluate("NaN + 1")));
+        RpnEvaluator.RpnEvaluationException e = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> evaluator.evaluate("x + 1"));
+        assertEquals("Unbekannte Variable: x", e.getMessage());
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Fehler in derselben Reihenfolge wie die Pipeline
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testKlammerfehlerVorAuswertungsfehler() {
+        // Die Pipeline konvertiert erst vollständig und wertet dann aus
+        assertEquals("Fehler: Mismatched parentheses: Missing '('", viaStreaming("1 / 0 + 2)", Collections.emptyMap()));
+        assertEquals("Fehler: Invalid token encountered: Invalid char: $", viaStreaming("x + 1 $", Collections.emptyMap()));
+        assertEquals("Fehler: Division durch Null!", viaStreaming("1 / 0 + x", Collections.emptyMap()),
+                "Der erste Auswertungsfehler gewinnt.");
+    }
+
+    @Test
+    void testGleicheFehlermeldungen() {
+        for (String expression : new String[] {
+                "(1 + 2", "1 + 2)", "[1 + 2)", "(1 + 2]", "1 $ 2", "- x", "1 +", "+ 1", "", "()", "1 2",
+                "(1)(2)", "1 + * 2", "-", ".", "-.", "1..2", "2 ^ - 3", "1 / (2 - 2)", "1 2 +", "٣ + 1"}) {
+            assertEquals(viaPipeline(expression, Collections.emptyMap()),
+                    viaStreaming(expression, Collections.emptyMap()), expression);
+        }
+    }
+
+    @Test
+    void testFunktionenWiePipeline() throws Exception {
+        assertEquals(3.0, evaluator.evaluate("sqrt(4)+1"));
+        assertEquals(2.0, evaluator.evaluate("max(1,2)"));
+        assertEquals(3.0, evaluator.evaluate("min(abs(-3), max(-1, -2 ^ 2))"), "-2 ^ 2 ist 4");
+        for (String expression : new String[] {
+                "x,1", "max", "max 1", "max + 1", "max(1)", "max(1,,2)", "max(,1)", "max(1,)", "sqrt()",
+                "abs(1, 2)", "min(1, 2", "max[1, 2]", "(1, 2)", "max(1, (2, 3))", "sqrt(1 / 0)", "max(1 +, 2)"}) {
+            assertEquals(viaPipeline(expression, Map.of("x", 1.0)), viaStreaming(expression, Map.of("x", 1.0)), expression);
+        }
+    }
+
+    @Test
+    void testEigeneFunktionenUndOperatoren() throws Exception {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.registerFunction("hypot", 2, (a, i) -> Math.hypot(a[i], a[i + 1]));
+        registry.registerFunction("zehn", 0, (a, i) -> 10);
+        registry.registerOperator('%', 3, true, (a, i) -> a[i] % a[i + 1]);
+        StreamingEvaluator custom = new StreamingEvaluator(registry);
+        assertEquals(5.0, custom.evaluate("hypot(3, 4)"));
+        assertEquals(21.0, custom.evaluate("zehn() * 2 + 7 % 3"));
+        assertThrows(Exception.class, () -> evaluator.evaluate("7 % 3"), "Die Standard-Registry kennt % nicht");
+    }
+
+    @Test
+    void testWiederverwendungNachFehler() throws Exception {
+        assertThrows(Exception.class, () -> evaluator.evaluate("(1 + 2"));
+        assertThrows(Exception.class, () -> evaluator.evaluate("1 / 0"));
+        assertEquals(3.0, evaluator.evaluate("1 + 2"), "Kein Zustand aus dem vorigen Aufruf");
+    }
+
+    // -------------------------------------------------------------------------
+    // 3. Differenztest
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testZufaelligeAusdrueckeWiePipeline() {
+        Random random = new Random(18);
+        String alphabet = "0123456789..+-*/^()[] xy_-0";
+        Map<String, Double> variables = Map.of("x", 2.5, "y", 0.0);
+        List<String> mismatches = new ArrayList<>();
+        int accepted = 0;
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder expression = new StringBuilder();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                expression.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expected = viaPipeline(expression.toString(), variables);
+            if (!expected.startsWith("Fehler: ")) {
+                accepted++;
+            }
+            if (!expected.equals(viaStreaming(expression.toString(), variables))) {
+                mismatches.add(expression.toString());
+            }
+        }
+        assertEquals(List.of(), mismatches);
+        assertTrue(accepted > 500, "Der Test sollte auch viele gültige Ausdrücke enthalten: " + accepted);
+    }
+
+    @Test
+    void testZufaelligeFunktionsaufrufeWiePipeline() {
+        // Gültige Aufrufe, die Hälfte davon an einer Stelle verfälscht
+        Random random = new Random(19);
+        String[] pieces = {"max", "sqrt", "x", "1", "-", "/", "(", ")", "]", ",", ", ,"};
+        Map<String, Double> variables = Map.of("x", 2.5, "y", 0.0);
+        List<String> mismatches = new ArrayList<>();
+        int accepted = 0;
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder expression = new StringBuilder(randomCall(random, 3));
+            if (random.nextBoolean()) {
+                int position = random.nextInt(expression.length() + 1);
+                if (random.nextBoolean() && position < expression.length()) {
+                    expression.deleteCharAt(position);
+                } else {
+                    expression.insert(position, pieces[random.nextInt(pieces.length)]);
+                }
+            }
+            String expected = viaPipeline(expression.toString(), variables);
+            if (!expected.startsWith("Fehler: ")) {
+                accepted++;
+            }
+            if (!expected.equals(viaStreaming(expression.toString(), variables))) {
+                mismatches.add(expression.toString());
+            }
+        }
+        assertEquals(List.of(), mismatches);
+        assertTrue(accepted > 5000, "Der Test sollte auch viele gültige Aufrufe enthalten: " + accepted);
+    }
+
+    private static String randomCall(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            switch (random.nextInt(4)) {
+                case 0: return "x";
+                case 1: return "y";
+                case 2: return "-" + random.nextInt(10);
+                default: return String.valueOf(random.nextInt(100));
+            }
+        }
+        String left = randomCall(random, depth - 1);
+        String right = randomCall(random, depth - 1);
+        switch (random.nextInt(6)) {
+            case 0: return "max(" + left + ", " + right + ")";
+            case 1: return "min(" + left + "," + right + ")";
+            case 2: return "sqrt(" + left + ")";
+            case 3: return "abs([" + left + " - " + right + "])";
+            default: return left + " " + "+-*/^".charAt(random.nextInt(5)) + " " + right;
+        }
+    }
+}
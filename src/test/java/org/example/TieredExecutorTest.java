@@ -0,0 +1,178 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit Tests für den TieredExecutor.
+ * Überprüft die Zähler, die Hochstufung und dass beide Stufen dieselben
+ * Ergebnisse und Fehlermeldungen liefern.
+ */
+public class TieredExecutorTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Hilfsmethode: Executor, der synchron im aufrufenden Thread übersetzt.
+     */
+    private TieredExecutor synchronous(int invocations, long loops) {
+        return new TieredExecutor(invocations, loops, Runnable::run);
+    }
+
+    // -------------------------------------------------------------------------
+    // 1. Stufen und Schwellen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testStartetInterpretiert() throws Exception {
+        TieredExecutor executor = synchronous(3, 1000);
+        assertNull(executor.status("1 + 2"), "Unbekannte Ausdrücke sollten keinen Zustand haben.");
+
+        assertEquals(3.0, executor.evaluate("1 + 2"), DELTA);
+        TieredExecutor.Status status = executor.status("1 + 2");
+        assertEquals(TieredExecutor.Tier.INTERPRETED, status.tier());
+        assertEquals(1, status.invocations());
+        assertFalse(status.promotionRequested());
+        assertEquals(-1, status.promotionNanos());
+    }
+
+    @Test
+    void testHochstufungNachAufrufen() throws Exception {
+        TieredExecutor executor = synchronous(3, 1000);
+        for (int i = 0; i < 2; i++) {
+            executor.evaluate("7+(3*3)/(4-3)^2");
+        }
+        assertEquals(TieredExecutor.Tier.INTERPRETED, executor.status("7+(3*3)/(4-3)^2").tier());
+
+        // Der dritte Aufruf fordert die Übersetzung an
+        assertEquals(16.0, executor.evaluate("7+(3*3)/(4-3)^2"), DELTA);
+        TieredExecutor.Status status = executor.status("7+(3*3)/(4-3)^2");
+        assertEquals(TieredExecutor.Tier.BYTECODE, status.tier());
+        assertTrue(status.promotionNanos() >= 0, "Die Dauer der Übersetzung sollte gemessen werden.");
+        assertEquals(16.0, executor.evaluate("7+(3*3)/(4-3)^2"), DELTA);
+    }
+
+    @Test
+    void testHochstufungNachSchleifendurchlaeufen() throws Exception {
+        TieredExecutor executor = synchronous(1000, 100);
+        double[] x = new double[60];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+        }
+        double[] output = new double[x.length];
+
+        executor.evaluateColumns("x * 2 + 1", Map.of("x", x), output);
+        assertEquals(TieredExecutor.Tier.INTERPRETED, executor.status("x * 2 + 1").tier());
+        assertEquals(60, executor.status("x * 2 + 1").loopIterations());
+
+        executor.evaluateColumns("x * 2 + 1", Map.of("x", x), output);
+        assertEquals(TieredExecutor.Tier.BYTECODE, executor.status("x * 2 + 1").tier());
+        assertEquals(119.0, output[59], DELTA);
+    }
+
+    @Test
+    void testHochstufungImHintergrund() throws Exception {
+        try (TieredExecutor executor = new TieredExecutor(1, 1)) {
+            executor.evaluate("2 * x", Map.of("x", 4.0));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.status("2 * x").tier() != TieredExecutor.Tier.BYTECODE && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(TieredExecutor.Tier.BYTECODE, executor.status("2 * x").tier());
+            assertEquals(8.0, executor.evaluate("2 * x", Map.of("x", 4.0)), DELTA);
+            assertEquals(1, executor.statuses().size());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Gleiches Verhalten in beiden Stufen
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testGleicheErgebnisseInBeidenStufen() throws Exception {
+        TieredExecutor executor = synchronous(2, 1000);
+        String expression = "(a - 2) / [b + c] * 1.5 + a * b - c / 4";
+        Map<String, Double> variables = Map.of("a", 7.0, "b", -3.5, "c", 0.25);
+
+        double interpreted = executor.evaluate(expression, variables);
+        executor.evaluate(expression, variables);
+        assertEquals(TieredExecutor.Tier.BYTECODE, executor.status(expression).tier());
+        assertEquals(interpreted, executor.evaluate(expression, variables), 0.0);
+    }
+
+    @Test
+    void testGleicheFehlermeldungenInBeidenStufen() throws Exception {
+        TieredExecutor executor = synchronous(1, 1000);
+        Exception interpreted = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> executor.evaluate("5 / x", Map.of("x", 0.0)));
+        assertEquals(TieredExecutor.Tier.BYTECODE, executor.status("5 / x").tier());
+        Exception compiled = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> executor.evaluate("5 / x", Map.of("x", 0.0)));
+        assertEquals(interpreted.getMessage(), compiled.getMessage());
+
+        compiled = assertThrows(RpnEvaluator.RpnEvaluationException.class, () -> executor.evaluate("5 / x"));
+        assertEquals("Unbekannte Variable: x", compiled.getMessage());
+    }
+
+    @Test
+    void testFehlendeVariableErstBeimErreichen() throws Exception {
+        TieredExecutor executor = synchronous(1, 1);
+        for (String expression : new String[] {"1/0 + x", "x + 1/0", "NaN * 2 + 1/0 + x"}) {
+            Exception interpreted = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                    () -> executor.evaluate(expression));
+            assertEquals(TieredExecutor.Tier.BYTECODE, executor.status(expression).tier(), expression);
+            Exception compiled = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                    () -> executor.evaluate(expression));
+            assertEquals(interpreted.getMessage(), compiled.getMessage(), expression);
+
+            Exception columns = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                    () -> executor.evaluateColumns(expression, Map.of(), new double[3]));
+            assertEquals(interpreted.getMessage(), columns.getMessage(), expression);
+        }
+        assertEquals("Division durch Null!", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> executor.evaluate("1/0 + x", Map.of("y", 1.0))).getMessage());
+        assertEquals("Unbekannte Variable: x", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> executor.evaluate("x + 1/0", Map.of("y", 1.0))).getMessage());
+        // "Infinity" ist keine fehlende Variable: erst interpretiert, dann übersetzt
+        assertEquals(Double.POSITIVE_INFINITY, executor.evaluate("Infinity + x", Map.of("x", 1.0)));
+        assertEquals(Double.POSITIVE_INFINITY, executor.evaluate("Infinity + x", Map.of("x", 1.0)));
+        assertEquals(TieredExecutor.Tier.BYTECODE, executor.status("Infinity + x").tier());
+    }
+
+    @Test
+    void testFehlendeVariableNachHochstufungImHintergrund() throws Exception {
+        try (TieredExecutor executor = new TieredExecutor(1, 1)) {
+            assertEquals("Division durch Null!", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                    () -> executor.evaluate("1/0 + x")).getMessage());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.status("1/0 + x").tier() != TieredExecutor.Tier.BYTECODE && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(TieredExecutor.Tier.BYTECODE, executor.status("1/0 + x").tier());
+            assertEquals("Division durch Null!", assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                    () -> executor.evaluate("1/0 + x")).getMessage());
+        }
+    }
+
+    @Test
+    void testUngueltigerAusdruckBleibtInterpretiert() throws Exception {
+        TieredExecutor executor = synchronous(1, 1000);
+        Exception exception = assertThrows(RpnEvaluator.RpnEvaluationException.class, () -> executor.evaluate("1 2"));
+        assertTrue(exception.getMessage().contains("Es verbleiben 2 Elemente"));
+
+        TieredExecutor.Status status = executor.status("1 2");
+        assertEquals(TieredExecutor.Tier.INTERPRETED, status.tier());
+        assertNotNull(status.promotionFailure(), "Die fehlgeschlagene Übersetzung sollte vermerkt werden.");
+        assertThrows(RpnEvaluator.RpnEvaluationException.class, () -> executor.evaluate("1 2"));
+    }
+
+    @Test
+    void testSyntaxfehlerWerdenNichtGemerkt() {
+        TieredExecutor executor = synchronous(1, 1000);
+        assertThrows(Exception.class, () -> executor.evaluate("(1 + 2"));
+        assertNull(executor.status("(1 + 2"));
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Unit Tests für den TokenBuffer-Modus von Tokenizer und ShuntingYard.
+ * Überprüft, dass der Puffer-Modus dieselben Tokens, dieselbe RPN-Ausgabe und
+ * dieselben Fehlermeldungen liefert wie der Listen-Modus.
+ */
+public class TokenBufferTest {
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+
+    private static final String[] EXPRESSIONS = {
+        "3 + 4 * 2 / (1 - 5)",
+        "7+(3*3)/(4-3)^2",
+        "1 - -5 + (-3.2)",
+        "[(4 + 2) ^ 2] / 3",
+        "2 ^ 3 ^ 2",
+        "0.1 + 123456789.123456789 * -0",
+        "1 + . + 2",
+        "1 + 2$",
+        "1 + -",
+    };
+
+    private static final String[] INVALID = {
+        "1 + (2 * 3", "[2 + 3 * 5", "1 + [2)", "1 + (2]", "1 + 2)", "1 $ 2", "1 + . + 2",
+    };
+
+    // -------------------------------------------------------------------------
+    // 1. Gleichwertigkeit mit dem Listen-Modus
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testTokenizeMatchesListMode() {
+        TokenBuffer buffer = new TokenBuffer(1);
+        for (String expression : EXPRESSIONS) {
+            tokenizer.tokenize(expression, buffer);
+            List<Token> expected = tokenizer.tokenize(expression);
+            assertEquals(expected.size(), buffer.size(), expression);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getType(), TokenBuffer.toType(buffer.type(i)), expression);
+                assertEquals(expected.get(i).getValue(), buffer.text(i), expression);
+            }
+        }
+    }
+
+    @Test
+    void testNumbersArePreParsed() {
+        TokenBuffer buffer = new TokenBuffer();
+        tokenizer.tokenize("-3.25 * 0.1 + 123456789.123456789", buffer);
+        assertEquals(-3.25, buffer.value(0));
+        assertEquals(0.1, buffer.value(2));
+        assertEquals(123456789.123456789, buffer.value(4), "Lange Zahlen müssen korrekt gerundet werden.");
+        assertEquals(0, buffer.start(0));
+        assertEquals(5, buffer.end(0));
+    }
+
+    @Test
+    void testConvertMatchesListMode() throws Exception {
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        for (String expression : new String[] {"3 + 4 * 2 / (1 - 5)", "2 ^ 3 ^ 2", "[(4 + 2) ^ 2] / 3", "1 - 2 + 3"}) {
+            tokenizer.tokenize(expression, infix);
+            shuntingYard.convertToRPN(infix, rpn);
+            List<Token> expected = shuntingYard.convertToRPN(tokenizer.tokenize(expression));
+            assertEquals(expected.toString().replaceAll("[\\[\\],]", ""), rpn.toString(), expression);
+        }
+    }
+
+    @Test
+    void testErrorMessagesMatchListMode() {
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        for (String expression : INVALID) {
+            Exception expected = assertThrows(Exception.class,
+                    () -> shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+            tokenizer.tokenize(expression, infix);
+            Exception actual = assertThrows(Exception.class, () -> shuntingYard.convertToRPN(infix, rpn));
+            assertEquals(expected.getMessage(), actual.getMessage(), expression);
+        }
+    }
+
+    @Test
+    void testCompileFromBuffer() throws Exception {
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        tokenizer.tokenize("7+(3*3)/(4-3)^2", infix);
+        shuntingYard.convertToRPN(infix, rpn);
+        assertEquals(16.0, new RpnInterpreter().execute(new RpnCompiler().compile(rpn)), 1e-9);
+    }
+
+    // -------------------------------------------------------------------------
+    // 2. Keine Allokation bei warmem Puffer
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testWarmBufferDoesNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return; // Messung auf dieser JVM nicht verfügbar
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().threadId();
+
+        String expression = "3 + 4 * 2 / (1 - 5) ^ [2.5 - -1]";
+        TokenBuffer infix = new TokenBuffer();
+        TokenBuffer rpn = new TokenBuffer();
+        for (int i = 0; i < 10_000; i++) { // Aufwärmen
+            tokenizer.tokenize(expression, infix);
+            shuntingYard.convertToRPN(infix, rpn);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            tokenizer.tokenize(expression, infix);
+            shuntingYard.convertToRPN(infix, rpn);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Kleine Toleranz für die Messung selbst
+        assertTrue(allocated < 1024, "Tokenisieren und Konvertieren sollte nicht allokieren, war: " + allocated + " Bytes");
+    }
+}
@@ -165,4 +165,21 @@ public class TokenizerTest {
         assertEquals(List.of("1", "+", "Invalid number"), getValues(tokens));
         assertEquals(Token.Type.UNKNOWN, tokens.get(2).getType());
     }
-}
\ No newline at end of file
+
+    // -------------------------------------------------------------------------
+    // 4. Variablen
+    // -------------------------------------------------------------------------
+
+    /**
+     * Testet die Erkennung von Variablennamen und das binäre Minus danach.
+     * preis_netto * 1.19 - x2
+     */
+    @Test
+    void testVariables() {
+        List<Token> tokens = tokenizer.tokenize("preis_netto * 1.19 - x2");
+
+        assertEquals(List.of("preis_netto", "*", "1.19", "-", "x2"), getValues(tokens));
+        assertEquals(List.of(Token.Type.VARIABLE, Token.Type.OPERATOR, Token.Type.NUMBER,
+                Token.Type.OPERATOR, Token.Type.VARIABLE), getTypes(tokens));
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Unit Tests für den VectorizedEvaluator.
+ * Vergleicht die SIMD-Auswertung zeilenweise mit dem skalaren RpnInterpreter,
+ * auch für Blockgrößen, die nicht durch die Vektorlänge teilbar sind.
+ */
+public class VectorizedEvaluatorTest {
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ShuntingYard shuntingYard = new ShuntingYard();
+    private final RpnCompiler compiler = new RpnCompiler();
+
+    private RpnProgram compile(String expression) throws Exception {
+        return compiler.compile(shuntingYard.convertToRPN(tokenizer.tokenize(expression)));
+    }
+
+    private double[][] randomColumns(int count, int rows, long seed) {
+        Random random = new Random(seed);
+        double[][] columns = new double[count][rows];
+        for (double[] column : columns) {
+            for (int i = 0; i < rows; i++) {
+                column[i] = 1 + random.nextDouble() * 10; // nie 0, damit Divisionen gültig bleiben
+            }
+        }
+        return columns;
+    }
+
+    @Test
+    void testMatchesScalarInterpreter() throws Exception {
+        assertTrue(VectorizedEvaluator.isAvailable(), "Tests laufen mit --add-modules jdk.incubator.vector");
+        String[] formulas = {
+            "a + b * c",
+            "(a - 2) / [b + c] ^ 2",
+            "2 * 3 + a",
+            "7 + (3 * 3) / (4 - 3) ^ 2",
+            "a / 2 - 1.5 * b + c * c * c",
+        };
+        VectorizedEvaluator vectorized = new VectorizedEvaluator();
+        RpnInterpreter interpreter = new RpnInterpreter();
+        for (String formula : formulas) {
+            RpnProgram program = compile(formula);
+            for (int rows : new int[] {1, 3, 16, 17, 1023, 1025, 5000}) {
+                double[][] all = randomColumns(3, rows, rows);
+                double[][] columns = new double[program.getVariableCount()][];
+                for (int v = 0; v < columns.length; v++) {
+                    columns[v] = all[program.getVariableNames()[v].charAt(0) - 'a'];
+                }
+                double[] expected = new double[rows];
+                double[] actual = new double[rows];
+                interpreter.executeColumns(program, columns, expected);
+                vectorized.executeColumns(program, columns, actual);
+                for (int i = 0; i < rows; i++) {
+                    assertEquals(expected[i], actual[i], Math.ulp(expected[i]) * 4, formula + " in Zeile " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDivisionDurchNull() throws Exception {
+        RpnProgram program = compile("1 / x");
+        double[] x = new double[100];
+        java.util.Arrays.fill(x, 1);
+        x[97] = 0; // liegt im skalaren Rest
+        RpnEvaluator.RpnEvaluationException exception = assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> new VectorizedEvaluator().executeColumns(program, new double[][] {x}, new double[100]));
+        assertTrue(exception.getMessage().contains("Division durch Null"));
+    }
+
+    @Test
+    void testKonstanterDivisorNull() throws Exception {
+        RpnProgram program = compile("x / (2 - 2)");
+        assertThrows(RpnEvaluator.RpnEvaluationException.class,
+                () -> new VectorizedEvaluator().executeColumns(program, new double[][] {{1, 2}}, new double[2]));
+    }
+}